@@ -0,0 +1,76 @@
+package com.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class configures the pool on which passwords are hashed and verified.
+ * <p>
+ * BCrypt with a strength of 12 keeps a core busy for about 250 ms per password, so logins and registrations run
+ * on a fixed number of threads instead of on Tomcat's request threads, and only a bounded number of them may wait
+ * for a thread. Further requests are rejected at once rather than queued behind a burst of logins.
+ * <p>
+ * Only the PasswordEncoder runs on that pool. A registration stores the new user on a separate pool once its
+ * password has been hashed, so that the hashing threads never wait for the database.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * This method creates the pool on which PasswordHashingService runs hashing work.
+     * Process:
+     * - The pool has a fixed number of threads, by default one per available processor, since the work is CPU-bound.
+     * - Waiting tasks are held in a bounded queue; a task submitted while the queue is full is rejected with a
+     * RejectedExecutionException.
+     * - The threads are daemon threads so that they never keep the application from stopping.
+     *
+     * @param threads       The number of hashing threads, or 0 for one per available processor.
+     * @param queueCapacity The number of tasks that may wait for a hashing thread.
+     * @return The pool, which is shut down with the application context.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor(
+            @Value("${password-hashing.threads}") int threads,
+            @Value("${password-hashing.queue-capacity}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * This method creates the pool on which a registration stores the new user after its password has been hashed.
+     * Process:
+     * - The pool has a fixed number of threads, which wait for the database rather than use the CPU.
+     * - Its queue is not bounded, as tasks only reach it at the rate at which the password-hashing pool, which is
+     * bounded, completes them.
+     * - The threads are daemon threads so that they never keep the application from stopping.
+     *
+     * @param threads The number of threads storing users.
+     * @return The pool, which is shut down with the application context.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor userStoreExecutor(@Value("${password-hashing.store-threads}") int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "user-store-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+    }
+}
@@ -3,8 +3,6 @@ package com.example.config;
 import com.example.security.JwtConfigure;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -88,23 +86,4 @@ public class WebSecurityConfig {
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder(12);
     }
-
-    /**
-     * Exposes the default AuthenticationManager as a Spring bean.
-     * <p>
-     * This method is used to create and provide an instance of AuthenticationManager,
-     * which is a fundamental part of Spring Security's authentication system.
-     * The AuthenticationManager is responsible for processing authentication requests.
-     * This method allows for the AuthenticationManager to be injected and managed by Spring,
-     * making it available for use throughout the application where authentication operations are required.
-     *
-     * @param authenticationConfiguration The AuthenticationConfiguration used to access the default AuthenticationManager.
-     * @return The default AuthenticationManager instance provided by the framework.
-     * @throws Exception If an error occurs during the retrieval of the AuthenticationManager.
-     */
-    @Bean
-    public AuthenticationManager authenticationManagerBean(AuthenticationConfiguration authenticationConfiguration)
-            throws Exception {
-        return authenticationConfiguration.getAuthenticationManager();
-    }
 }
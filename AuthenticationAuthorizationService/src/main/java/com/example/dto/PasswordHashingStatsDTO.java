@@ -0,0 +1,22 @@
+package com.example.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for the state of the password-hashing pool: its number of threads and of busy
+ * threads, the number of tasks waiting in its queue and the capacity of the queue, the number of tasks completed
+ * and rejected so far, and the average and maximum time in milliseconds that completed tasks waited in the queue
+ * and took to run.
+ */
+@Data
+public class PasswordHashingStatsDTO {
+    private int threads;
+    private int activeThreads;
+    private int queueDepth;
+    private int queueCapacity;
+    private long completedTasks;
+    private long rejectedTasks;
+    private double averageWaitMillis;
+    private double averageHashMillis;
+    private double maxHashMillis;
+}
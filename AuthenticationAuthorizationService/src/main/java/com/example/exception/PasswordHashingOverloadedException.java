@@ -0,0 +1,20 @@
+package com.example.exception;
+
+import lombok.Getter;
+
+/**
+ * Custom exception class signalling that a password cannot be hashed or verified right now.
+ * <p>
+ * This exception is thrown when every password-hashing thread is busy and the queue of waiting tasks is full.
+ * Instead of waiting, the request is answered with SERVICE UNAVAILABLE (HTTP 503), and the retryAfterSeconds
+ * field tells the client how long to wait before trying again.
+ */
+@Getter
+public class PasswordHashingOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingOverloadedException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
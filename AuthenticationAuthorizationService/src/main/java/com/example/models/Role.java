@@ -17,9 +17,16 @@ public enum Role {
     USER(Set.of(Permission.DEVELOPERS_READ)),
     ADMIN(Set.of(Permission.DEVELOPERS_READ, Permission.DEVELOPERS_WRITE));
     private final Set<Permission> permissionSet;
+    /**
+     * The authorities of the role, computed once since every authentication asks for them
+     */
+    private final Set<SimpleGrantedAuthority> authorities;
 
     Role(Set<Permission> permissionSet) {
         this.permissionSet = permissionSet;
+        this.authorities = permissionSet.stream()
+                .map(permission -> new SimpleGrantedAuthority(permission.getPermission()))
+                .collect(Collectors.toUnmodifiableSet());
     }
 
     /**
@@ -37,12 +44,12 @@ public enum Role {
      * It takes the set of permissions associated with a role, as defined in the Role enum,
      * and transforms each permission into a SimpleGrantedAuthority object. These granted
      * authority objects are then used by Spring Security to make authorization decisions.
+     * The set is built once per role when the enum is initialized and shared by all callers.
      *
-     * @return A Set of SimpleGrantedAuthority objects, each representing a permission associated with the role.
+     * @return An unmodifiable Set of SimpleGrantedAuthority objects, each representing a permission associated
+     * with the role.
      */
     public Set<SimpleGrantedAuthority> getAuthorities() {
-        return getPermissionSet().stream()
-                .map(permission -> new SimpleGrantedAuthority(permission.getPermission()))
-                .collect(Collectors.toSet());
+        return authorities;
     }
 }
@@ -1,8 +1,12 @@
 package com.example.repository;
 
+import com.example.models.Status;
 import com.example.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -49,4 +53,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     /*@Query("SELECT CASE WHEN COUNT(*) > 0 THEN true ELSE false END FROM users WHERE login = :login")*/
     boolean existsByLogin(String login);
+
+    /**
+     * This method retrieves only the logins of the users with the given status, without loading the entities.
+     * It is used to load the banned users into the UserStatusIndex.
+     *
+     * @param status The status of the users.
+     * @return The logins of all users with the status.
+     */
+    @Query("SELECT u.login FROM User u WHERE u.status = :status")
+    List<String> findLoginsByStatus(@Param("status") Status status);
 }
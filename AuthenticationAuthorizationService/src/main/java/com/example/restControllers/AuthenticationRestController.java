@@ -1,14 +1,21 @@
 package com.example.restControllers;
 
 import com.example.dto.AuthenticationRequestDTO;
-import com.example.models.User;
+import com.example.dto.PasswordHashingStatsDTO;
+import com.example.exception.PasswordHashingOverloadedException;
 import com.example.security.JwtTokenProvider;
-import com.example.services.UserService;
+import com.example.security.SecurityUser;
+import com.example.security.UserDetailsServiceImpl;
+import com.example.services.PasswordHashingService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -16,71 +23,165 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Rest Controller for handling authentication-related operations.
  * <p>
  * This controller manages the authentication process, including user login and logout. It's mapped to
  * the "/api/v1/auth" path and provides endpoints for login and logout functionalities.
+ * <p>
+ * A login deliberately does not go through Spring Security's AuthenticationManager: its
+ * DaoAuthenticationProvider verifies the password on the calling thread, while this controller loads the user on
+ * the request thread and verifies the password on the bounded password-hashing pool. The controller therefore
+ * does the provider's work itself, with these differences:
+ * - The account status is checked only after the password has matched, so the answer does not reveal to
+ * someone without the password that an account exists but is inactive.
+ * - The authentication success and failure events are published through the AuthenticationEventPublisher, as
+ * the provider manager does.
+ * - Stored hashes are not upgraded after a login (UserDetailsPasswordService), as every hash is created by the
+ * same BCrypt encoder with a strength of 12.
  */
 @RestController
 @RequestMapping("/api/v1/auth")
 public class AuthenticationRestController {
     /**
-     * AuthenticationManager is used to authenticate users.
-     */
-    private final AuthenticationManager authenticationManager;
-    /**
-     * UserService is used to define User
+     * UserDetailsServiceImpl is used to load the user who logs in.
      */
-    private final UserService userService;
+    private final UserDetailsServiceImpl userDetailsService;
     /**
      * JwtTokenProvider is used to create and manage JWT tokens.
      */
     private final JwtTokenProvider jwtTokenProvider;
+    /**
+     * PasswordHashingService is used to verify passwords off the request threads.
+     */
+    private final PasswordHashingService passwordHashingService;
+    /**
+     * AccountStatusUserDetailsChecker is used to reject users who are not active.
+     */
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+    /**
+     * AuthenticationEventPublisher is used to publish the outcome of each login.
+     */
+    private final AuthenticationEventPublisher authenticationEventPublisher;
 
-    public AuthenticationRestController(AuthenticationManager authenticationManager,
-                                        UserService userService, JwtTokenProvider jwtTokenProvider) {
-        this.authenticationManager = authenticationManager;
-        this.userService = userService;
+    public AuthenticationRestController(UserDetailsServiceImpl userDetailsService, JwtTokenProvider jwtTokenProvider,
+                                        PasswordHashingService passwordHashingService,
+                                        AuthenticationEventPublisher authenticationEventPublisher) {
+        this.userDetailsService = userDetailsService;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.passwordHashingService = passwordHashingService;
+        this.authenticationEventPublisher = authenticationEventPublisher;
     }
 
     /**
      * Authenticates a user based on login credentials and issues a JWT token.
      * <p>
-     * This endpoint handles POST requests for user authentication. The method
-     * authenticates the user using Spring Security's AuthenticationManager. Upon successful authentication,
-     * a JWT token is generated and returned to the user along with their login information.
+     * This endpoint handles POST requests for user authentication. The user is loaded once through
+     * UserDetailsServiceImpl, which caches users, on the request thread. The password is then checked against the
+     * stored hash, and if it matches and the user is active, a JWT token is generated from the role of the user,
+     * without reading the user again, and returned to the user along with their login information.
      * <p>
-     * If the authentication process fails (due to incorrect credentials, for instance), an
-     * AuthenticationException is caught, and an appropriate error response is returned.
+     * Verifying the password with BCrypt is CPU-bound, so only the check of the password runs on the
+     * password-hashing pool of PasswordHashingService and the request thread is released until it completes; no
+     * hashing thread waits for the database. A login that does not exist is checked against a dummy hash, so that
+     * it is answered as late as a wrong password. If that pool is saturated, the request is answered at once with
+     * SERVICE UNAVAILABLE (503) and a Retry-After header.
+     * <p>
+     * If the authentication fails (due to incorrect credentials or an inactive user, for instance), an error
+     * response is returned. Either outcome is published as an authentication event.
      *
      * @param requestDTO The data transfer object containing the user's login credentials.
-     * @return A ResponseEntity containing the JWT token and user login information if authentication
-     * is successful, or an error message if it fails. The HTTP status is set to OK (200)
-     * for successful authentication, or FORBIDDEN (403) for failed authentication.
+     * @return A CompletableFuture of a ResponseEntity containing the JWT token and user login information if
+     * authentication is successful, or an error message if it fails. The HTTP status is set to OK (200)
+     * for successful authentication, FORBIDDEN (403) for failed authentication, or SERVICE UNAVAILABLE (503)
+     * if the service is overloaded.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> authenticate(@RequestBody AuthenticationRequestDTO requestDTO) {
+    public CompletableFuture<ResponseEntity<?>> authenticate(@RequestBody AuthenticationRequestDTO requestDTO) {
         try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(requestDTO.getLogin(), requestDTO.getPassword()));
-            User user = userService.findByLogin(requestDTO.getLogin())
-                    .orElseThrow(() ->
-                            new UsernameNotFoundException("User \"" + requestDTO.getLogin() + "\" doesn't exist"));
-            String token = jwtTokenProvider.createToken(requestDTO.getLogin(), user.getRole().name());
+            Optional<SecurityUser> user = findUser(requestDTO.getLogin());
+            String passwordHash = user.map(SecurityUser::getPassword).orElse(null);
+            return passwordHashingService.matches(requestDTO.getPassword(), passwordHash)
+                    .thenApply(matches -> matches && user.isPresent()
+                            ? issueToken(requestDTO.getLogin(), user.get())
+                            : rejectLogin(requestDTO.getLogin(), new BadCredentialsException("Bad credentials")));
+        } catch (PasswordHashingOverloadedException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage()));
+        }
+    }
 
-            Map<Object, Object> response = new HashMap<>();
-            response.put("login", requestDTO.getLogin());
-            response.put("token", token);
+    /**
+     * Returns the state of the password-hashing pool.
+     * <p>
+     * This endpoint handles GET requests to "/password-hashing" and reports how many logins and registrations
+     * are waiting for a hashing thread, how many were rejected, and how long hashing takes.
+     *
+     * @return A ResponseEntity containing the queue depth, the task counters and the hashing latencies.
+     */
+    @GetMapping("/password-hashing")
+    public ResponseEntity<PasswordHashingStatsDTO> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
 
-            return ResponseEntity.ok(response);
-        } catch (AuthenticationException e) {
-            return new ResponseEntity<>("Invalid login/password combination", HttpStatus.FORBIDDEN);
+    /**
+     * This private method loads the user who logs in; it runs on the request thread.
+     *
+     * @param login The login of the user.
+     * @return The user with their password hash and role, or an empty Optional if the login does not exist.
+     */
+    private Optional<SecurityUser> findUser(String login) {
+        try {
+            return Optional.of(userDetailsService.loadUserByUsername(login));
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
         }
     }
 
+    /**
+     * This private method creates the JWT token of a user whose password has been verified and publishes the
+     * successful authentication; it runs on the password-hashing pool and does not access the database.
+     *
+     * @param login The login the user has logged in with.
+     * @param user  The user who logs in.
+     * @return A ResponseEntity containing the JWT token and user login information, or FORBIDDEN (403) if the user
+     * is not active.
+     */
+    private ResponseEntity<?> issueToken(String login, SecurityUser user) {
+        try {
+            accountStatusChecker.check(user);
+        } catch (AccountStatusException e) {
+            return rejectLogin(login, e);
+        }
+        authenticationEventPublisher.publishAuthenticationSuccess(
+                UsernamePasswordAuthenticationToken.authenticated(login, null, user.getAuthorities()));
+        String token = jwtTokenProvider.createToken(login, user.role().name());
+
+        Map<Object, Object> response = new HashMap<>();
+        response.put("login", login);
+        response.put("token", token);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * This private method publishes a failed authentication and creates the response to it. The published
+     * authentication carries the login only, not the password.
+     *
+     * @param login     The login the user has tried to log in with.
+     * @param exception The reason the authentication failed.
+     * @return A ResponseEntity with FORBIDDEN (403).
+     */
+    private ResponseEntity<?> rejectLogin(String login, AuthenticationException exception) {
+        authenticationEventPublisher.publishAuthenticationFailure(exception,
+                UsernamePasswordAuthenticationToken.unauthenticated(login, null));
+        return new ResponseEntity<>("Invalid login/password combination", HttpStatus.FORBIDDEN);
+    }
+
     /**
      * Handles the user logout process by invalidating the authentication token.
      * <p>
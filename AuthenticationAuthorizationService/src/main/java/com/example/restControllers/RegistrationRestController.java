@@ -1,7 +1,12 @@
 package com.example.restControllers;
 
 import com.example.dto.RegistrationRequestDTO;
+import com.example.exception.PasswordHashingOverloadedException;
+import com.example.models.User;
+import com.example.services.PasswordHashingService;
 import com.example.services.UserService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -9,6 +14,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * REST controller responsible for handling user registration requests.
  * <p>
@@ -22,10 +30,20 @@ public class RegistrationRestController {
      * UserService используется для выполнения регистрации фактической логики.
      */
     private final UserService userService;
+    /**
+     * PasswordHashingService is used to hash passwords off the request threads.
+     */
+    private final PasswordHashingService passwordHashingService;
+    /**
+     * Executor is used to store new users once their password has been hashed.
+     */
+    private final Executor userStoreExecutor;
 
-
-    public RegistrationRestController(UserService userService) {
+    public RegistrationRestController(UserService userService, PasswordHashingService passwordHashingService,
+                                      @Qualifier("userStoreExecutor") Executor userStoreExecutor) {
         this.userService = userService;
+        this.passwordHashingService = passwordHashingService;
+        this.userStoreExecutor = userStoreExecutor;
     }
 
     /**
@@ -39,18 +57,30 @@ public class RegistrationRestController {
      * indicating successful registration. If the registration data fails validation or any other
      * IllegalArgumentException is thrown during the registration process, the method catches this exception
      * and returns a response entity with a BAD REQUEST status (HTTP 400) along with the exception message.
+     * <p>
+     * Hashing the password with BCrypt is CPU-bound, so only the hashing runs on the password-hashing pool of
+     * PasswordHashingService: the registration data is checked on the request thread, and the new user is stored
+     * on the user-store pool once the hash is ready, so no hashing thread waits for the database. The request
+     * thread is released while the password is hashed. If the password-hashing pool is saturated, the request is
+     * answered at once with SERVICE UNAVAILABLE (HTTP 503) and a Retry-After header.
      *
      * @param requestDTO The data transfer object containing the registration details of the new user.
-     * @return A ResponseEntity containing either a success message or an error message, along with
-     * the corresponding HTTP status code.
+     * @return A CompletableFuture of a ResponseEntity containing either a success message or an error message,
+     * along with the corresponding HTTP status code.
      */
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody RegistrationRequestDTO requestDTO) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody RegistrationRequestDTO requestDTO) {
         try {
-            String response = userService.registerUser(requestDTO);
-            return ResponseEntity.ok(response);
+            User newUser = userService.prepareRegistration(requestDTO);
+            return passwordHashingService.encode(requestDTO.getPassword())
+                    .thenApplyAsync(passwordHash -> ResponseEntity.ok(userService.registerUser(newUser, passwordHash)),
+                            userStoreExecutor);
         } catch (IllegalArgumentException e) {
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST));
+        } catch (PasswordHashingOverloadedException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage()));
         }
     }
 }
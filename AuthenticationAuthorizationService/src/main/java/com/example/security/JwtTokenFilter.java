@@ -1,6 +1,7 @@
 package com.example.security;
 
 import com.example.exception.JwtAuthenticationException;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
@@ -40,8 +41,8 @@ public class JwtTokenFilter extends GenericFilterBean {
      * <p>
      * Workflow:
      * 1. Extracts the JWT token from the request using the JwtTokenProvider.
-     * 2. If a token is present, it validates the token. Valid tokens result in fetching the corresponding
-     * Authentication object and setting it in the SecurityContextHolder, which integrates with Spring
+     * 2. If a token is present, it is verified and parsed once by JwtTokenProvider. The Authentication object
+     * is created from the resulting claims and set in the SecurityContextHolder, which integrates with Spring
      * Security's authentication mechanism.
      * 3. If the token is invalid (expired or malformed), it clears the security context to prevent
      * unauthorized access and sends an error response back to the client.
@@ -58,8 +59,9 @@ public class JwtTokenFilter extends GenericFilterBean {
             throws IOException, ServletException {
         String token = jwtTokenProvider.resolveToken((HttpServletRequest) servletRequest);
         try {
-            if (token != null && jwtTokenProvider.validateToken(token)) {
-                Authentication authentication = jwtTokenProvider.getAuthentication(token);
+            if (token != null) {
+                Claims claims = jwtTokenProvider.parse(token);
+                Authentication authentication = jwtTokenProvider.getAuthentication(claims);
                 if (authentication != null) {
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
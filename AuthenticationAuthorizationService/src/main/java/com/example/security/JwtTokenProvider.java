@@ -1,17 +1,16 @@
 package com.example.security;
 
 import com.example.exception.JwtAuthenticationException;
+import com.example.models.Role;
 import io.jsonwebtoken.*;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
 import java.security.MessageDigest;
@@ -21,6 +20,7 @@ import javax.crypto.spec.SecretKeySpec;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * Component responsible for JWT (JSON Web Token) operations in the application.
@@ -33,7 +33,11 @@ public class JwtTokenProvider {
     /**
      * A Spring Security service used for retrieving user details.
      */
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsServiceImpl userDetailsService;
+    /**
+     * The index of banned users, used to authenticate requests from the claims of their token.
+     */
+    private final UserStatusIndex userStatusIndex;
     /**
      * This field stores the secret key value, which is used as part of the algorithm to sign JWT tokens.
      */
@@ -44,9 +48,24 @@ public class JwtTokenProvider {
      */
     @Value("${jwt.expiration}")
     private long validityMilliseconds;
+    /**
+     * This field defines how requests are authenticated: "claims" builds the authentication from the token and
+     * the UserStatusIndex, "database" loads the user with UserDetailsServiceImpl.
+     */
+    @Value("${jwt.authentication.mode:claims}")
+    private String authenticationMode;
+    /**
+     * The key that signs and verifies tokens, created once from the processed secret key
+     */
+    private SecretKey signingKey;
+    /**
+     * The parser that verifies tokens with the signing key, created once since it is immutable and thread-safe
+     */
+    private JwtParser jwtParser;
 
-    public JwtTokenProvider(@Qualifier("userDetailsServiceImpl") UserDetailsService userDetailsService) {
+    public JwtTokenProvider(UserDetailsServiceImpl userDetailsService, UserStatusIndex userStatusIndex) {
         this.userDetailsService = userDetailsService;
+        this.userStatusIndex = userStatusIndex;
     }
 
     /**
@@ -60,7 +79,8 @@ public class JwtTokenProvider {
      * The method performs the following operations:
      * - It uses SHA-256 hashing to hash the original secret key.
      * - It then creates a SecretKeySpec using the hashed key, specifying HMAC-SHA256 as the algorithm.
-     * - Finally, the hashed key is encoded using Base64 and reassigned to the secretKey field.
+     * - Finally, the hashed key is encoded using Base64 and reassigned to the secretKey field, and the parser
+     * that verifies tokens with this key is built.
      *
      * @throws NoSuchAlgorithmException If the specified algorithm (SHA-256) is not available.
      */
@@ -70,6 +90,10 @@ public class JwtTokenProvider {
         byte[] hash = sha256.digest(secretKey.getBytes());
         SecretKeySpec secretKeySpec = new SecretKeySpec(hash, "HmacSHA256");
         secretKey = Base64.getEncoder().encodeToString(secretKeySpec.getEncoded());
+        signingKey = secretKeySpec;
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     /**
@@ -81,7 +105,7 @@ public class JwtTokenProvider {
      * - Setting the subject of the token to the user's login.
      * - Adding the user's role as an additional claim.
      * - Setting the issuance time and the expiration time based on the current time and the configured token validity.
-     * - Signing the token with the HMAC-SHA256 algorithm using the processed secret key.
+     * - Signing the token with the HMAC-SHA256 algorithm using the signing key.
      *
      * @param login The login identifier of the user for whom the token is being created.
      * @param role  The role of the user, which will be included in the token claims.
@@ -93,24 +117,39 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date validity = new Date(now.getTime() + validityMilliseconds * 1000);
 
-        byte[] decodedKey = Base64.getDecoder().decode(secretKey);
-        SecretKey originalKey = new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
-
         return Jwts.builder()
                 .setClaims(claims)
                 .setIssuedAt(now)
                 .setExpiration(validity)
-                .signWith(originalKey, SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * This method verifies a JWT token and returns its claims.
+     * <p>
+     * Process:
+     * - Parses the token with the parser built in init, which verifies its signature and that it has not
+     * expired.
+     * - Returns the claims of the token, so that a request is authenticated from a single parse of its token.
+     *
+     * @param token The JWT token.
+     * @return The claims of the token.
+     * @throws JwtAuthenticationException if the token is expired, invalid, or if any other
+     *                                    validation issue occurs.
+     */
+    public Claims parse(String token) {
+        try {
+            return jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+        }
+    }
+
     /**
      * This method checks if the provided JWT token is valid and has not expired.
      * <p>
-     * The method performs the following operations:
-     * - Decodes the secret key and prepares it for verification.
-     * - Uses the JJWT library's parser to parse the token with the decoded secret key.
-     * - Checks if the token's expiration time is after the current date and time.
+     * The method parses the token (see parse), which verifies its signature and its expiration time.
      * <p>
      * If the token is valid and not expired, the method returns true. If the token is invalid, expired,
      * or if any other issue occurs during the parsing and validation process, a JwtAuthenticationException
@@ -122,25 +161,34 @@ public class JwtTokenProvider {
      *                                    validation issue occurs.
      */
     public boolean validateToken(String token) {
-        try {
-            byte[] decodedKey = Base64.getDecoder().decode(secretKey);
-            SecretKey originalKey = new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
-            Jws<Claims> claimsJws = Jwts.parserBuilder()
-                    .setSigningKey(originalKey)
-                    .build()
-                    .parseClaimsJws(token);
-            return !claimsJws.getBody().getExpiration().before(new Date());
-        } catch (JwtException | IllegalArgumentException e) {
-            throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
-        }
+        parse(token);
+        return true;
     }
 
     /**
      * This method is used to extract the user's details from a given JWT token and create an
+     * Authentication object.
+     * <p>
+     * The method parses the token (see parse) and creates the Authentication object from its claims.
+     *
+     * @param token The JWT token from which the user's authentication information is to be extracted.
+     * @return An Authentication object representing the user's identity and authorities.
+     * @throws JwtAuthenticationException If the token is invalid, its role is unknown (UNAUTHORIZED) or, in the
+     *                                    "claims" mode, the user is banned (FORBIDDEN).
+     */
+    public Authentication getAuthentication(String token) {
+        return getAuthentication(parse(token));
+    }
+
+    /**
+     * This method creates the Authentication object of a request from the verified claims of its token.
      * <p>
      * The method follows these steps:
-     * - Extracts the username from the JWT token.
-     * - Loads the UserDetails associated with the extracted username using UserDetailsService.
+     * - In the "claims" mode, once the UserStatusIndex has been loaded, the UserDetails are built from the
+     * claims alone: the login from their subject and the authorities from the permissions of their role claim.
+     * The user must not be banned according to the index; no database query is made.
+     * - Otherwise, loads the SecurityUser of the subject of the claims using UserDetailsServiceImpl and keeps a
+     * copy of it without the password hash.
      * - Constructs a UsernamePasswordAuthenticationToken with the UserDetails and its authorities.
      * This token is used by Spring Security to represent the current authenticated user.
      * <p>
@@ -149,36 +197,58 @@ public class JwtTokenProvider {
      * permissions) of the user. This object is then used to establish the user's identity and
      * authorization information in the security context of the application.
      *
-     * @param token The JWT token from which the user's authentication information is to be extracted.
+     * @param claims The claims of a token verified by parse.
      * @return An Authentication object representing the user's identity and authorities.
+     * @throws JwtAuthenticationException In the "claims" mode, if the claims have no subject, their role is
+     *                                    unknown (UNAUTHORIZED) or the user is banned (FORBIDDEN).
      */
-    public Authentication getAuthentication(String token) {
-        UserDetails userDetails = this.userDetailsService.loadUserByUsername(getUsername(token));
+    public Authentication getAuthentication(Claims claims) {
+        UserDetails userDetails;
+        if ("claims".equals(authenticationMode) && userStatusIndex.isLoaded()) {
+            userDetails = getUserDetailsFromClaims(claims);
+        } else {
+            userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject()).withoutPassword();
+        }
         return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
     }
 
+    /**
+     * This private method builds the UserDetails of a request from the claims of its token, with the same
+     * authorities as SecurityUser.fromUser would give the user.
+     *
+     * @param claims The verified claims of the token of the request.
+     * @return The SecurityUser of the user, without a password.
+     * @throws JwtAuthenticationException If the claims have no subject, their role is unknown or the user is
+     *                                    banned.
+     */
+    private UserDetails getUserDetailsFromClaims(Claims claims) {
+        String login;
+        Role role;
+        try {
+            login = Objects.requireNonNull(claims.getSubject());
+            role = Role.valueOf(claims.get("role", String.class));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+        }
+        if (userStatusIndex.isBanned(login)) {
+            throw new JwtAuthenticationException("User is banned", HttpStatus.FORBIDDEN);
+        }
+        return new SecurityUser(login, "", role, true);
+    }
+
     /**
      * This method decodes a given JWT token to retrieve the subject, which in the context
      * of this application, is the username of the user.
      * <p>
-     * The process involves:
-     * - Decoding the Base64-encoded secret key to its original byte array format.
-     * - Creating a SecretKeySpec with the decoded key for the HMAC-SHA256 signing algorithm.
-     * - Parsing the JWT token with the specified signing key to validate its signature and extract claims.
-     * - Retrieving the 'subject' field from the token's claims, which represents the username.
+     * The token is parsed (see parse), which validates its signature, and the 'subject' field of its claims,
+     * which represents the username, is returned.
      *
      * @param token The JWT token from which the username is to be extracted.
      * @return The username extracted from the token.
+     * @throws JwtAuthenticationException if the token is expired or invalid.
      */
     public String getUsername(String token) {
-        byte[] decodedKey = Base64.getDecoder().decode(secretKey);
-        SecretKey originalKey = new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
-
-        return Jwts.parserBuilder().
-                setSigningKey(originalKey)
-                .build().parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parse(token).getSubject();
     }
 
     /**
@@ -1,13 +1,12 @@
 package com.example.security;
 
+import com.example.models.Role;
 import com.example.models.Status;
 import com.example.models.User;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.List;
 
 /**
  * SecurityUser is a record that implements UserDetails interface for Spring Security authentication.
@@ -17,24 +16,30 @@ import java.util.List;
  * Parameters:
  * - username: The username of the user. Used for identifying the user during the authentication process.
  * - password: The password of the user. Used for validating credentials during authentication.
- * - authorityList: A list of SimpleGrantedAuthority objects representing the authorities granted to the user.
+ * - role: The role of the user. The authorities granted to the user are the precomputed authorities of the role,
+ * and the role is carried through authentication to the creation of the JWT token.
  * - isActive: A boolean indicating whether the user's account is active. An inactive account is not allowed
  * to authenticate.
  * <p>
  * The record overrides methods from the UserDetails interface to provide its own implementation for user details.
  * These methods include getting authorities, password, username, and account status flags (non-expired,
  * non-locked, credentials non-expired, and enabled).
+ * <p>
+ * Being an immutable record that does not implement CredentialsContainer, a SecurityUser is not modified when
+ * Spring Security erases the credentials of an authentication, so it can be cached by UserDetailsServiceImpl.
+ * An authentication that outlives the login, such as the one of a request, is built from withoutPassword instead,
+ * and toString never prints the password hash.
  */
 public record SecurityUser(
         String username,
         String password,
-        List<SimpleGrantedAuthority> authorityList,
+        Role role,
         boolean isActive
 ) implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return authorityList;
+        return role.getAuthorities();
     }
 
     @Override
@@ -68,7 +73,27 @@ public record SecurityUser(
     }
 
     /**
-     * This static method creates a UserDetails object from a given User entity. UserDetails is a core
+     * This method returns a copy of this user without the password hash, to be kept in an authentication.
+     *
+     * @return The SecurityUser with an empty password.
+     */
+    public SecurityUser withoutPassword() {
+        return new SecurityUser(username, "", role, isActive);
+    }
+
+    /**
+     * This method describes the user like Spring Security's User does, with the password masked.
+     *
+     * @return The description of the user.
+     */
+    @Override
+    public String toString() {
+        return "SecurityUser[username=" + username + ", password=[PROTECTED], role=" + role
+                + ", isActive=" + isActive + "]";
+    }
+
+    /**
+     * This static method creates a SecurityUser from a given User entity. UserDetails is a core
      * interface in Spring Security used for retrieving user-related data necessary for authentication
      * and authorization processes. The method maps the properties of the User entity to the appropriate
      * fields expected by Spring Security.
@@ -85,16 +110,10 @@ public record SecurityUser(
      * This version of the application only uses the status whether the account is active for all boolean parameters
      *
      * @param user The User entity to be converted into UserDetails.
-     * @return A UserDetails object representing the provided User entity.
+     * @return A SecurityUser representing the provided User entity.
      */
-    public static UserDetails fromUser(User user) {
-        return new org.springframework.security.core.userdetails.User(
-                user.getLogin(), user.getPassword(),
-                user.getStatus().equals(Status.ACTIVE),
-                user.getStatus().equals(Status.ACTIVE),
-                user.getStatus().equals(Status.ACTIVE),
-                user.getStatus().equals(Status.ACTIVE),
-                user.getRole().getAuthorities()
-        );
+    public static SecurityUser fromUser(User user) {
+        return new SecurityUser(user.getLogin(), user.getPassword(), user.getRole(),
+                user.getStatus().equals(Status.ACTIVE));
     }
 }
@@ -0,0 +1,10 @@
+package com.example.security;
+
+/**
+ * Application event published when the stored data of a user (password, role or status) may have changed, so
+ * that cached copies of the user, such as those of UserDetailsServiceImpl, are dropped.
+ *
+ * @param login The login of the user.
+ */
+public record UserChangedEvent(String login) {
+}
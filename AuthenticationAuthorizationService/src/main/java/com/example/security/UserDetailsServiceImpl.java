@@ -2,11 +2,18 @@ package com.example.security;
 
 import com.example.models.User;
 import com.example.repository.UserRepository;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Service implementation of UserDetailsService for loading user details.
  * <p>
@@ -17,6 +24,11 @@ import org.springframework.stereotype.Service;
  * The service is annotated with @Service and a specific name "userDetailsServiceImpl" to
  * distinguish it in the Spring context, especially if there are multiple UserDetailsService
  * implementations.
+ * <p>
+ * The loaded users are cached, so that bursts of logins do not query the database for every attempt. The cache
+ * holds at most user-details.cache.max-entries users, dropping the least recently used one when it is full, and
+ * an entry expires user-details.cache.ttl after it was loaded. An entry is also dropped as soon as a
+ * UserChangedEvent for its login is published. Logins that do not exist are not cached.
  */
 @Service("userDetailsServiceImpl")
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -25,6 +37,33 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * The repository used for retrieving user data from the database.
      */
     private final UserRepository userRepository;
+    /**
+     * The longest time a loaded user is served from the cache.
+     */
+    @Value("${user-details.cache.ttl}")
+    private Duration ttl;
+    /**
+     * The largest number of cached users.
+     */
+    @Value("${user-details.cache.max-entries}")
+    private int maxEntries;
+    /**
+     * The clock against which the expiry of cached users is checked.
+     */
+    private Clock clock = Clock.systemUTC();
+    /**
+     * The cached users with the time of their expiry, keyed by login, in access order (least recently used first).
+     */
+    private final LinkedHashMap<String, CachedUser> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+            return size() > maxEntries;
+        }
+    };
+    /**
+     * Incremented by every UserChangedEvent; a user loaded across an increment is not cached.
+     */
+    private long version;
 
     public UserDetailsServiceImpl(UserRepository userRepository) {
         this.userRepository = userRepository;
@@ -35,18 +74,56 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * which is a core part of Spring Security's authentication process.
      * <p>
      * The method performs the following operations:
-     * - Uses the userRepository to search for a user by the given login.
+     * - Returns the cached SecurityUser of the login if it has not expired.
+     * - Otherwise uses the userRepository to search for a user by the given login.
      * - If a user is found, it converts the User entity to a UserDetails object using the SecurityUser.fromUser method.
      * - If no user is found with the provided login, it throws a UsernameNotFoundException with an appropriate message.
+     * - The SecurityUser is cached until its time to live has passed, unless a UserChangedEvent was published
+     * while it was being loaded.
      *
      * @param login The login identifier of the user whose details need to be loaded.
-     * @return A UserDetails object containing the user's information.
+     * @return A SecurityUser containing the user's information.
      * @throws UsernameNotFoundException If no user is found with the specified login.
      */
     @Override
-    public UserDetails loadUserByUsername(String login) throws UsernameNotFoundException {
+    public SecurityUser loadUserByUsername(String login) throws UsernameNotFoundException {
+        Instant now = clock.instant();
+        long loadVersion;
+        synchronized (cache) {
+            CachedUser cached = cache.get(login);
+            if (cached != null && now.isBefore(cached.expiresAt())) {
+                return cached.user();
+            }
+            loadVersion = version;
+        }
+
         User user = userRepository.findByLogin(login).orElseThrow(() ->
                 new UsernameNotFoundException("User doesn't exist"));
-        return SecurityUser.fromUser(user);
+        SecurityUser securityUser = SecurityUser.fromUser(user);
+        synchronized (cache) {
+            if (version == loadVersion) {
+                cache.put(login, new CachedUser(securityUser, now.plus(ttl)));
+            }
+        }
+        return securityUser;
+    }
+
+    /**
+     * This method drops the cached user of a login whose stored data may have changed.
+     *
+     * @param event The event carrying the login of the changed user.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        synchronized (cache) {
+            version++;
+            cache.remove(event.login());
+        }
+    }
+
+    /**
+     * A cached user and the point in time at which it expires.
+     */
+    private record CachedUser(SecurityUser user, Instant expiresAt) {
     }
 }
@@ -0,0 +1,85 @@
+package com.example.security;
+
+import com.example.models.Status;
+import com.example.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * In-memory index of the status of the users, used by JwtTokenProvider to authenticate requests from the
+ * claims of their token without reading the user from the database.
+ * <p>
+ * Only the logins of banned users are held, as every other user is active; the set is small and is re-read
+ * with a single query every jwt.status-index.refresh-ms milliseconds, so a ban takes effect within that delay.
+ * A failed refresh keeps the previous set and is retried at the next interval. For every user whose status has
+ * changed since the previous refresh, a UserChangedEvent is published, so cached copies of the user are dropped.
+ */
+@Slf4j
+@Component
+public class UserStatusIndex {
+
+    /**
+     * UserRepository is used to read the logins of the banned users
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * ApplicationEventPublisher is used to announce the users whose status has changed
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * The logins of the banned users, or null until the index has been loaded for the first time
+     */
+    private volatile Set<String> bannedLogins;
+
+    public UserStatusIndex(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * This method reloads the logins of the banned users. It runs once at startup and then periodically.
+     */
+    @Scheduled(fixedDelayString = "${jwt.status-index.refresh-ms}")
+    public void refresh() {
+        Set<String> previous = bannedLogins;
+        Set<String> current;
+        try {
+            current = Set.copyOf(userRepository.findLoginsByStatus(Status.BANNED));
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh the user status index", e);
+            return;
+        }
+        bannedLogins = current;
+        if (previous != null) {
+            current.stream().filter(login -> !previous.contains(login))
+                    .forEach(login -> eventPublisher.publishEvent(new UserChangedEvent(login)));
+            previous.stream().filter(login -> !current.contains(login))
+                    .forEach(login -> eventPublisher.publishEvent(new UserChangedEvent(login)));
+        }
+    }
+
+    /**
+     * @return true once the index has been loaded, so that isBanned reflects the database.
+     */
+    public boolean isLoaded() {
+        return bannedLogins != null;
+    }
+
+    /**
+     * This method checks whether a user is banned according to the last refresh of the index.
+     *
+     * @param login The login of the user.
+     * @return true if the user is banned, false if the user is active or the index has not been loaded yet.
+     */
+    public boolean isBanned(String login) {
+        Set<String> banned = bannedLogins;
+        return banned != null && banned.contains(login);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.services;
+
+import com.example.dto.PasswordHashingStatsDTO;
+import com.example.exception.PasswordHashingOverloadedException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * This class runs the work that hashes or verifies passwords on the bounded password-hashing pool and keeps
+ * statistics about it. Only the PasswordEncoder runs on the pool; loading and storing users is left to the
+ * callers, so that a slow database never holds a hashing thread.
+ */
+@Service
+public class PasswordHashingService {
+    /**
+     * ThreadPoolExecutor is the pool on which passwords are hashed and verified
+     */
+    private final ThreadPoolExecutor passwordHashingExecutor;
+    /**
+     * PasswordEncoder is used to hash and verify passwords
+     */
+    private final PasswordEncoder passwordEncoder;
+    /**
+     * The hash against which passwords of logins that do not exist are checked, created on first use
+     */
+    private volatile String unknownUserHash;
+    /**
+     * The time a rejected client is asked to wait before trying again
+     */
+    @Value("${password-hashing.retry-after}")
+    private Duration retryAfter;
+
+    private long completedTasks;
+    private long rejectedTasks;
+    private long totalWaitNanos;
+    private long totalHashNanos;
+    private long maxHashNanos;
+
+    public PasswordHashingService(@Qualifier("passwordHashingExecutor") ThreadPoolExecutor passwordHashingExecutor,
+                                  PasswordEncoder passwordEncoder) {
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * This method hashes a password on the password-hashing pool.
+     *
+     * @param rawPassword The password to hash.
+     * @return A CompletableFuture completed with the hash of the password.
+     * @throws PasswordHashingOverloadedException If the pool cannot accept the task.
+     */
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * This method checks a password against a stored hash on the password-hashing pool.
+     * Process:
+     * - If the hash is missing, as for a login that does not exist, the password is checked against a dummy hash
+     * and the result is false, so that the answer takes as long as for an existing login and does not reveal
+     * whether the login exists.
+     * - Otherwise the password is checked against the hash.
+     *
+     * @param rawPassword     The password to check.
+     * @param encodedPassword The stored hash, or null if there is none.
+     * @return A CompletableFuture completed with true if the password matches the hash, false otherwise.
+     * @throws PasswordHashingOverloadedException If the pool cannot accept the task.
+     */
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> {
+            if (encodedPassword == null) {
+                passwordEncoder.matches(rawPassword, getUnknownUserHash());
+                return false;
+            }
+            return passwordEncoder.matches(rawPassword, encodedPassword);
+        });
+    }
+
+    /**
+     * This method runs a task that hashes or verifies a password on the password-hashing pool, so that the
+     * request thread that submits it is not blocked.
+     * Process:
+     * - The task is submitted to the pool; if every thread is busy and the queue is full, the task is not run and
+     * a PasswordHashingOverloadedException is thrown at once.
+     * - Once the task has run, the time it waited in the queue and the time it took are recorded.
+     *
+     * @param task The task to run, which typically calls the PasswordEncoder.
+     * @param <T>  The type of the result of the task.
+     * @return A CompletableFuture completed with the result of the task, or exceptionally with its exception.
+     * @throws PasswordHashingOverloadedException If the pool cannot accept the task.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return task.get();
+                } finally {
+                    recordCompletion(startedAt - submittedAt, System.nanoTime() - startedAt);
+                }
+            }, passwordHashingExecutor);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                rejectedTasks++;
+            }
+            throw new PasswordHashingOverloadedException("Too many password checks in progress, try again later",
+                    Math.max(1, retryAfter.toSeconds()));
+        }
+    }
+
+    /**
+     * This method returns the state of the password-hashing pool.
+     *
+     * @return The number of threads and queued tasks, the numbers of completed and rejected tasks, and the average
+     * and maximum hashing latencies.
+     */
+    public synchronized PasswordHashingStatsDTO getStats() {
+        PasswordHashingStatsDTO stats = new PasswordHashingStatsDTO();
+        stats.setThreads(passwordHashingExecutor.getMaximumPoolSize());
+        stats.setActiveThreads(passwordHashingExecutor.getActiveCount());
+        stats.setQueueDepth(passwordHashingExecutor.getQueue().size());
+        stats.setQueueCapacity(passwordHashingExecutor.getQueue().size()
+                + passwordHashingExecutor.getQueue().remainingCapacity());
+        stats.setCompletedTasks(completedTasks);
+        stats.setRejectedTasks(rejectedTasks);
+        stats.setAverageWaitMillis(completedTasks == 0 ? 0 : toMillis(totalWaitNanos) / completedTasks);
+        stats.setAverageHashMillis(completedTasks == 0 ? 0 : toMillis(totalHashNanos) / completedTasks);
+        stats.setMaxHashMillis(toMillis(maxHashNanos));
+        return stats;
+    }
+
+    /**
+     * This private method records a task that has run on the password-hashing pool.
+     *
+     * @param waitNanos The time the task waited in the queue, in nanoseconds.
+     * @param hashNanos The time the task took to run, in nanoseconds.
+     */
+    private synchronized void recordCompletion(long waitNanos, long hashNanos) {
+        completedTasks++;
+        totalWaitNanos += waitNanos;
+        totalHashNanos += hashNanos;
+        maxHashNanos = Math.max(maxHashNanos, hashNanos);
+    }
+
+    /**
+     * This private method returns the dummy hash that passwords of logins that do not exist are checked against,
+     * creating it on first use. Concurrent first calls may each create one, which is harmless.
+     *
+     * @return The dummy hash.
+     */
+    private String getUnknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("unknown-user-password");
+            unknownUserHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * This private method converts nanoseconds to fractional milliseconds.
+     *
+     * @param nanos The time in nanoseconds.
+     * @return The time in milliseconds.
+     */
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -7,7 +7,8 @@ import com.example.models.Role;
 import com.example.models.Status;
 import com.example.models.User;
 import com.example.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.example.security.UserChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -22,13 +23,13 @@ public class UserService {
      */
     private final UserRepository userRepository;
     /**
-     * PasswordEncoder is used to encrypt passwords
+     * ApplicationEventPublisher is used to announce changed users to the caches holding them
      */
-    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -44,16 +45,39 @@ public class UserService {
         return userRepository.findByLogin(login);
     }
 
-    public String registerUser(RegistrationRequestDTO requestDTO) {
+    /**
+     * This method checks the registration data of a new user and creates the user without storing it. The
+     * password is not hashed here, so that the hashing can run on the password-hashing pool (see
+     * PasswordHashingService) while the database is only queried on the calling thread.
+     *
+     * @param requestDTO The data transfer object containing the user registration details.
+     * @return The new user with login, role and status, but without a password.
+     * @throws InvalidLoginException    If the login is already in use.
+     * @throws InvalidPasswordException If the password criteria are not met.
+     * @throws IllegalArgumentException If the role or the status is unknown.
+     */
+    public User prepareRegistration(RegistrationRequestDTO requestDTO) {
         validateRegistrationData(requestDTO);
 
         User newUser = new User();
         newUser.setLogin(requestDTO.getLogin());
-        newUser.setPassword(passwordEncoder.encode(requestDTO.getPassword()));
         newUser.setRole(Role.valueOf(requestDTO.getRole()));
         newUser.setStatus(Status.valueOf(requestDTO.getStatus()));
+        return newUser;
+    }
 
+    /**
+     * This method stores a new user created by prepareRegistration with the hash of their password and announces
+     * the new user to the caches holding users.
+     *
+     * @param newUser      The new user.
+     * @param passwordHash The hash of the user's password.
+     * @return A message confirming the registration.
+     */
+    public String registerUser(User newUser, String passwordHash) {
+        newUser.setPassword(passwordHash);
         userRepository.save(newUser);
+        eventPublisher.publishEvent(new UserChangedEvent(newUser.getLogin()));
 
         return "User registered successfully";
     }
@@ -37,5 +37,11 @@ public class RoleTest {
                 .collect(Collectors.toSet());
         assertEquals(expectedAuthorities, Role.ADMIN.getAuthorities());
     }
-}
 
+    @Test
+    public void roleAuthoritiesShouldBeComputedOnce() {
+        assertSame(Role.USER.getAuthorities(), Role.USER.getAuthorities());
+        assertThrows(UnsupportedOperationException.class,
+                () -> Role.USER.getAuthorities().add(new SimpleGrantedAuthority("developers:write")));
+    }
+}
@@ -1,15 +1,25 @@
 package com.example.restControllers;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.example.dto.AuthenticationRequestDTO;
 import com.example.models.Role;
-import com.example.models.User;
 import com.example.security.JwtTokenProvider;
-import com.example.services.UserService;
+import com.example.security.SecurityUser;
+import com.example.security.UserDetailsServiceImpl;
+import com.example.exception.PasswordHashingOverloadedException;
+import com.example.services.PasswordHashingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,26 +27,35 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class AuthenticationRestControllerTest {
 
     private MockMvc mockMvc;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private UserDetailsServiceImpl userDetailsService;
 
     @Mock
-    private UserService userService;
+    private JwtTokenProvider jwtTokenProvider;
 
     @Mock
-    private JwtTokenProvider jwtTokenProvider;
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private AuthenticationEventPublisher authenticationEventPublisher;
 
     @InjectMocks
     private AuthenticationRestController authenticationRestController;
@@ -47,61 +66,131 @@ public class AuthenticationRestControllerTest {
         mockMvc = MockMvcBuilders.standaloneSetup(authenticationRestController).build();
     }
 
+    private static AuthenticationRequestDTO credentials(String login, String password) {
+        AuthenticationRequestDTO requestDTO = new AuthenticationRequestDTO();
+        requestDTO.setLogin(login);
+        requestDTO.setPassword(password);
+        return requestDTO;
+    }
+
+    private void givenPasswordMatches(String password, String hash, boolean matches) {
+        when(passwordHashingService.matches(password, hash))
+                .thenReturn(CompletableFuture.supplyAsync(() -> matches));
+    }
+
     @Test
     public void testAuthenticateSuccess() throws Exception {
         // Подготовка данных и моков
         String login = "testUser";
         String password = "testPass";
         String token = "testToken";
-        AuthenticationRequestDTO requestDTO = new AuthenticationRequestDTO();
-        requestDTO.setLogin(login);
-        requestDTO.setPassword(password);
-        User mockUser = new User();
-        mockUser.setRole(Role.USER);
-
-        when(userService.findByLogin(login)).thenReturn(Optional.of(mockUser));
-        when(jwtTokenProvider.createToken(login, mockUser.getRole().name())).thenReturn(token);
+        when(userDetailsService.loadUserByUsername(login))
+                .thenReturn(new SecurityUser(login, "hash", Role.ADMIN, true));
+        givenPasswordMatches(password, "hash", true);
+        when(jwtTokenProvider.createToken(login, "ADMIN")).thenReturn(token);
 
         // Выполнение и проверка
-        mockMvc.perform(post("/api/v1/auth/login")
+        performAsync(post("/api/v1/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(asJsonString(requestDTO)))
+                        .content(asJsonString(credentials(login, password))))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.login").value(login))
                 .andExpect(jsonPath("$.token").value(token));
+        verify(authenticationEventPublisher).publishAuthenticationSuccess(argThat(authentication ->
+                login.equals(authentication.getPrincipal()) && authentication.getCredentials() == null));
+        verify(authenticationEventPublisher, never()).publishAuthenticationFailure(any(), any());
+    }
+
+    @Test
+    public void testAuthenticateLoadsUserOnRequestThread() throws Exception {
+        String login = "testUser";
+        AtomicReference<Thread> loadingThread = new AtomicReference<>();
+        when(userDetailsService.loadUserByUsername(login)).thenAnswer(invocation -> {
+            loadingThread.set(Thread.currentThread());
+            return new SecurityUser(login, "hash", Role.USER, true);
+        });
+        givenPasswordMatches("testPass", "hash", true);
+        when(jwtTokenProvider.createToken(login, "USER")).thenReturn("testToken");
+
+        performAsync(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(credentials(login, "testPass"))))
+                .andExpect(status().isOk());
+        assertSame(Thread.currentThread(), loadingThread.get());
     }
 
     @Test
     public void testAuthenticateInvalidCredentials() throws Exception {
         String login = "invalidUser";
         String password = "wrongPass";
-        AuthenticationRequestDTO requestDTO = new AuthenticationRequestDTO();
-        requestDTO.setLogin(login);
-        requestDTO.setPassword(password);
-
-        when(authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(login, password)))
-                .thenThrow(new BadCredentialsException("Invalid credentials"));
+        when(userDetailsService.loadUserByUsername(login))
+                .thenReturn(new SecurityUser(login, "hash", Role.USER, true));
+        givenPasswordMatches(password, "hash", false);
 
-        mockMvc.perform(post("/api/v1/auth/login")
+        performAsync(post("/api/v1/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(asJsonString(requestDTO)))
+                        .content(asJsonString(credentials(login, password))))
                 .andExpect(status().isForbidden());
+        verify(jwtTokenProvider, never()).createToken(anyString(), anyString());
+        verify(authenticationEventPublisher).publishAuthenticationFailure(any(BadCredentialsException.class),
+                argThat(authentication -> login.equals(authentication.getPrincipal())
+                        && authentication.getCredentials() == null));
     }
 
     @Test
     public void testAuthenticateUserNotFound() throws Exception {
         String login = "nonExistingUser";
         String password = "pass";
-        AuthenticationRequestDTO requestDTO = new AuthenticationRequestDTO();
-        requestDTO.setLogin(login);
-        requestDTO.setPassword(password);
+        when(userDetailsService.loadUserByUsername(login))
+                .thenThrow(new UsernameNotFoundException("User doesn't exist"));
+        givenPasswordMatches(password, null, false);
+
+        performAsync(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(credentials(login, password))))
+                .andExpect(status().isForbidden());
+        verify(passwordHashingService).matches(password, null);
+        verify(authenticationEventPublisher).publishAuthenticationFailure(any(BadCredentialsException.class),
+                any(Authentication.class));
+    }
 
-        when(userService.findByLogin(login)).thenReturn(Optional.empty());
+    @Test
+    public void testAuthenticateInactiveUser() throws Exception {
+        String login = "blockedUser";
+        when(userDetailsService.loadUserByUsername(login))
+                .thenReturn(new SecurityUser(login, "hash", Role.USER, false));
+        givenPasswordMatches("testPass", "hash", true);
 
-        mockMvc.perform(post("/api/v1/auth/login")
+        performAsync(post("/api/v1/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(asJsonString(requestDTO)))
+                        .content(asJsonString(credentials(login, "testPass"))))
                 .andExpect(status().isForbidden());
+        verify(jwtTokenProvider, never()).createToken(anyString(), anyString());
+        verify(authenticationEventPublisher).publishAuthenticationFailure(any(LockedException.class),
+                any(Authentication.class));
+        verify(authenticationEventPublisher, never()).publishAuthenticationSuccess(any());
+    }
+
+    @Test
+    public void testAuthenticateOverloaded() throws Exception {
+        when(userDetailsService.loadUserByUsername("testUser"))
+                .thenReturn(new SecurityUser("testUser", "hash", Role.USER, true));
+        doThrow(new PasswordHashingOverloadedException("Too many password checks", 1))
+                .when(passwordHashingService).matches(any(), any());
+
+        performAsync(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(credentials("testUser", "testPass"))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+        verify(jwtTokenProvider, never()).createToken(anyString(), anyString());
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
     }
 
     public static String asJsonString(final Object obj) {
@@ -1,21 +1,40 @@
 package com.example.restControllers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.example.dto.RegistrationRequestDTO;
+import com.example.exception.InvalidLoginException;
+import com.example.exception.PasswordHashingOverloadedException;
+import com.example.models.User;
+import com.example.services.PasswordHashingService;
 import com.example.services.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class RegistrationRestControllerTest {
 
     private MockMvc mockMvc;
@@ -23,41 +42,87 @@ public class RegistrationRestControllerTest {
     @Mock
     private UserService userService;
 
-    @InjectMocks
-    private RegistrationRestController registrationRestController;
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    private ExecutorService userStoreExecutor;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        userStoreExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "user-store-test"));
+        when(passwordHashingService.encode(any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> "hash"));
+        RegistrationRestController registrationRestController =
+                new RegistrationRestController(userService, passwordHashingService, userStoreExecutor);
         mockMvc = MockMvcBuilders.standaloneSetup(registrationRestController).build();
     }
 
-    @Test
-    public void testRegisterUserSuccess() throws Exception {
+    @AfterEach
+    public void tearDown() {
+        userStoreExecutor.shutdownNow();
+    }
+
+    private static RegistrationRequestDTO registration() {
         RegistrationRequestDTO requestDTO = new RegistrationRequestDTO();
         requestDTO.setLogin("user");
         requestDTO.setPassword("password");
-        when(userService.registerUser(requestDTO)).thenReturn("User registered successfully");
+        return requestDTO;
+    }
+
+    @Test
+    public void testRegisterUserSuccess() throws Exception {
+        RegistrationRequestDTO requestDTO = registration();
+        User newUser = new User();
+        AtomicReference<String> storingThread = new AtomicReference<>();
+        when(userService.prepareRegistration(requestDTO)).thenReturn(newUser);
+        when(userService.registerUser(newUser, "hash")).thenAnswer(invocation -> {
+            storingThread.set(Thread.currentThread().getName());
+            return "User registered successfully";
+        });
 
-        mockMvc.perform(post("/api/v1/reg/register")
+        performAsync(post("/api/v1/reg/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(requestDTO)))
                 .andExpect(status().isOk())
                 .andExpect(content().string("User registered successfully"));
+        verify(passwordHashingService).encode("password");
+        assertEquals("user-store-test", storingThread.get());
     }
 
     @Test
     public void testRegisterUserFailure() throws Exception {
-        RegistrationRequestDTO requestDTO = new RegistrationRequestDTO();
-        requestDTO.setLogin("user");
-        requestDTO.setPassword("password");
-        when(userService.registerUser(requestDTO)).thenThrow(new IllegalArgumentException("Invalid data"));
+        RegistrationRequestDTO requestDTO = registration();
+        when(userService.prepareRegistration(requestDTO)).thenThrow(new InvalidLoginException("Invalid data"));
 
-        mockMvc.perform(post("/api/v1/reg/register")
+        performAsync(post("/api/v1/reg/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(requestDTO)))
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Invalid data"));
+        verifyNoInteractions(passwordHashingService);
+    }
+
+    @Test
+    public void testRegisterUserOverloaded() throws Exception {
+        RegistrationRequestDTO requestDTO = registration();
+        when(userService.prepareRegistration(requestDTO)).thenReturn(new User());
+        doThrow(new PasswordHashingOverloadedException("Too many password checks", 2))
+                .when(passwordHashingService).encode(any());
+
+        performAsync(post("/api/v1/reg/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(requestDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+        verify(userService, never()).registerUser(any(), any());
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
     }
 
     public static String asJsonString(final Object obj) {
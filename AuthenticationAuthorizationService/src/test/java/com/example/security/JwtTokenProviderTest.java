@@ -1,6 +1,7 @@
 package com.example.security;
 
 import com.example.exception.JwtAuthenticationException;
+import com.example.models.Role;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
@@ -8,37 +9,43 @@ import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.crypto.spec.SecretKeySpec;
 import java.security.Key;
 import java.util.Base64;
 import java.util.Date;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 public class JwtTokenProviderTest {
 
     private JwtTokenProvider jwtTokenProvider;
 
-    private UserDetailsService userDetailsService;
+    private UserDetailsServiceImpl userDetailsService;
+
+    private UserStatusIndex userStatusIndex;
 
     @BeforeEach
     void setUp() throws Exception {
-        userDetailsService = mock(UserDetailsService.class);
+        userDetailsService = mock(UserDetailsServiceImpl.class);
+        userStatusIndex = mock(UserStatusIndex.class);
 
-        jwtTokenProvider = new JwtTokenProvider(userDetailsService);
+        jwtTokenProvider = new JwtTokenProvider(userDetailsService, userStatusIndex);
 
         String secretKey = "testSecret";
         long validityMilliseconds = 3600 * 1000;
         ReflectionTestUtils.setField(jwtTokenProvider, "secretKey", secretKey);
         ReflectionTestUtils.setField(jwtTokenProvider, "validityMilliseconds", validityMilliseconds);
+        ReflectionTestUtils.setField(jwtTokenProvider, "authenticationMode", "claims");
 
         jwtTokenProvider.init();
 
@@ -106,21 +113,122 @@ public class JwtTokenProviderTest {
         assertTrue(actualMessage.contains(expectedMessage));
     }
 
+    @Test
+    public void testParseReturnsClaims() {
+        String token = jwtTokenProvider.createToken("testUser", "ADMIN");
+
+        Claims claims = jwtTokenProvider.parse(token);
+
+        assertEquals("testUser", claims.getSubject());
+        assertEquals("ADMIN", claims.get("role", String.class));
+    }
+
+    @Test
+    public void testParseRejectsExpiredToken() {
+        ReflectionTestUtils.setField(jwtTokenProvider, "validityMilliseconds", -1L);
+        String token = jwtTokenProvider.createToken("testUser", "USER");
+
+        JwtAuthenticationException exception = assertThrows(JwtAuthenticationException.class, () ->
+                jwtTokenProvider.parse(token));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getHttpStatus());
+    }
+
+    @Test
+    public void testParseRejectsTokenSignedWithOtherKey() throws Exception {
+        JwtTokenProvider otherProvider = new JwtTokenProvider(userDetailsService, userStatusIndex);
+        ReflectionTestUtils.setField(otherProvider, "secretKey", "otherSecret");
+        ReflectionTestUtils.setField(otherProvider, "validityMilliseconds", 3600L);
+        otherProvider.init();
+        String token = otherProvider.createToken("testUser", "USER");
+
+        assertThrows(JwtAuthenticationException.class, () -> jwtTokenProvider.parse(token));
+    }
+
+    @Test
+    public void testGetAuthenticationFromParsedClaims() {
+        Claims claims = jwtTokenProvider.parse(jwtTokenProvider.createToken("testUser", "USER"));
+        when(userStatusIndex.isLoaded()).thenReturn(true);
+
+        Authentication authentication = jwtTokenProvider.getAuthentication(claims);
+
+        assertEquals("testUser", ((UserDetails) authentication.getPrincipal()).getUsername());
+        assertEquals(Role.USER.getAuthorities(), Set.copyOf(authentication.getAuthorities()));
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    public void testGetUsername() {
+        String token = jwtTokenProvider.createToken("testUser", "USER");
+
+        assertEquals("testUser", jwtTokenProvider.getUsername(token));
+    }
+
     @Test
     public void testGetAuthentication() {
         String login = "testUser";
         String role = "USER";
         String token = jwtTokenProvider.createToken(login, role);
 
-        UserDetails userDetails = mock(UserDetails.class);
-        when(userDetailsService.loadUserByUsername(login)).thenReturn(userDetails);
+        SecurityUser user = new SecurityUser(login, "hash", Role.valueOf(role), true);
+        when(userDetailsService.loadUserByUsername(login)).thenReturn(user);
 
         Authentication authentication = jwtTokenProvider.getAuthentication(token);
 
         assertNotNull(authentication);
-        assertEquals(userDetails, authentication.getPrincipal());
+        assertEquals(user.withoutPassword(), authentication.getPrincipal());
         assertEquals("", authentication.getCredentials());
-        assertEquals(userDetails.getAuthorities(), authentication.getAuthorities());
+        assertEquals(Set.copyOf(user.getAuthorities()), Set.copyOf(authentication.getAuthorities()));
+    }
+
+    @Test
+    public void testGetAuthenticationFromClaims() {
+        String token = jwtTokenProvider.createToken("testUser", "ADMIN");
+        when(userStatusIndex.isLoaded()).thenReturn(true);
+
+        Authentication authentication = jwtTokenProvider.getAuthentication(token);
+
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        assertEquals("testUser", userDetails.getUsername());
+        assertEquals(Role.ADMIN.getAuthorities(), Set.copyOf(authentication.getAuthorities()));
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    public void testGetAuthenticationFromClaimsOfBannedUser() {
+        String token = jwtTokenProvider.createToken("testUser", "USER");
+        when(userStatusIndex.isLoaded()).thenReturn(true);
+        when(userStatusIndex.isBanned("testUser")).thenReturn(true);
+
+        JwtAuthenticationException exception = assertThrows(JwtAuthenticationException.class, () ->
+                jwtTokenProvider.getAuthentication(token));
+
+        assertEquals(HttpStatus.FORBIDDEN, exception.getHttpStatus());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    public void testGetAuthenticationFromClaimsWithUnknownRole() {
+        String token = jwtTokenProvider.createToken("testUser", "SUPERUSER");
+        when(userStatusIndex.isLoaded()).thenReturn(true);
+
+        assertThrows(JwtAuthenticationException.class, () -> jwtTokenProvider.getAuthentication(token));
+    }
+
+    @Test
+    public void testGetAuthenticationInDatabaseMode() {
+        ReflectionTestUtils.setField(jwtTokenProvider, "authenticationMode", "database");
+        String token = jwtTokenProvider.createToken("testUser", "USER");
+        when(userStatusIndex.isLoaded()).thenReturn(true);
+        when(userDetailsService.loadUserByUsername("testUser"))
+                .thenReturn(new SecurityUser("testUser", "hash", Role.USER, true));
+
+        Authentication authentication = jwtTokenProvider.getAuthentication(token);
+
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        assertEquals("testUser", userDetails.getUsername());
+        assertEquals("", userDetails.getPassword());
+        assertFalse(authentication.toString().contains("hash"));
     }
 
     @Test
@@ -0,0 +1,35 @@
+package com.example.security;
+
+import com.example.models.Role;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SecurityUserTest {
+
+    private static final String HASH = "$2a$12$abcdefghijklmnopqrstuv";
+
+    @Test
+    public void testToStringMasksPassword() {
+        SecurityUser user = new SecurityUser("testUser", HASH, Role.USER, true);
+
+        String description = user.toString();
+
+        assertFalse(description.contains(HASH));
+        assertTrue(description.contains("password=[PROTECTED]"));
+        assertTrue(description.contains("username=testUser"));
+    }
+
+    @Test
+    public void testWithoutPassword() {
+        SecurityUser user = new SecurityUser("testUser", HASH, Role.ADMIN, false);
+
+        SecurityUser copy = user.withoutPassword();
+
+        assertEquals("", copy.getPassword());
+        assertEquals("testUser", copy.getUsername());
+        assertEquals(Role.ADMIN, copy.role());
+        assertFalse(copy.isEnabled());
+        assertEquals(HASH, user.getPassword());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.security;
+
+import com.example.models.Role;
+import com.example.models.Status;
+import com.example.models.User;
+import com.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserDetailsServiceImplTest {
+
+    private UserRepository userRepository;
+
+    private UserDetailsServiceImpl userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userDetailsService = new UserDetailsServiceImpl(userRepository);
+        ReflectionTestUtils.setField(userDetailsService, "ttl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(userDetailsService, "maxEntries", 2);
+        when(userRepository.findByLogin(anyString())).thenAnswer(invocation -> {
+            String login = invocation.getArgument(0);
+            return login.startsWith("unknown") ? Optional.empty() : Optional.of(user(login));
+        });
+    }
+
+    @Test
+    public void testLoadUserByUsernameCachesUser() {
+        UserDetails first = userDetailsService.loadUserByUsername("testUser");
+        UserDetails second = userDetailsService.loadUserByUsername("testUser");
+
+        assertSame(first, second);
+        assertEquals(Role.USER, ((SecurityUser) first).role());
+        assertEquals(Role.USER.getAuthorities(), first.getAuthorities());
+        verify(userRepository, times(1)).findByLogin("testUser");
+    }
+
+    @Test
+    public void testCachedUserExpiresAfterTtl() {
+        userDetailsService.loadUserByUsername("testUser");
+
+        ReflectionTestUtils.setField(userDetailsService, "clock",
+                Clock.fixed(Instant.now().plus(Duration.ofMinutes(6)), ZoneOffset.UTC));
+        userDetailsService.loadUserByUsername("testUser");
+
+        verify(userRepository, times(2)).findByLogin("testUser");
+    }
+
+    @Test
+    public void testUserChangedEventDropsCachedUser() {
+        userDetailsService.loadUserByUsername("testUser");
+
+        userDetailsService.onUserChanged(new UserChangedEvent("testUser"));
+        userDetailsService.loadUserByUsername("testUser");
+
+        verify(userRepository, times(2)).findByLogin("testUser");
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        userDetailsService.loadUserByUsername("first");
+        userDetailsService.loadUserByUsername("second");
+        userDetailsService.loadUserByUsername("third");
+        userDetailsService.loadUserByUsername("first");
+
+        verify(userRepository, times(2)).findByLogin("first");
+        verify(userRepository, times(1)).findByLogin("third");
+    }
+
+    @Test
+    public void testUnknownUserIsNotCached() {
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknownUser"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknownUser"));
+
+        verify(userRepository, times(2)).findByLogin("unknownUser");
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setLogin(login);
+        user.setPassword("hash");
+        user.setRole(Role.USER);
+        user.setStatus(Status.ACTIVE);
+        return user;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.security;
+
+import com.example.models.Status;
+import com.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserStatusIndexTest {
+
+    private UserRepository userRepository;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private UserStatusIndex userStatusIndex;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        userStatusIndex = new UserStatusIndex(userRepository, eventPublisher);
+    }
+
+    @Test
+    public void testNotLoadedBeforeFirstRefresh() {
+        assertFalse(userStatusIndex.isLoaded());
+        assertFalse(userStatusIndex.isBanned("bannedUser"));
+    }
+
+    @Test
+    public void testRefreshLoadsBannedLogins() {
+        when(userRepository.findLoginsByStatus(Status.BANNED)).thenReturn(List.of("bannedUser"));
+
+        userStatusIndex.refresh();
+
+        assertTrue(userStatusIndex.isLoaded());
+        assertTrue(userStatusIndex.isBanned("bannedUser"));
+        assertFalse(userStatusIndex.isBanned("activeUser"));
+    }
+
+    @Test
+    public void testRefreshPicksUpChanges() {
+        when(userRepository.findLoginsByStatus(Status.BANNED))
+                .thenReturn(List.of("bannedUser"))
+                .thenReturn(List.of("activeUser"));
+
+        userStatusIndex.refresh();
+        userStatusIndex.refresh();
+
+        assertFalse(userStatusIndex.isBanned("bannedUser"));
+        assertTrue(userStatusIndex.isBanned("activeUser"));
+        verify(eventPublisher).publishEvent(new UserChangedEvent("bannedUser"));
+        verify(eventPublisher).publishEvent(new UserChangedEvent("activeUser"));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testFailedRefreshKeepsPreviousLogins() {
+        when(userRepository.findLoginsByStatus(Status.BANNED))
+                .thenReturn(List.of("bannedUser"))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        userStatusIndex.refresh();
+        userStatusIndex.refresh();
+
+        assertTrue(userStatusIndex.isBanned("bannedUser"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.services;
+
+import com.example.dto.PasswordHashingStatsDTO;
+import com.example.exception.PasswordHashingOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingServiceTest {
+
+    private ThreadPoolExecutor executor;
+
+    private PasswordHashingService passwordHashingService;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        passwordHashingService = new PasswordHashingService(executor, new BCryptPasswordEncoder(4));
+        ReflectionTestUtils.setField(passwordHashingService, "retryAfter", Duration.ofSeconds(3));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSubmitRunsTaskOnPool() throws Exception {
+        CompletableFuture<String> result = passwordHashingService.submit(() -> Thread.currentThread().getName());
+
+        assertNotEquals(Thread.currentThread().getName(), result.get(5, TimeUnit.SECONDS));
+        PasswordHashingStatsDTO stats = passwordHashingService.getStats();
+        assertEquals(1, stats.getCompletedTasks());
+        assertEquals(0, stats.getRejectedTasks());
+        assertEquals(1, stats.getThreads());
+        assertEquals(1, stats.getQueueCapacity());
+    }
+
+    @Test
+    public void testSubmitRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = passwordHashingService.submit(() -> {
+            started.countDown();
+            return await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = passwordHashingService.submit(() -> await(release));
+
+        PasswordHashingOverloadedException exception = assertThrows(PasswordHashingOverloadedException.class,
+                () -> passwordHashingService.submit(() -> true));
+        assertEquals(3, exception.getRetryAfterSeconds());
+        PasswordHashingStatsDTO stats = passwordHashingService.getStats();
+        assertEquals(1, stats.getQueueDepth());
+        assertEquals(1, stats.getRejectedTasks());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(2, passwordHashingService.getStats().getCompletedTasks());
+    }
+
+    @Test
+    public void testFailingTaskCompletesExceptionallyAndIsRecorded() {
+        CompletableFuture<String> result = passwordHashingService.submit(() -> {
+            throw new IllegalArgumentException("Invalid data");
+        });
+
+        Exception exception = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        assertEquals(1, passwordHashingService.getStats().getCompletedTasks());
+    }
+
+    @Test
+    public void testEncodeAndMatchesRunOnPool() throws Exception {
+        String hash = passwordHashingService.encode("secret1!").get(5, TimeUnit.SECONDS);
+
+        assertTrue(passwordHashingService.matches("secret1!", hash).get(5, TimeUnit.SECONDS));
+        assertFalse(passwordHashingService.matches("wrong1!", hash).get(5, TimeUnit.SECONDS));
+        assertEquals(3, passwordHashingService.getStats().getCompletedTasks());
+    }
+
+    @Test
+    public void testMatchesWithoutHashChecksDummyHash() throws Exception {
+        assertFalse(passwordHashingService.matches("secret1!", null).get(5, TimeUnit.SECONDS));
+        assertNotNull(ReflectionTestUtils.getField(passwordHashingService, "unknownUserHash"));
+        assertEquals(1, passwordHashingService.getStats().getCompletedTasks());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -6,14 +6,17 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.example.dto.RegistrationRequestDTO;
 import com.example.exception.InvalidLoginException;
 import com.example.exception.InvalidPasswordException;
+import com.example.models.Role;
+import com.example.models.Status;
 import com.example.models.User;
+import com.example.security.UserChangedEvent;
 import com.example.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
 
@@ -26,7 +29,7 @@ public class UserServiceTest {
     private UserService userService;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private ApplicationEventPublisher eventPublisher;
 
     @BeforeEach
     public void setUp() {
@@ -59,19 +62,34 @@ public class UserServiceTest {
     }
 
     @Test
-    public void testRegisterUserSuccess() {
+    public void testPrepareRegistrationSuccess() {
         RegistrationRequestDTO requestDTO = new RegistrationRequestDTO();
         requestDTO.setLogin("newUser");
         requestDTO.setPassword("password1password*");
         requestDTO.setRole("USER");
         requestDTO.setStatus("ACTIVE");
         when(userRepository.existsByLogin(requestDTO.getLogin())).thenReturn(false);
-        when(passwordEncoder.encode(requestDTO.getPassword())).thenReturn("encodedPassword");
 
-        String result = userService.registerUser(requestDTO);
+        User result = userService.prepareRegistration(requestDTO);
+
+        assertEquals("newUser", result.getLogin());
+        assertEquals(Role.USER, result.getRole());
+        assertEquals(Status.ACTIVE, result.getStatus());
+        assertNull(result.getPassword());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    public void testRegisterUserSuccess() {
+        User newUser = new User();
+        newUser.setLogin("newUser");
+
+        String result = userService.registerUser(newUser, "encodedPassword");
 
         assertEquals("User registered successfully", result);
-        verify(userRepository).save(any(User.class));
+        assertEquals("encodedPassword", newUser.getPassword());
+        verify(userRepository).save(newUser);
+        verify(eventPublisher).publishEvent(new UserChangedEvent("newUser"));
     }
 
     @Test
@@ -83,7 +101,7 @@ public class UserServiceTest {
         requestDTO.setStatus("ACTIVE");
         when(userRepository.existsByLogin(requestDTO.getLogin())).thenReturn(true);
 
-        assertThrows(InvalidLoginException.class, () -> userService.registerUser(requestDTO));
+        assertThrows(InvalidLoginException.class, () -> userService.prepareRegistration(requestDTO));
     }
 
     @Test
@@ -95,6 +113,6 @@ public class UserServiceTest {
         requestDTO.setStatus("ACTIVE");
         when(userRepository.existsByLogin(requestDTO.getLogin())).thenReturn(false);
 
-        assertThrows(InvalidPasswordException.class, () -> userService.registerUser(requestDTO));
+        assertThrows(InvalidPasswordException.class, () -> userService.prepareRegistration(requestDTO));
     }
 }
@@ -0,0 +1,91 @@
+package com.example.config;
+
+import com.example.services.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class configures the HTTP client used to call ReportService.
+ * <p>
+ * The client is the JDK's java.net.http.HttpClient, which keeps the connections to ReportService open and
+ * reuses them for later requests (keep-alive), so a request does not pay for a new TCP connection and closed
+ * connections do not pile up in TIME_WAIT. Requests are sent asynchronously: no thread waits while ReportService
+ * computes, and the responses are processed on a small dedicated pool instead of the Tomcat request threads.
+ * The calls are guarded by a circuit breaker, configured by the report-service.circuit properties.
+ */
+@Configuration
+public class ReportServiceClientConfig {
+
+    /**
+     * This method creates the pool on which the HTTP client processes responses and completes the futures
+     * returned to the controllers.
+     *
+     * @param threads The number of threads, from report-service.client.threads.
+     * @return The executor, shut down with the application context.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService reportServiceClientExecutor(@Value("${report-service.client.threads}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "report-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * This method creates the HTTP client for ReportService. HTTP/1.1 is used, as ReportService serves plain
+     * HTTP without upgrade; idle connections are kept in the client's pool and reused.
+     *
+     * @param reportServiceClientExecutor The pool on which responses are processed.
+     * @param connectTimeout              The longest time to establish a connection, from
+     *                                    report-service.connect-timeout.
+     * @return The HTTP client.
+     */
+    @Bean
+    public HttpClient reportServiceHttpClient(ExecutorService reportServiceClientExecutor,
+                                              @Value("${report-service.connect-timeout}") Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .executor(reportServiceClientExecutor)
+                .build();
+    }
+
+    /**
+     * This method creates the circuit breaker around the calls to ReportService (see DiagramDataService).
+     *
+     * @param windowSize            The number of most recent calls evaluated, from report-service.circuit.window-size.
+     * @param minimumCalls          The number of calls needed before the breaker can open, from
+     *                              report-service.circuit.minimum-calls.
+     * @param failureRateThreshold  The share of failed calls in percent that opens the breaker, from
+     *                              report-service.circuit.failure-rate-threshold.
+     * @param slowCallThreshold     The duration from which a call counts as slow, from
+     *                              report-service.circuit.slow-call-threshold.
+     * @param slowCallRateThreshold The share of slow calls in percent that opens the breaker, from
+     *                              report-service.circuit.slow-call-rate-threshold.
+     * @param openDuration          The time the breaker stays open before a trial call, from
+     *                              report-service.circuit.open-duration.
+     * @return The circuit breaker.
+     */
+    @Bean
+    public CircuitBreaker reportServiceCircuitBreaker(
+            @Value("${report-service.circuit.window-size}") int windowSize,
+            @Value("${report-service.circuit.minimum-calls}") int minimumCalls,
+            @Value("${report-service.circuit.failure-rate-threshold}") int failureRateThreshold,
+            @Value("${report-service.circuit.slow-call-threshold}") Duration slowCallThreshold,
+            @Value("${report-service.circuit.slow-call-rate-threshold}") int slowCallRateThreshold,
+            @Value("${report-service.circuit.open-duration}") Duration openDuration) {
+        return new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, slowCallThreshold,
+                slowCallRateThreshold, openDuration, System::nanoTime);
+    }
+}
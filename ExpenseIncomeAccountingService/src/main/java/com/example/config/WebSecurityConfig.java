@@ -13,7 +13,6 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * This class configures the security settings for the application using Spring Security.
@@ -102,16 +101,4 @@ public class WebSecurityConfig {
             throws Exception {
         return authenticationConfiguration.getAuthenticationManager();
     }
-
-    /**
-     * This method configures and returns a RestTemplate bean, which is a central class in Spring Framework for
-     * client-side HTTP access. RestTemplate is used for consuming REST-ful web services and handles HTTP
-     * requests and responses, simplifying the interaction with web services.
-     *
-     * @return A RestTemplate bean for HTTP operations.
-     */
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
 }
@@ -1,5 +1,7 @@
 package com.example.controllers;
 
+import com.example.models.MovementCategory;
+import com.example.models.TypeMovement;
 import com.example.services.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Controller;
@@ -31,6 +33,7 @@ public class MainController {
      * The process involves:
      * - Extracting the user's login from the JWT token using the UserService.
      * - Adding the extracted login to the model, which will be used in the view layer for display or further logic.
+     * - Adding the categories of incomes and expenses, which the forms offer as descriptions.
      * - Returning the view name "main", which corresponds to the main page template.
      *
      * @param httpServletRequest The incoming HTTP request containing the JWT token.
@@ -41,17 +44,32 @@ public class MainController {
     public String getMainPage(HttpServletRequest httpServletRequest, Model model) {
         String login = userService.processUserFromJwt(httpServletRequest);
         model.addAttribute("login", login);
+        addCategories(model);
         return "main";
     }
 
     /**
      * This method handles GET requests for the "/list" endpoint of the MainController. It is responsible
-     * for displaying the list page, where specific list-based content of the application is presented.
+     * for displaying the list page, where specific list-based content of the application is presented. The
+     * categories of incomes and expenses are added to the model for the edit form.
      *
+     * @param model The model object used to pass data to the view template.
      * @return The name of the view template to be rendered ("list").
      */
     @GetMapping("/list")
-    public String getListPage() {
+    public String getListPage(Model model) {
+        addCategories(model);
         return "list";
     }
+
+    /**
+     * This private method adds the categories of incomes and expenses (see MovementCategory) to the model, as
+     * "incomeCategories" and "expenseCategories".
+     *
+     * @param model The model object used to pass data to the view template.
+     */
+    private void addCategories(Model model) {
+        model.addAttribute("incomeCategories", MovementCategory.of(TypeMovement.INCOME));
+        model.addAttribute("expenseCategories", MovementCategory.of(TypeMovement.EXPENSE));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for the result of one chunk of a bulk import of financial movements.
+ * <p>
+ * Every chunk is written in its own transaction, so a chunk is either inserted completely (inserted equals
+ * size and error is null) or not at all (inserted is 0 and error describes the cause).
+ */
+@Data
+public class BatchChunkResultDTO {
+    private int index;
+    private int size;
+    private int inserted;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the summary of a bulk import of financial movements, containing the total
+ * number of received and inserted movements and the result of every processed chunk.
+ */
+@Data
+public class BatchIngestResultDTO {
+    private int received;
+    private int inserted;
+    private List<BatchChunkResultDTO> chunks = new ArrayList<>();
+}
@@ -0,0 +1,33 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the progress of a CSV statement import.
+ * <p>
+ * An import is QUEUED until a thread of the import pool is free. While the import is RUNNING, rowsRead,
+ * rowsImported and rowsFailed grow as the file is processed. Only the first errors are listed in errors;
+ * rowsFailed always holds the total number of rejected rows. When the import as a whole fails (FAILED), error
+ * describes the cause and the rows imported before remain stored.
+ */
+@Data
+public class CsvImportStatusDTO {
+    private String id;
+    private String login;
+    private State state;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    private List<CsvRowErrorDTO> errors = new ArrayList<>();
+    private String error;
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
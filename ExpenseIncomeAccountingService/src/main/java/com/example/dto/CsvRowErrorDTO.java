@@ -0,0 +1,18 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) for a row of an imported CSV statement that could not be stored.
+ * <p>
+ * The line number refers to the uploaded file, starting with 1 for the header line.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CsvRowErrorDTO {
+    private long line;
+    private String message;
+}
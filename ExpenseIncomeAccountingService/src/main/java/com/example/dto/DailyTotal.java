@@ -0,0 +1,20 @@
+package com.example.dto;
+
+import com.example.models.TypeMovement;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Projection of the daily aggregation of financial movements computed by the database.
+ * <p>
+ * Each instance holds the total amount of all movements of one type on one day, so diagrams of any granularity
+ * can be built for a range of dates from at most two rows per day of the range.
+ */
+public interface DailyTotal {
+    Date getDate();
+
+    TypeMovement getType();
+
+    BigDecimal getTotal();
+}
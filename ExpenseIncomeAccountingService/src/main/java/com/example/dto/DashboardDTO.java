@@ -0,0 +1,17 @@
+package com.example.dto;
+
+import com.example.models.MovementMoney;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for everything the main page shows about a user: the balance, the monthly
+ * balance series of the diagram and the most recent financial movements, newest first.
+ */
+@Data
+public class DashboardDTO {
+    private Double balance;
+    private List<DiagramDataDTO> diagram;
+    private List<MovementMoney> recentMovements;
+}
@@ -0,0 +1,21 @@
+package com.example.dto;
+
+import com.example.models.TypeMovement;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the monthly aggregation of financial movements computed by the database.
+ * <p>
+ * Each instance holds the total amount of all movements of one type within one calendar month,
+ * so the monthly diagram can be built from a few rows instead of the whole transaction history.
+ */
+public interface MonthlyTotal {
+    Integer getYear();
+
+    Integer getMonth();
+
+    TypeMovement getType();
+
+    BigDecimal getTotal();
+}
@@ -0,0 +1,76 @@
+package com.example.dto;
+
+import com.example.models.TypeMovement;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * This class encodes financial movements into the columnar binary wire format understood by ReportService.
+ * Compared to a JSON array of MovementMoneyDTO objects, the payload has a fixed size per movement and is
+ * decoded by ReportService into primitive arrays, without parsing text or creating an object per movement.
+ * <p>
+ * Wire format (big-endian), content type "application/vnd.movement-money.columns":
+ * - int magic "MMC1", int number of rows, int scale of the amounts.
+ * - One int per row: the date as days since 1970-01-01 in the system default time zone.
+ * - One long per row: the amount as a fixed-point number with the given scale (cents for scale 2).
+ * - A bitmap with one bit per row, least significant bit first: 1 for INCOME, 0 for EXPENSE.
+ */
+public final class MovementColumns {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.movement-money.columns";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final int MAGIC = 0x4D4D4331;
+    private static final int SCALE = 2;
+
+    private MovementColumns() {
+    }
+
+    /**
+     * This method encodes the given movements in the columnar wire format.
+     *
+     * @param movements The movements to be encoded; each of them needs a date and an amount.
+     * @return The encoded payload.
+     * @throws IllegalArgumentException If a movement has no date or no amount.
+     * @throws ArithmeticException      If an amount does not fit into a long with the scale of the format.
+     */
+    public static byte[] encode(List<MovementMoneyDTO> movements) {
+        int size = movements.size();
+        ByteBuffer buffer = ByteBuffer.allocate(3 * Integer.BYTES + size * (Integer.BYTES + Long.BYTES)
+                + (size + 7) / 8);
+        buffer.putInt(MAGIC).putInt(size).putInt(SCALE);
+
+        ZoneId zone = ZoneId.systemDefault();
+        for (MovementMoneyDTO movement : movements) {
+            if (movement.getDate() == null) {
+                throw new IllegalArgumentException("Movement without date");
+            }
+            LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(movement.getDate().getTime()), zone);
+            buffer.putInt((int) date.toEpochDay());
+        }
+
+        byte[] incomeBitmap = new byte[(size + 7) / 8];
+        for (int i = 0; i < size; i++) {
+            MovementMoneyDTO movement = movements.get(i);
+            if (movement.getAmount() == null) {
+                throw new IllegalArgumentException("Movement without amount");
+            }
+            buffer.putLong(BigDecimal.valueOf(movement.getAmount())
+                    .setScale(SCALE, RoundingMode.HALF_UP)
+                    .unscaledValue()
+                    .longValueExact());
+            if (movement.getType() == TypeMovement.INCOME) {
+                incomeBitmap[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        buffer.put(incomeBitmap);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.dto;
+
+import com.example.models.MovementMoney;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of a user's financial movements, ordered by date and ID.
+ * <p>
+ * The nextDate and nextId fields form the cursor of the following page: they hold the date and ID of the
+ * last movement on this page and are passed back by the client as "afterDate" and "afterId". If that movement
+ * has no date, nextDate is null and only "afterId" is passed back. When hasMore is false, this page is the last
+ * one and the cursor fields are null.
+ */
+@Data
+public class MovementMoneyPageDTO {
+    private List<MovementMoney> items;
+    private LocalDate nextDate;
+    private Long nextId;
+    private boolean hasMore;
+}
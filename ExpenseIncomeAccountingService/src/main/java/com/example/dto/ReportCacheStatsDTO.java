@@ -0,0 +1,22 @@
+package com.example.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for the statistics of the report result cache: the number of hits, misses,
+ * evictions (entries dropped to stay within the weight limit) and invalidations (entries dropped because
+ * the user's movements changed), as well as the current number of entries and their total weight. The
+ * coalesced counter is the number of report requests that shared the computation of a concurrent identical
+ * request instead of starting their own.
+ */
+@Data
+public class ReportCacheStatsDTO {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private int entries;
+    private long weight;
+    private long maxWeight;
+    private long coalesced;
+}
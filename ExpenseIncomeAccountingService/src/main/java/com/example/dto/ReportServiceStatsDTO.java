@@ -0,0 +1,22 @@
+package com.example.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for the state of the circuit breaker around the reporting service: its state
+ * (CLOSED, OPEN or HALF_OPEN), the share of failed and slow calls in percent among the recent calls it
+ * evaluates, the number of those calls, the number of calls it rejected while open, and the number of times
+ * it has opened. The remote and fallback counters are the number of diagrams computed by the reporting
+ * service and in-process respectively.
+ */
+@Data
+public class ReportServiceStatsDTO {
+    private String state;
+    private double failureRate;
+    private double slowCallRate;
+    private int bufferedCalls;
+    private long notPermittedCalls;
+    private long openings;
+    private long remoteCalls;
+    private long fallbackCalls;
+}
@@ -0,0 +1,20 @@
+package com.example.exception;
+
+import lombok.Getter;
+
+/**
+ * Custom exception class signalling that a CSV import cannot be accepted right now.
+ * <p>
+ * This exception is thrown when every import thread is busy and the queue of waiting imports is full. Instead of
+ * queuing the upload without limit, the request is answered with SERVICE UNAVAILABLE (HTTP 503), and the
+ * retryAfterSeconds field tells the client how long to wait before trying again.
+ */
+@Getter
+public class CsvImportOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public CsvImportOverloadedException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.exception;
+
+/**
+ * Custom runtime exception for handling cases where ReportService fails or returns an unusable response.
+ */
+public class ReportServiceException extends RuntimeException {
+    public ReportServiceException(String message) {
+        super(message);
+    }
+
+    public ReportServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.models;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Enumeration representing the length of the periods into which the balance changes of a diagram are grouped.
+ * <p>
+ * The grouping is normally done by the reporting service; this service validates the requested granularity,
+ * decides whether the monthly rollup is fine-grained enough to serve it, and groups the movements itself only
+ * while the reporting service is unavailable (see LocalDiagramService). Weeks start on Monday, as in the
+ * reporting service.
+ */
+public enum Granularity {
+    DAY,
+    WEEK,
+    MONTH,
+    QUARTER,
+    YEAR;
+
+    /**
+     * This method parses a granularity, ignoring case.
+     *
+     * @param text The name of the granularity, e.g. "day" or "MONTH".
+     * @return The granularity.
+     * @throws IllegalArgumentException If the text is not the name of a granularity.
+     */
+    public static Granularity parse(String text) {
+        return valueOf(text.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @return true if every period consists of whole calendar months, so it can be built from monthly totals.
+     */
+    public boolean isMonthAligned() {
+        return this == MONTH || this == QUARTER || this == YEAR;
+    }
+
+    /**
+     * @return The name of the granularity as expected in the query parameters of the reporting service.
+     */
+    public String toParameter() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * This method returns the first day of the period that contains a date.
+     *
+     * @param date The date.
+     * @return The first day of the period: the date itself, the Monday of its week, or the first day of its
+     * month, quarter or year.
+     */
+    public LocalDate startOfPeriod(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+}
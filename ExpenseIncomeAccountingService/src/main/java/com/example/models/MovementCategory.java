@@ -0,0 +1,109 @@
+package com.example.models;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Enumeration representing the categories offered by the application for the description of a financial
+ * movement, each belonging to one type of movement.
+ * <p>
+ * This is the only list of the categories: the pages render their options from it, and imported descriptions
+ * are mapped onto it. The value of a category is its lower-case name, which is what is stored as the
+ * description of a movement.
+ */
+public enum MovementCategory {
+    SALARY(TypeMovement.INCOME, "Salary"),
+    FREELANCE(TypeMovement.INCOME, "Freelance"),
+    INVESTMENT(TypeMovement.INCOME, "Investment", "investments"),
+    BUSINESS(TypeMovement.INCOME, "Business"),
+    BENEFITS(TypeMovement.INCOME, "Benefits", "benefit"),
+    DONATIONS(TypeMovement.INCOME, "Donations", "donation"),
+    RENT(TypeMovement.INCOME, "Rent", "rental income"),
+    BILLS(TypeMovement.EXPENSE, "Bills", "bill"),
+    GROCERIES(TypeMovement.EXPENSE, "Groceries", "grocery"),
+    ENTERTAINMENT(TypeMovement.EXPENSE, "Entertainment"),
+    TRANSPORT(TypeMovement.EXPENSE, "Transport"),
+    HOUSING(TypeMovement.EXPENSE, "Housing"),
+    MEDICINE(TypeMovement.EXPENSE, "Medicine"),
+    EDUCATION(TypeMovement.EXPENSE, "Education"),
+    CLOTH(TypeMovement.EXPENSE, "Cloth", "clothes", "clothing"),
+    PRESENT(TypeMovement.EXPENSE, "Present", "presents", "gift", "gifts"),
+    INSURANCE(TypeMovement.EXPENSE, "Insurance");
+
+    /**
+     * The type of the movements the category belongs to
+     */
+    private final TypeMovement type;
+    /**
+     * The name of the category shown on the pages
+     */
+    private final String label;
+    /**
+     * Other descriptions that denote the category exactly, in normalized form (see normalize)
+     */
+    private final Set<String> aliases;
+
+    MovementCategory(TypeMovement type, String label, String... aliases) {
+        this.type = type;
+        this.label = label;
+        this.aliases = Set.of(aliases);
+    }
+
+    public TypeMovement getType() {
+        return type;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return The value of the category, as stored in the description of a movement.
+     */
+    public String getValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * This method returns the categories of a type of movement, in the order in which they are offered.
+     *
+     * @param type The type of the movements.
+     * @return The categories of the type.
+     */
+    public static List<MovementCategory> of(TypeMovement type) {
+        return Arrays.stream(values())
+                .filter(category -> category.type == type)
+                .toList();
+    }
+
+    /**
+     * This method maps a free-text description onto a category of the given type. After normalizing (see
+     * normalize), the description must equal the value of the category or one of its aliases; a description
+     * that merely contains a category, such as "presentation fee", matches none.
+     *
+     * @param description The description.
+     * @param type        The type of the movement.
+     * @return The matching category, or an empty Optional if the description denotes none of them.
+     */
+    public static Optional<MovementCategory> fromDescription(String description, TypeMovement type) {
+        String normalized = normalize(description);
+        return Arrays.stream(values())
+                .filter(category -> category.type == type)
+                .filter(category -> category.getValue().equals(normalized) || category.aliases.contains(normalized))
+                .findFirst();
+    }
+
+    /**
+     * This private method normalizes a description: surrounding whitespace is removed, inner whitespace is
+     * collapsed to single spaces, and the text is converted to lower case.
+     *
+     * @param description The description.
+     * @return The normalized description.
+     */
+    private static String normalize(String description) {
+        return description.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -14,10 +14,12 @@ import java.util.Date;
  * - @Data: Lombok annotation to automatically generate getters, setters, equals, hashCode, and toString methods.
  * - @Entity: Specifies that this class is an entity and is mapped to a database table.
  * - @Table(name = "movement_money"): Defines the specific table in the database to which this entity is mapped.
+ * The (user_id, date, id) index serves the per-user keyset pagination ordered by date and ID.
  */
 @Data
 @Entity
-@Table(name = "movement_money")
+@Table(name = "movement_money",
+        indexes = @Index(name = "idx_movement_money_user_date_id", columnList = "user_id, date, id"))
 public class MovementMoney {
 
     @Id
@@ -0,0 +1,62 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * This class is an entity model that maps to the "movement_money_monthly" table in the database. Each row holds
+ * the sum and the number of all movements of one type that a user made within one calendar month. The table is
+ * a rollup of the "movement_money" table, kept up to date by every write to it, so the monthly diagram is read
+ * from a few rows per month instead of being aggregated from the whole transaction history.
+ * <p>
+ * The month is stored as an integer year * 100 + month (e.g. 202302 for February 2023).
+ * <p>
+ * Annotations:
+ * - @Data: Lombok annotation to automatically generate getters, setters, equals, hashCode, and toString methods.
+ * - @Entity: Specifies that this class is an entity and is mapped to a database table.
+ * - @Table(name = "movement_money_monthly"): Defines the specific table in the database to which this entity
+ * is mapped.
+ * - @IdClass(MovementMoneyMonthly.Key.class): Declares the composite primary key (user_id, month_key, type).
+ */
+@Data
+@Entity
+@Table(name = "movement_money_monthly")
+@IdClass(MovementMoneyMonthly.Key.class)
+public class MovementMoneyMonthly {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "month_key")
+    private Integer monthKey;
+
+    @Id
+    @Column(name = "type", length = 16)
+    @Enumerated(value = EnumType.STRING)
+    private TypeMovement type;
+
+    @Column(name = "total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "movement_count", nullable = false)
+    private Long movementCount;
+
+    /**
+     * The composite primary key of a MovementMoneyMonthly row.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Integer monthKey;
+        private TypeMovement type;
+    }
+}
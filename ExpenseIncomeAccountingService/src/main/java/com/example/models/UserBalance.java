@@ -0,0 +1,29 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * This class is an entity model that maps to the "user_balance" table in the database. It stores the
+ * materialized balance of a single user, which is kept up to date by every write to the "movement_money"
+ * table, so that reading the balance does not require scanning the user's whole transaction history.
+ * <p>
+ * Annotations:
+ * - @Data: Lombok annotation to automatically generate getters, setters, equals, hashCode, and toString methods.
+ * - @Entity: Specifies that this class is an entity and is mapped to a database table.
+ * - @Table(name = "user_balance"): Defines the specific table in the database to which this entity is mapped.
+ */
+@Data
+@Entity
+@Table(name = "user_balance")
+public class UserBalance {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+}
@@ -0,0 +1,93 @@
+package com.example.repositories;
+
+import com.example.dto.MonthlyTotal;
+import com.example.models.MovementMoneyMonthly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repository interface for MovementMoneyMonthly entity.
+ * <p>
+ * This interface extends JpaRepository and adds atomic update statements for the 'movement_money_monthly'
+ * table, so that concurrent writes of the same user and month never overwrite each other's changes, as well
+ * as the statements used to rebuild the rollup of a user from the 'movement_money' table.
+ */
+public interface MovementMoneyMonthlyRepository
+        extends JpaRepository<MovementMoneyMonthly, MovementMoneyMonthly.Key> {
+
+    /**
+     * This method atomically adds a delta to the rollup row of a user, month and type, creating the row if it
+     * does not exist yet. The addition is performed by the database itself, so it is safe against concurrent
+     * updates of the same row.
+     *
+     * @param userId   The ID of the user.
+     * @param monthKey The month as year * 100 + month.
+     * @param type     The name of the movement type.
+     * @param total    The signed change of the sum of the amounts.
+     * @param count    The signed change of the number of movements.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO movement_money_monthly (user_id, month_key, type, total, movement_count) " +
+            "VALUES (:userId, :monthKey, :type, :total, :count) " +
+            "ON DUPLICATE KEY UPDATE total = total + :total, movement_count = movement_count + :count",
+            nativeQuery = true)
+    void addToMonth(@Param("userId") Long userId,
+                    @Param("monthKey") Integer monthKey,
+                    @Param("type") String type,
+                    @Param("total") BigDecimal total,
+                    @Param("count") long count);
+
+    /**
+     * This method reads the monthly totals of a user from the rollup. Months whose movements have all been
+     * deleted are skipped.
+     *
+     * @param userId The ID of the user whose monthly totals are to be read.
+     * @return A list of MonthlyTotal objects ordered by month and type.
+     */
+    @Query(value = "SELECT r.month_key DIV 100 AS year, r.month_key % 100 AS month, r.type AS type, " +
+            "r.total AS total " +
+            "FROM movement_money_monthly r WHERE r.user_id = :userId AND r.movement_count > 0 " +
+            "ORDER BY r.month_key, r.type",
+            nativeQuery = true)
+    List<MonthlyTotal> findMonthlyTotalsByUserId(@Param("userId") Long userId);
+
+    /**
+     * This method checks whether the rollup of a user has been built, i.e. whether any rollup row of the user
+     * exists. Rows whose movements have all been deleted are kept, so a built rollup stays recognizable.
+     *
+     * @param userId The ID of the user.
+     * @return true if the user has at least one rollup row, false otherwise.
+     */
+    boolean existsByUserId(Long userId);
+
+    /**
+     * This method removes all rollup rows of a user.
+     *
+     * @param userId The ID of the user whose rollup is to be removed.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM movement_money_monthly WHERE user_id = :userId", nativeQuery = true)
+    void deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * This method computes the rollup rows of a user from their financial movements in the database.
+     * Movements without a date or type cannot be assigned to a row and are left out. Rows that already exist
+     * are left untouched, so two transactions that build the rollup of the same user at once do not fail.
+     *
+     * @param userId The ID of the user whose rollup is to be computed.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT IGNORE INTO movement_money_monthly (user_id, month_key, type, total, movement_count) " +
+            "SELECT m.user_id, YEAR(m.date) * 100 + MONTH(m.date), m.type, " +
+            "COALESCE(SUM(CAST(m.amount AS DECIMAL(19, 2))), 0), COUNT(*) " +
+            "FROM movement_money m " +
+            "WHERE m.user_id = :userId AND m.date IS NOT NULL AND m.type IS NOT NULL " +
+            "GROUP BY m.user_id, YEAR(m.date) * 100 + MONTH(m.date), m.type",
+            nativeQuery = true)
+    void insertFromMovements(@Param("userId") Long userId);
+}
@@ -1,9 +1,23 @@
 package com.example.repositories;
 
+import com.example.dto.DailyTotal;
 import com.example.models.MovementMoney;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository interface for MovementMoney entity.
@@ -22,4 +36,126 @@ public interface MovementMoneyRepository extends CrudRepository<MovementMoney, L
      */
     /*@Query(value = "SELECT * FROM movement_money WHERE user_id = :userId")*/
     List<MovementMoney> findByUserId(Long userId);
+
+    /**
+     * This method computes the balance of a user directly in the database: the sum of all incomes minus
+     * the sum of all expenses. Amounts are summed as decimals to avoid floating point drift, and only a
+     * single value is transferred instead of the whole transaction history.
+     *
+     * @param userId The ID of the user whose balance is to be computed.
+     * @return The signed sum of all amounts of the user, or zero if the user has no transactions.
+     */
+    @Query(value = "SELECT COALESCE(SUM(CASE WHEN m.type = 'INCOME' " +
+            "THEN CAST(m.amount AS DECIMAL(19, 2)) ELSE -CAST(m.amount AS DECIMAL(19, 2)) END), 0) " +
+            "FROM movement_money m WHERE m.user_id = :userId",
+            nativeQuery = true)
+    BigDecimal sumSignedAmountByUserId(@Param("userId") Long userId);
+
+    /**
+     * This method fetches a financial transaction by its ID and locks its row (SELECT ... FOR UPDATE) until the
+     * end of the current transaction. A concurrent update or delete of the same transaction waits for the lock,
+     * so both cannot revert the same old amount from the balance and the monthly rollup.
+     *
+     * @param id The ID of the transaction to be fetched.
+     * @return An Optional containing the locked MovementMoney entity, or an empty Optional if it does not exist.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MovementMoney m WHERE m.id = :id")
+    Optional<MovementMoney> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * This method fetches the first page of a user's financial transactions ordered by date and ID.
+     * Only the number of rows requested by the Pageable is read from the database. MySQL sorts transactions
+     * without a date before all dated ones, in the same order as the (user_id, date, id) index.
+     *
+     * @param userId   The ID of the user whose financial transactions are to be retrieved.
+     * @param pageable The page request limiting the number of returned rows; its page number must be 0.
+     * @return A list of at most pageable.getPageSize() MovementMoney entities.
+     */
+    List<MovementMoney> findByUserIdOrderByDateAscIdAsc(Long userId, Pageable pageable);
+
+    /**
+     * This method fetches a user's most recent financial transactions, newest first. The (user_id, date, id)
+     * index is read backwards, so only the requested number of rows is read however long the history is.
+     *
+     * @param userId   The ID of the user whose financial transactions are to be retrieved.
+     * @param pageable The page request limiting the number of returned rows; its page number must be 0.
+     * @return A list of at most pageable.getPageSize() MovementMoney entities ordered by date and ID descending.
+     */
+    List<MovementMoney> findByUserIdOrderByDateDescIdDesc(Long userId, Pageable pageable);
+
+    /**
+     * This method fetches the page of a user's financial transactions that directly follows the given
+     * (date, id) cursor, ordered by date and ID. The cursor is evaluated by the database using the
+     * (user_id, date, id) index instead of an OFFSET, so the cost of a page does not depend on its position.
+     * Transactions without a date sort before every dated one, so none of them follows a dated cursor.
+     *
+     * @param userId    The ID of the user whose financial transactions are to be retrieved.
+     * @param afterDate The date of the last transaction of the previous page, which must not be null.
+     * @param afterId   The ID of the last transaction of the previous page.
+     * @param pageable  The page request limiting the number of returned rows; its page number must be 0.
+     * @return A list of at most pageable.getPageSize() MovementMoney entities following the cursor.
+     */
+    @Query("SELECT m FROM MovementMoney m WHERE m.user.id = :userId " +
+            "AND (m.date > :afterDate OR (m.date = :afterDate AND m.id > :afterId)) " +
+            "ORDER BY m.date, m.id")
+    List<MovementMoney> findPageAfter(@Param("userId") Long userId,
+                                      @Param("afterDate") Date afterDate,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    /**
+     * This method fetches the page of a user's financial transactions that directly follows a cursor on a
+     * transaction without a date, ordered by date and ID like findPageAfter: first the remaining transactions
+     * without a date, by ID, then all dated transactions. Both parts are ranges of the (user_id, date, id) index.
+     *
+     * @param userId   The ID of the user whose financial transactions are to be retrieved.
+     * @param afterId  The ID of the last transaction of the previous page, which has no date.
+     * @param pageable The page request limiting the number of returned rows; its page number must be 0.
+     * @return A list of at most pageable.getPageSize() MovementMoney entities following the cursor.
+     */
+    @Query("SELECT m FROM MovementMoney m WHERE m.user.id = :userId " +
+            "AND ((m.date IS NULL AND m.id > :afterId) OR m.date IS NOT NULL) " +
+            "ORDER BY m.date, m.id")
+    List<MovementMoney> findPageAfterUndated(@Param("userId") Long userId,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    /**
+     * This method reads all financial transactions of a user, ordered by date and ID, as a forward-only
+     * stream. The fetch size of Integer.MIN_VALUE makes MySQL Connector/J stream the rows of this statement one
+     * by one while the stream is consumed, instead of reading the whole result first, so the whole history is
+     * never held in memory at once. Other statements keep the default fetch behavior.
+     * <p>
+     * No other statement can be run on the connection while the rows are streamed, so the user is fetched with
+     * the movements instead of by a separate query. The stream must be consumed within a transaction and closed
+     * after use.
+     *
+     * @param userId The ID of the user whose financial transactions are to be read.
+     * @return A stream of MovementMoney entities associated with the given user ID.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT m FROM MovementMoney m JOIN FETCH m.user WHERE m.user.id = :userId ORDER BY m.date, m.id")
+    Stream<MovementMoney> streamByUserId(@Param("userId") Long userId);
+
+    /**
+     * This method aggregates the financial transactions of a user within a range of dates per day and type in
+     * the database. The range predicate is evaluated with the (user_id, date, id) index, so only the rows of the
+     * range are read, and at most two rows per day are transferred. Transactions without date or type are
+     * skipped; transactions without amount count as 0, so a total is never null.
+     *
+     * @param userId The ID of the user whose financial transactions are to be aggregated.
+     * @param from   The first date of the range (inclusive).
+     * @param to     The last date of the range (inclusive).
+     * @return A list of DailyTotal objects ordered by date and type.
+     */
+    @Query(value = "SELECT m.date AS date, m.type AS type, " +
+            "COALESCE(SUM(CAST(m.amount AS DECIMAL(19, 2))), 0) AS total " +
+            "FROM movement_money m " +
+            "WHERE m.user_id = :userId AND m.date BETWEEN :from AND :to AND m.type IS NOT NULL " +
+            "GROUP BY m.date, m.type ORDER BY m.date, m.type",
+            nativeQuery = true)
+    List<DailyTotal> findDailyTotalsByUserIdAndDateBetween(@Param("userId") Long userId,
+                                                           @Param("from") Date from,
+                                                           @Param("to") Date to);
 }
@@ -0,0 +1,61 @@
+package com.example.repositories;
+
+import com.example.models.UserBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+
+/**
+ * Repository interface for UserBalance entity.
+ * <p>
+ * This interface extends JpaRepository and adds atomic update statements for the 'user_balance' table,
+ * so that concurrent writes of the same user never overwrite each other's balance changes.
+ */
+public interface UserBalanceRepository extends JpaRepository<UserBalance, Long> {
+
+    /**
+     * This method atomically adds the given delta to the stored balance of a user. The addition is
+     * performed by the database itself, so it is safe against concurrent updates of the same row.
+     *
+     * @param userId The ID of the user whose balance is to be changed.
+     * @param delta  The signed amount to be added to the balance.
+     * @return The number of updated rows: 1 if the balance row exists, 0 if it has not been created yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE user_balance SET balance = balance + :delta WHERE user_id = :userId",
+            nativeQuery = true)
+    int addToBalance(@Param("userId") Long userId, @Param("delta") BigDecimal delta);
+
+    /**
+     * This method creates the balance row of a user with the given initial value. If the row has been
+     * created concurrently in the meantime, the delta is added to the existing value instead, so that
+     * the change of the current transaction is not lost.
+     *
+     * @param userId  The ID of the user whose balance row is to be created.
+     * @param balance The initial balance, already including the delta of the current change.
+     * @param delta   The signed amount of the current change.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO user_balance (user_id, balance) VALUES (:userId, :balance) " +
+            "ON DUPLICATE KEY UPDATE balance = balance + :delta",
+            nativeQuery = true)
+    void insertOrAdd(@Param("userId") Long userId,
+                     @Param("balance") BigDecimal balance,
+                     @Param("delta") BigDecimal delta);
+
+    /**
+     * This method creates the balance row of a user with the given initial value, leaving an already
+     * existing row untouched.
+     *
+     * @param userId  The ID of the user whose balance row is to be created.
+     * @param balance The initial balance computed from the user's transaction history.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_balance (user_id, balance) VALUES (:userId, :balance) " +
+            "ON DUPLICATE KEY UPDATE user_id = user_id",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("userId") Long userId, @Param("balance") BigDecimal balance);
+}
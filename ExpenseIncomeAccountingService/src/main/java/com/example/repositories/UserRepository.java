@@ -2,6 +2,10 @@ package com.example.repositories;
 
 import com.example.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -35,4 +39,41 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     /*@Query("SELECT u FROM User u WHERE u.login = :login")*/
     Optional<User> findByLogin(String login);
+
+    /**
+     * This method returns only the ID of the user with the given login, without loading the User entity. In a
+     * database whose 'login' column is not unique yet, the lowest of the IDs of the login is returned, which is
+     * also the user that the migration db/users_login_unique.sql keeps.
+     *
+     * @param login The login name of the user whose ID is to be retrieved.
+     * @return An Optional containing the ID of the user, or an empty Optional if no user has the given login.
+     */
+    @Query("SELECT MIN(u.id) FROM User u WHERE u.login = :login")
+    Optional<Long> findIdByLogin(@Param("login") String login);
+
+    /**
+     * This method creates the user with the given login in a single statement, leaving an already existing user
+     * untouched. Relying on the unique index of the 'login' column, it is safe against concurrent first requests
+     * of the same user, which a check followed by an insert is not. Without that index it would insert a
+     * duplicate user, so it must only be used once countUniqueLoginIndexes has found the index.
+     *
+     * @param login The login name of the user to be created.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO users (login) VALUES (:login) ON DUPLICATE KEY UPDATE login = login",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("login") String login);
+
+    /**
+     * This method counts the unique indexes of the 'users' table that consist of the 'login' column alone, i.e.
+     * whether insertIfAbsent can rely on the database to reject a duplicate login.
+     *
+     * @return The number of such indexes, 0 if the 'login' column is not unique.
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT s.index_name FROM information_schema.statistics s " +
+            "WHERE s.table_schema = DATABASE() AND s.table_name = 'users' AND s.non_unique = 0 " +
+            "GROUP BY s.index_name HAVING COUNT(*) = 1 AND MAX(s.column_name) = 'login') i",
+            nativeQuery = true)
+    long countUniqueLoginIndexes();
 }
@@ -1,20 +1,29 @@
 package com.example.restControllers;
 
+import com.example.dto.DashboardDTO;
 import com.example.dto.DiagramDataDTO;
+import com.example.dto.MovementMoneyDTO;
+import com.example.dto.ReportCacheStatsDTO;
+import com.example.dto.ReportServiceStatsDTO;
+import com.example.models.Granularity;
 import com.example.models.MovementMoney;
+import com.example.services.DiagramDataService;
 import com.example.services.MovementMoneyService;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
+import com.example.services.ReportCacheService;
+import com.example.services.SingleFlight;
+import com.example.services.UserBalanceService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This controller provides endpoints for accessing and manipulating financial data such as
@@ -30,13 +39,37 @@ public class CountingRestController {
     private final MovementMoneyService movementMoneyService;
 
     /**
-     * RestTemplate is used to send HTTP requests to external microservices.
+     * UserBalanceService is used to read the materialized user balance
      */
-    private final RestTemplate restTemplate;
+    private final UserBalanceService userBalanceService;
 
-    public CountingRestController(MovementMoneyService movementMoneyService, RestTemplate restTemplate) {
+    /**
+     * ReportCacheService is used to cache the balance and diagram data of each user
+     */
+    private final ReportCacheService reportCacheService;
+
+    /**
+     * DiagramDataService is used to compute the diagram data with ReportService without blocking, or locally
+     * while ReportService is unavailable
+     */
+    private final DiagramDataService diagramDataService;
+
+    /**
+     * Coalesces concurrent balance requests of the same user
+     */
+    private final SingleFlight<ReportKey, Double> balanceFlights = new SingleFlight<>();
+
+    /**
+     * Coalesces concurrent identical diagram requests of the same user
+     */
+    private final SingleFlight<ReportKey, List<DiagramDataDTO>> diagramFlights = new SingleFlight<>();
+
+    public CountingRestController(MovementMoneyService movementMoneyService, UserBalanceService userBalanceService,
+                                  ReportCacheService reportCacheService, DiagramDataService diagramDataService) {
         this.movementMoneyService = movementMoneyService;
-        this.restTemplate = restTemplate;
+        this.userBalanceService = userBalanceService;
+        this.reportCacheService = reportCacheService;
+        this.diagramDataService = diagramDataService;
     }
 
     /**
@@ -44,11 +77,11 @@ public class CountingRestController {
      * representing the login of the user whose balance is to be calculated.
      * <p>
      * Process:
-     * - The user's financial movements are retrieved based on their login using MovementMoneyService.
-     * - These financial data are sent to an external service
-     * (at "<a href="http://localhost:8082/api/v1/balance">...</a>") using a POST request via RestTemplate.
-     * - The external service is expected to return the calculated balance, which is then sent back as
-     * the response of this endpoint.
+     * - The user's balance is read from the materialized balance maintained by UserBalanceService, which is
+     * updated on every add, update and delete of a financial movement. This makes the request a single-row
+     * read, independent of the size of the user's transaction history.
+     * - The balance is cached by ReportCacheService until the user's movements change.
+     * - Concurrent requests for the same user share one read (see SingleFlight).
      * <p>
      * Exception handling:
      * - If any exception occurs during the process, the method returns an Internal Server Error response,
@@ -60,12 +93,7 @@ public class CountingRestController {
     @GetMapping("/balance/{login}")
     public ResponseEntity<Double> getBalance(@PathVariable String login) {
         try {
-            List<MovementMoney> moneyList = movementMoneyService.getAllMovementMoneyByUserLogin(login);
-
-            return restTemplate.postForEntity(
-                    "http://localhost:8082/api/v1/balance",
-                    moneyList,
-                    Double.class);
+            return ResponseEntity.ok(balance(login));
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -75,40 +103,227 @@ public class CountingRestController {
 
     /**
      * This method handles GET requests to the "/diagram/{login}" URL, where "{login}" is the variable
-     * path segment representing the login of the user.
+     * path segment representing the login of the user. The optional "from" and "to" parameters (ISO dates, both
+     * inclusive) restrict the diagram to a range of dates, and the "granularity" parameter (day, week, month,
+     * quarter or year; month by default) selects the length of its periods.
      * <p>
      * Process:
-     * - Retrieves a list of MovementMoney entities associated with the user's login using MovementMoneyService.
-     * - The list of financial movements is sent to an external service
-     * (at "<a href="http://localhost:8082/api/v1/diagram">...</a>") using a POST request via RestTemplate.
-     * The request aims to receive diagram data based on these financial movements.
-     * - The response from the external service, expected to be a list of DiagramDataDTO objects, is returned as
-     * the response of this endpoint.
+     * - Validates the parameters: an unknown granularity or a range whose start is after its end results in a
+     * Bad Request response.
+     * - Without a range and with the default monthly granularity, returns the diagram data cached by
+     * ReportCacheService if the user's movements have not changed since it was computed. Otherwise it is
+     * computed as follows and cached.
+     * - Without a range, retrieves the user's financial movements aggregated by month and type from the monthly
+     * rollup using MovementMoneyService, so only a few rows per month are loaded regardless of the number of
+     * transactions. Weekly and daily diagrams and diagrams of a range retrieve the movements aggregated by day
+     * and type instead, with the range evaluated by the database so only the rows of the range are read.
+     * - If the user has no movements, a No Content response is returned without calling the external service.
+     * - Concurrent requests with the same login and parameters share one computation (see SingleFlight): only
+     * the first one reads the database and calls ReportService, and all of them receive its result or failure.
+     * - The totals are sent to the diagram endpoint of ReportService (report-service.url) by DiagramDataService,
+     * which returns at once: the request thread is released while ReportService computes, and the response is
+     * completed asynchronously once the diagram data has arrived.
+     * - If ReportService fails, times out, or has recently been failing or slow (see CircuitBreaker), the
+     * diagram data is computed in-process by LocalDiagramService instead, with the same result.
+     * - The diagram data, a list of DiagramDataDTO objects, is returned as the response of this endpoint; an
+     * empty list as No Content.
      * <p>
      * Exception handling:
-     * - In case of any exceptions during the processing, the method returns an Internal Server Error response,
-     * indicating a failure in retrieving the diagram data.
+     * - In case of any exceptions during the processing, such as a failure to read the movements, the method
+     * returns an Internal Server Error response, indicating a failure in retrieving the diagram data.
      *
-     * @param login The login identifier of the user whose diagram data is to be retrieved.
-     * @return A ResponseEntity containing a list of DiagramDataDTO objects or an error status in case of failure.
+     * @param login       The login identifier of the user whose diagram data is to be retrieved.
+     * @param from        The first date to be included, or null for no lower bound.
+     * @param to          The last date to be included, or null for no upper bound.
+     * @param granularity The length of the periods into which the movements are grouped.
+     * @return A future of a ResponseEntity containing a list of DiagramDataDTO objects or an error status in case
+     * of failure.
      */
     @GetMapping("/diagram/{login}")
-    public ResponseEntity<List<DiagramDataDTO>> getDiagramData(@PathVariable String login) {
+    public CompletableFuture<ResponseEntity<List<DiagramDataDTO>>> getDiagramData(
+            @PathVariable String login,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String granularity) {
+        Granularity periodGranularity;
         try {
-            List<MovementMoney> moneyList = movementMoneyService.getAllMovementMoneyByUserLogin(login);
+            periodGranularity = Granularity.parse(granularity);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
 
-            ParameterizedTypeReference<List<DiagramDataDTO>> typeRef = new ParameterizedTypeReference<>() {
-            };
+        return diagram(login, from, to, periodGranularity).handle((data, failure) -> {
+            if (failure != null) {
+                return ResponseEntity
+                        .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(null);
+            }
+            return data.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(data);
+        });
+    }
 
-            return restTemplate.exchange(
-                    "http://localhost:8082/api/v1/diagram",
-                    HttpMethod.POST,
-                    new HttpEntity<>(moneyList),
-                    typeRef);
+    /**
+     * This method handles GET requests to the "/dashboard/{login}" URL and returns everything the main page
+     * shows in one response, so a page view needs a single request instead of one per widget.
+     * <p>
+     * Process:
+     * - Reads the balance and starts the computation of the monthly diagram data exactly like the "/balance" and
+     * "/diagram" endpoints, both through ReportCacheService, so an unchanged account neither reads the database
+     * nor calls ReportService, and both coalesced with concurrent requests of the same user.
+     * - Reads the user's most recent movements, newest first, with a single index range scan.
+     * - Completes the response once the diagram data is available; a user without movements gets an empty
+     * diagram. While ReportService is unavailable, the diagram data is computed in-process, so the dashboard
+     * stays available and fast.
+     * <p>
+     * Exception handling:
+     * - In case of any exceptions during the processing, such as a failure to read the movements, the method
+     * returns an Internal Server Error response.
+     *
+     * @param login  The login identifier of the user.
+     * @param recent The number of recent movements to be returned, limited to the maximum page size.
+     * @return A future of a ResponseEntity containing the DashboardDTO or an error status in case of failure.
+     */
+    @GetMapping("/dashboard/{login}")
+    public CompletableFuture<ResponseEntity<DashboardDTO>> getDashboard(@PathVariable String login,
+                                                                        @RequestParam(defaultValue = "10") int recent) {
+        double balance;
+        List<MovementMoney> recentMovements;
+        CompletableFuture<List<DiagramDataDTO>> diagramData;
+        try {
+            balance = balance(login);
+            diagramData = diagram(login, null, null, Granularity.MONTH);
+            recentMovements = movementMoneyService.getRecentMovementMoney(login, recent);
         } catch (Exception e) {
-            return ResponseEntity
+            return CompletableFuture.completedFuture(ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
+                    .body(null));
         }
+        return diagramData.handle((data, failure) -> {
+            if (failure != null) {
+                return ResponseEntity
+                        .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(null);
+            }
+            DashboardDTO dashboard = new DashboardDTO();
+            dashboard.setBalance(balance);
+            dashboard.setDiagram(data);
+            dashboard.setRecentMovements(recentMovements);
+            return ResponseEntity.ok(dashboard);
+        });
+    }
+
+    /**
+     * This method handles GET requests to the "/cache" URL and returns the statistics of the report cache.
+     *
+     * @return A ResponseEntity containing the hit, miss, eviction and invalidation counters of the cache.
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<ReportCacheStatsDTO> getCacheStats() {
+        ReportCacheStatsDTO stats = reportCacheService.getStats();
+        stats.setCoalesced(balanceFlights.getShared() + diagramFlights.getShared());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * This method handles GET requests to the "/report-service" URL and returns the state of the circuit
+     * breaker around ReportService.
+     *
+     * @return A ResponseEntity containing the state, the failure and slow call rates, and the number of diagrams
+     * computed by ReportService and in-process.
+     */
+    @GetMapping("/report-service")
+    public ResponseEntity<ReportServiceStatsDTO> getReportServiceStats() {
+        return ResponseEntity.ok(diagramDataService.getStats());
+    }
+
+    /**
+     * This private method returns the balance of a user from the cache, or reads it, sharing the read with
+     * concurrent requests of the same user.
+     *
+     * @param login The login identifier of the user.
+     * @return The balance of the user.
+     * @throws java.util.concurrent.CompletionException If the read fails.
+     */
+    private double balance(String login) {
+        ReportKey key = new ReportKey(login, null, null, null, reportCacheService.getVersion(login));
+        return balanceFlights.execute(key, () -> CompletableFuture.completedFuture(
+                reportCacheService.getBalance(login, () -> userBalanceService.getBalance(login)))).join();
+    }
+
+    /**
+     * This private method starts the computation of the diagram data of a user, sharing it with concurrent
+     * identical requests. The monthly diagram without a range is taken from and stored in the cache.
+     * <p>
+     * The user's version of the cache is part of the key, so a request arriving after a change of the user's
+     * movements has been committed never shares a computation that started before it, while changes of other
+     * users do not stop the requests of this user from being shared.
+     *
+     * @param login       The login identifier of the user.
+     * @param from        The first date to be included, or null for no lower bound.
+     * @param to          The last date to be included, or null for no upper bound.
+     * @param granularity The length of the periods.
+     * @return A future of the diagram data, completed exceptionally if the computation fails.
+     */
+    private CompletableFuture<List<DiagramDataDTO>> diagram(String login, LocalDate from, LocalDate to,
+                                                           Granularity granularity) {
+        ReportKey key = new ReportKey(login, from, to, granularity, reportCacheService.getVersion(login));
+        return diagramFlights.execute(key, () -> from == null && to == null && granularity == Granularity.MONTH
+                ? reportCacheService.getDiagram(login, () -> requestDiagramData(login))
+                : requestDiagramData(login, from, to, granularity));
+    }
+
+    /**
+     * This private method starts the computation of the monthly diagram data of a user from the user's
+     * monthly totals.
+     *
+     * @param login The login identifier of the user.
+     * @return A future of the diagram data, already completed with an empty list if the user has no movements.
+     */
+    private CompletableFuture<List<DiagramDataDTO>> requestDiagramData(String login) {
+        return requestDiagramData(movementMoneyService.getMonthlyTotalsByUserLogin(login), Granularity.MONTH);
+    }
+
+    /**
+     * This private method starts the computation of the diagram data of a user for a range of dates and a
+     * granularity. The monthly totals are used if there is no range and the periods consist of whole months,
+     * the daily totals of the range otherwise.
+     *
+     * @param login       The login identifier of the user.
+     * @param from        The first date to be included, or null for no lower bound.
+     * @param to          The last date to be included, or null for no upper bound.
+     * @param granularity The length of the periods.
+     * @return A future of the diagram data, already completed with an empty list if the user has no movements
+     * in the range.
+     */
+    private CompletableFuture<List<DiagramDataDTO>> requestDiagramData(String login, LocalDate from, LocalDate to,
+                                                                       Granularity granularity) {
+        List<MovementMoneyDTO> totals = from == null && to == null && granularity.isMonthAligned()
+                ? movementMoneyService.getMonthlyTotalsByUserLogin(login)
+                : movementMoneyService.getDailyTotalsByUserLogin(login, from, to);
+        return requestDiagramData(totals, granularity);
+    }
+
+    /**
+     * This private method computes the diagram data of totals unless there are none.
+     *
+     * @param totals      The pre-aggregated movements.
+     * @param granularity The length of the periods.
+     * @return A future of the diagram data, already completed with an empty list if there are no totals.
+     */
+    private CompletableFuture<List<DiagramDataDTO>> requestDiagramData(List<MovementMoneyDTO> totals,
+                                                                       Granularity granularity) {
+        if (totals.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return diagramDataService.getDiagramData(totals, granularity);
+    }
+
+    /**
+     * The identity of a report request for coalescing: the user, the parameters and the cache version.
+     */
+    private record ReportKey(String login, LocalDate from, LocalDate to, Granularity granularity, long version) {
     }
 }
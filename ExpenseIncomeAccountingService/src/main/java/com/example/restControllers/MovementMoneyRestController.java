@@ -1,12 +1,36 @@
 package com.example.restControllers;
 
+import com.example.dto.BatchIngestResultDTO;
+import com.example.dto.CsvImportStatusDTO;
 import com.example.dto.MovementMoneyDTO;
+import com.example.dto.MovementMoneyPageDTO;
+import com.example.exception.CsvImportOverloadedException;
 import com.example.models.MovementMoney;
+import com.example.services.MovementMoneyBatchService;
+import com.example.services.MovementMoneyExportService;
+import com.example.services.MovementMoneyImportService;
 import com.example.services.MovementMoneyService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * This controller handles the API endpoints related to managing financial movements such as adding,
@@ -21,8 +45,35 @@ public class MovementMoneyRestController {
      */
     private final MovementMoneyService movementMoneyService;
 
-    public MovementMoneyRestController(MovementMoneyService movementMoneyService) {
+    /**
+     * MovementMoneyExportService responsible for streaming exports of financial transactions.
+     */
+    private final MovementMoneyExportService movementMoneyExportService;
+
+    /**
+     * MovementMoneyBatchService responsible for bulk imports of financial transactions.
+     */
+    private final MovementMoneyBatchService movementMoneyBatchService;
+
+    /**
+     * MovementMoneyImportService responsible for imports of bank-statement CSV files.
+     */
+    private final MovementMoneyImportService movementMoneyImportService;
+
+    /**
+     * The time an export may take, which replaces the default timeout of asynchronous requests for exports only
+     */
+    @Value("${movement-money.export.timeout}")
+    private Duration exportTimeout;
+
+    public MovementMoneyRestController(MovementMoneyService movementMoneyService,
+                                       MovementMoneyExportService movementMoneyExportService,
+                                       MovementMoneyBatchService movementMoneyBatchService,
+                                       MovementMoneyImportService movementMoneyImportService) {
         this.movementMoneyService = movementMoneyService;
+        this.movementMoneyExportService = movementMoneyExportService;
+        this.movementMoneyBatchService = movementMoneyBatchService;
+        this.movementMoneyImportService = movementMoneyImportService;
     }
 
     /**
@@ -38,6 +89,21 @@ public class MovementMoneyRestController {
         return ResponseEntity.ok(movementMoneyService.addMovementMoney(movementMoneyDTO));
     }
 
+    /**
+     * This endpoint handles POST requests to add many expense or income records at once. The request body is
+     * either a JSON array of MovementMoneyDTO objects (application/json) or one MovementMoneyDTO object per
+     * line (application/x-ndjson). The body is read as a stream and stored in chunks, each chunk with a single
+     * JDBC batch in its own transaction.
+     *
+     * @param inputStream The request body containing the transactions.
+     * @return A ResponseEntity containing the number of received and inserted transactions and the result of
+     * every chunk.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchIngestResultDTO> addExpenses(InputStream inputStream) {
+        return ResponseEntity.ok(movementMoneyBatchService.ingest(inputStream));
+    }
+
     /**
      * This endpoint handles PUT requests for updating a specific transaction, identified by its ID. It accepts
      * a MovementMoneyDTO containing the updated transaction details and updates the corresponding record in the database.
@@ -74,4 +140,113 @@ public class MovementMoneyRestController {
     public ResponseEntity<List<MovementMoney>> getAllMoveMoney(@PathVariable String login) {
         return ResponseEntity.ok(movementMoneyService.getAllMovementMoneyByUserLogin(login));
     }
+
+    /**
+     * This endpoint handles GET requests to obtain one page of the financial movements associated with a user's
+     * login, ordered by date and ID. The first page is requested without a cursor; every following page is
+     * requested with the "nextDate" and "nextId" values of the previous page passed as "afterDate" and "afterId".
+     * Movements without a date come first; after one of them, only "afterId" is passed.
+     *
+     * @param login     The login identifier of the user whose transactions are being requested.
+     * @param afterDate The date (yyyy-MM-dd) of the last movement of the previous page, omitted for the first page
+     *                  and if that movement has no date.
+     * @param afterId   The ID of the last movement of the previous page, omitted for the first page.
+     * @param size      The number of movements per page; defaults to the configured page size.
+     * @return A ResponseEntity containing the requested page and the cursor of the next page.
+     */
+    @GetMapping("/{login}/page")
+    public ResponseEntity<MovementMoneyPageDTO> getMoveMoneyPage(
+            @PathVariable String login,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "${movement-money.page.default-size}") int size) {
+        return ResponseEntity.ok(movementMoneyService.getMovementMoneyPage(login, afterDate, afterId, size));
+    }
+
+    /**
+     * This endpoint handles GET requests to export all financial movements associated with a user's login as
+     * newline-delimited JSON (application/x-ndjson), one movement per line, ordered by date and ID.
+     * <p>
+     * The response body is written by a StreamingResponseBody while the movements are read from a database
+     * cursor, so neither the list of entities nor the complete JSON document is ever held in memory. Since a
+     * large export can take much longer than other asynchronous requests, it gets its own timeout
+     * (movement-money.export.timeout).
+     *
+     * @param login   The login identifier of the user whose transactions are being exported.
+     * @param request The HTTP request, whose asynchronous processing gets the timeout of exports.
+     * @return A ResponseEntity containing the streaming NDJSON body.
+     */
+    @GetMapping(value = "/{login}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMoveMoney(@PathVariable String login,
+                                                                 HttpServletRequest request) {
+        long timeoutMillis = exportTimeout.toMillis();
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportTimeout.class,
+                new ExportTimeout(timeoutMillis));
+        StreamingResponseBody body =
+                outputStream -> movementMoneyExportService.exportMovementMoney(login, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * This endpoint handles POST requests to import a bank-statement CSV file into the financial movements of
+     * a user. The file is processed in the background; the response contains the ID under which the progress
+     * of the import can be requested. If too many imports are already queued, the upload is answered at once with
+     * SERVICE UNAVAILABLE (503) and a Retry-After header.
+     *
+     * @param login The login identifier of the user whose transactions are imported.
+     * @param file  The uploaded CSV file, sent as the "file" part of a multipart request.
+     * @return A ResponseEntity with status 202 containing the initial status of the import, or with status 503
+     * containing an error message if the import cannot be accepted.
+     * @throws IOException If the uploaded file cannot be stored.
+     */
+    @PostMapping(value = "/{login}/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importMoveMoney(@PathVariable String login, @RequestParam("file") MultipartFile file)
+            throws IOException {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(movementMoneyImportService.startImport(login, file));
+        } catch (CsvImportOverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * This endpoint handles GET requests to obtain the progress of a CSV import: the number of read, imported
+     * and rejected rows and the errors of the rejected rows.
+     *
+     * @param login The login identifier of the user who started the import.
+     * @param id    The ID of the import.
+     * @return A ResponseEntity containing the status of the import, or 404 if no such import is known.
+     */
+    @GetMapping("/{login}/import/{id}")
+    public ResponseEntity<CsvImportStatusDTO> getImportStatus(@PathVariable String login, @PathVariable String id) {
+        return movementMoneyImportService.getImportStatus(login, id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * This interceptor sets the timeout of the asynchronous processing of a single request. It is applied just
+     * before the processing starts, after Spring MVC has set the default timeout of asynchronous requests.
+     */
+    private static class ExportTimeout implements CallableProcessingInterceptor {
+        /**
+         * The timeout of the request in milliseconds
+         */
+        private final long timeoutMillis;
+
+        private ExportTimeout(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            if (request instanceof AsyncWebRequest asyncWebRequest) {
+                asyncWebRequest.setTimeout(timeoutMillis);
+            }
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.security;
+
+import java.time.Instant;
+
+/**
+ * The verified content of a JWT token: the login of the user (the subject), the user's role and the expiry of
+ * the token. It is created once per token by JwtTokenProvider and is immutable, so it can be cached and shared
+ * between requests that carry the same token.
+ *
+ * @param login     The login of the user.
+ * @param role      The role claim, e.g. "ROLE_USER".
+ * @param expiresAt The point in time at which the token expires.
+ */
+public record JwtPrincipal(String login, String role, Instant expiresAt) {
+
+    /**
+     * The name of the request attribute under which JwtTokenFilter stores the principal of the request
+     */
+    public static final String REQUEST_ATTRIBUTE = JwtPrincipal.class.getName();
+
+    /**
+     * @param now The current point in time.
+     * @return true if the token has expired at the given point in time.
+     */
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
@@ -41,9 +41,10 @@ public class JwtTokenFilter extends GenericFilterBean {
      * <p>
      * Workflow:
      * 1. Extracts the JWT token from the request using the JwtTokenProvider.
-     * 2. If a token is present, it validates the token. Valid tokens result in fetching the corresponding
-     * Authentication object and setting it in the SecurityContextHolder, which integrates with Spring
-     * Security's authentication mechanism.
+     * 2. If a token is present, it is verified once by JwtTokenProvider, which yields the JwtPrincipal of the
+     * token (cached for later requests with the same token). The principal is stored as the request attribute
+     * JwtPrincipal.REQUEST_ATTRIBUTE, and the corresponding Authentication object is set in the
+     * SecurityContextHolder, which integrates with Spring Security's authentication mechanism.
      * 3. If the token is invalid (expired or malformed), it clears the security context to prevent
      * unauthorized access and sends an error response back to the client.
      * 4. Regardless of the token's validity, the filter chain continues its execution for other filters.
@@ -59,11 +60,11 @@ public class JwtTokenFilter extends GenericFilterBean {
             throws IOException, ServletException {
         String token = jwtTokenProvider.resolveToken((HttpServletRequest) servletRequest);
         try {
-            if (token != null && jwtTokenProvider.validateToken(token)) {
-                Authentication authentication = jwtTokenProvider.getAuthentication(token);
-                if (authentication != null) {
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
+            if (token != null) {
+                JwtPrincipal principal = jwtTokenProvider.parse(token);
+                servletRequest.setAttribute(JwtPrincipal.REQUEST_ATTRIBUTE, principal);
+                Authentication authentication = jwtTokenProvider.getAuthentication(principal);
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (JwtAuthenticationException e) {
             SecurityContextHolder.clearContext();
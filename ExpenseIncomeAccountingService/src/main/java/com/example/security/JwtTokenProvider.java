@@ -12,10 +12,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.*;
 
 /**
@@ -23,6 +25,11 @@ import java.util.*;
  * <p>
  * This class provides functionalities for creating, validating, and parsing JWT tokens used
  * in the application's authentication and authorization processes.
+ * <p>
+ * The signature of a token is verified only once: the result is a JwtPrincipal, which is kept in a bounded
+ * cache keyed by the SHA-256 digest of the token until the token expires. Later requests with the same token,
+ * and all the accessors below, read the cached principal instead of verifying and parsing the token again.
+ * When the cache is full, the least recently used principal is dropped.
  */
 @Component
 public class JwtTokenProvider {
@@ -33,6 +40,33 @@ public class JwtTokenProvider {
     @Value("${jwt.secret}")
     private String secretKey;
 
+    /**
+     * The largest number of cached principals
+     */
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxCachedPrincipals;
+
+    /**
+     * The clock against which the expiry of cached principals is checked
+     */
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * The parser that verifies tokens with the signing key, created once since it is immutable and thread-safe
+     */
+    private JwtParser jwtParser;
+
+    /**
+     * The verified principals, keyed by the Base64-encoded SHA-256 digest of their token, in access order
+     * (least recently used first)
+     */
+    private final LinkedHashMap<String, JwtPrincipal> principals = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JwtPrincipal> eldest) {
+            return size() > maxCachedPrincipals;
+        }
+    };
+
     /**
      * Initializes the JwtTokenProvider after its construction.
      * <p>
@@ -44,7 +78,8 @@ public class JwtTokenProvider {
      * The method performs the following operations:
      * - It uses SHA-256 hashing to hash the original secret key.
      * - It then creates a SecretKeySpec using the hashed key, specifying HMAC-SHA256 as the algorithm.
-     * - Finally, the hashed key is encoded using Base64 and reassigned to the secretKey field.
+     * - Finally, the hashed key is encoded using Base64 and reassigned to the secretKey field, and the parser
+     * that verifies tokens with this key is built.
      *
      * @throws NoSuchAlgorithmException If the specified algorithm (SHA-256) is not available.
      */
@@ -54,15 +89,67 @@ public class JwtTokenProvider {
         byte[] hash = sha256.digest(secretKey.getBytes());
         SecretKeySpec secretKeySpec = new SecretKeySpec(hash, "HmacSHA256");
         secretKey = Base64.getEncoder().encodeToString(secretKeySpec.getEncoded());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKeySpec)
+                .build();
+    }
+
+    /**
+     * This method returns the verified principal of a JWT token.
+     * <p>
+     * Process:
+     * - Looks up the principal by the digest of the token. A cached principal is returned unless the token has
+     * expired in the meantime, in which case it is removed from the cache.
+     * - Otherwise parses the token with the signing key, which verifies its signature and expiry, and caches
+     * the principal built from its subject, role and expiry. A token without an expiry is rejected.
+     *
+     * @param token The JWT token.
+     * @return The principal of the token.
+     * @throws JwtAuthenticationException if the token is expired, invalid, or if any other
+     *                                    validation issue occurs.
+     */
+    public JwtPrincipal parse(String token) {
+        if (token == null) {
+            throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+        }
+        String digest = digest(token);
+        Instant now = clock.instant();
+        synchronized (principals) {
+            JwtPrincipal principal = principals.get(digest);
+            if (principal != null) {
+                if (!principal.isExpired(now)) {
+                    return principal;
+                }
+                principals.remove(digest);
+                throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+            }
+        }
+
+        JwtPrincipal principal;
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() == null) {
+                throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+            }
+            principal = new JwtPrincipal(claims.getSubject(), claims.get("role", String.class),
+                    claims.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+        }
+        if (principal.isExpired(now)) {
+            throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+        }
+        synchronized (principals) {
+            principals.put(digest, principal);
+        }
+        return principal;
     }
 
     /**
      * This method checks if the provided JWT token is valid and has not expired.
      * <p>
-     * The method performs the following operations:
-     * - Decodes the secret key and prepares it for verification.
-     * - Uses the JJWT library's parser to parse the token with the decoded secret key.
-     * - Checks if the token's expiration time is after the current date and time.
+     * The method obtains the principal of the token (see parse), which verifies the signature and the
+     * expiration time of the token on its first use.
      * <p>
      * If the token is valid and not expired, the method returns true. If the token is invalid, expired,
      * or if any other issue occurs during the parsing and validation process, a JwtAuthenticationException
@@ -74,26 +161,17 @@ public class JwtTokenProvider {
      *                                    validation issue occurs.
      */
     public boolean validateToken(String token) {
-        try {
-            byte[] decodedKey = Base64.getDecoder().decode(secretKey);
-            SecretKey originalKey = new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
-            Jws<Claims> claimsJws = Jwts.parserBuilder()
-                    .setSigningKey(originalKey)
-                    .build()
-                    .parseClaimsJws(token);
-            return !claimsJws.getBody().getExpiration().before(new Date());
-        } catch (JwtException | IllegalArgumentException e) {
-            throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
-        }
+        parse(token);
+        return true;
     }
 
     /**
      * This method is used to extract the user's details from a given JWT token and create an
+     * Authentication object.
      * <p>
      * The method follows these steps:
-     * - Extracts the username from the JWT token.
-     * - Loads the UserDetails associated with the extracted username using UserDetailsService.
-     * - Constructs a UsernamePasswordAuthenticationToken with the UserDetails and its authorities.
+     * - Obtains the principal of the token (see parse).
+     * - Constructs a UsernamePasswordAuthenticationToken with the login and the role of the principal.
      * This token is used by Spring Security to represent the current authenticated user.
      * <p>
      * The constructed Authentication object contains the principal, credentials (which are empty
@@ -105,63 +183,36 @@ public class JwtTokenProvider {
      * @return An Authentication object representing the user's identity and authorities.
      */
     public Authentication getAuthentication(String token) {
-        String username = getUsername(token);
-        List<SimpleGrantedAuthority> authorities = getRoles(token);
+        return getAuthentication(parse(token));
+    }
 
-        return new UsernamePasswordAuthenticationToken(username, "", authorities);
+    /**
+     * This method creates the Authentication object of a verified principal, with the login as its name and
+     * the role as its only authority.
+     *
+     * @param principal The principal of a JWT token.
+     * @return An Authentication object representing the user's identity and authorities.
+     */
+    public Authentication getAuthentication(JwtPrincipal principal) {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(principal.role()));
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(principal.login(), "", authorities);
+        authentication.setDetails(principal);
+        return authentication;
     }
 
     /**
      * This method decodes a given JWT token to retrieve the subject, which in the context
      * of this application, is the username of the user.
      * <p>
-     * The process involves:
-     * - Decoding the Base64-encoded secret key to its original byte array format.
-     * - Creating a SecretKeySpec with the decoded key for the HMAC-SHA256 signing algorithm.
-     * - Parsing the JWT token with the specified signing key to validate its signature and extract claims.
-     * - Retrieving the 'subject' field from the token's claims, which represents the username.
+     * The subject is read from the principal of the token (see parse), so the token is verified and parsed
+     * only on its first use.
      *
      * @param token The JWT token from which the username is to be extracted.
      * @return The username extracted from the token.
      */
     public String getUsername(String token) {
-        byte[] decodedKey = Base64.getDecoder().decode(secretKey);
-        SecretKey originalKey = new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
-
-        return Jwts.parserBuilder().
-                setSigningKey(originalKey)
-                .build().parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
-
-    /**
-     * This private method decodes a JWT token to extract the role claims. It then converts these roles
-     * into SimpleGrantedAuthority objects, which are used by Spring Security for authorization purposes.
-     * <p>
-     * Steps:
-     * - Decodes the JWT secret key and creates a SecretKey object for JWT parsing.
-     * - Parses the JWT token using the Jwts parser to extract the claims.
-     * - Retrieves the role from the claims and creates a SimpleGrantedAuthority object for each role.
-     *
-     * @param token The JWT token from which the roles are to be extracted.
-     * @return A list of SimpleGrantedAuthority objects representing the user's roles.
-     */
-    private List<SimpleGrantedAuthority> getRoles(String token) {
-        byte[] decodedKey = Base64.getDecoder().decode(secretKey);
-        SecretKey originalKey = new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
-
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(originalKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-        String role = claims.get("role", String.class);
-        authorities.add(new SimpleGrantedAuthority(role));
-
-        return authorities;
+        return parse(token).login();
     }
 
     /**
@@ -191,25 +242,30 @@ public class JwtTokenProvider {
     }
 
     /**
-     * This method decodes a JWT token to extract the subject, which in this context, is the user's login.
-     * It uses the JwtParser from the Jwts library to parse the token, with the secret key decoded from Base64
-     * format to validate the token's signature.
-     * <p>
-     * Process:
-     * - Decodes the secret key used for signing the JWT token.
-     * - Parses the token using the JwtParser to obtain the claims.
-     * - Extracts the subject (login) from the claims.
+     * This method returns the subject of a JWT token, which in this context, is the user's login. It is read
+     * from the principal of the token (see parse), so a token already verified by JwtTokenFilter is not parsed
+     * again.
      *
      * @param token The JWT token from which the login is to be extracted.
      * @return The login (subject) extracted from the JWT token.
      */
     public String getLoginFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(Base64.getDecoder().decode(secretKey))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parse(token).login();
+    }
 
-        return claims.getSubject();
+    /**
+     * This private method computes the cache key of a token: the Base64-encoded SHA-256 digest of the token,
+     * so the cache does not hold the tokens themselves.
+     *
+     * @param token The JWT token.
+     * @return The digest of the token.
+     */
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,230 @@
+package com.example.services;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * This class is a circuit breaker for calls to a remote service. It records the outcome of the most recent
+ * calls in a sliding window and stops calling the service while too many of them failed or were slow.
+ * <p>
+ * States:
+ * - CLOSED: calls are permitted. Once the window holds at least minimumCalls outcomes and the share of failed
+ * calls or the share of slow calls reaches its threshold, the breaker opens.
+ * - OPEN: calls are not permitted, so the caller uses its fallback at once instead of waiting for a service that
+ * is down or overloaded. After openDuration, the breaker becomes half open.
+ * - HALF_OPEN: a single trial call is permitted. If it succeeds in time, the breaker closes with an empty window;
+ * otherwise it opens again.
+ * <p>
+ * All methods are synchronized on the breaker; they only update a few counters, and the calls themselves are
+ * made outside of the lock.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long slowCallNanos;
+    private final int slowCallRateThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * The outcomes of the most recent calls as FAILED and SLOW flags, used as a ring buffer
+     */
+    private final byte[] window;
+    private int windowPosition;
+    private int bufferedCalls;
+    private int failedCalls;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialCallRunning;
+    private long notPermittedCalls;
+    private long openings;
+
+    /**
+     * @param windowSize            The number of most recent calls whose outcomes are evaluated.
+     * @param minimumCalls          The number of outcomes needed before the breaker can open.
+     * @param failureRateThreshold  The share of failed calls in percent at which the breaker opens.
+     * @param slowCallThreshold     The duration from which a call counts as slow.
+     * @param slowCallRateThreshold The share of slow calls in percent at which the breaker opens.
+     * @param openDuration          The time the breaker stays open before a trial call is permitted.
+     * @param nanoClock             The source of the current time in nanoseconds, usually System::nanoTime.
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, Duration slowCallThreshold,
+                          int slowCallRateThreshold, Duration openDuration, LongSupplier nanoClock) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("minimumCalls must be between 1 and windowSize");
+        }
+        this.window = new byte[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * This method decides whether a call may be made now. Every permitted call must be followed by a call of
+     * onSuccess or onError.
+     *
+     * @return true if the call may be made, false if the caller must use its fallback.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+        }
+        boolean permitted = switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> !trialCallRunning;
+        };
+        if (!permitted) {
+            notPermittedCalls++;
+        } else if (state == State.HALF_OPEN) {
+            trialCallRunning = true;
+        }
+        return permitted;
+    }
+
+    /**
+     * This method records a call that returned a usable result.
+     *
+     * @param durationNanos The duration of the call in nanoseconds.
+     */
+    public synchronized void onSuccess(long durationNanos) {
+        record(durationNanos >= slowCallNanos ? SLOW : 0);
+    }
+
+    /**
+     * This method records a call that failed or timed out.
+     *
+     * @param durationNanos The duration of the call in nanoseconds.
+     */
+    public synchronized void onError(long durationNanos) {
+        record((byte) (FAILED | (durationNanos >= slowCallNanos ? SLOW : 0)));
+    }
+
+    /**
+     * @return The current state; an open breaker whose open duration has elapsed is reported as half open.
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * @return The share of failed calls in the window in percent, or 0 if the window is empty.
+     */
+    public synchronized double getFailureRate() {
+        return bufferedCalls == 0 ? 0 : 100.0 * failedCalls / bufferedCalls;
+    }
+
+    /**
+     * @return The share of slow calls in the window in percent, or 0 if the window is empty.
+     */
+    public synchronized double getSlowCallRate() {
+        return bufferedCalls == 0 ? 0 : 100.0 * slowCalls / bufferedCalls;
+    }
+
+    /**
+     * @return The number of outcomes in the window.
+     */
+    public synchronized int getBufferedCalls() {
+        return bufferedCalls;
+    }
+
+    /**
+     * @return The number of calls that were not permitted because the breaker was open.
+     */
+    public synchronized long getNotPermittedCalls() {
+        return notPermittedCalls;
+    }
+
+    /**
+     * @return The number of times the breaker has opened.
+     */
+    public synchronized long getOpenings() {
+        return openings;
+    }
+
+    /**
+     * This private method records the outcome of a call and changes the state accordingly.
+     *
+     * @param outcome The FAILED and SLOW flags of the call.
+     */
+    private void record(byte outcome) {
+        if (state == State.HALF_OPEN) {
+            trialCallRunning = false;
+            if (outcome == 0) {
+                state = State.CLOSED;
+                clearWindow();
+            } else {
+                open();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // a call permitted before the breaker opened; the decision has already been made
+            return;
+        }
+
+        if (bufferedCalls == window.length) {
+            removeOutcome(window[windowPosition]);
+        } else {
+            bufferedCalls++;
+        }
+        window[windowPosition] = outcome;
+        windowPosition = (windowPosition + 1) % window.length;
+        failedCalls += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+
+        if (bufferedCalls >= minimumCalls
+                && (failedCalls * 100L >= (long) failureRateThreshold * bufferedCalls
+                || slowCalls * 100L >= (long) slowCallRateThreshold * bufferedCalls)) {
+            open();
+        }
+    }
+
+    /**
+     * This private method removes the outcome that drops out of the window from the counters.
+     *
+     * @param outcome The FAILED and SLOW flags of the oldest call.
+     */
+    private void removeOutcome(byte outcome) {
+        failedCalls -= outcome & FAILED;
+        slowCalls -= (outcome & SLOW) >> 1;
+    }
+
+    /**
+     * This private method opens the breaker and starts the open duration.
+     */
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+        openings++;
+        clearWindow();
+    }
+
+    /**
+     * This private method forgets all recorded outcomes.
+     */
+    private void clearWindow() {
+        bufferedCalls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+        windowPosition = 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.services;
+
+import com.example.dto.DiagramDataDTO;
+import com.example.dto.MovementMoneyDTO;
+import com.example.dto.ReportServiceStatsDTO;
+import com.example.models.Granularity;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This service computes diagram data with ReportService and falls back to the in-process computation of
+ * LocalDiagramService when ReportService is slow or down.
+ * <p>
+ * The calls to ReportService go through a circuit breaker (see CircuitBreaker) that records the duration and
+ * the outcome of every call. While too many recent calls have failed or been slow, the breaker is open and the
+ * diagram data is computed locally at once, so requests do not queue up behind a service that cannot answer
+ * and their latency stays low. A call that fails or times out is answered locally as well.
+ */
+@Service
+public class DiagramDataService {
+
+    /**
+     * ReportServiceClient is used to request the diagram data from ReportService
+     */
+    private final ReportServiceClient reportServiceClient;
+
+    /**
+     * LocalDiagramService is used to compute the diagram data while ReportService is unavailable
+     */
+    private final LocalDiagramService localDiagramService;
+
+    /**
+     * CircuitBreaker is used to stop calling ReportService while it fails or is slow
+     */
+    private final CircuitBreaker circuitBreaker;
+
+    private final AtomicLong remoteCalls = new AtomicLong();
+    private final AtomicLong fallbackCalls = new AtomicLong();
+
+    public DiagramDataService(ReportServiceClient reportServiceClient, LocalDiagramService localDiagramService,
+                              CircuitBreaker reportServiceCircuitBreaker) {
+        this.reportServiceClient = reportServiceClient;
+        this.localDiagramService = localDiagramService;
+        this.circuitBreaker = reportServiceCircuitBreaker;
+    }
+
+    /**
+     * This method computes the diagram data of a list of movements.
+     * <p>
+     * Process:
+     * - If the circuit breaker does not permit a call, the diagram data is computed locally and returned as an
+     * already completed future.
+     * - Otherwise the movements are sent to ReportService. Its result is returned, and the duration of the call
+     * is recorded as a success.
+     * - If the call fails, including a timeout, the failure is recorded and the diagram data is computed locally
+     * instead.
+     *
+     * @param totals      The movements or pre-aggregated totals of a user.
+     * @param granularity The length of the periods.
+     * @return A future of the diagram data, completed exceptionally only if the local computation fails too.
+     */
+    public CompletableFuture<List<DiagramDataDTO>> getDiagramData(List<MovementMoneyDTO> totals,
+                                                                  Granularity granularity) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.supplyAsync(() -> computeLocally(totals, granularity), Runnable::run);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<List<DiagramDataDTO>> remote;
+        try {
+            remote = reportServiceClient.getDiagramData(totals, granularity);
+        } catch (RuntimeException e) {
+            remote = CompletableFuture.failedFuture(e);
+        }
+        return remote.handle((data, failure) -> {
+            long duration = System.nanoTime() - start;
+            if (failure == null) {
+                circuitBreaker.onSuccess(duration);
+                remoteCalls.incrementAndGet();
+                return data;
+            }
+            circuitBreaker.onError(duration);
+            return computeLocally(totals, granularity);
+        });
+    }
+
+    /**
+     * This method returns the state of the circuit breaker and the number of remote and local computations.
+     *
+     * @return The statistics.
+     */
+    public ReportServiceStatsDTO getStats() {
+        ReportServiceStatsDTO stats = new ReportServiceStatsDTO();
+        stats.setState(circuitBreaker.getState().name());
+        stats.setFailureRate(circuitBreaker.getFailureRate());
+        stats.setSlowCallRate(circuitBreaker.getSlowCallRate());
+        stats.setBufferedCalls(circuitBreaker.getBufferedCalls());
+        stats.setNotPermittedCalls(circuitBreaker.getNotPermittedCalls());
+        stats.setOpenings(circuitBreaker.getOpenings());
+        stats.setRemoteCalls(remoteCalls.get());
+        stats.setFallbackCalls(fallbackCalls.get());
+        return stats;
+    }
+
+    /**
+     * This private method computes the diagram data in-process and counts the fallback.
+     *
+     * @param totals      The movements or pre-aggregated totals of a user.
+     * @param granularity The length of the periods.
+     * @return The diagram data.
+     */
+    private List<DiagramDataDTO> computeLocally(List<MovementMoneyDTO> totals, Granularity granularity) {
+        fallbackCalls.incrementAndGet();
+        return localDiagramService.getDiagramData(totals, granularity);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.services;
+
+import com.example.dto.DiagramDataDTO;
+import com.example.dto.MovementMoneyDTO;
+import com.example.models.Granularity;
+import com.example.models.TypeMovement;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This service computes diagram data in-process. It is an embedded copy of the aggregation of the reporting
+ * service, used as a fallback while the reporting service is slow or down (see DiagramDataService), so it must
+ * produce the same result:
+ * - Every movement is signed: incomes add to the balance, all other movements subtract from it; a negative
+ * amount reverses the sign.
+ * - The amounts are rounded half away from zero to cents and summed exactly as cents.
+ * - The sums are grouped by the period of the movement's date in the system default time zone and returned in
+ * chronological order, each dated on the first day of its period.
+ * <p>
+ * The input is the pre-aggregated monthly or daily totals of a user, so the computation handles a few rows per
+ * period regardless of the number of transactions.
+ */
+@Service
+public class LocalDiagramService {
+
+    /**
+     * This method computes the balance change of every period that contains at least one movement.
+     * <p>
+     * Process:
+     * - Skips null entries, like the reporting service.
+     * - Adds the signed amount of every movement in cents to the balance of the period of its date.
+     * - Converts the balances into DiagramDataDTO objects dated at the start of the first day of their period.
+     *
+     * @param totals      The movements or pre-aggregated totals of a user.
+     * @param granularity The length of the periods.
+     * @return A sorted list of DiagramDataDTO objects, empty if there are no movements.
+     * @throws ArithmeticException If a balance overflows the range of a long number of cents.
+     */
+    public List<DiagramDataDTO> getDiagramData(List<MovementMoneyDTO> totals, Granularity granularity) {
+        ZoneId zone = ZoneId.systemDefault();
+        Map<LocalDate, Long> balances = new TreeMap<>();
+        for (MovementMoneyDTO total : totals) {
+            if (total == null) {
+                continue;
+            }
+            LocalDate date = total.getDate().toInstant().atZone(zone).toLocalDate();
+            long cents = toCents(total.getAmount());
+            balances.merge(granularity.startOfPeriod(date), total.getType() == TypeMovement.INCOME ? cents : -cents,
+                    Math::addExact);
+        }
+
+        List<DiagramDataDTO> result = new ArrayList<>(balances.size());
+        for (Map.Entry<LocalDate, Long> balance : balances.entrySet()) {
+            DiagramDataDTO data = new DiagramDataDTO();
+            data.setDate(Date.from(balance.getKey().atStartOfDay(zone).toInstant()));
+            data.setBalance(BigDecimal.valueOf(balance.getValue(), 2).doubleValue());
+            result.add(data);
+        }
+        return result;
+    }
+
+    /**
+     * This private method converts an amount into cents, rounding its decimal representation half away from
+     * zero like the reporting service and the columnar format, so that all of them round every amount
+     * identically (0.285 becomes 29 cents).
+     *
+     * @param amount The amount.
+     * @return The amount in cents.
+     * @throws ArithmeticException If the amount is not finite or out of the range of a long number of cents.
+     */
+    private long toCents(double amount) {
+        if (!Double.isFinite(amount)) {
+            throw new ArithmeticException("Amount out of range: " + amount);
+        }
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.services;
+
+import com.example.models.User;
+import com.example.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * This job rebuilds the monthly rollup (see MonthlyRollupService) of every user from the stored financial
+ * movements. It repairs a rollup that has diverged, e.g. after movements were changed directly in the database.
+ * It is not needed after upgrading, as the rollup of a user without rollup rows is built on first access.
+ * <p>
+ * The rebuild replaces the rollup of every user from their full history, so it is an on-demand operation, not
+ * part of every start: it is disabled by default and is run by starting one instance once with
+ * movement-money.monthly.rebuild-on-startup=true (e.g. as a command-line argument) when the rollup has to be
+ * repaired. The job then runs in a background thread after the application has started.
+ * Every user is rebuilt in a separate transaction, so the rollup of each user is replaced atomically and writes
+ * of other users are not blocked.
+ */
+@Slf4j
+@Component
+public class MonthlyRollupRebuildJob {
+    /**
+     * UserRepository is used to find all users whose rollup is to be rebuilt
+     */
+    private final UserRepository userRepository;
+    /**
+     * MonthlyRollupService is used to rebuild the rollup of a single user
+     */
+    private final MonthlyRollupService monthlyRollupService;
+    /**
+     * ReportCacheService is used to drop diagrams cached while the rollup was incomplete
+     */
+    private final ReportCacheService reportCacheService;
+    /**
+     * Whether the rollup of all users is rebuilt when the application has started
+     */
+    @Value("${movement-money.monthly.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public MonthlyRollupRebuildJob(UserRepository userRepository, MonthlyRollupService monthlyRollupService,
+                                   ReportCacheService reportCacheService) {
+        this.userRepository = userRepository;
+        this.monthlyRollupService = monthlyRollupService;
+        this.reportCacheService = reportCacheService;
+    }
+
+    /**
+     * This method starts the rebuild in a background thread when the application is ready, if enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (rebuildOnStartup) {
+            Thread thread = new Thread(this::rebuildAll, "monthly-rollup-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * This method rebuilds the rollup of every user and invalidates their cached reports. A failure for one
+     * user is logged and does not stop the rebuild of the others.
+     *
+     * @return The number of users whose rollup has been rebuilt.
+     */
+    public int rebuildAll() {
+        int rebuilt = 0;
+        for (User user : userRepository.findAll()) {
+            try {
+                monthlyRollupService.rebuild(user.getId());
+                reportCacheService.invalidate(user.getLogin());
+                rebuilt++;
+            } catch (RuntimeException e) {
+                log.warn("Could not rebuild the monthly rollup of user {}", user.getId(), e);
+            }
+        }
+        log.info("Rebuilt the monthly rollup of {} users", rebuilt);
+        return rebuilt;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.services;
+
+import com.example.dto.MonthlyTotal;
+import com.example.dto.MovementMoneyDTO;
+import com.example.models.TypeMovement;
+import com.example.repositories.MovementMoneyMonthlyRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This service maintains the monthly rollup of the financial movements (see MovementMoneyMonthly). The rollup
+ * is changed in the same transaction as the movement that causes it, so the monthly totals of a user can be
+ * read with a cost proportional to the number of months instead of the number of transactions.
+ * <p>
+ * The rollup of a user is built from their stored movements the first time it is read or changed, like the
+ * materialized balance (see UserBalanceService), so users whose movements were written before the rollup existed
+ * get complete monthly totals without a rebuild. Whether the rollup of a user has been built is recognized by the
+ * existence of any of their rollup rows.
+ * <p>
+ * Movements without a date or type are not part of the rollup, as they belong to no month.
+ */
+@Service
+public class MonthlyRollupService {
+    /**
+     * MovementMoneyMonthlyRepository is used for rollup related database operations
+     */
+    private final MovementMoneyMonthlyRepository movementMoneyMonthlyRepository;
+
+    public MonthlyRollupService(MovementMoneyMonthlyRepository movementMoneyMonthlyRepository) {
+        this.movementMoneyMonthlyRepository = movementMoneyMonthlyRepository;
+    }
+
+    /**
+     * This method adds a financial movement to the rollup of its user. It has to be called within the
+     * transaction that stores the movement, before the movement itself is written.
+     *
+     * @param userId The ID of the user who owns the movement.
+     * @param type   The type of the movement (INCOME or EXPENSE).
+     * @param amount The amount of the movement.
+     * @param date   The date of the movement.
+     */
+    @Transactional
+    public void applyMovement(Long userId, TypeMovement type, Double amount, Date date) {
+        addToMonth(userId, date, type, toDecimal(amount), 1);
+    }
+
+    /**
+     * This method removes a financial movement from the rollup of its user. It has to be called within the
+     * transaction that changes or deletes the movement, with the values the movement had before the change and
+     * before the change itself is written.
+     *
+     * @param userId The ID of the user who owns the movement.
+     * @param type   The type of the movement (INCOME or EXPENSE).
+     * @param amount The amount of the movement.
+     * @param date   The date of the movement.
+     */
+    @Transactional
+    public void revertMovement(Long userId, TypeMovement type, Double amount, Date date) {
+        addToMonth(userId, date, type, toDecimal(amount).negate(), -1);
+    }
+
+    /**
+     * This method adds several financial movements of the same user to the rollup with one update per month
+     * and type. It has to be called within the transaction that stores the movements, before the movements
+     * themselves are written.
+     *
+     * @param userId    The ID of the user who owns the movements.
+     * @param movements The movements to be added to the rollup.
+     */
+    @Transactional
+    public void applyMovements(Long userId, Collection<MovementMoneyDTO> movements) {
+        Map<Key, Delta> deltas = new LinkedHashMap<>();
+        for (MovementMoneyDTO movement : movements) {
+            if (movement.getDate() != null && movement.getType() != null) {
+                Delta delta = deltas.computeIfAbsent(new Key(monthKey(movement.getDate()), movement.getType()),
+                        key -> new Delta());
+                delta.total = delta.total.add(toDecimal(movement.getAmount()));
+                delta.count++;
+            }
+        }
+        if (userId == null || deltas.isEmpty()) {
+            return;
+        }
+        buildIfAbsent(userId);
+        deltas.forEach((key, delta) -> movementMoneyMonthlyRepository.addToMonth(
+                userId, key.monthKey, key.type.name(), delta.total, delta.count));
+    }
+
+    /**
+     * This method returns the monthly totals of a user from the rollup.
+     * <p>
+     * Process:
+     * - Builds the rollup of the user from their stored movements if it does not exist yet.
+     * - Reads the totals from the rollup rows of the user.
+     *
+     * @param userId The ID of the user.
+     * @return The totals per month and type, ordered by month.
+     */
+    @Transactional
+    public List<MonthlyTotal> getMonthlyTotals(Long userId) {
+        buildIfAbsent(userId);
+        return movementMoneyMonthlyRepository.findMonthlyTotalsByUserId(userId);
+    }
+
+    /**
+     * This method recomputes the rollup of a user from their stored financial movements. It is used to build
+     * the rollup for data written before the rollup existed and to repair it.
+     * <p>
+     * Process:
+     * - Deletes all rollup rows of the user. The delete locks the user's range of the rollup, so concurrent
+     * writes of the user wait until the rebuild has committed.
+     * - Aggregates the user's movements in the database and inserts the result as the new rollup rows.
+     *
+     * @param userId The ID of the user whose rollup is to be rebuilt.
+     */
+    @Transactional
+    public void rebuild(Long userId) {
+        movementMoneyMonthlyRepository.deleteByUserId(userId);
+        movementMoneyMonthlyRepository.insertFromMovements(userId);
+    }
+
+    /**
+     * This method returns the month of a date as year * 100 + month, the month key of the rollup.
+     *
+     * @param date The date.
+     * @return The month key.
+     */
+    static int monthKey(Date date) {
+        LocalDate localDate = new java.sql.Date(date.getTime()).toLocalDate();
+        return localDate.getYear() * 100 + localDate.getMonthValue();
+    }
+
+    /**
+     * This private method changes the rollup row of the month and type of a movement, skipping movements that
+     * belong to no row.
+     *
+     * @param userId The ID of the user who owns the movement.
+     * @param date   The date of the movement.
+     * @param type   The type of the movement.
+     * @param total  The signed change of the sum.
+     * @param count  The signed change of the number of movements.
+     */
+    private void addToMonth(Long userId, Date date, TypeMovement type, BigDecimal total, long count) {
+        if (userId == null || date == null || type == null) {
+            return;
+        }
+        buildIfAbsent(userId);
+        movementMoneyMonthlyRepository.addToMonth(userId, monthKey(date), type.name(), total, count);
+    }
+
+    /**
+     * This private method builds the rollup of a user from their stored movements if the user has no rollup
+     * rows yet. A user without dated movements gets no rows, so the check is repeated on their next access; it
+     * then finds nothing to aggregate either.
+     *
+     * @param userId The ID of the user whose rollup is to be built.
+     */
+    private void buildIfAbsent(Long userId) {
+        if (!movementMoneyMonthlyRepository.existsByUserId(userId)) {
+            movementMoneyMonthlyRepository.insertFromMovements(userId);
+        }
+    }
+
+    /**
+     * This private method converts an amount into the decimal stored in the rollup, rounded like the database
+     * rounds it when the rollup is rebuilt. A missing amount counts as zero.
+     *
+     * @param amount The amount of a movement.
+     * @return The amount with two decimal places.
+     */
+    private BigDecimal toDecimal(Double amount) {
+        return amount == null ? BigDecimal.ZERO : BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * The month and type of a rollup row.
+     */
+    private record Key(int monthKey, TypeMovement type) {
+    }
+
+    /**
+     * The accumulated change of a rollup row.
+     */
+    private static final class Delta {
+        private BigDecimal total = BigDecimal.ZERO;
+        private long count;
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.services;
+
+import com.example.dto.BatchChunkResultDTO;
+import com.example.dto.BatchIngestResultDTO;
+import com.example.dto.MovementMoneyDTO;
+import com.example.exception.UserNotFoundException;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * This service imports large numbers of financial movements in one request. The input is read as a stream
+ * and written in chunks of a configurable size, each chunk with a single JDBC batch and in its own
+ * transaction, so neither the whole input nor one statement per movement is needed.
+ * <p>
+ * The inserts are executed through JdbcTemplate because Hibernate cannot batch inserts of entities with
+ * IDENTITY generated IDs; together with the "rewriteBatchedStatements" driver option every chunk is sent
+ * to the database as multi-row INSERT statements.
+ * <p>
+ * The errors reported for failed chunks are fixed messages; the exceptions behind them, which may contain SQL
+ * or other internals, are only logged.
+ */
+@Slf4j
+@Service
+public class MovementMoneyBatchService {
+
+    /**
+     * The error of a chunk that contains a movement of an unknown user
+     */
+    public static final String UNKNOWN_USER_ERROR = "Unknown user";
+    /**
+     * The error of a chunk that could not be stored for any other reason
+     */
+    public static final String WRITE_FAILED_ERROR = "The movements could not be stored";
+    /**
+     * The error of the chunk during which the input turned out to be malformed
+     */
+    public static final String MALFORMED_INPUT_ERROR = "Malformed input";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO movement_money (user_id, description, amount, date, type) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * JdbcTemplate is used to execute the batched inserts
+     */
+    private final JdbcTemplate jdbcTemplate;
+    /**
+     * TransactionTemplate is used to write every chunk in its own transaction
+     */
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * UserService is used for user related information
+     */
+    private final UserService userService;
+    /**
+     * UserBalanceService is used to keep the materialized user balance up to date
+     */
+    private final UserBalanceService userBalanceService;
+    /**
+     * MonthlyRollupService is used to keep the monthly rollup up to date
+     */
+    private final MonthlyRollupService monthlyRollupService;
+    /**
+     * ReportCacheService is used to invalidate the cached reports of the users whose movements were written
+     */
+    private final ReportCacheService reportCacheService;
+    /**
+     * ObjectMapper is used to read the movements from the request body
+     */
+    private final ObjectMapper objectMapper;
+    /**
+     * The number of movements written in one chunk
+     */
+    @Value("${movement-money.batch.chunk-size}")
+    private int chunkSize;
+
+    public MovementMoneyBatchService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                     UserService userService, UserBalanceService userBalanceService,
+                                     MonthlyRollupService monthlyRollupService,
+                                     ReportCacheService reportCacheService, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userService = userService;
+        this.userBalanceService = userBalanceService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.reportCacheService = reportCacheService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * This method imports the financial movements contained in the given input, which is either a JSON array
+     * of MovementMoneyDTO objects or a stream of newline-delimited MovementMoneyDTO objects (NDJSON).
+     * <p>
+     * Process:
+     * - Reads the movements one by one and collects them into chunks of the configured size.
+     * - Writes every full chunk (and the last, possibly smaller one) in its own transaction.
+     * - Records the result of every chunk; a failed chunk does not stop the import of the following ones.
+     * - If the input is malformed, the import stops and the error is recorded as the result of the chunk
+     * that was being read; the chunks written before remain stored.
+     *
+     * @param inputStream The request body containing the movements.
+     * @return A BatchIngestResultDTO with the totals and the result of every chunk.
+     */
+    public BatchIngestResultDTO ingest(InputStream inputStream) {
+        BatchIngestResultDTO result = new BatchIngestResultDTO();
+        Map<String, Long> userIds = new HashMap<>();
+        List<MovementMoneyDTO> chunk = new ArrayList<>(chunkSize);
+
+        try (MappingIterator<MovementMoneyDTO> movements =
+                     objectMapper.readerFor(MovementMoneyDTO.class).readValues(inputStream)) {
+            while (movements.hasNextValue()) {
+                chunk.add(movements.nextValue());
+                if (chunk.size() == chunkSize) {
+                    addChunkResult(result, writeChunk(result.getChunks().size(), chunk, userIds));
+                    chunk.clear();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            BatchChunkResultDTO failed = new BatchChunkResultDTO();
+            failed.setIndex(result.getChunks().size());
+            failed.setSize(chunk.size());
+            failed.setError(malformedInputError(e));
+            addChunkResult(result, failed);
+            return result;
+        }
+
+        if (!chunk.isEmpty()) {
+            addChunkResult(result, writeChunk(result.getChunks().size(), chunk, userIds));
+        }
+        return result;
+    }
+
+    /**
+     * This method writes one chunk of movements within a single transaction. It is used by the bulk import of
+     * this service as well as by the CSV statement import.
+     * <p>
+     * Process:
+     * - Resolves the user ID of every login not seen before in this import (each login is looked up once).
+     * - Adds the movements of the chunk to the materialized balance of their users, one update per user, and
+     * to the monthly rollup, one update per user, month and type.
+     * - Inserts all movements of the chunk with a single JDBC batch.
+     * - Invalidates the cached reports of the users of the chunk once the transaction has committed.
+     * <p>
+     * Any exception rolls back the whole chunk. The returned result reports it as an unknown user or as a
+     * failed write, and any other exception is logged.
+     *
+     * @param index   The position of the chunk within the import.
+     * @param chunk   The movements of the chunk.
+     * @param userIds The cache of already resolved user IDs, keyed by login.
+     * @return A BatchChunkResultDTO describing the outcome of the chunk.
+     */
+    public BatchChunkResultDTO writeChunk(int index, List<MovementMoneyDTO> chunk, Map<String, Long> userIds) {
+        BatchChunkResultDTO chunkResult = new BatchChunkResultDTO();
+        chunkResult.setIndex(index);
+        chunkResult.setSize(chunk.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, List<MovementMoneyDTO>> movementsByUser = new LinkedHashMap<>();
+                List<Object[]> rows = new ArrayList<>(chunk.size());
+                for (MovementMoneyDTO dto : chunk) {
+                    Long userId = userIds.computeIfAbsent(dto.getLogin(), userService::getId);
+                    movementsByUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(dto);
+                    rows.add(new Object[]{
+                            userId,
+                            dto.getDescription(),
+                            dto.getAmount(),
+                            dto.getDate() != null ? new java.sql.Date(dto.getDate().getTime()) : null,
+                            dto.getType() != null ? dto.getType().name() : null});
+                }
+
+                movementsByUser.forEach(userBalanceService::applyMovements);
+                movementsByUser.forEach(monthlyRollupService::applyMovements);
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows,
+                        new int[]{Types.BIGINT, Types.VARCHAR, Types.DOUBLE, Types.DATE, Types.VARCHAR});
+                chunk.stream().map(MovementMoneyDTO::getLogin).distinct().forEach(reportCacheService::invalidate);
+            });
+            chunkResult.setInserted(chunk.size());
+        } catch (UserNotFoundException e) {
+            chunkResult.setError(UNKNOWN_USER_ERROR);
+        } catch (RuntimeException e) {
+            log.error("Could not store chunk {} of {} movements", index, chunk.size(), e);
+            chunkResult.setError(WRITE_FAILED_ERROR);
+        }
+        return chunkResult;
+    }
+
+    /**
+     * This private helper method describes malformed input without repeating the message of the parser, adding
+     * the position of the error in the input if it is known.
+     *
+     * @param e The exception thrown while reading the input.
+     * @return The error of the chunk that was being read.
+     */
+    private static String malformedInputError(Exception e) {
+        if (e instanceof JsonProcessingException jsonException && jsonException.getLocation() != null) {
+            JsonLocation location = jsonException.getLocation();
+            return MALFORMED_INPUT_ERROR + " at line " + location.getLineNr() + ", column " + location.getColumnNr();
+        }
+        return MALFORMED_INPUT_ERROR;
+    }
+
+    /**
+     * This private helper method appends the result of a chunk to the import summary and updates its totals.
+     *
+     * @param result      The import summary.
+     * @param chunkResult The result of the processed chunk.
+     */
+    private void addChunkResult(BatchIngestResultDTO result, BatchChunkResultDTO chunkResult) {
+        result.getChunks().add(chunkResult);
+        result.setReceived(result.getReceived() + chunkResult.getSize());
+        result.setInserted(result.getInserted() + chunkResult.getInserted());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.services;
+
+import com.example.models.MovementMoney;
+import com.example.repositories.MovementMoneyRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * This service exports the financial movements of a user as newline-delimited JSON (NDJSON), one movement
+ * per line. The movements are streamed from the database and written to the output one by one, so the
+ * memory used by an export stays constant regardless of the number of exported records.
+ */
+@Service
+public class MovementMoneyExportService {
+    /**
+     * MovementMoneyRepository is used for database operations
+     */
+    private final MovementMoneyRepository movementMoneyRepository;
+    /**
+     * UserService is used for user related information
+     */
+    private final UserService userService;
+    /**
+     * EntityManager is used to detach already exported movements from the persistence context
+     */
+    private final EntityManager entityManager;
+    /**
+     * ObjectMapper is used to serialize movements to JSON
+     */
+    private final ObjectMapper objectMapper;
+
+    public MovementMoneyExportService(MovementMoneyRepository movementMoneyRepository, UserService userService,
+                                      EntityManager entityManager, ObjectMapper objectMapper) {
+        this.movementMoneyRepository = movementMoneyRepository;
+        this.userService = userService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * This method, marked as @Transactional(readOnly = true), keeps the streamed result open for the whole
+     * export. It writes every financial movement of a user as a single JSON line to the given output stream.
+     * <p>
+     * Process:
+     * - Obtains the user's ID from the UserService using the provided login.
+     * - Opens a forward-only stream of the user's movements ordered by date and ID.
+     * - Serializes each movement followed by a line break and detaches it from the persistence context,
+     * so exported entities can be garbage collected immediately.
+     * <p>
+     * The output stream is flushed but not closed.
+     *
+     * @param login        The login identifier of the user whose financial transactions are exported.
+     * @param outputStream The stream the NDJSON lines are written to.
+     * @throws IOException If writing to the output stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportMovementMoney(String login, OutputStream outputStream) throws IOException {
+        Long userId = userService.getId(login);
+
+        try (Stream<MovementMoney> movements = movementMoneyRepository.streamByUserId(userId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            Iterator<MovementMoney> iterator = movements.iterator();
+            while (iterator.hasNext()) {
+                MovementMoney movementMoney = iterator.next();
+                objectMapper.writeValue(generator, movementMoney);
+                generator.writeRaw('\n');
+                entityManager.detach(movementMoney);
+            }
+        }
+    }
+}
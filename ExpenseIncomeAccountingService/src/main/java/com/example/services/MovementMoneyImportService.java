@@ -0,0 +1,633 @@
+package com.example.services;
+
+import com.example.dto.BatchChunkResultDTO;
+import com.example.dto.CsvImportStatusDTO;
+import com.example.dto.CsvRowErrorDTO;
+import com.example.dto.MovementMoneyDTO;
+import com.example.exception.CsvImportOverloadedException;
+import com.example.models.MovementCategory;
+import com.example.models.TypeMovement;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This service imports bank-statement CSV files into the financial movements of a user.
+ * <p>
+ * Up to a configurable number of imports run at the same time, and a configurable number more wait in a queue
+ * (QUEUED) until one of them has finished; further uploads are rejected with a CsvImportOverloadedException.
+ * Each import runs in the background (RUNNING) as a pipeline of three stages:
+ * - The file is read record by record and split into chunks of a configurable number of rows.
+ * - The chunks are parsed and validated in parallel on a pool with one thread per available processor.
+ * - The parsed chunks are written in file order, each with a single JDBC batch in its own transaction.
+ * At most two chunks per parsing thread are in flight at any time; when the writer falls behind, reading
+ * the file waits for it, so the memory used by an import does not depend on the size of the file.
+ * <p>
+ * The first line of the file is a header naming the columns. The "date", "amount" and "description"
+ * columns are required, a "type" column (INCOME or EXPENSE) is optional; without it, negative amounts are
+ * expenses and all other amounts are incomes. The description must denote one of the categories offered by
+ * the application for the type of the movement (see MovementCategory). Rows that cannot be mapped are reported
+ * with their line number and skipped. A quoted field may contain line breaks, so a row may span several lines
+ * of the file; it is reported with the number of its first line.
+ * <p>
+ * A file that cannot be read as CSV fails the import with MovementMoneyBatchService.MALFORMED_INPUT_ERROR and
+ * the position of the problem; any other failure is logged and reported as
+ * MovementMoneyBatchService.WRITE_FAILED_ERROR, so no exception text reaches the client.
+ */
+@Slf4j
+@Service
+public class MovementMoneyImportService {
+
+    /**
+     * The maximum number of row errors listed in the status of an import.
+     */
+    private static final int MAX_LISTED_ERRORS = 1000;
+    /**
+     * The maximum length of a row in characters; longer rows are taken for an unterminated quoted field.
+     */
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+    /**
+     * The maximum number of finished imports whose status is kept; queued and running imports are always kept.
+     */
+    private static final int MAX_RETAINED_IMPORTS = 100;
+
+    /**
+     * MovementMoneyBatchService is used to write the parsed chunks
+     */
+    private final MovementMoneyBatchService movementMoneyBatchService;
+    /**
+     * UserService is used for user related information
+     */
+    private final UserService userService;
+    /**
+     * The pool on which the chunks are parsed and validated
+     */
+    private final ExecutorService parseExecutor;
+    /**
+     * The pool on which the imports run, so that a large file does not hold up the imports of other users. Its
+     * queue is bounded, so the uploads waiting for it, and the temporary files they are stored in, are limited.
+     */
+    private final ExecutorService importExecutor;
+    /**
+     * The maximum number of chunks being parsed or waiting to be written
+     */
+    private final int maxPendingChunks;
+    /**
+     * The imports started by this instance, keyed by their ID, in the order in which they were started
+     */
+    private final Map<String, ImportJob> imports = Collections.synchronizedMap(new LinkedHashMap<>());
+    /**
+     * The number of rows parsed and written in one chunk
+     */
+    @Value("${movement-money.import.chunk-size}")
+    private int chunkSize;
+    /**
+     * The pattern of the dates in the imported files
+     */
+    @Value("${movement-money.import.date-format}")
+    private String dateFormat;
+    /**
+     * The time a rejected client is asked to wait before trying again
+     */
+    @Value("${movement-money.import.retry-after}")
+    private Duration retryAfter;
+
+    public MovementMoneyImportService(MovementMoneyBatchService movementMoneyBatchService,
+                                      UserService userService,
+                                      @Value("${movement-money.import.threads}") int importThreads,
+                                      @Value("${movement-money.import.queue-capacity}") int queueCapacity) {
+        this.movementMoneyBatchService = movementMoneyBatchService;
+        this.userService = userService;
+        this.importExecutor = new ThreadPoolExecutor(importThreads, importThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        this.parseExecutor = Executors.newFixedThreadPool(parallelism);
+        this.maxPendingChunks = parallelism * 2;
+    }
+
+    /**
+     * This method shuts down the executors of the service when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
+        parseExecutor.shutdownNow();
+    }
+
+    /**
+     * This method starts the import of a bank-statement CSV file for a user.
+     * <p>
+     * Process:
+     * - Obtains the user's ID from the UserService using the provided login, failing before anything is read.
+     * - Copies the uploaded file to a temporary file, because the upload is only available during the request.
+     * - Queues the import on the import pool and returns its initial status (QUEUED); it starts as soon as one of
+     * the imports running at the time has finished. If the queue is full, the file is deleted and the import is
+     * rejected at once.
+     *
+     * @param login The login identifier of the user whose movements are imported.
+     * @param file  The uploaded CSV file.
+     * @return The status of the started import, containing the ID under which its progress can be requested.
+     * @throws IOException                   If the uploaded file cannot be stored.
+     * @throws CsvImportOverloadedException If the import pool cannot accept the import.
+     */
+    public CsvImportStatusDTO startImport(String login, MultipartFile file) throws IOException {
+        Long userId = userService.getId(login);
+
+        Path tempFile = Files.createTempFile("movement-money-import-", ".csv");
+        try {
+            file.transferTo(tempFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), login);
+        retain(job);
+        try {
+            importExecutor.execute(() -> runImport(job, userId, tempFile));
+        } catch (RejectedExecutionException e) {
+            imports.remove(job.id);
+            Files.deleteIfExists(tempFile);
+            throw new CsvImportOverloadedException("Too many imports in progress, try again later",
+                    Math.max(1, retryAfter.toSeconds()));
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * This private helper method registers a new import and forgets the oldest finished imports beyond
+     * MAX_RETAINED_IMPORTS. Queued and running imports are never forgotten; their number is limited by the import
+     * pool, so the number of kept imports is limited as well.
+     *
+     * @param job The import to register.
+     */
+    private void retain(ImportJob job) {
+        synchronized (imports) {
+            imports.put(job.id, job);
+            long finished = imports.values().stream().filter(ImportJob::isFinished).count();
+            Iterator<ImportJob> iterator = imports.values().iterator();
+            while (finished > MAX_RETAINED_IMPORTS && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                    finished--;
+                }
+            }
+        }
+    }
+
+    /**
+     * This method returns the current status of an import of the given user.
+     *
+     * @param login The login identifier of the user who started the import.
+     * @param id    The ID of the import.
+     * @return An Optional containing the status, or an empty Optional if no such import of the user is known.
+     */
+    public Optional<CsvImportStatusDTO> getImportStatus(String login, String id) {
+        return Optional.ofNullable(imports.get(id))
+                .filter(job -> job.login.equals(login))
+                .map(ImportJob::toStatus);
+    }
+
+    /**
+     * This private method runs the import pipeline for a stored file and deletes the file afterward.
+     * <p>
+     * Process:
+     * - Marks the import as RUNNING.
+     * - Reads the header and determines the positions of the columns.
+     * - Reads the following rows in chunks and submits every chunk to the parse pool.
+     * - As soon as the maximum number of pending chunks is reached, waits for the oldest one and writes it,
+     * which keeps the chunks in file order and stops reading while the writer is behind.
+     * - Writes the remaining chunks once the whole file has been read.
+     * <p>
+     * If the file has no valid header or a quoted field is not terminated, the import fails with the position of
+     * the problem; if it fails for any other reason, the cause is logged and a generic error is reported. Chunks
+     * written before remain stored.
+     *
+     * @param job    The import whose progress is updated.
+     * @param userId The ID of the user whose movements are imported.
+     * @param file   The CSV file to import.
+     */
+    private void runImport(ImportJob job, Long userId, Path file) {
+        Deque<Future<ParsedChunk>> pending = new ArrayDeque<>();
+        Map<String, Long> userIds = new HashMap<>();
+        userIds.put(job.login, userId);
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(dateFormat);
+        job.state = CsvImportStatusDTO.State.RUNNING;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CsvRecordReader records = new CsvRecordReader(reader);
+            CsvRecord header = records.next();
+            CsvColumns columns = CsvColumns.fromHeader(header != null ? header.text() : null);
+
+            int chunkIndex = 0;
+            List<CsvRecord> chunkRecords = new ArrayList<>(chunkSize);
+            CsvRecord record = records.next();
+            while (record != null) {
+                chunkRecords.add(record);
+                record = records.next();
+                if (chunkRecords.size() == chunkSize || (record == null && !chunkRecords.isEmpty())) {
+                    List<CsvRecord> submitted = chunkRecords;
+                    long lastLine = records.getLineNumber() - (record != null ? record.lineCount() : 0);
+                    pending.add(parseExecutor.submit(
+                            () -> parseChunk(job.login, columns, dateFormatter, submitted, lastLine)));
+                    chunkRecords = new ArrayList<>(chunkSize);
+                    if (pending.size() >= maxPendingChunks) {
+                        writeChunk(job, chunkIndex++, pending.poll().get(), userIds);
+                    }
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeChunk(job, chunkIndex++, pending.poll().get(), userIds);
+            }
+            job.state = CsvImportStatusDTO.State.COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, pending, "Import interrupted");
+        } catch (MalformedCsvException e) {
+            fail(job, pending, e.getMessage());
+        } catch (ExecutionException e) {
+            log.warn("Import {} failed", job.id, e.getCause());
+            fail(job, pending, MovementMoneyBatchService.WRITE_FAILED_ERROR);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Import {} failed", job.id, e);
+            fail(job, pending, MovementMoneyBatchService.WRITE_FAILED_ERROR);
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // the temporary file is removed by the operating system eventually
+            }
+        }
+    }
+
+    /**
+     * This private method parses and validates the rows of one chunk. It runs on the parse pool and has no
+     * side effects apart from building its result.
+     *
+     * @param login         The login of the user whose movements are imported.
+     * @param columns       The positions of the columns in the file.
+     * @param dateFormatter The formatter of the dates in the file.
+     * @param records       The rows of the chunk.
+     * @param lastLine      The number of the last line of the file that belongs to the chunk.
+     * @return The parsed movements and the errors of the rejected rows.
+     */
+    private ParsedChunk parseChunk(String login, CsvColumns columns, DateTimeFormatter dateFormatter,
+                                   List<CsvRecord> records, long lastLine) {
+        ParsedChunk parsedChunk = new ParsedChunk(records.get(0).line(), lastLine, records.size());
+        for (CsvRecord record : records) {
+            if (record.text().isBlank()) {
+                parsedChunk.skipped++;
+                continue;
+            }
+            try {
+                parsedChunk.movements.add(parseRow(login, columns, dateFormatter, splitLine(record.text())));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                parsedChunk.errors.add(new CsvRowErrorDTO(record.line(), e.getMessage()));
+            }
+        }
+        return parsedChunk;
+    }
+
+    /**
+     * This private method maps the fields of one row onto a MovementMoneyDTO.
+     * <p>
+     * Steps:
+     * - Parses the date with the configured pattern and the amount as a decimal number.
+     * - Takes the type from the "type" column if present, otherwise from the sign of the amount.
+     * - Maps the description onto a category of the type: the description must equal the category or one of its
+     * aliases, ignoring case and surrounding or repeated whitespace (see MovementCategory.fromDescription).
+     *
+     * @param login         The login of the user whose movements are imported.
+     * @param columns       The positions of the columns in the file.
+     * @param dateFormatter The formatter of the dates in the file.
+     * @param fields        The fields of the row.
+     * @return The parsed movement.
+     * @throws IllegalArgumentException If a field is missing or invalid.
+     * @throws DateTimeParseException   If the date does not match the configured pattern.
+     */
+    private MovementMoneyDTO parseRow(String login, CsvColumns columns, DateTimeFormatter dateFormatter,
+                                      List<String> fields) {
+        LocalDate date = LocalDate.parse(columns.get(fields, columns.date, "date"), dateFormatter);
+
+        double amount;
+        String amountField = columns.get(fields, columns.amount, "amount");
+        try {
+            amount = Double.parseDouble(amountField.replace(" ", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + amountField);
+        }
+        if (amount == 0 || !Double.isFinite(amount)) {
+            throw new IllegalArgumentException("Invalid amount: " + amountField);
+        }
+
+        TypeMovement type;
+        if (columns.type >= 0 && columns.type < fields.size() && !fields.get(columns.type).isBlank()) {
+            try {
+                type = TypeMovement.valueOf(fields.get(columns.type).trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid type: " + fields.get(columns.type));
+            }
+        } else {
+            type = amount < 0 ? TypeMovement.EXPENSE : TypeMovement.INCOME;
+        }
+
+        String description = columns.get(fields, columns.description, "description");
+        MovementCategory category = MovementCategory.fromDescription(description, type)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown " + type.name().toLowerCase(Locale.ROOT)
+                        + " description: " + description));
+
+        MovementMoneyDTO movementMoneyDTO = new MovementMoneyDTO();
+        movementMoneyDTO.setLogin(login);
+        movementMoneyDTO.setDate(Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        movementMoneyDTO.setAmount(Math.abs(amount));
+        movementMoneyDTO.setType(type);
+        movementMoneyDTO.setDescription(category.getValue());
+        return movementMoneyDTO;
+    }
+
+    /**
+     * This private method writes a parsed chunk and adds its outcome to the progress of the import. If the
+     * chunk cannot be stored, every row of it is reported as failed.
+     *
+     * @param job         The import whose progress is updated.
+     * @param index       The position of the chunk within the import.
+     * @param parsedChunk The parsed chunk.
+     * @param userIds     The cache of already resolved user IDs, keyed by login.
+     */
+    private void writeChunk(ImportJob job, int index, ParsedChunk parsedChunk, Map<String, Long> userIds) {
+        job.rowsRead.addAndGet(parsedChunk.rowCount - parsedChunk.skipped);
+        parsedChunk.errors.forEach(rowError -> job.addError(rowError, 1));
+
+        if (parsedChunk.movements.isEmpty()) {
+            return;
+        }
+        BatchChunkResultDTO result = movementMoneyBatchService.writeChunk(index, parsedChunk.movements, userIds);
+        job.rowsImported.addAndGet(result.getInserted());
+        if (result.getError() != null) {
+            job.addError(new CsvRowErrorDTO(parsedChunk.firstLine, "Lines " + parsedChunk.firstLine + "-"
+                    + parsedChunk.lastLine + " were not stored: " + result.getError()), parsedChunk.movements.size());
+        }
+    }
+
+    /**
+     * This private helper method marks an import as failed and cancels the chunks still being parsed.
+     *
+     * @param job     The failed import.
+     * @param pending The chunks that have not been written.
+     * @param error   The cause of the failure.
+     */
+    private void fail(ImportJob job, Deque<Future<ParsedChunk>> pending, String error) {
+        pending.forEach(future -> future.cancel(true));
+        job.error = error;
+        job.state = CsvImportStatusDTO.State.FAILED;
+    }
+
+    /**
+     * This static helper method splits a CSV row into its fields. Fields may be enclosed in double quotes
+     * to contain commas or line breaks; a double quote inside a quoted field is written as two double quotes.
+     *
+     * @param line The row to be split.
+     * @return The fields of the line, without enclosing quotes.
+     */
+    static List<String> splitLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * The positions of the columns of an imported file, determined from its header line.
+     */
+    private static final class CsvColumns {
+        private final int date;
+        private final int amount;
+        private final int description;
+        private final int type;
+
+        private CsvColumns(List<String> header) {
+            this.date = header.indexOf("date");
+            this.amount = header.indexOf("amount");
+            this.description = header.indexOf("description");
+            this.type = header.indexOf("type");
+        }
+
+        private static CsvColumns fromHeader(String headerLine) {
+            if (headerLine == null) {
+                throw new MalformedCsvException(1, 0, "the file is empty");
+            }
+            List<String> header = splitLine(headerLine.replace("\uFEFF", "")).stream()
+                    .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+            CsvColumns columns = new CsvColumns(header);
+            if (columns.date < 0 || columns.amount < 0 || columns.description < 0) {
+                throw new MalformedCsvException(1, 0,
+                        "the header must contain the columns date, amount and description");
+            }
+            return columns;
+        }
+
+        private String get(List<String> fields, int column, String name) {
+            if (column >= fields.size() || fields.get(column).isBlank()) {
+                throw new IllegalArgumentException("Missing " + name);
+            }
+            return fields.get(column).trim();
+        }
+    }
+
+    /**
+     * One row of an imported file: its text, which contains line breaks if a quoted field does, the number of
+     * its first line and the number of lines it spans.
+     */
+    private record CsvRecord(String text, long line, int lineCount) {
+    }
+
+    /**
+     * Reads the rows of an imported file. A row ends at a line break outside quotes, so a quoted field may
+     * span several lines. A row whose quoted field is not terminated before the end of the file, or within
+     * MAX_RECORD_LENGTH characters, makes the file unreadable from that point, so it fails the import.
+     */
+    private static final class CsvRecordReader {
+        private final BufferedReader reader;
+        private long lineNumber;
+
+        private CsvRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private CsvRecord next() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            long firstLine = ++lineNumber;
+            StringBuilder text = new StringBuilder(line);
+            int quotes = countQuotes(line);
+            while (quotes % 2 != 0) {
+                line = reader.readLine();
+                if (line == null || text.length() + line.length() > MAX_RECORD_LENGTH) {
+                    throw unterminatedQuote(text, firstLine);
+                }
+                lineNumber++;
+                text.append('\n').append(line);
+                quotes += countQuotes(line);
+            }
+            return new CsvRecord(text.toString(), firstLine, (int) (lineNumber - firstLine + 1));
+        }
+
+        private long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Creates the exception for a row whose last quoted field is not terminated, located at the quote that
+         * opens the field.
+         */
+        private static MalformedCsvException unterminatedQuote(CharSequence text, long firstLine) {
+            long line = firstLine;
+            int column = 0;
+            long quoteLine = firstLine;
+            int quoteColumn = 0;
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                column++;
+                if (c == '\n') {
+                    line++;
+                    column = 0;
+                } else if (c == '"') {
+                    quoted = !quoted;
+                    if (quoted) {
+                        quoteLine = line;
+                        quoteColumn = column;
+                    }
+                }
+            }
+            return new MalformedCsvException(quoteLine, quoteColumn, "the quoted field is not terminated");
+        }
+
+        private static int countQuotes(String line) {
+            int quotes = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == '"') {
+                    quotes++;
+                }
+            }
+            return quotes;
+        }
+    }
+
+    /**
+     * Thrown when an imported file cannot be read as CSV from some point on. Its message names the position of
+     * the problem and is reported as the error of the import.
+     */
+    private static final class MalformedCsvException extends RuntimeException {
+        /**
+         * @param line   The number of the line of the problem.
+         * @param column The column of the problem within the line, or 0 if it concerns the whole line.
+         * @param detail What is wrong with the file at that position.
+         */
+        private MalformedCsvException(long line, int column, String detail) {
+            super(MovementMoneyBatchService.MALFORMED_INPUT_ERROR + " at line " + line
+                    + (column > 0 ? ", column " + column : "") + ": " + detail);
+        }
+    }
+
+    /**
+     * The result of parsing one chunk: the valid movements and the errors of the rejected rows.
+     */
+    private static final class ParsedChunk {
+        private final long firstLine;
+        private final long lastLine;
+        private final int rowCount;
+        private final List<MovementMoneyDTO> movements = new ArrayList<>();
+        private final List<CsvRowErrorDTO> errors = new ArrayList<>();
+        private int skipped;
+
+        private ParsedChunk(long firstLine, long lastLine, int rowCount) {
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
+            this.rowCount = rowCount;
+        }
+    }
+
+    /**
+     * The progress of one import. It is updated by its import thread only and read by request threads.
+     */
+    private static final class ImportJob {
+        private final String id;
+        private final String login;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsFailed = new AtomicLong();
+        private final List<CsvRowErrorDTO> errors = new CopyOnWriteArrayList<>();
+        private volatile CsvImportStatusDTO.State state = CsvImportStatusDTO.State.QUEUED;
+        private volatile String error;
+
+        private ImportJob(String id, String login) {
+            this.id = id;
+            this.login = login;
+        }
+
+        private void addError(CsvRowErrorDTO rowError, int failedRows) {
+            rowsFailed.addAndGet(failedRows);
+            if (errors.size() < MAX_LISTED_ERRORS) {
+                errors.add(rowError);
+            }
+        }
+
+        private boolean isFinished() {
+            return state == CsvImportStatusDTO.State.COMPLETED || state == CsvImportStatusDTO.State.FAILED;
+        }
+
+        private CsvImportStatusDTO toStatus() {
+            CsvImportStatusDTO status = new CsvImportStatusDTO();
+            status.setId(id);
+            status.setLogin(login);
+            status.setState(state);
+            status.setRowsRead(rowsRead.get());
+            status.setRowsImported(rowsImported.get());
+            status.setRowsFailed(rowsFailed.get());
+            status.setErrors(new ArrayList<>(errors));
+            status.setError(error);
+            return status;
+        }
+    }
+}
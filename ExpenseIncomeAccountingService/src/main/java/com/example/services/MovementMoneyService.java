@@ -1,13 +1,22 @@
 package com.example.services;
 
+import com.example.dto.DailyTotal;
+import com.example.dto.MonthlyTotal;
 import com.example.dto.MovementMoneyDTO;
+import com.example.dto.MovementMoneyPageDTO;
 import com.example.exception.MovementMoneyNotFoundException;
 import com.example.models.MovementMoney;
 import com.example.models.User;
 import com.example.repositories.MovementMoneyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -19,6 +28,11 @@ import java.util.List;
  */
 @Service
 public class MovementMoneyService {
+    /**
+     * The earliest and latest dates of the DATE type of the database, used for missing bounds of a range
+     */
+    private static final LocalDate FIRST_SUPPORTED_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LAST_SUPPORTED_DATE = LocalDate.of(9999, 12, 31);
     /**
      * MovementMoneyRepository is used for database operations
      */
@@ -27,10 +41,32 @@ public class MovementMoneyService {
      * UserService is used for user related information
      */
     private final UserService userService;
+    /**
+     * UserBalanceService is used to keep the materialized user balance up to date
+     */
+    private final UserBalanceService userBalanceService;
+    /**
+     * MonthlyRollupService is used to keep the monthly rollup up to date and to read the monthly totals
+     */
+    private final MonthlyRollupService monthlyRollupService;
+    /**
+     * ReportCacheService is used to invalidate the cached reports of users whose movements change
+     */
+    private final ReportCacheService reportCacheService;
+    /**
+     * The largest number of movements returned in a single page
+     */
+    @Value("${movement-money.page.max-size}")
+    private int maxPageSize;
 
-    public MovementMoneyService(MovementMoneyRepository movementMoneyRepository, UserService userService) {
+    public MovementMoneyService(MovementMoneyRepository movementMoneyRepository, UserService userService,
+                                UserBalanceService userBalanceService, MonthlyRollupService monthlyRollupService,
+                                ReportCacheService reportCacheService) {
         this.movementMoneyRepository = movementMoneyRepository;
         this.userService = userService;
+        this.userBalanceService = userBalanceService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.reportCacheService = reportCacheService;
     }
 
     /**
@@ -39,8 +75,11 @@ public class MovementMoneyService {
      * <p>
      * Steps:
      * - Creates a new MovementMoney entity.
-     * - Fetches the associated User entity using the login from the DTO.
+     * - Resolves the owning User from the login of the DTO with UserService, without a query once its ID is cached.
      * - Sets the MovementMoney entity's properties (user, description, amount, date, and type) from the DTO.
+     * - Adds the amount to the user's materialized balance using UserBalanceService and to the monthly rollup
+     * using MonthlyRollupService.
+     * - Invalidates the user's cached reports using ReportCacheService.
      * - Saves the entity to the database using MovementMoneyRepository.
      * <p>
      * The method returns the saved MovementMoney entity, which includes the generated ID and other persisted data.
@@ -58,6 +97,11 @@ public class MovementMoneyService {
         movementMoney.setAmount(movementMoneyDTO.getAmount());
         movementMoney.setDate(movementMoneyDTO.getDate());
         movementMoney.setType(movementMoneyDTO.getType());
+
+        userBalanceService.applyMovement(foundUser.getId(), movementMoney.getType(), movementMoney.getAmount());
+        monthlyRollupService.applyMovement(foundUser.getId(), movementMoney.getType(), movementMoney.getAmount(),
+                movementMoney.getDate());
+        reportCacheService.invalidate(movementMoneyDTO.getLogin());
         return movementMoneyRepository.save(movementMoney);
     }
 
@@ -66,8 +110,14 @@ public class MovementMoneyService {
      * the MovementMoneyDTO. The method ensures that the entire operation occurs within a transactional context.
      * <p>
      * Process:
-     * - Retrieves the existing MovementMoney entity by ID. Throws MovementMoneyNotFoundException if not found.
-     * - Fetches the associated User entity using the login from the DTO.
+     * - Retrieves the existing MovementMoney entity by ID and locks its row until the transaction ends, so a
+     * concurrent update or delete of it waits and then sees the new values. Throws MovementMoneyNotFoundException
+     * if not found.
+     * - Resolves the owning User from the login of the DTO with UserService, without a query once its ID is cached.
+     * - Replaces the old amount with the new one in the materialized balance using UserBalanceService.
+     * - Moves the movement within the monthly rollup using MonthlyRollupService: its old values (owner, date,
+     * type and amount) are removed and its new values are added, so changes of any of them are handled.
+     * - Invalidates the cached reports of the previous and the new owner using ReportCacheService.
      * - Updates the MovementMoney entity's properties (description, amount, date, and user) with data from the DTO.
      * - Saves the updated entity to the database using MovementMoneyRepository.
      * <p>
@@ -79,11 +129,20 @@ public class MovementMoneyService {
      */
     @Transactional
     public MovementMoney updateMovementMoney(Long id, MovementMoneyDTO movementMoneyDTO) {
-        MovementMoney movementMoney = movementMoneyRepository.findById(id)
+        MovementMoney movementMoney = movementMoneyRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new MovementMoneyNotFoundException("Expense not found with id " + id));
 
         User foundUser = userService.getUserByLogin(movementMoneyDTO.getLogin());
 
+        userBalanceService.revertMovement(getUserId(movementMoney), movementMoney.getType(), movementMoney.getAmount());
+        userBalanceService.applyMovement(foundUser.getId(), movementMoney.getType(), movementMoneyDTO.getAmount());
+        monthlyRollupService.revertMovement(getUserId(movementMoney), movementMoney.getType(),
+                movementMoney.getAmount(), movementMoney.getDate());
+        monthlyRollupService.applyMovement(foundUser.getId(), movementMoney.getType(), movementMoneyDTO.getAmount(),
+                movementMoneyDTO.getDate());
+        reportCacheService.invalidate(getUserLogin(movementMoney));
+        reportCacheService.invalidate(movementMoneyDTO.getLogin());
+
         movementMoney.setDescription(movementMoneyDTO.getDescription());
         movementMoney.setAmount(movementMoneyDTO.getAmount());
         movementMoney.setDate(movementMoneyDTO.getDate());
@@ -98,6 +157,9 @@ public class MovementMoneyService {
      * <p>
      * Process:
      * - Checks if the provided ID is not null.
+     * - The entity is read with its row locked, as in updateMovementMoney.
+     * - If the entity exists, its amount is removed from the user's materialized balance and the monthly
+     * rollup, and the user's cached reports are invalidated.
      * - If the ID is valid, it uses the MovementMoneyRepository to delete the corresponding entity.
      * - The deletion is skipped if the ID is null to prevent unintended operations.
      *
@@ -106,10 +168,39 @@ public class MovementMoneyService {
     @Transactional
     public void deleteMovementMoney(Long id) {
         if (id != null) {
+            movementMoneyRepository.findByIdForUpdate(id).ifPresent(movementMoney -> {
+                userBalanceService.revertMovement(
+                        getUserId(movementMoney), movementMoney.getType(), movementMoney.getAmount());
+                monthlyRollupService.revertMovement(getUserId(movementMoney), movementMoney.getType(),
+                        movementMoney.getAmount(), movementMoney.getDate());
+                reportCacheService.invalidate(getUserLogin(movementMoney));
+            });
             movementMoneyRepository.deleteById(id);
         }
     }
 
+    /**
+     * This private helper method returns the ID of the user who owns the given movement, or null if the
+     * movement is not linked to a user.
+     *
+     * @param movementMoney The movement whose owner is requested.
+     * @return The ID of the owning user, or null.
+     */
+    private Long getUserId(MovementMoney movementMoney) {
+        return movementMoney.getUser() != null ? movementMoney.getUser().getId() : null;
+    }
+
+    /**
+     * This private helper method returns the login of the user who owns the given movement, or null if the
+     * movement is not linked to a user.
+     *
+     * @param movementMoney The movement whose owner is requested.
+     * @return The login of the owning user, or null.
+     */
+    private String getUserLogin(MovementMoney movementMoney) {
+        return movementMoney.getUser() != null ? movementMoney.getUser().getLogin() : null;
+    }
+
     /**
      * This method fetches a list of MovementMoney entities associated with a user, identified by their login.
      * It is used to gather a comprehensive record of all financial movements (incomes and expenses) for a user.
@@ -125,4 +216,148 @@ public class MovementMoneyService {
         Long userId = userService.getId(login);
         return movementMoneyRepository.findByUserId(userId);
     }
+
+    /**
+     * This method fetches a user's most recent financial movements, newest first. The number of movements is
+     * limited to the range between 1 and the configured maximum page size.
+     *
+     * @param login The login identifier of the user whose financial transactions are being requested.
+     * @param limit The requested number of movements.
+     * @return A list of at most limit MovementMoney entities ordered by date and ID descending.
+     */
+    public List<MovementMoney> getRecentMovementMoney(String login, int limit) {
+        Long userId = userService.getId(login);
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(limit, maxPageSize)));
+        return movementMoneyRepository.findByUserIdOrderByDateDescIdDesc(userId, pageable);
+    }
+
+    /**
+     * This method fetches one page of a user's financial movements ordered by date and ID, using keyset
+     * pagination: the page is located by the (date, id) of the last movement of the previous page instead
+     * of an offset, so every page costs the same regardless of how deep the user has scrolled. Movements without
+     * a date come first; a cursor on one of them has an ID but no date.
+     * <p>
+     * Process:
+     * - Obtains the user's ID from the UserService using the provided login.
+     * - Limits the requested page size to the range between 1 and the configured maximum.
+     * - Reads one row more than requested to find out whether another page follows: from the start without a
+     * cursor ID, after a movement without a date if the cursor has no date, and after a dated movement otherwise.
+     * - Builds the page with the cursor of the next page taken from its last movement.
+     *
+     * @param login     The login identifier of the user whose financial transactions are being requested.
+     * @param afterDate The date of the last movement of the previous page, or null for the first page or if that
+     *                  movement has no date.
+     * @param afterId   The ID of the last movement of the previous page, or null for the first page.
+     * @param size      The requested number of movements per page.
+     * @return A MovementMoneyPageDTO containing the movements of the page and the cursor of the next page.
+     */
+    public MovementMoneyPageDTO getMovementMoneyPage(String login, LocalDate afterDate, Long afterId, int size) {
+        Long userId = userService.getId(login);
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<MovementMoney> rows;
+        if (afterId == null) {
+            rows = movementMoneyRepository.findByUserIdOrderByDateAscIdAsc(userId, limit);
+        } else if (afterDate == null) {
+            rows = movementMoneyRepository.findPageAfterUndated(userId, afterId, limit);
+        } else {
+            rows = movementMoneyRepository.findPageAfter(userId, java.sql.Date.valueOf(afterDate), afterId, limit);
+        }
+
+        MovementMoneyPageDTO page = new MovementMoneyPageDTO();
+        page.setHasMore(rows.size() > pageSize);
+        page.setItems(page.isHasMore() ? rows.subList(0, pageSize) : rows);
+        if (page.isHasMore()) {
+            MovementMoney last = page.getItems().get(pageSize - 1);
+            page.setNextDate(last.getDate() == null ? null : new java.sql.Date(last.getDate().getTime()).toLocalDate());
+            page.setNextId(last.getId());
+        }
+        return page;
+    }
+
+    /**
+     * This method returns the financial movements of a user pre-aggregated by month and type. Each returned
+     * MovementMoneyDTO stands for the sum of all incomes or all expenses of one month and is dated on the first
+     * day of that month, so it can be processed by the reporting service exactly like individual transactions,
+     * while the amount of transferred data is bounded by the number of months instead of the number of records.
+     * <p>
+     * Process:
+     * - Obtains the user's ID from the UserService using the provided login.
+     * - Reads the totals from the monthly rollup maintained by MonthlyRollupService, so the cost depends on the
+     * number of months and not on the number of transactions. The rollup of a user is built on the first read.
+     * - Maps each aggregated row to a MovementMoneyDTO.
+     *
+     * @param login The login identifier of the user whose financial transactions are being aggregated.
+     * @return A chronologically ordered list of monthly totals per movement type.
+     */
+    public List<MovementMoneyDTO> getMonthlyTotalsByUserLogin(String login) {
+        Long userId = userService.getId(login);
+        return monthlyRollupService.getMonthlyTotals(userId).stream()
+                .map(monthlyTotal -> toMovementMoneyDTO(login, monthlyTotal))
+                .toList();
+    }
+
+    /**
+     * This method returns the financial movements of a user within a range of dates pre-aggregated by day and
+     * type. Each returned MovementMoneyDTO stands for the sum of all incomes or all expenses of one day, so the
+     * reporting service can group them into periods of any granularity, while only the rows of the range are read
+     * from the database.
+     * <p>
+     * Process:
+     * - Obtains the user's ID from the UserService using the provided login.
+     * - Replaces a missing bound of the range by the earliest or latest date supported by the database.
+     * - Aggregates the movements of the range per day and type in the database (see MovementMoneyRepository).
+     * - Maps each aggregated row to a MovementMoneyDTO dated on its day.
+     *
+     * @param login The login identifier of the user whose financial transactions are being aggregated.
+     * @param from  The first date of the range (inclusive), or null for no lower bound.
+     * @param to    The last date of the range (inclusive), or null for no upper bound.
+     * @return A chronologically ordered list of daily totals per movement type.
+     */
+    public List<MovementMoneyDTO> getDailyTotalsByUserLogin(String login, LocalDate from, LocalDate to) {
+        Long userId = userService.getId(login);
+        return movementMoneyRepository.findDailyTotalsByUserIdAndDateBetween(userId,
+                        java.sql.Date.valueOf(from != null ? from : FIRST_SUPPORTED_DATE),
+                        java.sql.Date.valueOf(to != null ? to : LAST_SUPPORTED_DATE)).stream()
+                .map(dailyTotal -> toMovementMoneyDTO(login, dailyTotal))
+                .toList();
+    }
+
+    /**
+     * This private helper method converts an aggregated daily row into a MovementMoneyDTO dated on its day.
+     *
+     * @param login      The login of the user the total belongs to.
+     * @param dailyTotal The aggregated row returned by the database.
+     * @return A MovementMoneyDTO representing the daily total.
+     */
+    private MovementMoneyDTO toMovementMoneyDTO(String login, DailyTotal dailyTotal) {
+        LocalDate day = new java.sql.Date(dailyTotal.getDate().getTime()).toLocalDate();
+
+        MovementMoneyDTO movementMoneyDTO = new MovementMoneyDTO();
+        movementMoneyDTO.setLogin(login);
+        movementMoneyDTO.setAmount(dailyTotal.getTotal().doubleValue());
+        movementMoneyDTO.setDate(Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        movementMoneyDTO.setType(dailyTotal.getType());
+        return movementMoneyDTO;
+    }
+
+    /**
+     * This private helper method converts an aggregated monthly row into a MovementMoneyDTO dated on the
+     * first day of the month.
+     *
+     * @param login        The login of the user the total belongs to.
+     * @param monthlyTotal The aggregated row returned by the database.
+     * @return A MovementMoneyDTO representing the monthly total.
+     */
+    private MovementMoneyDTO toMovementMoneyDTO(String login, MonthlyTotal monthlyTotal) {
+        LocalDate firstDay = LocalDate.of(monthlyTotal.getYear(), monthlyTotal.getMonth(), 1);
+
+        MovementMoneyDTO movementMoneyDTO = new MovementMoneyDTO();
+        movementMoneyDTO.setLogin(login);
+        movementMoneyDTO.setAmount(monthlyTotal.getTotal().doubleValue());
+        movementMoneyDTO.setDate(Date.from(firstDay.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        movementMoneyDTO.setType(monthlyTotal.getType());
+        return movementMoneyDTO;
+    }
 }
@@ -0,0 +1,233 @@
+package com.example.services;
+
+import com.example.dto.DiagramDataDTO;
+import com.example.dto.ReportCacheStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This service caches the report results of each user (the balance and the diagram data), so that repeated
+ * views of an unchanged account neither read the database nor call ReportService.
+ * <p>
+ * The cache is bounded by the total weight of its entries: an entry weighs 1 plus the number of points of its
+ * diagram. When the limit is exceeded, the least recently used entries are evicted. Every write to a user's
+ * movements invalidates the entry of that user once the writing transaction has committed.
+ * <p>
+ * A result is only stored if the user's entry has not been invalidated while it was computed, so a report
+ * computed from data that was changed concurrently is never cached. The versions that detect this are kept per
+ * login in a fixed number of stripes, so a write by one user does not affect the results of the others (except
+ * the few sharing the stripe, whose results are then merely not cached or shared once more).
+ */
+@Service
+public class ReportCacheService {
+
+    /**
+     * The cached results, keyed by login, in access order (least recently used first)
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The number of version stripes, a power of two
+     */
+    private static final int VERSION_STRIPES = 1024;
+
+    /**
+     * The versions of the logins by stripe, incremented by every invalidation of a login of the stripe; results
+     * computed across an increment are not cached
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private long weight;
+
+    /**
+     * The largest total weight of all cached entries
+     */
+    @Value("${report-cache.max-weight}")
+    private long maxWeight;
+
+    /**
+     * This method returns the balance of a user from the cache, or computes and caches it.
+     *
+     * @param login  The login identifier of the user.
+     * @param loader Computes the balance if it is not cached.
+     * @return The balance of the user.
+     */
+    public double getBalance(String login, Supplier<Double> loader) {
+        synchronized (entries) {
+            Entry entry = entries.get(login);
+            if (entry != null && entry.balance != null) {
+                hits.incrementAndGet();
+                return entry.balance;
+            }
+        }
+        misses.incrementAndGet();
+        long loadVersion = getVersion(login);
+        Double balance = loader.get();
+        store(login, loadVersion, entry -> entry.balance = balance);
+        return balance;
+    }
+
+    /**
+     * This method returns the diagram data of a user from the cache, or computes and caches it. The computation
+     * is asynchronous: the result is stored when the loader's future completes. A result of null is returned but
+     * not cached, and a failed computation is not cached either.
+     *
+     * @param login  The login identifier of the user.
+     * @param loader Starts the computation of the diagram data if it is not cached.
+     * @return A future of the diagram data of the user, already completed on a cache hit.
+     */
+    public CompletableFuture<List<DiagramDataDTO>> getDiagram(
+            String login, Supplier<CompletableFuture<List<DiagramDataDTO>>> loader) {
+        synchronized (entries) {
+            Entry entry = entries.get(login);
+            if (entry != null && entry.diagram != null) {
+                hits.incrementAndGet();
+                return CompletableFuture.completedFuture(entry.diagram);
+            }
+        }
+        misses.incrementAndGet();
+        long loadVersion = getVersion(login);
+        return loader.get().thenApply(diagram -> {
+            if (diagram == null) {
+                return null;
+            }
+            List<DiagramDataDTO> cached = Collections.unmodifiableList(new ArrayList<>(diagram));
+            store(login, loadVersion, entry -> entry.diagram = cached);
+            return cached;
+        });
+    }
+
+    /**
+     * This method invalidates the cached results of a user whose movements have changed. Within a transaction,
+     * the entry is dropped after the commit, when the change becomes visible to the loaders; without a
+     * transaction it is dropped immediately.
+     *
+     * @param login The login identifier of the user, ignored if null.
+     */
+    public void invalidate(String login) {
+        if (login == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(login);
+                }
+            });
+        } else {
+            evict(login);
+        }
+    }
+
+    /**
+     * This method returns the current version of a user's results, which changes with every invalidation of the
+     * user. A result computed while the version did not change reflects all committed changes of the user's
+     * movements. Invalidations of other users change it only if they share its stripe.
+     *
+     * @param login The login identifier of the user.
+     * @return The current version.
+     */
+    public long getVersion(String login) {
+        return versions.get(stripe(login));
+    }
+
+    /**
+     * This method returns the current statistics of the cache.
+     *
+     * @return A ReportCacheStatsDTO with the counters and the current size of the cache.
+     */
+    public ReportCacheStatsDTO getStats() {
+        ReportCacheStatsDTO stats = new ReportCacheStatsDTO();
+        stats.setHits(hits.get());
+        stats.setMisses(misses.get());
+        stats.setEvictions(evictions.get());
+        stats.setInvalidations(invalidations.get());
+        stats.setMaxWeight(maxWeight);
+        synchronized (entries) {
+            stats.setEntries(entries.size());
+            stats.setWeight(weight);
+        }
+        return stats;
+    }
+
+    /**
+     * This private method drops the entry of a user and makes results that are being computed uncacheable.
+     *
+     * @param login The login identifier of the user.
+     */
+    private void evict(String login) {
+        versions.incrementAndGet(stripe(login));
+        invalidations.incrementAndGet();
+        synchronized (entries) {
+            Entry entry = entries.remove(login);
+            if (entry != null) {
+                weight -= entry.weight;
+            }
+        }
+    }
+
+    /**
+     * This private method stores a computed result, unless an invalidation has happened since the computation
+     * started, and evicts the least recently used entries while the weight limit is exceeded.
+     *
+     * @param login       The login identifier of the user.
+     * @param loadVersion The version read before the computation started.
+     * @param update      Sets the computed result on the entry of the user.
+     */
+    private void store(String login, long loadVersion, Consumer<Entry> update) {
+        synchronized (entries) {
+            if (getVersion(login) != loadVersion) {
+                return;
+            }
+            Entry entry = entries.computeIfAbsent(login, key -> new Entry());
+            weight -= entry.weight;
+            update.accept(entry);
+            entry.weight = 1 + (entry.diagram != null ? entry.diagram.size() : 0);
+            weight += entry.weight;
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (weight > maxWeight && eldest.hasNext()) {
+                weight -= eldest.next().getValue().weight;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * This private method returns the version stripe of a login.
+     *
+     * @param login The login identifier of the user.
+     * @return The index of the stripe.
+     */
+    private static int stripe(String login) {
+        int hash = login.hashCode();
+        return (hash ^ (hash >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    /**
+     * The cached results of one user; a field is null while the result is not cached.
+     */
+    private static final class Entry {
+        private Double balance;
+        private List<DiagramDataDTO> diagram;
+        private int weight;
+    }
+}
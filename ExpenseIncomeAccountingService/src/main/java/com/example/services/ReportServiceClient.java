@@ -0,0 +1,213 @@
+package com.example.services;
+
+import com.example.dto.DiagramDataDTO;
+import com.example.dto.MovementColumns;
+import com.example.dto.MovementMoneyDTO;
+import com.example.exception.ReportServiceException;
+import com.example.models.Granularity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+/**
+ * This service sends financial movements to ReportService and returns the resulting diagram data without
+ * blocking the calling thread. It uses the pooled, keep-alive HTTP client configured by ReportServiceClientConfig.
+ * <p>
+ * If enabled, the movements are sent in the columnar binary format (see MovementColumns); if ReportService
+ * rejects it with 415 Unsupported Media Type, they are sent as JSON instead. JSON is then used for a
+ * configurable interval, after which the columnar format is tried again, so an instance of ReportService that
+ * answers during a rolling deployment does not switch the format off for good.
+ */
+@Service
+public class ReportServiceClient {
+
+    private static final TypeReference<List<DiagramDataDTO>> DIAGRAM_DATA_LIST = new TypeReference<>() {
+    };
+
+    /**
+     * HttpClient is used to send the requests to ReportService
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * ObjectMapper is used to write the JSON requests and read the JSON responses
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The URL of the diagram endpoint of ReportService
+     */
+    private final String diagramUrl;
+
+    /**
+     * The longest time to wait for the response of ReportService
+     */
+    @Value("${report-service.request-timeout}")
+    private Duration requestTimeout;
+
+    /**
+     * Whether the movements are sent in the columnar binary format instead of JSON
+     */
+    @Value("${report-service.columnar-enabled:false}")
+    private volatile boolean columnarEnabled;
+
+    /**
+     * How long JSON is used after ReportService has answered that it does not support the columnar format
+     */
+    @Value("${report-service.columnar-retry-interval:5m}")
+    private Duration columnarRetryInterval;
+
+    /**
+     * The time (see nanoClock) from which the columnar format is tried again, or null while it is not suspended
+     */
+    private volatile Long columnarRetryAt;
+
+    /**
+     * The source of the current time in nanoseconds
+     */
+    private LongSupplier nanoClock = System::nanoTime;
+
+    public ReportServiceClient(HttpClient reportServiceHttpClient, ObjectMapper objectMapper,
+                               @Value("${report-service.url}") String reportServiceUrl) {
+        this.httpClient = reportServiceHttpClient;
+        this.objectMapper = objectMapper;
+        this.diagramUrl = reportServiceUrl + "/api/v1/diagram";
+    }
+
+    /**
+     * This method requests the diagram data of a list of movements from ReportService.
+     * <p>
+     * Process:
+     * - Builds the URL of the diagram endpoint; a granularity other than the default monthly one is passed as
+     * a query parameter.
+     * - Sends the movements in the columnar format if enabled and not suspended, and as JSON otherwise. If
+     * ReportService does not support the columnar format, the movements are sent again as JSON, and the columnar
+     * format is suspended for the retry interval.
+     * - Completes the returned future with the diagram data read from the response, on the client's pool.
+     *
+     * @param movements   The movements, usually pre-aggregated totals.
+     * @param granularity The length of the periods of the diagram.
+     * @return A future of the diagram data, completed exceptionally with a ReportServiceException if ReportService
+     * answers with an error status or no body, or with the I/O error if it cannot be reached in time.
+     */
+    public CompletableFuture<List<DiagramDataDTO>> getDiagramData(List<MovementMoneyDTO> movements,
+                                                                  Granularity granularity) {
+        URI uri = diagramUri(granularity);
+        if (!isColumnarAvailable()) {
+            return sendJson(uri, movements);
+        }
+        return send(uri, MovementColumns.MEDIA_TYPE_VALUE, MovementColumns.encode(movements))
+                .thenCompose(response -> {
+                    if (response.statusCode() == HttpStatus.UNSUPPORTED_MEDIA_TYPE.value()) {
+                        columnarRetryAt = nanoClock.getAsLong() + columnarRetryInterval.toNanos();
+                        return sendJson(uri, movements);
+                    }
+                    return CompletableFuture.completedFuture(readDiagramData(response));
+                });
+    }
+
+    /**
+     * This private method checks whether the movements are to be sent in the columnar format: it must be enabled,
+     * and the retry interval must have passed since ReportService last rejected it.
+     *
+     * @return true if the columnar format is to be used.
+     */
+    private boolean isColumnarAvailable() {
+        if (!columnarEnabled) {
+            return false;
+        }
+        Long retryAt = columnarRetryAt;
+        return retryAt == null || nanoClock.getAsLong() - retryAt >= 0;
+    }
+
+    /**
+     * This private method builds the URI of the diagram endpoint for a granularity.
+     *
+     * @param granularity The length of the periods of the diagram.
+     * @return The URI.
+     */
+    private URI diagramUri(Granularity granularity) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(diagramUrl);
+        if (granularity != Granularity.MONTH) {
+            builder.queryParam("granularity", granularity.toParameter());
+        }
+        return builder.build().toUri();
+    }
+
+    /**
+     * This private method sends the movements as JSON and reads the diagram data of the response.
+     *
+     * @param uri       The URI of the diagram endpoint.
+     * @param movements The movements.
+     * @return A future of the diagram data.
+     */
+    private CompletableFuture<List<DiagramDataDTO>> sendJson(URI uri, List<MovementMoneyDTO> movements) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(movements);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return send(uri, MediaType.APPLICATION_JSON_VALUE, body).thenApply(this::readDiagramData);
+    }
+
+    /**
+     * This private method sends a POST request with the given body.
+     *
+     * @param uri         The URI of the request.
+     * @param contentType The media type of the body.
+     * @param body        The body.
+     * @return A future of the response.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(URI uri, String contentType, byte[] body) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header(HttpHeaders.CONTENT_TYPE, contentType)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * This private method reads the diagram data of a response.
+     *
+     * @param response The response of ReportService.
+     * @return The diagram data.
+     * @throws ReportServiceException If the response has an error status or no body.
+     * @throws UncheckedIOException   If the body is not a JSON array of DiagramDataDTO objects.
+     */
+    private List<DiagramDataDTO> readDiagramData(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new ReportServiceException("ReportService answered with status " + response.statusCode());
+        }
+        List<DiagramDataDTO> diagramData;
+        try {
+            diagramData = response.body().length == 0 ? null : objectMapper.readValue(response.body(),
+                    DIAGRAM_DATA_LIST);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (diagramData == null) {
+            throw new ReportServiceException("ReportService returned no diagram data");
+        }
+        return diagramData;
+    }
+}
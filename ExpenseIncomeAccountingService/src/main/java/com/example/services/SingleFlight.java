@@ -0,0 +1,84 @@
+package com.example.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * This class coalesces concurrent identical computations: while a computation for a key is in flight, further
+ * requests for the same key do not start their own but receive the result of the running one. Once it has
+ * completed, the next request for the key starts a new computation, so results are shared but never reused.
+ * <p>
+ * The in-flight computations are kept in a ConcurrentHashMap, so requests for different keys never wait for
+ * each other and no lock is held while a computation runs. A failure of a computation is propagated to every
+ * request that shared it.
+ *
+ * @param <K> The type of the keys identifying identical computations.
+ * @param <V> The type of the results.
+ */
+public final class SingleFlight<K, V> {
+
+    /**
+     * The computations in flight, keyed by the requests they serve
+     */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    /**
+     * The number of requests that received the result of a computation started by another request
+     */
+    private final AtomicLong shared = new AtomicLong();
+
+    /**
+     * This method returns the result of the computation for a key, starting it unless one is in flight.
+     * <p>
+     * Process:
+     * - Registers a new result for the key, or joins the result that is already registered.
+     * - If the result was registered by this call, starts the computation and completes the result with its
+     * value or failure once it is done. The key is released before the result is completed, so requests arriving
+     * after the completion start a new computation.
+     * - Each caller receives its own copy of the result, so cancelling or completing it does not affect the
+     * other callers.
+     *
+     * @param key         The key identifying identical computations.
+     * @param computation Starts the computation; it may also complete synchronously or throw.
+     * @return A future of the result of the computation.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> computation) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, result);
+        if (running != null) {
+            shared.incrementAndGet();
+            return running.copy();
+        }
+
+        CompletableFuture<V> source;
+        try {
+            source = computation.get();
+        } catch (RuntimeException e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+        source.whenComplete((value, failure) -> {
+            inFlight.remove(key, result);
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result.copy();
+    }
+
+    /**
+     * @return The number of requests that shared the result of a computation started by another request.
+     */
+    public long getShared() {
+        return shared.get();
+    }
+
+    /**
+     * @return The number of computations currently in flight.
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.services;
+
+import com.example.dto.MovementMoneyDTO;
+import com.example.models.TypeMovement;
+import com.example.repositories.MovementMoneyRepository;
+import com.example.repositories.UserBalanceRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+
+/**
+ * This service maintains the materialized balance of each user. The balance is changed in the same
+ * transaction as the financial movement that causes it, which turns reading the balance into a single-row
+ * lookup instead of a scan over the user's whole transaction history.
+ * <p>
+ * Users whose balance row does not exist yet (for example, users created before the ledger was introduced)
+ * are initialized lazily from their transaction history on the first read or write.
+ */
+@Service
+public class UserBalanceService {
+    /**
+     * UserBalanceRepository is used for balance related database operations
+     */
+    private final UserBalanceRepository userBalanceRepository;
+    /**
+     * MovementMoneyRepository is used to initialize a balance from the transaction history
+     */
+    private final MovementMoneyRepository movementMoneyRepository;
+    /**
+     * UserService is used for user related information
+     */
+    private final UserService userService;
+
+    public UserBalanceService(UserBalanceRepository userBalanceRepository,
+                              MovementMoneyRepository movementMoneyRepository,
+                              UserService userService) {
+        this.userBalanceRepository = userBalanceRepository;
+        this.movementMoneyRepository = movementMoneyRepository;
+        this.userService = userService;
+    }
+
+    /**
+     * This method returns the current balance of a user, identified by their login.
+     * <p>
+     * Process:
+     * - Obtains the user's ID from the UserService using the provided login.
+     * - Reads the stored balance row of the user.
+     * - If the row does not exist yet, computes the balance from the transaction history once and stores it.
+     *
+     * @param login The login identifier of the user whose balance is being requested.
+     * @return The current balance of the user.
+     */
+    @Transactional
+    public double getBalance(String login) {
+        Long userId = userService.getId(login);
+        return userBalanceRepository.findById(userId)
+                .map(userBalance -> userBalance.getBalance().doubleValue())
+                .orElseGet(() -> {
+                    BigDecimal balance = computeFromHistory(userId);
+                    userBalanceRepository.insertIfAbsent(userId, balance);
+                    return balance.doubleValue();
+                });
+    }
+
+    /**
+     * This method adds the effect of a financial movement to the balance of a user. It has to be called
+     * within the transaction that stores the movement, before the movement itself is written.
+     *
+     * @param userId The ID of the user who owns the movement.
+     * @param type   The type of the movement (INCOME or EXPENSE).
+     * @param amount The amount of the movement.
+     */
+    @Transactional
+    public void applyMovement(Long userId, TypeMovement type, Double amount) {
+        applyDelta(userId, signedAmount(type, amount));
+    }
+
+    /**
+     * This method removes the effect of a financial movement from the balance of a user. It has to be called
+     * within the transaction that changes or deletes the movement, before the movement itself is written.
+     *
+     * @param userId The ID of the user who owns the movement.
+     * @param type   The type of the movement (INCOME or EXPENSE).
+     * @param amount The amount of the movement.
+     */
+    @Transactional
+    public void revertMovement(Long userId, TypeMovement type, Double amount) {
+        applyDelta(userId, signedAmount(type, amount).negate());
+    }
+
+    /**
+     * This method adds the effect of several financial movements of the same user to their balance with a
+     * single update. It has to be called within the transaction that stores the movements, before the
+     * movements themselves are written.
+     *
+     * @param userId    The ID of the user who owns the movements.
+     * @param movements The movements to be added to the balance.
+     */
+    @Transactional
+    public void applyMovements(Long userId, Collection<MovementMoneyDTO> movements) {
+        applyDelta(userId, movements.stream()
+                .map(movement -> signedAmount(movement.getType(), movement.getAmount()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    /**
+     * This private method changes the stored balance of a user by the given delta. If the balance row does
+     * not exist yet, it is created from the transaction history (which at this point does not contain the
+     * current change) plus the delta.
+     *
+     * @param userId The ID of the user whose balance is to be changed.
+     * @param delta  The signed amount to be added to the balance.
+     */
+    private void applyDelta(Long userId, BigDecimal delta) {
+        if (userId == null || delta.signum() == 0) {
+            return;
+        }
+        if (userBalanceRepository.addToBalance(userId, delta) == 0) {
+            userBalanceRepository.insertOrAdd(userId, computeFromHistory(userId).add(delta), delta);
+        }
+    }
+
+    /**
+     * This private method computes the balance of a user from all of their stored financial movements.
+     * The sum is calculated by the database, so no individual movements are loaded.
+     *
+     * @param userId The ID of the user whose balance is to be computed.
+     * @return The sum of all incomes minus the sum of all expenses of the user.
+     */
+    private BigDecimal computeFromHistory(Long userId) {
+        return movementMoneyRepository.sumSignedAmountByUserId(userId);
+    }
+
+    /**
+     * This private method converts the amount of a movement into its effect on the balance: positive for
+     * INCOME and negative for EXPENSE. A missing amount has no effect. The amount is rounded to two decimal
+     * places like the database rounds it when the balance is computed from the history, so both always agree.
+     *
+     * @param type   The type of the movement.
+     * @param amount The amount of the movement.
+     * @return The signed amount of the movement.
+     */
+    private BigDecimal signedAmount(TypeMovement type, Double amount) {
+        if (amount == null) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal value = BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+        return type == TypeMovement.INCOME ? value : value.negate();
+    }
+}
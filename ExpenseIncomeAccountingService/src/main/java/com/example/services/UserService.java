@@ -3,16 +3,30 @@ package com.example.services;
 import com.example.exception.UserNotFoundException;
 import com.example.models.User;
 import com.example.repositories.UserRepository;
+import com.example.security.JwtPrincipal;
 import com.example.security.JwtTokenProvider;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * This service provides functionalities related to user management, such as processing user data from JWT tokens,
- * retrieving user IDs, and fetching user entities based on login credentials.
+ * retrieving user IDs, and fetching user entities based on login credentials. The ID of each login is cached in a
+ * bounded in-process map, so most requests do not query the 'users' table at all.
+ * <p>
+ * New users are created with an upsert once the unique index of the 'login' column has been found at startup.
+ * A database created before the index existed keeps working without it until the one-off migration
+ * db/users_login_unique.sql has been run.
  */
+@Slf4j
 @Service
 public class UserService {
 
@@ -26,6 +40,22 @@ public class UserService {
      */
     private final JwtTokenProvider jwtTokenProvider;
 
+    /**
+     * The IDs of recently seen users by login, in access order so that the least recently used is evicted first
+     */
+    private final LinkedHashMap<String, Long> userIds = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The maximum number of logins whose ID is cached
+     */
+    @Value("${user.id-cache.max-entries}")
+    private int maxEntries;
+
+    /**
+     * Whether the 'login' column of the 'users' table has a unique index, so that users can be created with
+     * an upsert; false until it has been checked at startup
+     */
+    private volatile boolean loginUnique;
 
     public UserService(UserRepository userRepository, JwtTokenProvider jwtTokenProvider) {
         this.userRepository = userRepository;
@@ -38,66 +68,140 @@ public class UserService {
      * is created with the given login.
      * <p>
      * Steps:
-     * - Extracts the JWT token from the request.
-     * - Retrieves the user login from the token.
-     * - Checks if a user with this login exists in the database and creates a new user if not.
+     * - Takes the login from the principal that JwtTokenFilter has verified and stored in the request. If there
+     * is none, extracts the JWT token from the request and retrieves the user login from it.
+     * - Ensures that a user with this login exists, creating it if not; once its ID is cached, no query is run.
      *
      * @param request The HttpServletRequest containing the JWT token.
      * @return The login of the user extracted from the JWT token.
      */
     public String processUserFromJwt(HttpServletRequest request) {
-        String jwtToken = jwtTokenProvider.resolveToken(request);
-        String userLogin = jwtTokenProvider.getLoginFromToken(jwtToken);
+        String userLogin;
+        if (request.getAttribute(JwtPrincipal.REQUEST_ATTRIBUTE) instanceof JwtPrincipal principal) {
+            userLogin = principal.login();
+        } else {
+            String jwtToken = jwtTokenProvider.resolveToken(request);
+            userLogin = jwtTokenProvider.getLoginFromToken(jwtToken);
+        }
         checkAndCreateUser(userLogin);
         return userLogin;
     }
 
     /**
-     * This private method is used to verify whether a user with the specified login already exists in the
-     * database. If the user does not exist, it creates a new User entity with the given login and persists it
-     * to the database.
+     * This method checks, when the application has started, whether the 'login' column of the 'users' table has
+     * a unique index. Until it has one, users are created by a check followed by an insert, and a warning asks
+     * for the migration db/users_login_unique.sql to be run. If the check itself fails, the index is assumed to
+     * be missing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkLoginIndex() {
+        try {
+            loginUnique = userRepository.countUniqueLoginIndexes() > 0;
+        } catch (DataAccessException e) {
+            log.warn("Could not check the unique index of users.login", e);
+            loginUnique = false;
+        }
+        if (!loginUnique) {
+            log.warn("users.login has no unique index, concurrent first requests of a user may create duplicates; "
+                    + "run db/users_login_unique.sql to add it");
+        }
+    }
+
+    /**
+     * This private method ensures that a user account exists for the given login.
      * <p>
      * Process:
-     * - Checks the existence of a user with the provided login using the UserRepository.
-     * - If the user does not exist, creates a new User entity, sets its login, and saves it to the database.
+     * - If the ID of the login is cached, the user exists and nothing is done.
+     * - Otherwise, if the 'login' column has a unique index, the user is created with a single idempotent
+     * upsert, which leaves an existing user untouched and cannot create a duplicate when several first requests
+     * of a new user arrive at once. Without the index, the user is only created if no user with the login exists.
+     * - The ID of the user is then read and cached.
      *
-     * @param userLogin The login identifier of the user to be checked and potentially created.
+     * @param userLogin The login identifier of the user to be provisioned.
      */
     private void checkAndCreateUser(String userLogin) {
-        if (!userRepository.existsByLogin(userLogin)) {
+        if (getCachedId(userLogin) != null) {
+            return;
+        }
+        if (loginUnique) {
+            userRepository.insertIfAbsent(userLogin);
+        } else if (!userRepository.existsByLogin(userLogin)) {
             User user = new User();
             user.setLogin(userLogin);
             userRepository.save(user);
         }
+        userRepository.findIdByLogin(userLogin).ifPresent(id -> cacheId(userLogin, id));
     }
 
     /**
-     * This method fetches the unique identifier (ID) of a user from the database using their login.
-     * It utilizes the UserRepository to find the user, returning an Optional<User> which is then
-     * processed to extract the user's ID. If the user is not found, a UserNotFoundException is thrown.
+     * This method returns the unique identifier (ID) of a user using their login.
+     * <p>
+     * Process:
+     * - Returns the ID from the in-process login-to-ID cache if it is there.
+     * - Otherwise, reads only the ID from the database using the UserRepository and caches it. Since users are
+     * never deleted or renamed, a cached ID never becomes stale. Unknown logins are not cached.
      *
      * @param login The login identifier of the user whose ID is being requested.
      * @return The ID of the user associated with the given login.
      * @throws UserNotFoundException if no user is found with the provided login.
      */
     public Long getId(String login) {
-        Optional<User> user = userRepository.findByLogin(login);
-        return user
-                .orElseThrow(() -> new UserNotFoundException("User with login \"" + login + "\" not found"))
-                .getId();
+        Long cachedId = getCachedId(login);
+        if (cachedId != null) {
+            return cachedId;
+        }
+        Long id = userRepository.findIdByLogin(login)
+                .orElseThrow(() -> new UserNotFoundException("User with login \"" + login + "\" not found"));
+        cacheId(login, id);
+        return id;
     }
 
     /**
-     * This method searches for a user in the database using the provided login. It leverages the UserRepository
-     * to perform the search, which returns an Optional<User>. If a user with the specified login is found, the
-     * method returns the User entity. Otherwise, it throws a UserNotFoundException.
+     * This method returns the user with the provided login, for use as the owner of a transaction.
+     * <p>
+     * The ID of the user is resolved with getId, so once it is cached no query is run. The User is not loaded
+     * from the database but built from that ID and the login, which are all the fields it has. A transaction only
+     * needs the ID of its owner to be stored, and the returned User can be serialized as part of a response after
+     * the transaction has ended (spring.jpa.open-in-view is disabled), unlike a lazy reference.
      *
      * @param login The login identifier used to locate the user.
-     * @return The User entity associated with the given login.
+     * @return A User holding the ID and the login of the user.
      * @throws UserNotFoundException if no user is found with the provided login.
      */
     public User getUserByLogin(String login) {
-        return userRepository.findByLogin(login)
-                .orElseThrow(() -> new UserNotFoundException("User with login \"" + login + "\" not found"));
+        User user = new User();
+        user.setId(getId(login));
+        user.setLogin(login);
+        return user;
+    }
+
+    /**
+     * This private method returns the cached ID of a login and marks it as recently used.
+     *
+     * @param login The login identifier of the user.
+     * @return The ID of the user, or null if it is not cached.
+     */
+    private Long getCachedId(String login) {
+        synchronized (userIds) {
+            return userIds.get(login);
+        }
+    }
+
+    /**
+     * This private method caches the ID of a login, evicting the least recently used entry once the cache holds
+     * more than the configured number of entries.
+     *
+     * @param login The login identifier of the user.
+     * @param id    The ID of the user.
+     */
+    private void cacheId(String login, Long id) {
+        synchronized (userIds) {
+            userIds.put(login, id);
+            Iterator<Map.Entry<String, Long>> eldest = userIds.entrySet().iterator();
+            while (userIds.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
     }
 }
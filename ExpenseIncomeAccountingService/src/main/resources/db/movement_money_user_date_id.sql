@@ -0,0 +1,5 @@
+-- One-off migration that adds the index behind the keyset-paginated movement list to a database created before it
+-- existed. schema.sql only declares the index inside CREATE TABLE IF NOT EXISTS, so an existing table never gets it.
+-- Run it once by hand, e.g. mysql project_git_e_s < movement_money_user_date_id.sql
+
+ALTER TABLE movement_money ADD INDEX idx_movement_money_user_date_id (user_id, date, id);
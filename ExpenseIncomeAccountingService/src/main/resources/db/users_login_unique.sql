@@ -0,0 +1,37 @@
+-- One-off migration that adds the unique constraint on users.login to a database created before it existed.
+-- Run it once by hand with the accounting service stopped, e.g. mysql project_git_e_s < users_login_unique.sql
+-- Users that share a login are merged into the one with the lowest ID: their movements are moved to it, and
+-- the balance and the monthly rollup of the merged users are recomputed from their movements.
+
+CREATE TEMPORARY TABLE user_merge AS
+SELECT u.id AS duplicate_id, k.keep_id
+FROM users u
+         JOIN (SELECT login, MIN(id) AS keep_id
+               FROM users
+               WHERE login IS NOT NULL
+               GROUP BY login
+               HAVING COUNT(*) > 1) k ON u.login = k.login AND u.id <> k.keep_id;
+
+UPDATE movement_money m JOIN user_merge g ON m.user_id = g.duplicate_id
+SET m.user_id = g.keep_id;
+
+-- the balance of a user without a row is initialized from their movements on first use (UserBalanceService)
+DELETE b FROM user_balance b JOIN user_merge g ON b.user_id = g.duplicate_id;
+DELETE b FROM user_balance b JOIN (SELECT DISTINCT keep_id FROM user_merge) k ON b.user_id = k.keep_id;
+
+DELETE r FROM movement_money_monthly r JOIN user_merge g ON r.user_id = g.duplicate_id;
+DELETE r FROM movement_money_monthly r JOIN (SELECT DISTINCT keep_id FROM user_merge) k ON r.user_id = k.keep_id;
+INSERT INTO movement_money_monthly (user_id, month_key, type, total, movement_count)
+SELECT m.user_id, YEAR(m.date) * 100 + MONTH(m.date), m.type, COALESCE(SUM(CAST(m.amount AS DECIMAL(19, 2))), 0),
+       COUNT(*)
+FROM movement_money m
+WHERE m.user_id IN (SELECT keep_id FROM user_merge)
+  AND m.date IS NOT NULL
+  AND m.type IS NOT NULL
+GROUP BY m.user_id, YEAR(m.date) * 100 + MONTH(m.date), m.type;
+
+DELETE u FROM users u JOIN user_merge g ON u.id = g.duplicate_id;
+
+DROP TEMPORARY TABLE user_merge;
+
+ALTER TABLE users ADD CONSTRAINT uk_users_login UNIQUE (login);
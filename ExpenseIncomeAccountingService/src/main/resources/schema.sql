@@ -0,0 +1,43 @@
+-- Schema of the accounting service. It is applied on every start (spring.sql.init.mode=always), so every
+-- statement must leave an existing schema unchanged; Hibernate does not create or alter tables.
+
+-- an existing table gets the unique constraint from the one-off script db/users_login_unique.sql
+CREATE TABLE IF NOT EXISTS users
+(
+    id    BIGINT       NOT NULL AUTO_INCREMENT,
+    login VARCHAR(255) NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_login UNIQUE (login)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS movement_money
+(
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id     BIGINT       NOT NULL,
+    description VARCHAR(255) NULL,
+    amount      DOUBLE       NULL,
+    date        DATE         NULL,
+    type        VARCHAR(16)  NULL,
+    PRIMARY KEY (id),
+    INDEX idx_movement_money_user_date_id (user_id, date, id),
+    CONSTRAINT fk_movement_money_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+-- materialized balance of each user, maintained by UserBalanceService
+CREATE TABLE IF NOT EXISTS user_balance
+(
+    user_id BIGINT         NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (user_id)
+) ENGINE = InnoDB;
+
+-- monthly totals of each user and movement type, maintained by MonthlyRollupService
+CREATE TABLE IF NOT EXISTS movement_money_monthly
+(
+    user_id        BIGINT         NOT NULL,
+    month_key      INT            NOT NULL,
+    type           VARCHAR(16)    NOT NULL,
+    total          DECIMAL(19, 2) NOT NULL,
+    movement_count BIGINT         NOT NULL,
+    PRIMARY KEY (user_id, month_key, type)
+) ENGINE = InnoDB;
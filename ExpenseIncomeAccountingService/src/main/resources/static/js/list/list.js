@@ -1,13 +1,28 @@
+let nextPageCursor = null;
+
 document.addEventListener("DOMContentLoaded", function () {
+    document.getElementById('loadMoreButton').addEventListener('click', loadNextPage);
     loadDataFunction();
 });
 
 function loadDataFunction() {
     const dataTableBody = document.querySelector("#dataTable tbody");
     dataTableBody.innerHTML = "";
+    nextPageCursor = null;
+    loadNextPage();
+}
+
+function loadNextPage() {
+    const dataTableBody = document.querySelector("#dataTable tbody");
+    const loadMoreButton = document.getElementById('loadMoreButton');
     const login = localStorage.getItem('loginValue');
 
-    fetch("http://localhost:8081/api/v1/mm/" + encodeURIComponent(login), {
+    let url = "http://localhost:8081/api/v1/mm/" + encodeURIComponent(login) + "/page";
+    if (nextPageCursor) {
+        url += "?afterDate=" + encodeURIComponent(nextPageCursor.date) + "&afterId=" + nextPageCursor.id;
+    }
+
+    fetch(url, {
         method: "GET",
         headers: {
             "Accept": "application/json",
@@ -15,9 +30,9 @@ function loadDataFunction() {
         }
     })
         .then(response => response.json())
-        .then(data => {
+        .then(page => {
 
-            data.forEach(function (item) {
+            page.items.forEach(function (item) {
 
                 const row = document.createElement("tr");
                 row.setAttribute('data-id', item.id);
@@ -38,6 +53,9 @@ function loadDataFunction() {
                 row.addEventListener('click', handleRowClick);
                 dataTableBody.appendChild(row);
             });
+
+            nextPageCursor = page.hasMore ? {date: page.nextDate, id: page.nextId} : null;
+            loadMoreButton.style.display = page.hasMore ? 'block' : 'none';
         })
         .catch(error => {
             console.error("Error loading data: " + error);
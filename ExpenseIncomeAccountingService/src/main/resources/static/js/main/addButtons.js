@@ -25,8 +25,7 @@ document.addEventListener('DOMContentLoaded', function () {
             .then(response => response.json())
             .then(() => {
                 form.reset();
-                fetchBalance();
-                updateChart()
+                fetchDashboard();
             })
             .catch(error => console.error('Error:', error));
     });
@@ -59,8 +58,7 @@ document.addEventListener('DOMContentLoaded', function () {
             .then(response => response.json())
             .then(() => {
                 form.reset();
-                fetchBalance();
-                updateChart()
+                fetchDashboard();
             })
             .catch(error => console.error('Error:', error));
     });
@@ -1,20 +1,10 @@
-document.addEventListener('DOMContentLoaded', function () {
-    fetchBalance();
-});
+function renderBalance(balance) {
+    const balanceElement = document.getElementById('balance');
+    balanceElement.innerText = "BALANCE: " + balance;
 
-function fetchBalance() {
-    const login = localStorage.getItem('loginValue');
-    fetch('http://localhost:8081/api/v1/counting/balance/' + encodeURIComponent(login))
-        .then(response => response.json())
-        .then(balance => {
-            const balanceElement = document.getElementById('balance');
-            balanceElement.innerText = "BALANCE: " + balance;
-
-            if (balance < 0) {
-                balanceElement.style.color = 'red';
-            } else {
-                balanceElement.style.color = 'green';
-            }
-        })
-        .catch(error => console.error('Error:', error));
-}
\ No newline at end of file
+    if (balance < 0) {
+        balanceElement.style.color = 'red';
+    } else {
+        balanceElement.style.color = 'green';
+    }
+}
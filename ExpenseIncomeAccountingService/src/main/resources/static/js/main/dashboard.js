@@ -0,0 +1,29 @@
+document.addEventListener('DOMContentLoaded', function () {
+    fetchDashboard();
+});
+
+function fetchDashboard() {
+    const login = localStorage.getItem('loginValue');
+    fetch('http://localhost:8081/api/v1/counting/dashboard/' + encodeURIComponent(login))
+        .then(response => response.json())
+        .then(dashboard => {
+            renderBalance(dashboard.balance);
+            buildChart(dashboard.diagram);
+            renderRecentMovements(dashboard.recentMovements);
+        })
+        .catch(error => console.error('Error:', error));
+}
+
+function renderRecentMovements(movements) {
+    const container = document.getElementById('recentMovements');
+    container.innerHTML = '';
+
+    movements.forEach(movement => {
+        const row = document.createElement('div');
+        row.className = 'recent-movement';
+        row.innerText = new Date(movement.date).toLocaleDateString() + '  ' + movement.description + '  '
+            + (movement.type === 'INCOME' ? '+' : '-') + movement.amount;
+        row.style.color = movement.type === 'INCOME' ? 'green' : 'red';
+        container.appendChild(row);
+    });
+}
@@ -39,37 +39,3 @@ function formatMonth(dateString) {
     const formattedMonth = month < 10 ? `0${month}` : month;
     return `${year}-${formattedMonth}`;
 }
-
-function updateChart() {
-    if (!myChart) {
-        console.error('Chart not created yet');
-        return;
-    }
-    const login = localStorage.getItem('loginValue');
-    fetch(`http://localhost:8081/api/v1/counting/diagram/` + encodeURIComponent(login))
-        .then(response => response.json())
-        .then(data => {
-            myChart.data.labels = data.map(data => formatMonth(data.date));
-            myChart.data.datasets[0].data = data.map(data => data.balance);
-
-            myChart.data.datasets[0].backgroundColor = data.map(data => data.balance >= 0 ? 'green' : 'red');
-            myChart.data.datasets[0].borderColor = data.map(data => data.balance >= 0 ? 'green' : 'red');
-
-            myChart.update();
-        })
-        .catch(error => console.error('Ошибка:', error));
-}
-
-function fetchDiagramData() {
-    const login = localStorage.getItem('loginValue');
-    fetch(`http://localhost:8081/api/v1/counting/diagram/` + encodeURIComponent(login))
-        .then(response => response.json())
-        .then(data => {
-            buildChart(data);
-        })
-        .catch(error => console.error('Error:', error));
-}
-
-document.addEventListener("DOMContentLoaded", function () {
-    fetchDiagramData();
-});
\ No newline at end of file
@@ -3,6 +3,8 @@ package com.example.controllers;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.example.models.MovementCategory;
+import com.example.models.TypeMovement;
 import com.example.services.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,15 +44,19 @@ public class MainControllerTest {
         // Assert
         verify(userService).processUserFromJwt(httpServletRequest);
         verify(model).addAttribute("login", expectedLogin);
+        verify(model).addAttribute("incomeCategories", MovementCategory.of(TypeMovement.INCOME));
+        verify(model).addAttribute("expenseCategories", MovementCategory.of(TypeMovement.EXPENSE));
         assertEquals("main", viewName);
     }
 
     @Test
     void testGetListPage() {
         // Act
-        String viewName = mainController.getListPage();
+        String viewName = mainController.getListPage(model);
 
         // Assert
+        verify(model).addAttribute("incomeCategories", MovementCategory.of(TypeMovement.INCOME));
+        verify(model).addAttribute("expenseCategories", MovementCategory.of(TypeMovement.EXPENSE));
         assertEquals("list", viewName);
     }
 }
@@ -0,0 +1,52 @@
+package com.example.dto;
+
+import com.example.models.TypeMovement;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovementColumnsTest {
+
+    private static MovementMoneyDTO movement(LocalDate date, Double amount, TypeMovement type) {
+        MovementMoneyDTO movementMoneyDTO = new MovementMoneyDTO();
+        movementMoneyDTO.setDate(Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        movementMoneyDTO.setAmount(amount);
+        movementMoneyDTO.setType(type);
+        return movementMoneyDTO;
+    }
+
+    @Test
+    public void testEncode() {
+        List<MovementMoneyDTO> movements = List.of(
+                movement(LocalDate.of(2023, 1, 1), 1500.25, TypeMovement.INCOME),
+                movement(LocalDate.of(2023, 2, 1), 40.0, TypeMovement.EXPENSE),
+                movement(LocalDate.of(1969, 12, 1), 0.1, TypeMovement.INCOME));
+
+        ByteBuffer buffer = ByteBuffer.wrap(MovementColumns.encode(movements));
+
+        assertEquals(0x4D4D4331, buffer.getInt());
+        assertEquals(3, buffer.getInt());
+        assertEquals(2, buffer.getInt());
+        assertEquals(LocalDate.of(2023, 1, 1).toEpochDay(), buffer.getInt());
+        assertEquals(LocalDate.of(2023, 2, 1).toEpochDay(), buffer.getInt());
+        assertEquals(LocalDate.of(1969, 12, 1).toEpochDay(), buffer.getInt());
+        assertEquals(150025L, buffer.getLong());
+        assertEquals(4000L, buffer.getLong());
+        assertEquals(10L, buffer.getLong());
+        assertEquals(0b101, buffer.get());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testEncodeWithoutAmount() {
+        List<MovementMoneyDTO> movements = List.of(movement(LocalDate.of(2023, 1, 1), null, TypeMovement.INCOME));
+
+        assertThrows(IllegalArgumentException.class, () -> MovementColumns.encode(movements));
+    }
+}
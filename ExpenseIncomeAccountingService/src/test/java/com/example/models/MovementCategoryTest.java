@@ -0,0 +1,38 @@
+package com.example.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovementCategoryTest {
+
+    @Test
+    public void testCategoriesOfType() {
+        assertEquals(List.of("salary", "freelance", "investment", "business", "benefits", "donations", "rent"),
+                MovementCategory.of(TypeMovement.INCOME).stream().map(MovementCategory::getValue).toList());
+        assertEquals(List.of("bills", "groceries", "entertainment", "transport", "housing", "medicine", "education",
+                        "cloth", "present", "insurance"),
+                MovementCategory.of(TypeMovement.EXPENSE).stream().map(MovementCategory::getValue).toList());
+    }
+
+    @Test
+    public void testFromDescriptionMatchesNormalizedValueAndAliases() {
+        assertEquals(Optional.of(MovementCategory.SALARY),
+                MovementCategory.fromDescription("  SALARY ", TypeMovement.INCOME));
+        assertEquals(Optional.of(MovementCategory.RENT),
+                MovementCategory.fromDescription("Rental\n  Income", TypeMovement.INCOME));
+        assertEquals(Optional.of(MovementCategory.CLOTH),
+                MovementCategory.fromDescription("clothing", TypeMovement.EXPENSE));
+    }
+
+    @Test
+    public void testFromDescriptionRejectsPartialMatchesAndOtherType() {
+        assertTrue(MovementCategory.fromDescription("presentation fee", TypeMovement.EXPENSE).isEmpty());
+        assertTrue(MovementCategory.fromDescription("clothing store", TypeMovement.EXPENSE).isEmpty());
+        assertTrue(MovementCategory.fromDescription("rental deposit", TypeMovement.INCOME).isEmpty());
+        assertTrue(MovementCategory.fromDescription("salary", TypeMovement.EXPENSE).isEmpty());
+    }
+}
@@ -1,71 +1,91 @@
 package com.example.restControllers;
 
+import com.example.dto.DashboardDTO;
 import com.example.dto.DiagramDataDTO;
+import com.example.dto.MovementMoneyDTO;
+import com.example.exception.ReportServiceException;
+import com.example.models.Granularity;
 import com.example.models.MovementMoney;
+import com.example.models.TypeMovement;
+import com.example.services.CircuitBreaker;
+import com.example.services.DiagramDataService;
+import com.example.services.LocalDiagramService;
 import com.example.services.MovementMoneyService;
+import com.example.services.ReportCacheService;
+import com.example.services.ReportServiceClient;
+import com.example.services.UserBalanceService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 public class CountingRestControllerTest {
 
     private CountingRestController controller;
     private MovementMoneyService movementMoneyService;
-    private RestTemplate restTemplate;
+    private UserBalanceService userBalanceService;
+    private ReportCacheService reportCacheService;
+    private ReportServiceClient reportServiceClient;
 
     @BeforeEach
     public void setup() {
         movementMoneyService = mock(MovementMoneyService.class);
-        restTemplate = mock(RestTemplate.class);
-        controller = new CountingRestController(movementMoneyService, restTemplate);
+        userBalanceService = mock(UserBalanceService.class);
+        reportServiceClient = mock(ReportServiceClient.class);
+        reportCacheService = new ReportCacheService();
+        ReflectionTestUtils.setField(reportCacheService, "maxWeight", 100L);
+        controller = controllerWithCircuitBreaker(new CircuitBreaker(20, 10, 50, Duration.ofSeconds(2), 50,
+                Duration.ofSeconds(30), System::nanoTime));
+    }
+
+    private CountingRestController controllerWithCircuitBreaker(CircuitBreaker circuitBreaker) {
+        DiagramDataService diagramDataService = new DiagramDataService(reportServiceClient,
+                new LocalDiagramService(), circuitBreaker);
+        return new CountingRestController(movementMoneyService, userBalanceService, reportCacheService,
+                diagramDataService);
     }
 
     @Test
     public void testGetBalance() {
         String login = "user123";
-        List<MovementMoney> moneyList = List.of(new MovementMoney());
-        when(movementMoneyService.getAllMovementMoneyByUserLogin(login)).thenReturn(moneyList);
-
         double expectedBalance = 100.0;
-        when(restTemplate.postForEntity(
-                "http://localhost:8082/api/v1/balance",
-                moneyList,
-                Double.class))
-                .thenReturn(ResponseEntity.ok(expectedBalance));
+        when(userBalanceService.getBalance(login)).thenReturn(expectedBalance);
 
         ResponseEntity<Double> response = controller.getBalance(login);
 
         assertEquals(expectedBalance, response.getBody());
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        verifyNoInteractions(movementMoneyService, reportServiceClient);
     }
 
     @Test
     public void testGetBalanceWithNoMovements() {
         String login = "user123";
-        when(movementMoneyService.getAllMovementMoneyByUserLogin(login)).thenReturn(Collections.emptyList());
+        when(userBalanceService.getBalance(login)).thenReturn(0.0);
 
         ResponseEntity<Double> response = controller.getBalance(login);
 
         assertNotNull(response, "Response should not be null");
-        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(0.0, response.getBody());
     }
 
     @Test
     public void testGetBalanceServiceException() {
         String login = "user123";
-        when(movementMoneyService.getAllMovementMoneyByUserLogin(login))
+        when(userBalanceService.getBalance(login))
                 .thenThrow(new RuntimeException("Service exception"));
 
         ResponseEntity<Double> response = controller.getBalance(login);
@@ -77,46 +97,302 @@ public class CountingRestControllerTest {
     @Test
     public void testGetDiagramDataSuccess() {
         String login = "user123";
-        List<MovementMoney> moneyList = List.of(new MovementMoney());
+        List<MovementMoneyDTO> monthlyTotals = List.of(new MovementMoneyDTO());
         List<DiagramDataDTO> diagramData = List.of(new DiagramDataDTO());
 
-        when(movementMoneyService.getAllMovementMoneyByUserLogin(login)).thenReturn(moneyList);
-        when(restTemplate.exchange(
-                "http://localhost:8082/api/v1/diagram",
-                HttpMethod.POST,
-                new HttpEntity<>(moneyList),
-                new ParameterizedTypeReference<List<DiagramDataDTO>>() {
-                }))
-                .thenReturn(new ResponseEntity<>(diagramData, HttpStatus.OK));
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals);
+        when(reportServiceClient.getDiagramData(monthlyTotals, Granularity.MONTH))
+                .thenReturn(CompletableFuture.completedFuture(diagramData));
 
-        ResponseEntity<List<DiagramDataDTO>> response = controller.getDiagramData(login);
+        ResponseEntity<List<DiagramDataDTO>> response = controller.getDiagramData(login, null, null, "month").join();
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(diagramData, response.getBody());
     }
 
+    @Test
+    public void testGetDiagramDataIsCompletedWhenReportServiceAnswers() {
+        String login = "user123";
+        List<DiagramDataDTO> diagramData = List.of(new DiagramDataDTO());
+        CompletableFuture<List<DiagramDataDTO>> pending = new CompletableFuture<>();
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals());
+        when(reportServiceClient.getDiagramData(any(), any())).thenReturn(pending);
+
+        CompletableFuture<ResponseEntity<List<DiagramDataDTO>>> response =
+                controller.getDiagramData(login, null, null, "month");
+
+        assertFalse(response.isDone());
+        pending.complete(diagramData);
+        assertEquals(HttpStatus.OK, response.join().getStatusCode());
+        assertEquals(diagramData, response.join().getBody());
+    }
+
     @Test
     public void testGetDiagramDataWithNoMovements() {
         String login = "user123";
-        when(movementMoneyService.getAllMovementMoneyByUserLogin(login)).thenReturn(Collections.emptyList());
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(Collections.emptyList());
 
-        ResponseEntity<List<DiagramDataDTO>> response = controller.getDiagramData(login);
+        ResponseEntity<List<DiagramDataDTO>> response = controller.getDiagramData(login, null, null, "month").join();
 
         assertNotNull(response);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verifyNoInteractions(reportServiceClient);
     }
 
     @Test
     public void testGetDiagramDataServiceException() {
         String login = "user123";
-        when(movementMoneyService.getAllMovementMoneyByUserLogin(login))
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login))
                 .thenThrow(new RuntimeException("Service exception"));
 
-        ResponseEntity<List<DiagramDataDTO>> response = controller.getDiagramData(login);
+        ResponseEntity<List<DiagramDataDTO>> response = controller.getDiagramData(login, null, null, "month").join();
 
         assertNotNull(response);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testGetDiagramDataFallsBackWhenReportServiceFails() {
+        String login = "user123";
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals());
+        when(reportServiceClient.getDiagramData(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new ReportServiceException("status 500")));
+
+        ResponseEntity<List<DiagramDataDTO>> response = controller.getDiagramData(login, null, null, "month").join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertEquals(1460.25, response.getBody().get(0).getBalance());
+        assertEquals(1, controller.getReportServiceStats().getBody().getFallbackCalls());
+        assertEquals(0, controller.getReportServiceStats().getBody().getRemoteCalls());
+    }
+
+    @Test
+    public void testGetDiagramDataSkipsReportServiceWhileCircuitIsOpen() {
+        String login = "user123";
+        controller = controllerWithCircuitBreaker(new CircuitBreaker(2, 2, 50, Duration.ofSeconds(2), 50,
+                Duration.ofMinutes(1), System::nanoTime));
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals());
+        when(movementMoneyService.getDailyTotalsByUserLogin(login, null, null)).thenReturn(monthlyTotals());
+        when(reportServiceClient.getDiagramData(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new ReportServiceException("status 500")));
+
+        controller.getDiagramData(login, null, null, "month").join();
+        controller.getDiagramData(login, null, null, "year").join();
+        ResponseEntity<List<DiagramDataDTO>> response = controller.getDiagramData(login, null, null, "day").join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1460.25, response.getBody().get(0).getBalance());
+        verify(reportServiceClient, times(2)).getDiagramData(any(), any());
+        assertEquals("OPEN", controller.getReportServiceStats().getBody().getState());
+        assertEquals(1, controller.getReportServiceStats().getBody().getNotPermittedCalls());
+        assertEquals(3, controller.getReportServiceStats().getBody().getFallbackCalls());
+    }
+
+    private static List<MovementMoneyDTO> monthlyTotals() {
+        MovementMoneyDTO income = new MovementMoneyDTO();
+        income.setDate(new Date());
+        income.setAmount(1500.25);
+        income.setType(TypeMovement.INCOME);
+        MovementMoneyDTO expense = new MovementMoneyDTO();
+        expense.setDate(new Date());
+        expense.setAmount(40.0);
+        expense.setType(TypeMovement.EXPENSE);
+        return List.of(income, expense);
+    }
+
+    @Test
+    public void testGetDiagramDataIsCachedUntilInvalidated() {
+        String login = "user123";
+        List<DiagramDataDTO> diagramData = List.of(new DiagramDataDTO());
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals());
+        when(reportServiceClient.getDiagramData(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(diagramData));
+
+        assertEquals(diagramData, controller.getDiagramData(login, null, null, "month").join().getBody());
+        assertEquals(diagramData, controller.getDiagramData(login, null, null, "month").join().getBody());
+        verify(movementMoneyService, times(1)).getMonthlyTotalsByUserLogin(login);
+
+        reportCacheService.invalidate(login);
+        assertEquals(diagramData, controller.getDiagramData(login, null, null, "month").join().getBody());
+        verify(movementMoneyService, times(2)).getMonthlyTotalsByUserLogin(login);
+    }
+
+    @Test
+    public void testGetBalanceIsCached() {
+        String login = "user123";
+        when(userBalanceService.getBalance(login)).thenReturn(100.0);
+
+        controller.getBalance(login);
+        ResponseEntity<Double> response = controller.getBalance(login);
+
+        assertEquals(100.0, response.getBody());
+        verify(userBalanceService, times(1)).getBalance(login);
+        assertEquals(1, controller.getCacheStats().getBody().getHits());
+        assertEquals(1, controller.getCacheStats().getBody().getMisses());
+    }
+
+    @Test
+    public void testGetDiagramDataWithRangeUsesDailyTotals() {
+        String login = "user123";
+        LocalDate from = LocalDate.of(2023, 1, 1);
+        LocalDate to = LocalDate.of(2023, 3, 31);
+        List<MovementMoneyDTO> dailyTotals = List.of(new MovementMoneyDTO());
+        List<DiagramDataDTO> diagramData = List.of(new DiagramDataDTO());
+        when(movementMoneyService.getDailyTotalsByUserLogin(login, from, to)).thenReturn(dailyTotals);
+        when(reportServiceClient.getDiagramData(dailyTotals, Granularity.WEEK))
+                .thenReturn(CompletableFuture.completedFuture(diagramData));
+
+        ResponseEntity<List<DiagramDataDTO>> response = controller.getDiagramData(login, from, to, "Week").join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(diagramData, response.getBody());
+        verify(movementMoneyService, never()).getMonthlyTotalsByUserLogin(any());
+        assertEquals(0, controller.getCacheStats().getBody().getMisses());
+    }
+
+    @Test
+    public void testGetDiagramDataByQuarterUsesMonthlyTotals() {
+        String login = "user123";
+        List<MovementMoneyDTO> monthlyTotals = monthlyTotals();
+        List<DiagramDataDTO> diagramData = List.of(new DiagramDataDTO());
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals);
+        when(reportServiceClient.getDiagramData(monthlyTotals, Granularity.QUARTER))
+                .thenReturn(CompletableFuture.completedFuture(diagramData));
+
+        assertEquals(diagramData, controller.getDiagramData(login, null, null, "quarter").join().getBody());
+        verify(movementMoneyService, never()).getDailyTotalsByUserLogin(any(), any(), any());
+    }
+
+    @Test
+    public void testGetDiagramDataWithInvalidParameters() {
+        String login = "user123";
+
+        assertEquals(HttpStatus.BAD_REQUEST,
+                controller.getDiagramData(login, null, null, "fortnight").join().getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getDiagramData(login, LocalDate.of(2023, 2, 1),
+                LocalDate.of(2023, 1, 1), "month").join().getStatusCode());
+        verifyNoInteractions(movementMoneyService, reportServiceClient);
+    }
+
+    @Test
+    public void testGetDashboard() {
+        String login = "user123";
+        List<MovementMoneyDTO> monthlyTotals = monthlyTotals();
+        List<DiagramDataDTO> diagramData = List.of(new DiagramDataDTO());
+        List<MovementMoney> recentMovements = List.of(new MovementMoney());
+        when(userBalanceService.getBalance(login)).thenReturn(1460.25);
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals);
+        when(reportServiceClient.getDiagramData(monthlyTotals, Granularity.MONTH))
+                .thenReturn(CompletableFuture.completedFuture(diagramData));
+        when(movementMoneyService.getRecentMovementMoney(login, 5)).thenReturn(recentMovements);
+
+        ResponseEntity<DashboardDTO> response = controller.getDashboard(login, 5).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1460.25, response.getBody().getBalance());
+        assertEquals(diagramData, response.getBody().getDiagram());
+        assertEquals(recentMovements, response.getBody().getRecentMovements());
+        verify(movementMoneyService, never()).getAllMovementMoneyByUserLogin(any());
+    }
+
+    @Test
+    public void testGetDashboardSharesCacheWithSingleEndpoints() {
+        String login = "user123";
+        when(userBalanceService.getBalance(login)).thenReturn(10.0);
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals());
+        when(reportServiceClient.getDiagramData(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(new DiagramDataDTO())));
+
+        controller.getDiagramData(login, null, null, "month").join();
+        controller.getBalance(login);
+        controller.getDashboard(login, 10).join();
+
+        verify(userBalanceService, times(1)).getBalance(login);
+        verify(reportServiceClient, times(1)).getDiagramData(any(), any());
+    }
+
+    @Test
+    public void testGetDashboardWithNoMovements() {
+        String login = "user123";
+        when(userBalanceService.getBalance(login)).thenReturn(0.0);
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(Collections.emptyList());
+        when(movementMoneyService.getRecentMovementMoney(login, 10)).thenReturn(Collections.emptyList());
+
+        ResponseEntity<DashboardDTO> response = controller.getDashboard(login, 10).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().getDiagram().isEmpty());
+        verifyNoInteractions(reportServiceClient);
+    }
+
+    @Test
+    public void testGetDashboardFallsBackWhenReportServiceFails() {
+        String login = "user123";
+        when(userBalanceService.getBalance(login)).thenReturn(0.0);
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals());
+        when(reportServiceClient.getDiagramData(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new ReportServiceException("status 500")));
+
+        ResponseEntity<DashboardDTO> response = controller.getDashboard(login, 10).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1460.25, response.getBody().getDiagram().get(0).getBalance());
+    }
+
+    @Test
+    public void testConcurrentDiagramRequestsAreCoalesced() {
+        String login = "user123";
+        List<DiagramDataDTO> diagramData = List.of(new DiagramDataDTO());
+        CompletableFuture<List<DiagramDataDTO>> pending = new CompletableFuture<>();
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals());
+        when(reportServiceClient.getDiagramData(any(), any())).thenReturn(pending);
+
+        CompletableFuture<ResponseEntity<List<DiagramDataDTO>>> first =
+                controller.getDiagramData(login, null, null, "month");
+        CompletableFuture<ResponseEntity<DashboardDTO>> second = controller.getDashboard(login, 10);
+        pending.complete(diagramData);
+
+        assertEquals(diagramData, first.join().getBody());
+        assertEquals(diagramData, second.join().getBody().getDiagram());
+        verify(movementMoneyService, times(1)).getMonthlyTotalsByUserLogin(login);
+        verify(reportServiceClient, times(1)).getDiagramData(any(), any());
+        assertEquals(1, controller.getCacheStats().getBody().getCoalesced());
+    }
+
+    @Test
+    public void testCoalescedFallbackReachesAllRequests() {
+        String login = "user123";
+        CompletableFuture<List<DiagramDataDTO>> pending = new CompletableFuture<>();
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals());
+        when(reportServiceClient.getDiagramData(any(), any())).thenReturn(pending);
+
+        CompletableFuture<ResponseEntity<List<DiagramDataDTO>>> first =
+                controller.getDiagramData(login, null, null, "month");
+        CompletableFuture<ResponseEntity<List<DiagramDataDTO>>> second =
+                controller.getDiagramData(login, null, null, "month");
+        pending.completeExceptionally(new ReportServiceException("status 500"));
+
+        assertEquals(HttpStatus.OK, first.join().getStatusCode());
+        assertEquals(first.join().getBody(), second.join().getBody());
+        verify(reportServiceClient, times(1)).getDiagramData(any(), any());
+        assertEquals(1, controller.getReportServiceStats().getBody().getFallbackCalls());
+    }
+
+    @Test
+    public void testRequestAfterInvalidationDoesNotJoinRunningComputation() {
+        String login = "user123";
+        CompletableFuture<List<DiagramDataDTO>> pending = new CompletableFuture<>();
+        when(movementMoneyService.getMonthlyTotalsByUserLogin(login)).thenReturn(monthlyTotals());
+        when(reportServiceClient.getDiagramData(any(), any()))
+                .thenReturn(pending)
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        controller.getDiagramData(login, null, null, "month");
+        reportCacheService.invalidate(login);
+        controller.getDiagramData(login, null, null, "month");
+
+        verify(reportServiceClient, times(2)).getDiagramData(any(), any());
+    }
+}
@@ -1,34 +1,74 @@
 package com.example.restControllers;
 
+import com.example.dto.BatchIngestResultDTO;
+import com.example.dto.CsvImportStatusDTO;
 import com.example.dto.MovementMoneyDTO;
+import com.example.dto.MovementMoneyPageDTO;
+import com.example.exception.CsvImportOverloadedException;
 import com.example.models.MovementMoney;
+import com.example.models.TypeMovement;
+import com.example.models.User;
+import com.example.services.MovementMoneyBatchService;
+import com.example.services.MovementMoneyExportService;
+import com.example.services.MovementMoneyImportService;
 import com.example.services.MovementMoneyService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class MovementMoneyRestControllerTest {
 
     @Mock
     private MovementMoneyService movementMoneyService;
 
+    @Mock
+    private MovementMoneyExportService movementMoneyExportService;
+
+    @Mock
+    private MovementMoneyBatchService movementMoneyBatchService;
+
+    @Mock
+    private MovementMoneyImportService movementMoneyImportService;
+
     @InjectMocks
     private MovementMoneyRestController movementMoneyRestController;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(movementMoneyRestController, "exportTimeout", Duration.ofMinutes(30));
     }
 
     @Test
@@ -45,6 +85,31 @@ public class MovementMoneyRestControllerTest {
         assertEquals(expectedMovementMoney, response.getBody());
     }
 
+    @Test
+    public void testAddAndUpdateExpenseResponsesSerializeTheUser() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        user.setLogin("testUser");
+        MovementMoney movementMoney = new MovementMoney();
+        movementMoney.setId(7L);
+        movementMoney.setUser(user);
+        movementMoney.setAmount(12.5);
+        movementMoney.setType(TypeMovement.EXPENSE);
+        when(movementMoneyService.addMovementMoney(any(MovementMoneyDTO.class))).thenReturn(movementMoney);
+        when(movementMoneyService.updateMovementMoney(eq(7L), any(MovementMoneyDTO.class))).thenReturn(movementMoney);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(movementMoneyRestController).build();
+        String body = "{\"login\":\"testUser\",\"amount\":12.5,\"type\":\"EXPENSE\"}";
+
+        mockMvc.perform(post("/api/v1/mm").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.user.login").value("testUser"));
+        mockMvc.perform(put("/api/v1/mm/7").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.id").value(1))
+                .andExpect(jsonPath("$.user.login").value("testUser"));
+    }
+
     @Test
     public void testAddExpenseException() {
         MovementMoneyDTO movementMoneyDTO = new MovementMoneyDTO();
@@ -55,6 +120,19 @@ public class MovementMoneyRestControllerTest {
         assertThrows(RuntimeException.class, () -> movementMoneyRestController.addExpense(movementMoneyDTO));
     }
 
+    @Test
+    public void testAddExpensesBatch() {
+        InputStream inputStream = new ByteArrayInputStream("[]".getBytes());
+        BatchIngestResultDTO expectedResult = new BatchIngestResultDTO();
+
+        when(movementMoneyBatchService.ingest(inputStream)).thenReturn(expectedResult);
+
+        ResponseEntity<BatchIngestResultDTO> response = movementMoneyRestController.addExpenses(inputStream);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expectedResult, response.getBody());
+    }
+
     @Test
     public void testUpdateExpenseSuccess() {
         Long id = 1L;
@@ -129,4 +207,86 @@ public class MovementMoneyRestControllerTest {
         assertTrue(Objects.requireNonNull(response.getBody()).isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testGetMoveMoneyPageSuccess() {
+        String login = "user123";
+        LocalDate afterDate = LocalDate.of(2023, 1, 10);
+        MovementMoneyPageDTO page = new MovementMoneyPageDTO();
+        page.setItems(List.of(new MovementMoney()));
+
+        when(movementMoneyService.getMovementMoneyPage(login, afterDate, 5L, 50)).thenReturn(page);
+
+        ResponseEntity<MovementMoneyPageDTO> response =
+                movementMoneyRestController.getMoveMoneyPage(login, afterDate, 5L, 50);
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    public void testExportMoveMoney() throws Exception {
+        String login = "user123";
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        ResponseEntity<StreamingResponseBody> response =
+                movementMoneyRestController.exportMoveMoney(login, new MockHttpServletRequest());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verifyNoInteractions(movementMoneyExportService);
+
+        Objects.requireNonNull(response.getBody()).writeTo(outputStream);
+
+        verify(movementMoneyExportService).exportMovementMoney(login, outputStream);
+    }
+
+    @Test
+    public void testExportMoveMoneyHasItsOwnTimeout() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(movementMoneyRestController)
+                .setAsyncRequestTimeout(5000)
+                .build();
+
+        MvcResult exportResult = mockMvc.perform(get("/api/v1/mm/user123/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), exportResult.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    public void testImportMoveMoney() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv", new byte[0]);
+        CsvImportStatusDTO status = new CsvImportStatusDTO();
+
+        when(movementMoneyImportService.startImport("user123", file)).thenReturn(status);
+
+        ResponseEntity<?> response = movementMoneyRestController.importMoveMoney("user123", file);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(status, response.getBody());
+    }
+
+    @Test
+    public void testImportMoveMoneyOverloaded() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv", new byte[0]);
+
+        when(movementMoneyImportService.startImport("user123", file))
+                .thenThrow(new CsvImportOverloadedException("Too many imports in progress", 30));
+
+        ResponseEntity<?> response = movementMoneyRestController.importMoveMoney("user123", file);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Too many imports in progress", response.getBody());
+    }
+
+    @Test
+    public void testGetImportStatusNotFound() {
+        when(movementMoneyImportService.getImportStatus("user123", "unknown")).thenReturn(Optional.empty());
+
+        ResponseEntity<CsvImportStatusDTO> response = movementMoneyRestController.getImportStatus("user123", "unknown");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+}
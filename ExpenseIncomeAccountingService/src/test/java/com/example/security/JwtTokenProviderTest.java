@@ -16,8 +16,19 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+import io.jsonwebtoken.Jwts;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public class JwtTokenProviderTest {
 
@@ -148,4 +159,98 @@ public class JwtTokenProviderTest {
 
         assertEquals(expectedLogin, login);
     }
+
+    @Test
+    public void testParseVerifiesTokenOnceAndCachesPrincipal() throws Exception {
+        JwtTokenProvider provider = provider(10);
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        String token = token("user", expiresAt);
+
+        JwtPrincipal principal = provider.parse(token);
+
+        assertEquals("user", principal.login());
+        assertEquals("ROLE_USER", principal.role());
+        assertEquals(expiresAt.getEpochSecond(), principal.expiresAt().getEpochSecond());
+        assertSame(principal, provider.parse(token));
+        assertEquals("user", provider.getLoginFromToken(token));
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")),
+                provider.getAuthentication(token).getAuthorities());
+        assertEquals(1, principals(provider).size());
+    }
+
+    @Test
+    public void testParseRejectsCachedPrincipalAfterExpiry() throws Exception {
+        JwtTokenProvider provider = provider(10);
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        String token = token("user", expiresAt);
+        provider.parse(token);
+
+        ReflectionTestUtils.setField(provider, "clock", Clock.fixed(expiresAt.plusSeconds(1), ZoneOffset.UTC));
+
+        assertThrows(JwtAuthenticationException.class, () -> provider.parse(token));
+        assertTrue(principals(provider).isEmpty());
+    }
+
+    @Test
+    public void testParseRejectsTokenWithWrongSignature() throws Exception {
+        JwtTokenProvider provider = provider(10);
+        String token = token("user", Instant.now().plusSeconds(3600));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtAuthenticationException.class, () -> provider.parse(tampered));
+        assertThrows(JwtAuthenticationException.class, () -> provider.validateToken("invalidToken"));
+        assertTrue(principals(provider).isEmpty());
+    }
+
+    @Test
+    public void testParseRejectsTokenWithoutExpiry() throws Exception {
+        JwtTokenProvider provider = provider(10);
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest("secretKey".getBytes(StandardCharsets.UTF_8));
+        String token = Jwts.builder()
+                .setSubject("user")
+                .claim("role", "ROLE_USER")
+                .signWith(new SecretKeySpec(hash, "HmacSHA256"))
+                .compact();
+
+        JwtAuthenticationException exception = assertThrows(JwtAuthenticationException.class, () ->
+                provider.parse(token));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getHttpStatus());
+        assertTrue(principals(provider).isEmpty());
+    }
+
+    @Test
+    public void testPrincipalCacheIsBounded() throws Exception {
+        JwtTokenProvider provider = provider(2);
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+
+        provider.parse(token("first", expiresAt));
+        provider.parse(token("second", expiresAt));
+        provider.parse(token("third", expiresAt));
+
+        assertEquals(2, principals(provider).size());
+    }
+
+    private static JwtTokenProvider provider(int maxCachedPrincipals) throws Exception {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "secretKey", "secretKey");
+        ReflectionTestUtils.setField(provider, "maxCachedPrincipals", maxCachedPrincipals);
+        provider.init();
+        return provider;
+    }
+
+    private static String token(String login, Instant expiresAt) throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest("secretKey".getBytes(StandardCharsets.UTF_8));
+        return Jwts.builder()
+                .setSubject(login)
+                .claim("role", "ROLE_USER")
+                .setExpiration(Date.from(expiresAt))
+                .signWith(new SecretKeySpec(hash, "HmacSHA256"))
+                .compact();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, JwtPrincipal> principals(JwtTokenProvider provider) {
+        return (Map<String, JwtPrincipal>) ReflectionTestUtils.getField(provider, "principals");
+    }
 }
@@ -0,0 +1,117 @@
+package com.example.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(100).toNanos();
+    private static final long SLOW = Duration.ofSeconds(3).toNanos();
+
+    private AtomicLong clock;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    public void setup() {
+        clock = new AtomicLong();
+        circuitBreaker = new CircuitBreaker(4, 4, 50, Duration.ofSeconds(2), 75, Duration.ofSeconds(30),
+                clock::get);
+    }
+
+    @Test
+    public void testStaysClosedBelowMinimumCalls() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onError(FAST);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(100.0, circuitBreaker.getFailureRate());
+        assertEquals(3, circuitBreaker.getBufferedCalls());
+    }
+
+    @Test
+    public void testOpensAtFailureRateThreshold() {
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onError(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onError(FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(1, circuitBreaker.getNotPermittedCalls());
+        assertEquals(1, circuitBreaker.getOpenings());
+    }
+
+    @Test
+    public void testOpensAtSlowCallRateThreshold() {
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(SLOW);
+        circuitBreaker.onSuccess(SLOW);
+        circuitBreaker.onSuccess(SLOW);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testOldOutcomesLeaveTheWindow() {
+        circuitBreaker.onError(FAST);
+        for (int i = 0; i < 6; i++) {
+            circuitBreaker.onSuccess(FAST);
+        }
+        circuitBreaker.onError(FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(25.0, circuitBreaker.getFailureRate());
+        assertEquals(4, circuitBreaker.getBufferedCalls());
+    }
+
+    @Test
+    public void testHalfOpenPermitsOneTrialCallAndClosesOnSuccess() {
+        open();
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onSuccess(FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getBufferedCalls());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void testHalfOpenReopensOnSlowTrialCall() {
+        open();
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onSuccess(SLOW);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2, circuitBreaker.getOpenings());
+        clock.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void testRejectsMinimumCallsAboveWindowSize() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(4, 5, 50, Duration.ofSeconds(2), 50,
+                Duration.ofSeconds(30), clock::get));
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onError(FAST);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
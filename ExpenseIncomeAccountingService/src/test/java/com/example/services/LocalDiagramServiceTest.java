@@ -0,0 +1,106 @@
+package com.example.services;
+
+import com.example.dto.DiagramDataDTO;
+import com.example.dto.MovementMoneyDTO;
+import com.example.models.Granularity;
+import com.example.models.TypeMovement;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalDiagramServiceTest {
+
+    private final LocalDiagramService localDiagramService = new LocalDiagramService();
+
+    @Test
+    public void testGroupsSignedAmountsByMonth() {
+        List<MovementMoneyDTO> totals = List.of(
+                movement(LocalDate.of(2023, 2, 10), 40.0, TypeMovement.EXPENSE),
+                movement(LocalDate.of(2023, 1, 5), 1500.25, TypeMovement.INCOME),
+                movement(LocalDate.of(2023, 1, 20), 100.10, TypeMovement.EXPENSE));
+
+        List<DiagramDataDTO> data = localDiagramService.getDiagramData(totals, Granularity.MONTH);
+
+        assertEquals(2, data.size());
+        assertEquals(date(LocalDate.of(2023, 1, 1)), data.get(0).getDate());
+        assertEquals(1400.15, data.get(0).getBalance());
+        assertEquals(date(LocalDate.of(2023, 2, 1)), data.get(1).getDate());
+        assertEquals(-40.0, data.get(1).getBalance());
+    }
+
+    @Test
+    public void testGroupsByWeekStartingOnMonday() {
+        List<MovementMoneyDTO> totals = List.of(
+                movement(LocalDate.of(2023, 1, 1), 10.0, TypeMovement.INCOME),
+                movement(LocalDate.of(2023, 1, 2), 20.0, TypeMovement.INCOME),
+                movement(LocalDate.of(2023, 1, 8), 5.0, TypeMovement.EXPENSE));
+
+        List<DiagramDataDTO> data = localDiagramService.getDiagramData(totals, Granularity.WEEK);
+
+        assertEquals(2, data.size());
+        assertEquals(date(LocalDate.of(2022, 12, 26)), data.get(0).getDate());
+        assertEquals(10.0, data.get(0).getBalance());
+        assertEquals(date(LocalDate.of(2023, 1, 2)), data.get(1).getDate());
+        assertEquals(15.0, data.get(1).getBalance());
+    }
+
+    @Test
+    public void testGroupsByQuarterAndYear() {
+        List<MovementMoneyDTO> totals = List.of(
+                movement(LocalDate.of(2023, 3, 31), 1.0, TypeMovement.INCOME),
+                movement(LocalDate.of(2023, 4, 1), 2.0, TypeMovement.INCOME));
+
+        List<DiagramDataDTO> quarters = localDiagramService.getDiagramData(totals, Granularity.QUARTER);
+        List<DiagramDataDTO> years = localDiagramService.getDiagramData(totals, Granularity.YEAR);
+
+        assertEquals(date(LocalDate.of(2023, 1, 1)), quarters.get(0).getDate());
+        assertEquals(date(LocalDate.of(2023, 4, 1)), quarters.get(1).getDate());
+        assertEquals(1, years.size());
+        assertEquals(3.0, years.get(0).getBalance());
+    }
+
+    @Test
+    public void testNegativeAmountReversesSignAndRoundsHalfAwayFromZero() {
+        List<MovementMoneyDTO> totals = Arrays.asList(
+                movement(LocalDate.of(2023, 1, 1), -10.0, TypeMovement.EXPENSE),
+                null,
+                movement(LocalDate.of(2023, 1, 1), 0.125, TypeMovement.INCOME));
+
+        List<DiagramDataDTO> data = localDiagramService.getDiagramData(totals, Granularity.DAY);
+
+        assertEquals(1, data.size());
+        assertEquals(10.13, data.get(0).getBalance());
+    }
+
+    @Test
+    public void testRoundsLikeReportService() {
+        List<MovementMoneyDTO> totals = List.of(movement(LocalDate.of(2023, 1, 1), 0.285, TypeMovement.INCOME));
+
+        List<DiagramDataDTO> data = localDiagramService.getDiagramData(totals, Granularity.DAY);
+
+        assertEquals(0.29, data.get(0).getBalance());
+    }
+
+    @Test
+    public void testEmptyTotals() {
+        assertTrue(localDiagramService.getDiagramData(List.of(), Granularity.MONTH).isEmpty());
+    }
+
+    private static MovementMoneyDTO movement(LocalDate date, double amount, TypeMovement type) {
+        MovementMoneyDTO dto = new MovementMoneyDTO();
+        dto.setDate(date(date));
+        dto.setAmount(amount);
+        dto.setType(type);
+        return dto;
+    }
+
+    private static Date date(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.services;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.dto.MovementMoneyDTO;
+import com.example.models.TypeMovement;
+import com.example.repositories.MovementMoneyMonthlyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+public class MonthlyRollupServiceTest {
+
+    @Mock
+    private MovementMoneyMonthlyRepository movementMoneyMonthlyRepository;
+
+    @InjectMocks
+    private MonthlyRollupService monthlyRollupService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private static BigDecimal amount(String value) {
+        BigDecimal expected = new BigDecimal(value);
+        return argThat(actual -> actual != null && actual.compareTo(expected) == 0);
+    }
+
+    private static MovementMoneyDTO movement(String date, double amount, TypeMovement type) {
+        MovementMoneyDTO movementMoneyDTO = new MovementMoneyDTO();
+        movementMoneyDTO.setDate(date != null ? java.sql.Date.valueOf(date) : null);
+        movementMoneyDTO.setAmount(amount);
+        movementMoneyDTO.setType(type);
+        return movementMoneyDTO;
+    }
+
+    @Test
+    public void testMonthKey() {
+        assertEquals(202302, MonthlyRollupService.monthKey(java.sql.Date.valueOf("2023-02-28")));
+        assertEquals(199912, MonthlyRollupService.monthKey(java.sql.Date.valueOf("1999-12-01")));
+    }
+
+    @Test
+    public void testApplyMovement() {
+        monthlyRollupService.applyMovement(1L, TypeMovement.INCOME, 10.005, java.sql.Date.valueOf("2023-02-10"));
+
+        verify(movementMoneyMonthlyRepository).addToMonth(eq(1L), eq(202302), eq("INCOME"), amount("10.01"), eq(1L));
+    }
+
+    @Test
+    public void testRevertMovement() {
+        monthlyRollupService.revertMovement(1L, TypeMovement.EXPENSE, 20.0, java.sql.Date.valueOf("2023-02-10"));
+
+        verify(movementMoneyMonthlyRepository).addToMonth(eq(1L), eq(202302), eq("EXPENSE"), amount("-20"), eq(-1L));
+    }
+
+    @Test
+    public void testMovementWithoutDateOrTypeIsSkipped() {
+        monthlyRollupService.applyMovement(1L, TypeMovement.INCOME, 10.0, null);
+        monthlyRollupService.applyMovement(1L, null, 10.0, new Date());
+        monthlyRollupService.revertMovement(null, TypeMovement.INCOME, 10.0, new Date());
+
+        verifyNoInteractions(movementMoneyMonthlyRepository);
+    }
+
+    @Test
+    public void testApplyMovementsGroupsByMonthAndType() {
+        monthlyRollupService.applyMovements(1L, List.of(
+                movement("2023-01-05", 10.0, TypeMovement.INCOME),
+                movement("2023-01-20", 2.5, TypeMovement.INCOME),
+                movement("2023-01-20", 4.0, TypeMovement.EXPENSE),
+                movement("2023-02-01", 1.0, TypeMovement.INCOME),
+                movement(null, 100.0, TypeMovement.INCOME)));
+
+        verify(movementMoneyMonthlyRepository).addToMonth(eq(1L), eq(202301), eq("INCOME"), amount("12.5"), eq(2L));
+        verify(movementMoneyMonthlyRepository).addToMonth(eq(1L), eq(202301), eq("EXPENSE"), amount("4"), eq(1L));
+        verify(movementMoneyMonthlyRepository).addToMonth(eq(1L), eq(202302), eq("INCOME"), amount("1"), eq(1L));
+        verify(movementMoneyMonthlyRepository, times(3)).addToMonth(anyLong(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    public void testGetMonthlyTotalsBuildsMissingRollupFirst() {
+        when(movementMoneyMonthlyRepository.existsByUserId(1L)).thenReturn(false);
+
+        monthlyRollupService.getMonthlyTotals(1L);
+
+        InOrder inOrder = inOrder(movementMoneyMonthlyRepository);
+        inOrder.verify(movementMoneyMonthlyRepository).insertFromMovements(1L);
+        inOrder.verify(movementMoneyMonthlyRepository).findMonthlyTotalsByUserId(1L);
+    }
+
+    @Test
+    public void testGetMonthlyTotalsKeepsExistingRollup() {
+        when(movementMoneyMonthlyRepository.existsByUserId(1L)).thenReturn(true);
+
+        monthlyRollupService.getMonthlyTotals(1L);
+
+        verify(movementMoneyMonthlyRepository, never()).insertFromMovements(anyLong());
+        verify(movementMoneyMonthlyRepository).findMonthlyTotalsByUserId(1L);
+    }
+
+    @Test
+    public void testApplyMovementBuildsMissingRollupBeforeTheChange() {
+        when(movementMoneyMonthlyRepository.existsByUserId(1L)).thenReturn(false);
+
+        monthlyRollupService.applyMovement(1L, TypeMovement.INCOME, 10.0, java.sql.Date.valueOf("2023-02-10"));
+
+        InOrder inOrder = inOrder(movementMoneyMonthlyRepository);
+        inOrder.verify(movementMoneyMonthlyRepository).insertFromMovements(1L);
+        inOrder.verify(movementMoneyMonthlyRepository).addToMonth(eq(1L), eq(202302), eq("INCOME"), amount("10"),
+                eq(1L));
+    }
+
+    @Test
+    public void testApplyMovementsWithoutDatedMovementsDoesNotBuildRollup() {
+        monthlyRollupService.applyMovements(1L, List.of(movement(null, 100.0, TypeMovement.INCOME)));
+
+        verifyNoInteractions(movementMoneyMonthlyRepository);
+    }
+
+    @Test
+    public void testRebuild() {
+        monthlyRollupService.rebuild(1L);
+
+        InOrder inOrder = inOrder(movementMoneyMonthlyRepository);
+        inOrder.verify(movementMoneyMonthlyRepository).deleteByUserId(1L);
+        inOrder.verify(movementMoneyMonthlyRepository).insertFromMovements(1L);
+    }
+}
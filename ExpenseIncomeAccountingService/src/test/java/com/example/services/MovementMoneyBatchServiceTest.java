@@ -0,0 +1,153 @@
+package com.example.services;
+
+import com.example.dto.BatchIngestResultDTO;
+import com.example.exception.UserNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class MovementMoneyBatchServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserBalanceService userBalanceService;
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @Mock
+    private ReportCacheService reportCacheService;
+
+    private MovementMoneyBatchService movementMoneyBatchService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        movementMoneyBatchService = new MovementMoneyBatchService(jdbcTemplate, transactionTemplate,
+                userService, userBalanceService, monthlyRollupService, reportCacheService, new ObjectMapper());
+        ReflectionTestUtils.setField(movementMoneyBatchService, "chunkSize", 2);
+
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(userService.getId("user123")).thenReturn(1L);
+        when(userService.getId("user456")).thenReturn(2L);
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testIngestJsonArray() {
+        BatchIngestResultDTO result = movementMoneyBatchService.ingest(body(
+                "[{\"login\":\"user123\",\"amount\":10.0,\"type\":\"INCOME\"}," +
+                        "{\"login\":\"user123\",\"amount\":5.0,\"type\":\"EXPENSE\"}]"));
+
+        assertEquals(2, result.getReceived());
+        assertEquals(2, result.getInserted());
+        assertEquals(1, result.getChunks().size());
+        assertNull(result.getChunks().get(0).getError());
+        verify(userBalanceService).applyMovements(eq(1L), argThat(movements -> movements.size() == 2));
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) -> rows.size() == 2),
+                any(int[].class));
+        verify(monthlyRollupService).applyMovements(eq(1L), argThat(movements -> movements.size() == 2));
+        verify(reportCacheService, times(1)).invalidate("user123");
+    }
+
+    @Test
+    public void testIngestNdjsonInChunks() {
+        BatchIngestResultDTO result = movementMoneyBatchService.ingest(body(
+                "{\"login\":\"user123\",\"amount\":10.0,\"type\":\"INCOME\"}\n" +
+                        "{\"login\":\"user456\",\"amount\":5.0,\"type\":\"EXPENSE\"}\n" +
+                        "{\"login\":\"user123\",\"amount\":1.0,\"type\":\"EXPENSE\"}\n"));
+
+        assertEquals(3, result.getReceived());
+        assertEquals(3, result.getInserted());
+        assertEquals(2, result.getChunks().size());
+        assertEquals(2, result.getChunks().get(0).getSize());
+        assertEquals(1, result.getChunks().get(1).getSize());
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList(), any(int[].class));
+        verify(userService, times(1)).getId("user123");
+        verify(userService, times(1)).getId("user456");
+    }
+
+    @Test
+    public void testIngestFailedChunkDoesNotStopImport() {
+        when(userService.getId("unknown")).thenThrow(new UserNotFoundException("User not found"));
+
+        BatchIngestResultDTO result = movementMoneyBatchService.ingest(body(
+                "{\"login\":\"unknown\",\"amount\":10.0,\"type\":\"INCOME\"}\n" +
+                        "{\"login\":\"user123\",\"amount\":5.0,\"type\":\"EXPENSE\"}\n" +
+                        "{\"login\":\"user123\",\"amount\":1.0,\"type\":\"EXPENSE\"}\n"));
+
+        assertEquals(3, result.getReceived());
+        assertEquals(1, result.getInserted());
+        assertEquals(MovementMoneyBatchService.UNKNOWN_USER_ERROR, result.getChunks().get(0).getError());
+        assertEquals(0, result.getChunks().get(0).getInserted());
+        assertNull(result.getChunks().get(1).getError());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList(), any(int[].class));
+    }
+
+    @Test
+    public void testIngestDoesNotExposeDatabaseErrors() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+                .thenThrow(new DataIntegrityViolationException("Data truncation: Data too long for column 'type'"));
+
+        BatchIngestResultDTO result = movementMoneyBatchService.ingest(body(
+                "{\"login\":\"user123\",\"amount\":10.0,\"type\":\"INCOME\"}\n"));
+
+        assertEquals(0, result.getInserted());
+        assertEquals(MovementMoneyBatchService.WRITE_FAILED_ERROR, result.getChunks().get(0).getError());
+    }
+
+    @Test
+    public void testIngestMalformedInput() {
+        BatchIngestResultDTO result = movementMoneyBatchService.ingest(body(
+                "{\"login\":\"user123\",\"amount\":10.0,\"type\":\"INCOME\"}\n" +
+                        "{\"login\":\"user123\",\"amount\":5.0,\"type\":\"EXPENSE\"}\n" +
+                        "{\"login\":\"user123\",\"amount\":"));
+
+        assertEquals(2, result.getInserted());
+        assertEquals(2, result.getChunks().size());
+        assertEquals("Malformed input at line 3, column 29", result.getChunks().get(1).getError());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList(), any(int[].class));
+    }
+
+    @Test
+    public void testIngestEmptyArray() {
+        BatchIngestResultDTO result = movementMoneyBatchService.ingest(body("[]"));
+
+        assertEquals(0, result.getReceived());
+        assertTrue(result.getChunks().isEmpty());
+        verifyNoInteractions(jdbcTemplate, userBalanceService);
+    }
+}
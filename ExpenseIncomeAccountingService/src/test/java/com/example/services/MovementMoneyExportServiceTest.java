@@ -0,0 +1,95 @@
+package com.example.services;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.exception.UserNotFoundException;
+import com.example.models.MovementMoney;
+import com.example.models.TypeMovement;
+import com.example.repositories.MovementMoneyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+public class MovementMoneyExportServiceTest {
+
+    @Mock
+    private MovementMoneyRepository movementMoneyRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MovementMoneyExportService movementMoneyExportService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        movementMoneyExportService = new MovementMoneyExportService(
+                movementMoneyRepository, userService, entityManager, objectMapper);
+    }
+
+    private static MovementMoney movement(Long id, double amount, TypeMovement type) {
+        MovementMoney movementMoney = new MovementMoney();
+        movementMoney.setId(id);
+        movementMoney.setAmount(amount);
+        movementMoney.setType(type);
+        return movementMoney;
+    }
+
+    @Test
+    public void testExportWritesOneLinePerMovement() throws Exception {
+        MovementMoney income = movement(1L, 100.0, TypeMovement.INCOME);
+        MovementMoney expense = movement(2L, 40.5, TypeMovement.EXPENSE);
+        AtomicBoolean closed = new AtomicBoolean();
+
+        when(userService.getId("user123")).thenReturn(1L);
+        when(movementMoneyRepository.streamByUserId(1L))
+                .thenReturn(Stream.of(income, expense).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        movementMoneyExportService.exportMovementMoney("user123", outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals(objectMapper.writeValueAsString(income), lines[0]);
+        assertEquals(objectMapper.writeValueAsString(expense), lines[1]);
+        assertEquals("", lines[2]);
+        assertTrue(closed.get());
+        verify(entityManager).detach(income);
+        verify(entityManager).detach(expense);
+        verify(movementMoneyRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    public void testExportNoMovements() throws Exception {
+        when(userService.getId("user123")).thenReturn(1L);
+        when(movementMoneyRepository.streamByUserId(1L)).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        movementMoneyExportService.exportMovementMoney("user123", outputStream);
+
+        assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    public void testExportUserNotFound() {
+        when(userService.getId("nonexistentUser")).thenThrow(new UserNotFoundException("User not found"));
+
+        assertThrows(UserNotFoundException.class,
+                () -> movementMoneyExportService.exportMovementMoney("nonexistentUser", new ByteArrayOutputStream()));
+        verifyNoInteractions(movementMoneyRepository);
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.services;
+
+import com.example.dto.BatchChunkResultDTO;
+import com.example.dto.CsvImportStatusDTO;
+import com.example.dto.MovementMoneyDTO;
+import com.example.exception.CsvImportOverloadedException;
+import com.example.exception.UserNotFoundException;
+import com.example.models.TypeMovement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class MovementMoneyImportServiceTest {
+
+    @Mock
+    private MovementMoneyBatchService movementMoneyBatchService;
+
+    @Mock
+    private UserService userService;
+
+    private MovementMoneyImportService movementMoneyImportService;
+
+    private final List<List<MovementMoneyDTO>> writtenChunks = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        movementMoneyImportService = new MovementMoneyImportService(movementMoneyBatchService, userService, 2, 1);
+        ReflectionTestUtils.setField(movementMoneyImportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(movementMoneyImportService, "retryAfter", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(movementMoneyImportService, "dateFormat", "yyyy-MM-dd");
+
+        when(userService.getId("user123")).thenReturn(1L);
+        when(movementMoneyBatchService.writeChunk(anyInt(), anyList(), anyMap())).thenAnswer(invocation -> {
+            List<MovementMoneyDTO> chunk = invocation.getArgument(1);
+            writtenChunks.add(new ArrayList<>(chunk));
+            BatchChunkResultDTO result = new BatchChunkResultDTO();
+            result.setSize(chunk.size());
+            result.setInserted(chunk.size());
+            return result;
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        movementMoneyImportService.shutdown();
+    }
+
+    private CsvImportStatusDTO importAndWait(String content) throws Exception {
+        return waitFor("user123", startImport("user123", content));
+    }
+
+    private CsvImportStatusDTO startImport(String login, String content) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv",
+                content.getBytes(StandardCharsets.UTF_8));
+        return movementMoneyImportService.startImport(login, file);
+    }
+
+    private CsvImportStatusDTO waitFor(String login, CsvImportStatusDTO status) throws Exception {
+        for (int i = 0; i < 500 && (status.getState() == CsvImportStatusDTO.State.QUEUED
+                || status.getState() == CsvImportStatusDTO.State.RUNNING); i++) {
+            Thread.sleep(10);
+            status = movementMoneyImportService.getImportStatus(login, status.getId()).orElseThrow();
+        }
+        return status;
+    }
+
+    @Test
+    public void testImportMapsRowsInFileOrder() throws Exception {
+        CsvImportStatusDTO status = importAndWait("""
+                Date,Description,Amount
+                2023-01-05, SALARY ,1500.00
+                2023-01-06,Groceries,-42.50
+                2023-01-07,"Transport",-3
+                2023-01-08,Rent,200
+                2023-01-09,bills,-10
+                """);
+
+        assertEquals(CsvImportStatusDTO.State.COMPLETED, status.getState());
+        assertEquals(5, status.getRowsRead());
+        assertEquals(5, status.getRowsImported());
+        assertEquals(0, status.getRowsFailed());
+        assertEquals(3, writtenChunks.size());
+
+        List<MovementMoneyDTO> movements = writtenChunks.stream().flatMap(List::stream).toList();
+        assertEquals(List.of("salary", "groceries", "transport", "rent", "bills"),
+                movements.stream().map(MovementMoneyDTO::getDescription).toList());
+        assertEquals(TypeMovement.INCOME, movements.get(0).getType());
+        assertEquals(TypeMovement.EXPENSE, movements.get(1).getType());
+        assertEquals(42.5, movements.get(1).getAmount());
+        assertEquals("user123", movements.get(0).getLogin());
+    }
+
+    @Test
+    public void testImportReportsRowErrors() throws Exception {
+        CsvImportStatusDTO status = importAndWait("""
+                date,amount,description,type
+                2023-01-05,100,salary,income
+                05.01.2023,100,salary,income
+                2023-01-05,abc,salary,income
+                2023-01-05,100,lottery,income
+                2023-01-05,100,bills,transfer
+                """);
+
+        assertEquals(CsvImportStatusDTO.State.COMPLETED, status.getState());
+        assertEquals(5, status.getRowsRead());
+        assertEquals(1, status.getRowsImported());
+        assertEquals(4, status.getRowsFailed());
+        assertEquals(List.of(3L, 4L, 5L, 6L), status.getErrors().stream().map(e -> e.getLine()).toList());
+        assertTrue(status.getErrors().get(2).getMessage().contains("Unknown income description"));
+    }
+
+    @Test
+    public void testImportRejectsDescriptionsThatOnlyContainACategory() throws Exception {
+        CsvImportStatusDTO status = importAndWait("""
+                date,amount,description
+                2023-01-05,-5,presentation fee
+                2023-01-06,-5,clothing store
+                2023-01-07,100,rental deposit
+                2023-01-08,-5,Clothing
+                2023-01-09,-5,gift
+                """);
+
+        assertEquals(CsvImportStatusDTO.State.COMPLETED, status.getState());
+        assertEquals(List.of(2L, 3L, 4L), status.getErrors().stream().map(e -> e.getLine()).toList());
+        assertTrue(status.getErrors().get(0).getMessage().contains("Unknown expense description"));
+        assertTrue(status.getErrors().get(2).getMessage().contains("Unknown income description"));
+        List<MovementMoneyDTO> imported = writtenChunks.stream().flatMap(List::stream).toList();
+        assertEquals(List.of("cloth", "present"), imported.stream().map(MovementMoneyDTO::getDescription).toList());
+    }
+
+    @Test
+    public void testImportDoesNotExposeExceptionText() throws Exception {
+        when(movementMoneyBatchService.writeChunk(anyInt(), anyList(), anyMap()))
+                .thenThrow(new DataAccessResourceFailureException("Communications link failure: SELECT * FROM users"));
+
+        CsvImportStatusDTO status = importAndWait("""
+                date,amount,description
+                2023-01-05,100,salary
+                """);
+
+        assertEquals(CsvImportStatusDTO.State.FAILED, status.getState());
+        assertEquals(MovementMoneyBatchService.WRITE_FAILED_ERROR, status.getError());
+    }
+
+    @Test
+    public void testImportReportsFailedChunk() throws Exception {
+        BatchChunkResultDTO failed = new BatchChunkResultDTO();
+        failed.setSize(2);
+        failed.setError("Database unavailable");
+        when(movementMoneyBatchService.writeChunk(anyInt(), anyList(), anyMap())).thenReturn(failed);
+
+        CsvImportStatusDTO status = importAndWait("""
+                date,amount,description
+                2023-01-05,100,salary
+                2023-01-06,-5,bills
+                """);
+
+        assertEquals(CsvImportStatusDTO.State.COMPLETED, status.getState());
+        assertEquals(0, status.getRowsImported());
+        assertEquals(2, status.getRowsFailed());
+        assertEquals(1, status.getErrors().size());
+        assertTrue(status.getErrors().get(0).getMessage().contains("Database unavailable"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportResolvesUserOnce() throws Exception {
+        importAndWait("""
+                date,amount,description
+                2023-01-05,100,salary
+                """);
+
+        ArgumentCaptor<Map<String, Long>> userIds = ArgumentCaptor.forClass(Map.class);
+        verify(movementMoneyBatchService).writeChunk(eq(0), anyList(), userIds.capture());
+        assertEquals(1L, userIds.getValue().get("user123"));
+        verify(userService, times(1)).getId("user123");
+    }
+
+    @Test
+    public void testImportQuotedFieldWithLineBreaks() throws Exception {
+        CsvImportStatusDTO status = importAndWait("""
+                date,amount,description
+                2023-01-05,100,"Rental
+                income"
+                2023-01-06,-5,"Bills
+                "
+                2023-01-07,-1,lottery
+                """);
+
+        assertEquals(CsvImportStatusDTO.State.COMPLETED, status.getState());
+        assertEquals(3, status.getRowsRead());
+        assertEquals(2, status.getRowsImported());
+        assertEquals(List.of(6L), status.getErrors().stream().map(e -> e.getLine()).toList());
+        List<MovementMoneyDTO> imported = writtenChunks.stream().flatMap(List::stream).toList();
+        assertEquals(List.of("rent", "bills"), imported.stream().map(MovementMoneyDTO::getDescription).toList());
+    }
+
+    @Test
+    public void testImportUnterminatedQuotedField() throws Exception {
+        CsvImportStatusDTO status = importAndWait("""
+                date,amount,description
+                2023-01-05,100,salary
+                2023-01-06,-5,"bills
+                2023-01-07,-1,bills
+                """);
+
+        assertEquals(CsvImportStatusDTO.State.FAILED, status.getState());
+        assertEquals("Malformed input at line 3, column 15: the quoted field is not terminated", status.getError());
+    }
+
+    @Test
+    public void testImportsOfDifferentUsersRunConcurrently() throws Exception {
+        when(userService.getId("otherUser")).thenReturn(2L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(movementMoneyBatchService.writeChunk(anyInt(), anyList(), anyMap())).thenAnswer(invocation -> {
+            List<MovementMoneyDTO> chunk = invocation.getArgument(1);
+            if (chunk.get(0).getLogin().equals("user123")) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            BatchChunkResultDTO result = new BatchChunkResultDTO();
+            result.setSize(chunk.size());
+            result.setInserted(chunk.size());
+            return result;
+        });
+
+        CsvImportStatusDTO blocked = startImport("user123", "date,amount,description\n2023-01-05,100,salary\n");
+        CsvImportStatusDTO other = waitFor("otherUser",
+                startImport("otherUser", "date,amount,description\n2023-01-05,100,salary\n"));
+
+        assertEquals(CsvImportStatusDTO.State.COMPLETED, other.getState());
+        assertEquals(CsvImportStatusDTO.State.RUNNING,
+                movementMoneyImportService.getImportStatus("user123", blocked.getId()).orElseThrow().getState());
+        release.countDown();
+        assertEquals(CsvImportStatusDTO.State.COMPLETED, waitFor("user123", blocked).getState());
+    }
+
+    @Test
+    public void testImportRejectedWhenQueueIsFull() throws Exception {
+        CountDownLatch release = blockWritesOf("user123");
+        String content = "date,amount,description\n2023-01-05,100,salary\n";
+
+        CsvImportStatusDTO first = startImport("user123", content);
+        CsvImportStatusDTO second = startImport("user123", content);
+        CsvImportStatusDTO queued = startImport("user123", content);
+        Thread.sleep(100);
+
+        assertEquals(CsvImportStatusDTO.State.QUEUED,
+                movementMoneyImportService.getImportStatus("user123", queued.getId()).orElseThrow().getState());
+        CsvImportOverloadedException exception = assertThrows(CsvImportOverloadedException.class,
+                () -> startImport("user123", content));
+        assertEquals(30, exception.getRetryAfterSeconds());
+
+        release.countDown();
+        assertEquals(CsvImportStatusDTO.State.COMPLETED, waitFor("user123", first).getState());
+        assertEquals(CsvImportStatusDTO.State.COMPLETED, waitFor("user123", second).getState());
+        assertEquals(CsvImportStatusDTO.State.COMPLETED, waitFor("user123", queued).getState());
+    }
+
+    @Test
+    public void testFinishedImportsAreForgottenWhileOlderImportRuns() throws Exception {
+        when(userService.getId("otherUser")).thenReturn(2L);
+        CountDownLatch release = blockWritesOf("user123");
+        CsvImportStatusDTO running = startImport("user123", "date,amount,description\n2023-01-05,100,salary\n");
+
+        List<CsvImportStatusDTO> finished = new ArrayList<>();
+        for (int i = 0; i < 102; i++) {
+            finished.add(waitFor("otherUser", startImport("otherUser", "date,amount,description\n")));
+        }
+
+        assertTrue(movementMoneyImportService.getImportStatus("user123", running.getId()).isPresent());
+        assertTrue(movementMoneyImportService.getImportStatus("otherUser", finished.get(0).getId()).isEmpty());
+        assertTrue(movementMoneyImportService.getImportStatus("otherUser", finished.get(1).getId()).isPresent());
+        release.countDown();
+    }
+
+    private CountDownLatch blockWritesOf(String login) {
+        CountDownLatch release = new CountDownLatch(1);
+        when(movementMoneyBatchService.writeChunk(anyInt(), anyList(), anyMap())).thenAnswer(invocation -> {
+            List<MovementMoneyDTO> chunk = invocation.getArgument(1);
+            if (chunk.get(0).getLogin().equals(login)) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            BatchChunkResultDTO result = new BatchChunkResultDTO();
+            result.setSize(chunk.size());
+            result.setInserted(chunk.size());
+            return result;
+        });
+        return release;
+    }
+
+    @Test
+    public void testImportInvalidHeader() throws Exception {
+        CsvImportStatusDTO status = importAndWait("""
+                when,how much
+                2023-01-05,100
+                """);
+
+        assertEquals(CsvImportStatusDTO.State.FAILED, status.getState());
+        assertEquals("Malformed input at line 1: the header must contain the columns date, amount and description",
+                status.getError());
+        verifyNoInteractions(movementMoneyBatchService);
+    }
+
+    @Test
+    public void testImportUnknownUser() {
+        when(userService.getId("nonexistentUser")).thenThrow(new UserNotFoundException("User not found"));
+        MockMultipartFile file = new MockMultipartFile("file", new byte[0]);
+
+        assertThrows(UserNotFoundException.class,
+                () -> movementMoneyImportService.startImport("nonexistentUser", file));
+    }
+
+    @Test
+    public void testGetImportStatusOfOtherUser() throws Exception {
+        CsvImportStatusDTO status = importAndWait("date,amount,description\n");
+
+        assertTrue(movementMoneyImportService.getImportStatus("user123", status.getId()).isPresent());
+        assertTrue(movementMoneyImportService.getImportStatus("otherUser", status.getId()).isEmpty());
+    }
+
+    @Test
+    public void testSplitLine() {
+        assertEquals(List.of("a", "b, c", "say \"hi\"", ""),
+                MovementMoneyImportService.splitLine("a,\"b, c\",\"say \"\"hi\"\"\","));
+    }
+}
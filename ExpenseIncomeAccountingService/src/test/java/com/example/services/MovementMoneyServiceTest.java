@@ -3,19 +3,32 @@ package com.example.services;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.example.dto.DailyTotal;
+import com.example.dto.MonthlyTotal;
 import com.example.dto.MovementMoneyDTO;
+import com.example.dto.MovementMoneyPageDTO;
 import com.example.exception.MovementMoneyNotFoundException;
 import com.example.exception.UserNotFoundException;
 import com.example.models.MovementMoney;
+import com.example.models.TypeMovement;
 import com.example.models.User;
 import com.example.repositories.MovementMoneyRepository;
+import jakarta.persistence.LockModeType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,12 +40,29 @@ public class MovementMoneyServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserBalanceService userBalanceService;
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @Mock
+    private ReportCacheService reportCacheService;
+
     @InjectMocks
     private MovementMoneyService movementMoneyService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(movementMoneyService, "maxPageSize", 500);
+    }
+
+    private static MovementMoney movement(Long id, String date) {
+        MovementMoney movementMoney = new MovementMoney();
+        movementMoney.setId(id);
+        movementMoney.setDate(date == null ? null : java.sql.Date.valueOf(date));
+        return movementMoney;
     }
 
     @Test
@@ -92,6 +122,27 @@ public class MovementMoneyServiceTest {
         assertEquals(movementMoneyDTO.getType(), result.getType());
     }
 
+    @Test
+    public void testAddMovementMoneyUpdatesBalance() {
+        MovementMoneyDTO movementMoneyDTO = new MovementMoneyDTO();
+        movementMoneyDTO.setLogin("user123");
+        movementMoneyDTO.setAmount(100.0);
+        movementMoneyDTO.setType(TypeMovement.EXPENSE);
+        User user = new User();
+        user.setId(1L);
+        user.setLogin("user123");
+
+        when(userService.getUserByLogin("user123")).thenReturn(user);
+        when(movementMoneyRepository.save(any(MovementMoney.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        movementMoneyService.addMovementMoney(movementMoneyDTO);
+
+        verify(userBalanceService).applyMovement(1L, TypeMovement.EXPENSE, 100.0);
+        verify(monthlyRollupService).applyMovement(1L, TypeMovement.EXPENSE, 100.0, null);
+        verify(reportCacheService).invalidate("user123");
+    }
+
     @Test
     public void testUpdateMovementMoneySuccess() {
         Long id = 1L;
@@ -99,7 +150,7 @@ public class MovementMoneyServiceTest {
         MovementMoney existingMovementMoney = new MovementMoney();
         User user = new User();
 
-        when(movementMoneyRepository.findById(id)).thenReturn(Optional.of(existingMovementMoney));
+        when(movementMoneyRepository.findByIdForUpdate(id)).thenReturn(Optional.of(existingMovementMoney));
         when(userService.getUserByLogin(movementMoneyDTO.getLogin())).thenReturn(user);
         when(movementMoneyRepository.save(any(MovementMoney.class))).thenReturn(existingMovementMoney);
 
@@ -110,15 +161,51 @@ public class MovementMoneyServiceTest {
         // Дополнительные проверки для обновленных полей
     }
 
+    @Test
+    public void testUpdateMovementMoneyReplacesAmountInBalance() {
+        Long id = 1L;
+        User oldUser = new User();
+        oldUser.setId(10L);
+        oldUser.setLogin("oldUser");
+        User newUser = new User();
+        newUser.setId(20L);
+        newUser.setLogin("newUser");
+        MovementMoney existingMovementMoney = new MovementMoney();
+        existingMovementMoney.setUser(oldUser);
+        existingMovementMoney.setAmount(50.0);
+        existingMovementMoney.setType(TypeMovement.INCOME);
+        existingMovementMoney.setDate(java.sql.Date.valueOf("2023-01-15"));
+        MovementMoneyDTO movementMoneyDTO = new MovementMoneyDTO();
+        movementMoneyDTO.setLogin("newUser");
+        movementMoneyDTO.setAmount(70.0);
+        movementMoneyDTO.setDate(java.sql.Date.valueOf("2023-03-01"));
+
+        when(movementMoneyRepository.findByIdForUpdate(id)).thenReturn(Optional.of(existingMovementMoney));
+        when(userService.getUserByLogin("newUser")).thenReturn(newUser);
+        when(movementMoneyRepository.save(any(MovementMoney.class))).thenReturn(existingMovementMoney);
+
+        movementMoneyService.updateMovementMoney(id, movementMoneyDTO);
+
+        verify(userBalanceService).revertMovement(10L, TypeMovement.INCOME, 50.0);
+        verify(userBalanceService).applyMovement(20L, TypeMovement.INCOME, 70.0);
+        verify(monthlyRollupService).revertMovement(10L, TypeMovement.INCOME, 50.0,
+                java.sql.Date.valueOf("2023-01-15"));
+        verify(monthlyRollupService).applyMovement(20L, TypeMovement.INCOME, 70.0,
+                java.sql.Date.valueOf("2023-03-01"));
+        verify(reportCacheService).invalidate("oldUser");
+        verify(reportCacheService).invalidate("newUser");
+    }
+
     @Test
     public void testUpdateMovementMoneyNotFound() {
         Long id = 1L;
         MovementMoneyDTO movementMoneyDTO = new MovementMoneyDTO();
 
-        when(movementMoneyRepository.findById(id)).thenReturn(Optional.empty());
+        when(movementMoneyRepository.findByIdForUpdate(id)).thenReturn(Optional.empty());
 
         assertThrows(MovementMoneyNotFoundException.class,
                 () -> movementMoneyService.updateMovementMoney(id, movementMoneyDTO));
+        verifyNoInteractions(userBalanceService);
     }
 
     @Test
@@ -127,13 +214,31 @@ public class MovementMoneyServiceTest {
         MovementMoneyDTO movementMoneyDTO = new MovementMoneyDTO();
         MovementMoney existingMovementMoney = new MovementMoney();
 
-        when(movementMoneyRepository.findById(id)).thenReturn(Optional.of(existingMovementMoney));
+        when(movementMoneyRepository.findByIdForUpdate(id)).thenReturn(Optional.of(existingMovementMoney));
         when(userService.getUserByLogin(movementMoneyDTO.getLogin()))
                 .thenThrow(new UserNotFoundException("User not found"));
 
         assertThrows(UserNotFoundException.class, () -> movementMoneyService.updateMovementMoney(id, movementMoneyDTO));
     }
 
+    @Test
+    public void testUpdateAndDeleteReadTheMovementWithRowLock() throws NoSuchMethodException {
+        Long id = 1L;
+        MovementMoney existingMovementMoney = new MovementMoney();
+
+        when(movementMoneyRepository.findByIdForUpdate(id)).thenReturn(Optional.of(existingMovementMoney));
+        when(userService.getUserByLogin(any())).thenReturn(new User());
+
+        movementMoneyService.updateMovementMoney(id, new MovementMoneyDTO());
+        movementMoneyService.deleteMovementMoney(id);
+
+        verify(movementMoneyRepository, times(2)).findByIdForUpdate(id);
+        verify(movementMoneyRepository, never()).findById(any());
+        Lock lock = MovementMoneyRepository.class.getMethod("findByIdForUpdate", Long.class).getAnnotation(Lock.class);
+        assertNotNull(lock);
+        assertEquals(LockModeType.PESSIMISTIC_WRITE, lock.value());
+    }
+
     @Test
     public void testDeleteMovementMoneySuccess() {
         Long id = 1L;
@@ -145,6 +250,27 @@ public class MovementMoneyServiceTest {
         verify(movementMoneyRepository, times(1)).deleteById(id);
     }
 
+    @Test
+    public void testDeleteMovementMoneyRevertsBalance() {
+        Long id = 1L;
+        User user = new User();
+        user.setId(10L);
+        user.setLogin("user123");
+        MovementMoney existingMovementMoney = new MovementMoney();
+        existingMovementMoney.setUser(user);
+        existingMovementMoney.setAmount(30.0);
+        existingMovementMoney.setType(TypeMovement.EXPENSE);
+
+        when(movementMoneyRepository.findByIdForUpdate(id)).thenReturn(Optional.of(existingMovementMoney));
+
+        movementMoneyService.deleteMovementMoney(id);
+
+        verify(userBalanceService).revertMovement(10L, TypeMovement.EXPENSE, 30.0);
+        verify(monthlyRollupService).revertMovement(10L, TypeMovement.EXPENSE, 30.0, null);
+        verify(reportCacheService).invalidate("user123");
+        verify(movementMoneyRepository).deleteById(id);
+    }
+
     @Test
     public void testDeleteMovementMoneyException() {
         Long id = 1L;
@@ -202,5 +328,161 @@ public class MovementMoneyServiceTest {
         assertThrows(UserNotFoundException.class, () -> movementMoneyService.getAllMovementMoneyByUserLogin(login));
     }
 
-}
+    @Test
+    public void testGetMonthlyTotalsByUserLogin() {
+        String login = "user123";
+        MonthlyTotal monthlyTotal = mock(MonthlyTotal.class);
+        when(monthlyTotal.getYear()).thenReturn(2023);
+        when(monthlyTotal.getMonth()).thenReturn(2);
+        when(monthlyTotal.getType()).thenReturn(TypeMovement.EXPENSE);
+        when(monthlyTotal.getTotal()).thenReturn(new BigDecimal("150.50"));
+
+        when(userService.getId(login)).thenReturn(1L);
+        when(monthlyRollupService.getMonthlyTotals(1L)).thenReturn(List.of(monthlyTotal));
+
+        List<MovementMoneyDTO> result = movementMoneyService.getMonthlyTotalsByUserLogin(login);
+
+        assertEquals(1, result.size());
+        MovementMoneyDTO dto = result.get(0);
+        assertEquals(login, dto.getLogin());
+        assertEquals(150.50, dto.getAmount());
+        assertEquals(TypeMovement.EXPENSE, dto.getType());
+        assertEquals(Date.from(LocalDate.of(2023, 2, 1).atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                dto.getDate());
+        verify(movementMoneyRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    public void testGetMonthlyTotalsByUserLoginNoMovements() {
+        when(userService.getId("user123")).thenReturn(1L);
+        when(monthlyRollupService.getMonthlyTotals(1L)).thenReturn(Collections.emptyList());
+
+        assertTrue(movementMoneyService.getMonthlyTotalsByUserLogin("user123").isEmpty());
+    }
+
+    @Test
+    public void testGetDailyTotalsByUserLogin() {
+        String login = "user123";
+        DailyTotal dailyTotal = mock(DailyTotal.class);
+        when(dailyTotal.getDate()).thenReturn(java.sql.Date.valueOf("2023-02-14"));
+        when(dailyTotal.getType()).thenReturn(TypeMovement.INCOME);
+        when(dailyTotal.getTotal()).thenReturn(new BigDecimal("20.25"));
+
+        when(userService.getId(login)).thenReturn(1L);
+        when(movementMoneyRepository.findDailyTotalsByUserIdAndDateBetween(1L,
+                java.sql.Date.valueOf("2023-02-01"), java.sql.Date.valueOf("9999-12-31")))
+                .thenReturn(List.of(dailyTotal));
+
+        List<MovementMoneyDTO> result =
+                movementMoneyService.getDailyTotalsByUserLogin(login, LocalDate.of(2023, 2, 1), null);
+
+        assertEquals(1, result.size());
+        MovementMoneyDTO dto = result.get(0);
+        assertEquals(login, dto.getLogin());
+        assertEquals(20.25, dto.getAmount());
+        assertEquals(TypeMovement.INCOME, dto.getType());
+        assertEquals(Date.from(LocalDate.of(2023, 2, 14).atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                dto.getDate());
+        verify(movementMoneyRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    public void testGetRecentMovementMoneyIsLimited() {
+        List<MovementMoney> rows = List.of(movement(2L, "2023-02-01"), movement(1L, "2023-01-10"));
+        when(userService.getId("user123")).thenReturn(1L);
+        when(movementMoneyRepository.findByUserIdOrderByDateDescIdDesc(eq(1L), any(Pageable.class))).thenReturn(rows);
+
+        assertEquals(rows, movementMoneyService.getRecentMovementMoney("user123", 100_000));
+
+        verify(movementMoneyRepository).findByUserIdOrderByDateDescIdDesc(1L, PageRequest.of(0, 500));
+        verify(movementMoneyRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    public void testGetMovementMoneyPageFirstPageWithMore() {
+        List<MovementMoney> rows = List.of(
+                movement(1L, "2023-01-10"), movement(2L, "2023-01-10"), movement(3L, "2023-02-01"));
+
+        when(userService.getId("user123")).thenReturn(1L);
+        when(movementMoneyRepository.findByUserIdOrderByDateAscIdAsc(eq(1L), any(Pageable.class))).thenReturn(rows);
+
+        MovementMoneyPageDTO page = movementMoneyService.getMovementMoneyPage("user123", null, null, 2);
 
+        assertTrue(page.isHasMore());
+        assertEquals(rows.subList(0, 2), page.getItems());
+        assertEquals(LocalDate.of(2023, 1, 10), page.getNextDate());
+        assertEquals(2L, page.getNextId());
+        verify(movementMoneyRepository).findByUserIdOrderByDateAscIdAsc(1L, PageRequest.of(0, 3));
+    }
+
+    @Test
+    public void testGetMovementMoneyPageLastPageAfterCursor() {
+        LocalDate afterDate = LocalDate.of(2023, 1, 10);
+        List<MovementMoney> rows = List.of(movement(3L, "2023-02-01"));
+
+        when(userService.getId("user123")).thenReturn(1L);
+        when(movementMoneyRepository.findPageAfter(eq(1L), eq(java.sql.Date.valueOf(afterDate)), eq(2L),
+                any(Pageable.class))).thenReturn(rows);
+
+        MovementMoneyPageDTO page = movementMoneyService.getMovementMoneyPage("user123", afterDate, 2L, 2);
+
+        assertFalse(page.isHasMore());
+        assertEquals(rows, page.getItems());
+        assertNull(page.getNextDate());
+        assertNull(page.getNextId());
+        verify(movementMoneyRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    public void testGetMovementMoneyPageUndatedRowsSpanPageBoundary() {
+        List<MovementMoney> firstRows = List.of(movement(1L, null), movement(2L, null), movement(3L, null));
+        List<MovementMoney> secondRows = List.of(movement(3L, null), movement(4L, "2023-01-10"));
+
+        when(userService.getId("user123")).thenReturn(1L);
+        when(movementMoneyRepository.findByUserIdOrderByDateAscIdAsc(eq(1L), any(Pageable.class)))
+                .thenReturn(firstRows);
+        when(movementMoneyRepository.findPageAfterUndated(eq(1L), eq(2L), any(Pageable.class)))
+                .thenReturn(secondRows);
+
+        MovementMoneyPageDTO first = movementMoneyService.getMovementMoneyPage("user123", null, null, 2);
+
+        assertTrue(first.isHasMore());
+        assertEquals(firstRows.subList(0, 2), first.getItems());
+        assertNull(first.getNextDate());
+        assertEquals(2L, first.getNextId());
+
+        MovementMoneyPageDTO second = movementMoneyService.getMovementMoneyPage(
+                "user123", first.getNextDate(), first.getNextId(), 2);
+
+        assertFalse(second.isHasMore());
+        assertEquals(secondRows, second.getItems());
+        verify(movementMoneyRepository).findPageAfterUndated(1L, 2L, PageRequest.of(0, 3));
+        verify(movementMoneyRepository, never()).findPageAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetMovementMoneyPageAfterUndatedCursorReachesDatedRows() {
+        List<MovementMoney> rows = List.of(movement(1L, null), movement(2L, "2023-01-10"), movement(3L, "2023-02-01"));
+
+        when(userService.getId("user123")).thenReturn(1L);
+        when(movementMoneyRepository.findPageAfterUndated(eq(1L), eq(5L), any(Pageable.class))).thenReturn(rows);
+
+        MovementMoneyPageDTO page = movementMoneyService.getMovementMoneyPage("user123", null, 5L, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals(LocalDate.of(2023, 1, 10), page.getNextDate());
+        assertEquals(2L, page.getNextId());
+    }
+
+    @Test
+    public void testGetMovementMoneyPageSizeIsLimited() {
+        when(userService.getId("user123")).thenReturn(1L);
+        when(movementMoneyRepository.findByUserIdOrderByDateAscIdAsc(eq(1L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        movementMoneyService.getMovementMoneyPage("user123", null, null, 100_000);
+
+        verify(movementMoneyRepository).findByUserIdOrderByDateAscIdAsc(1L, PageRequest.of(0, 501));
+    }
+
+}
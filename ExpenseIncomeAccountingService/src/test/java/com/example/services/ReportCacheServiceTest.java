@@ -0,0 +1,141 @@
+package com.example.services;
+
+import com.example.dto.DiagramDataDTO;
+import com.example.dto.ReportCacheStatsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportCacheServiceTest {
+
+    private ReportCacheService reportCacheService;
+
+    @BeforeEach
+    public void setUp() {
+        reportCacheService = new ReportCacheService();
+        ReflectionTestUtils.setField(reportCacheService, "maxWeight", 10L);
+    }
+
+    private static CompletableFuture<List<DiagramDataDTO>> diagram(int points) {
+        return CompletableFuture.completedFuture(Collections.nCopies(points, new DiagramDataDTO()));
+    }
+
+    @Test
+    public void testGetBalanceCachesResult() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(5.0, reportCacheService.getBalance("user123", () -> 5.0 + loads.getAndIncrement()));
+        assertEquals(5.0, reportCacheService.getBalance("user123", () -> 5.0 + loads.getAndIncrement()));
+
+        assertEquals(1, loads.get());
+        ReportCacheStatsDTO stats = reportCacheService.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEntries());
+        assertEquals(1, stats.getWeight());
+    }
+
+    @Test
+    public void testInvalidateDropsOnlyThatUser() {
+        reportCacheService.getBalance("user123", () -> 1.0);
+        reportCacheService.getBalance("user456", () -> 2.0);
+
+        reportCacheService.invalidate("user123");
+
+        assertEquals(3.0, reportCacheService.getBalance("user123", () -> 3.0));
+        assertEquals(2.0, reportCacheService.getBalance("user456", () -> 4.0));
+        assertEquals(1, reportCacheService.getStats().getInvalidations());
+    }
+
+    @Test
+    public void testResultComputedDuringInvalidationIsNotCached() {
+        reportCacheService.getBalance("user123", () -> {
+            reportCacheService.invalidate("user123");
+            return 1.0;
+        });
+
+        assertEquals(2.0, reportCacheService.getBalance("user123", () -> 2.0));
+    }
+
+    @Test
+    public void testInvalidationOfOtherUserDoesNotAffectResult() {
+        long version = reportCacheService.getVersion("user123");
+        reportCacheService.getBalance("user123", () -> {
+            reportCacheService.invalidate("user456");
+            return 1.0;
+        });
+
+        assertEquals(version, reportCacheService.getVersion("user123"));
+        assertEquals(1.0, reportCacheService.getBalance("user123", () -> 2.0));
+        reportCacheService.invalidate("user123");
+        assertNotEquals(version, reportCacheService.getVersion("user123"));
+    }
+
+    @Test
+    public void testInvalidateWithinTransactionWaitsForCommit() {
+        reportCacheService.getBalance("user123", () -> 1.0);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            reportCacheService.invalidate("user123");
+            assertEquals(1.0, reportCacheService.getBalance("user123", () -> 2.0));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(2.0, reportCacheService.getBalance("user123", () -> 2.0));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedByWeight() {
+        reportCacheService.getDiagram("user1", () -> diagram(4));
+        reportCacheService.getDiagram("user2", () -> diagram(3));
+        reportCacheService.getDiagram("user1", () -> diagram(0));
+        reportCacheService.getDiagram("user3", () -> diagram(3));
+
+        ReportCacheStatsDTO stats = reportCacheService.getStats();
+        assertEquals(1, stats.getEvictions());
+        assertEquals(2, stats.getEntries());
+        assertEquals(9, stats.getWeight());
+        assertEquals(4, reportCacheService.getDiagram("user1", () -> diagram(0)).join().size());
+        assertEquals(0, reportCacheService.getDiagram("user2", () -> diagram(0)).join().size());
+    }
+
+    @Test
+    public void testDiagramIsCachedWhenComputationCompletes() {
+        CompletableFuture<List<DiagramDataDTO>> pending = new CompletableFuture<>();
+
+        CompletableFuture<List<DiagramDataDTO>> first = reportCacheService.getDiagram("user123", () -> pending);
+        assertEquals(0, reportCacheService.getStats().getEntries());
+        pending.complete(Collections.nCopies(2, new DiagramDataDTO()));
+
+        assertEquals(2, first.join().size());
+        assertEquals(2, reportCacheService.getDiagram("user123", () -> diagram(5)).join().size());
+        assertEquals(1, reportCacheService.getStats().getHits());
+    }
+
+    @Test
+    public void testFailedDiagramIsNotCached() {
+        CompletableFuture<List<DiagramDataDTO>> result = reportCacheService.getDiagram("user123",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("unavailable")));
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, reportCacheService.getStats().getEntries());
+    }
+
+    @Test
+    public void testNullDiagramIsNotCached() {
+        assertNull(reportCacheService.getDiagram("user123", () -> CompletableFuture.completedFuture(null)).join());
+        assertEquals(0, reportCacheService.getStats().getEntries());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.services;
+
+import com.example.dto.DiagramDataDTO;
+import com.example.dto.MovementColumns;
+import com.example.dto.MovementMoneyDTO;
+import com.example.exception.ReportServiceException;
+import com.example.models.Granularity;
+import com.example.models.TypeMovement;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportServiceClientTest {
+
+    private static final String DIAGRAM_JSON = "[{\"date\":\"2023-01-01T00:00:00.000+00:00\",\"balance\":12.5}]";
+
+    private HttpServer server;
+    private ReportServiceClient reportServiceClient;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+    private volatile boolean columnarSupported = true;
+    private volatile long delayMillis;
+    private volatile long now;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/v1/diagram", this::handle);
+        server.start();
+
+        reportServiceClient = new ReportServiceClient(HttpClient.newHttpClient(), new ObjectMapper(),
+                "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(reportServiceClient, "requestTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(reportServiceClient, "columnarRetryInterval", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(reportServiceClient, "nanoClock", (LongSupplier) () -> now);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        exchange.getRequestBody().readAllBytes();
+        requests.add(exchange.getRequestURI() + " " + contentType);
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int responseStatus = MovementColumns.MEDIA_TYPE_VALUE.equals(contentType) && !columnarSupported
+                ? 415
+                : status;
+        byte[] body = responseStatus == 200 ? DIAGRAM_JSON.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        exchange.sendResponseHeaders(responseStatus, body.length == 0 ? -1 : body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static List<MovementMoneyDTO> totals() {
+        MovementMoneyDTO income = new MovementMoneyDTO();
+        income.setDate(new Date());
+        income.setAmount(12.5);
+        income.setType(TypeMovement.INCOME);
+        return new ArrayList<>(List.of(income));
+    }
+
+    @Test
+    public void testGetDiagramDataAsJson() {
+        List<DiagramDataDTO> result = reportServiceClient.getDiagramData(totals(), Granularity.MONTH).join();
+
+        assertEquals(1, result.size());
+        assertEquals(12.5, result.get(0).getBalance());
+        assertEquals(List.of("/api/v1/diagram application/json"), requests);
+    }
+
+    @Test
+    public void testGetDiagramDataPassesGranularity() {
+        reportServiceClient.getDiagramData(totals(), Granularity.WEEK).join();
+
+        assertEquals(List.of("/api/v1/diagram?granularity=week application/json"), requests);
+    }
+
+    @Test
+    public void testGetDiagramDataColumnar() {
+        ReflectionTestUtils.setField(reportServiceClient, "columnarEnabled", true);
+
+        assertEquals(1, reportServiceClient.getDiagramData(totals(), Granularity.MONTH).join().size());
+        assertEquals(List.of("/api/v1/diagram " + MovementColumns.MEDIA_TYPE_VALUE), requests);
+    }
+
+    @Test
+    public void testGetDiagramDataColumnarFallsBackToJson() {
+        ReflectionTestUtils.setField(reportServiceClient, "columnarEnabled", true);
+        columnarSupported = false;
+
+        assertEquals(1, reportServiceClient.getDiagramData(totals(), Granularity.MONTH).join().size());
+        assertEquals(1, reportServiceClient.getDiagramData(totals(), Granularity.MONTH).join().size());
+
+        assertEquals(List.of("/api/v1/diagram " + MovementColumns.MEDIA_TYPE_VALUE,
+                "/api/v1/diagram application/json",
+                "/api/v1/diagram application/json"), requests);
+    }
+
+    @Test
+    public void testGetDiagramDataRetriesColumnarAfterInterval() {
+        ReflectionTestUtils.setField(reportServiceClient, "columnarEnabled", true);
+        columnarSupported = false;
+        reportServiceClient.getDiagramData(totals(), Granularity.MONTH).join();
+
+        columnarSupported = true;
+        now += Duration.ofMinutes(5).toNanos() - 1;
+        reportServiceClient.getDiagramData(totals(), Granularity.MONTH).join();
+        now += 1;
+        reportServiceClient.getDiagramData(totals(), Granularity.MONTH).join();
+        reportServiceClient.getDiagramData(totals(), Granularity.MONTH).join();
+
+        assertEquals(List.of("/api/v1/diagram " + MovementColumns.MEDIA_TYPE_VALUE,
+                "/api/v1/diagram application/json",
+                "/api/v1/diagram application/json",
+                "/api/v1/diagram " + MovementColumns.MEDIA_TYPE_VALUE,
+                "/api/v1/diagram " + MovementColumns.MEDIA_TYPE_VALUE), requests);
+    }
+
+    @Test
+    public void testGetDiagramDataErrorStatus() {
+        status = 500;
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> reportServiceClient.getDiagramData(totals(), Granularity.MONTH).join());
+        assertInstanceOf(ReportServiceException.class, e.getCause());
+    }
+
+    @Test
+    public void testGetDiagramDataTimeout() {
+        ReflectionTestUtils.setField(reportServiceClient, "requestTimeout", Duration.ofMillis(100));
+        delayMillis = 1_000;
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> reportServiceClient.getDiagramData(totals(), Granularity.MONTH).join());
+        assertInstanceOf(HttpTimeoutException.class, e.getCause());
+    }
+}
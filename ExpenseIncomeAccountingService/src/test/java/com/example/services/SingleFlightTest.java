@@ -0,0 +1,131 @@
+package com.example.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    public void testConcurrentRequestsShareOneComputation() {
+        AtomicInteger computations = new AtomicInteger();
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+
+        CompletableFuture<Integer> first = singleFlight.execute("user123", () -> {
+            computations.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<Integer> second = singleFlight.execute("user123", () -> {
+            computations.incrementAndGet();
+            return CompletableFuture.completedFuture(2);
+        });
+        pending.complete(1);
+
+        assertEquals(1, first.join());
+        assertEquals(1, second.join());
+        assertEquals(1, computations.get());
+        assertEquals(1, singleFlight.getShared());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    public void testDifferentKeysDoNotShare() {
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        singleFlight.execute("user123", () -> pending);
+
+        assertEquals(2, singleFlight.execute("user456", () -> CompletableFuture.completedFuture(2)).join());
+        assertEquals(0, singleFlight.getShared());
+    }
+
+    @Test
+    public void testCompletedComputationIsNotReused() {
+        assertEquals(1, singleFlight.execute("user123", () -> CompletableFuture.completedFuture(1)).join());
+        assertEquals(2, singleFlight.execute("user123", () -> CompletableFuture.completedFuture(2)).join());
+        assertEquals(0, singleFlight.getShared());
+    }
+
+    @Test
+    public void testFailureIsPropagatedToAllRequests() {
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        CompletableFuture<Integer> first = singleFlight.execute("user123", () -> pending);
+        CompletableFuture<Integer> second = singleFlight.execute("user123", () -> pending);
+
+        pending.completeExceptionally(new IllegalStateException("unavailable"));
+
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    public void testThrowingComputationFailsTheResult() {
+        CompletableFuture<Integer> result = singleFlight.execute("user123", () -> {
+            throw new IllegalStateException("unavailable");
+        });
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(3, singleFlight.execute("user123", () -> CompletableFuture.completedFuture(3)).join());
+    }
+
+    @Test
+    public void testCancellingOneCopyDoesNotAffectOthers() {
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        CompletableFuture<Integer> first = singleFlight.execute("user123", () -> pending);
+        CompletableFuture<Integer> second = singleFlight.execute("user123", () -> pending);
+
+        first.cancel(false);
+        pending.complete(5);
+
+        assertEquals(5, second.join());
+    }
+
+    @Test
+    public void testManyThreadsShareOneComputation() throws Exception {
+        int threads = 16;
+        AtomicInteger computations = new AtomicInteger();
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        CountDownLatch started = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<CompletableFuture<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    started.await();
+                    return singleFlight.execute("user123", () -> {
+                        computations.incrementAndGet();
+                        return pending;
+                    });
+                }));
+            }
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (Future<CompletableFuture<Integer>> result : results) {
+                futures.add(result.get(5, TimeUnit.SECONDS));
+            }
+            pending.complete(7);
+
+            for (CompletableFuture<Integer> future : futures) {
+                assertEquals(7, future.join());
+            }
+            assertEquals(1, computations.get());
+            assertEquals(threads - 1, singleFlight.getShared());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
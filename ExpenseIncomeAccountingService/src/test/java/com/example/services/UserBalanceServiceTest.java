@@ -0,0 +1,140 @@
+package com.example.services;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.dto.MovementMoneyDTO;
+import com.example.exception.UserNotFoundException;
+import com.example.models.TypeMovement;
+import com.example.models.UserBalance;
+import com.example.repositories.MovementMoneyRepository;
+import com.example.repositories.UserBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public class UserBalanceServiceTest {
+
+    @Mock
+    private UserBalanceRepository userBalanceRepository;
+
+    @Mock
+    private MovementMoneyRepository movementMoneyRepository;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private UserBalanceService userBalanceService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private static BigDecimal amount(String value) {
+        BigDecimal expected = new BigDecimal(value);
+        return argThat(actual -> actual != null && actual.compareTo(expected) == 0);
+    }
+
+    @Test
+    public void testGetBalanceStored() {
+        UserBalance userBalance = new UserBalance();
+        userBalance.setUserId(1L);
+        userBalance.setBalance(new BigDecimal("150.25"));
+
+        when(userService.getId("user123")).thenReturn(1L);
+        when(userBalanceRepository.findById(1L)).thenReturn(Optional.of(userBalance));
+
+        assertEquals(150.25, userBalanceService.getBalance("user123"));
+        verifyNoInteractions(movementMoneyRepository);
+    }
+
+    @Test
+    public void testGetBalanceInitializedFromHistory() {
+        when(userService.getId("user123")).thenReturn(1L);
+        when(userBalanceRepository.findById(1L)).thenReturn(Optional.empty());
+        when(movementMoneyRepository.sumSignedAmountByUserId(1L)).thenReturn(new BigDecimal("200.00"));
+
+        assertEquals(200.0, userBalanceService.getBalance("user123"));
+        verify(userBalanceRepository).insertIfAbsent(eq(1L), amount("200.00"));
+    }
+
+    @Test
+    public void testGetBalanceUserNotFound() {
+        when(userService.getId("nonexistentUser")).thenThrow(new UserNotFoundException("User not found"));
+
+        assertThrows(UserNotFoundException.class, () -> userBalanceService.getBalance("nonexistentUser"));
+    }
+
+    @Test
+    public void testApplyMovementExistingBalance() {
+        when(userBalanceRepository.addToBalance(eq(1L), any())).thenReturn(1);
+
+        userBalanceService.applyMovement(1L, TypeMovement.EXPENSE, 40.0);
+
+        verify(userBalanceRepository).addToBalance(eq(1L), amount("-40"));
+        verify(userBalanceRepository, never()).insertOrAdd(any(), any(), any());
+    }
+
+    @Test
+    public void testApplyMovementMissingBalance() {
+        when(userBalanceRepository.addToBalance(eq(1L), any())).thenReturn(0);
+        when(movementMoneyRepository.sumSignedAmountByUserId(1L)).thenReturn(new BigDecimal("100.00"));
+
+        userBalanceService.applyMovement(1L, TypeMovement.INCOME, 20.0);
+
+        verify(userBalanceRepository).insertOrAdd(eq(1L), amount("120"), amount("20"));
+    }
+
+    @Test
+    public void testApplyMovementRoundsAmountLikeHistory() {
+        when(userBalanceRepository.addToBalance(eq(1L), any())).thenReturn(1);
+
+        userBalanceService.applyMovement(1L, TypeMovement.INCOME, 10.005);
+        userBalanceService.applyMovement(1L, TypeMovement.EXPENSE, 2.004);
+
+        verify(userBalanceRepository).addToBalance(eq(1L), amount("10.01"));
+        verify(userBalanceRepository).addToBalance(eq(1L), amount("-2.00"));
+    }
+
+    @Test
+    public void testRevertMovement() {
+        when(userBalanceRepository.addToBalance(eq(1L), any())).thenReturn(1);
+
+        userBalanceService.revertMovement(1L, TypeMovement.EXPENSE, 40.0);
+
+        verify(userBalanceRepository).addToBalance(eq(1L), amount("40"));
+    }
+
+    @Test
+    public void testApplyMovementWithoutUserOrAmount() {
+        userBalanceService.applyMovement(null, TypeMovement.INCOME, 10.0);
+        userBalanceService.applyMovement(1L, TypeMovement.INCOME, null);
+
+        verifyNoInteractions(userBalanceRepository);
+    }
+
+    @Test
+    public void testApplyMovements() {
+        MovementMoneyDTO income = new MovementMoneyDTO();
+        income.setType(TypeMovement.INCOME);
+        income.setAmount(100.0);
+        MovementMoneyDTO expense = new MovementMoneyDTO();
+        expense.setType(TypeMovement.EXPENSE);
+        expense.setAmount(30.5);
+
+        when(userBalanceRepository.addToBalance(eq(1L), any())).thenReturn(1);
+
+        userBalanceService.applyMovements(1L, List.of(income, expense));
+
+        verify(userBalanceRepository, times(1)).addToBalance(eq(1L), amount("69.5"));
+    }
+}
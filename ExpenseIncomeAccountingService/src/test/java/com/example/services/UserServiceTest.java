@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.example.exception.UserNotFoundException;
 import com.example.models.User;
 import com.example.repositories.UserRepository;
+import com.example.security.JwtPrincipal;
 import com.example.security.JwtTokenProvider;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,7 +14,10 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public class UserServiceTest {
@@ -33,6 +37,8 @@ public class UserServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(userService, "maxEntries", 2);
+        ReflectionTestUtils.setField(userService, "loginUnique", true);
     }
 
     @Test
@@ -42,11 +48,12 @@ public class UserServiceTest {
 
         when(jwtTokenProvider.resolveToken(request)).thenReturn(jwtToken);
         when(jwtTokenProvider.getLoginFromToken(jwtToken)).thenReturn(userLogin);
-        when(userRepository.existsByLogin(userLogin)).thenReturn(true);
+        when(userRepository.findIdByLogin(userLogin)).thenReturn(Optional.of(1L));
 
         String resultLogin = userService.processUserFromJwt(request);
 
         assertEquals(userLogin, resultLogin);
+        verify(userRepository).insertIfAbsent(userLogin);
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -57,12 +64,99 @@ public class UserServiceTest {
 
         when(jwtTokenProvider.resolveToken(request)).thenReturn(jwtToken);
         when(jwtTokenProvider.getLoginFromToken(jwtToken)).thenReturn(newUserLogin);
-        when(userRepository.existsByLogin(newUserLogin)).thenReturn(false);
+        when(userRepository.findIdByLogin(newUserLogin)).thenReturn(Optional.of(2L));
 
         String resultLogin = userService.processUserFromJwt(request);
 
         assertEquals(newUserLogin, resultLogin);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).insertIfAbsent(newUserLogin);
+        verify(userRepository, never()).existsByLogin(newUserLogin);
+    }
+
+    @Test
+    public void testProcessUserFromJwtWithoutUniqueIndexChecksBeforeInsert() {
+        ReflectionTestUtils.setField(userService, "loginUnique", false);
+        when(jwtTokenProvider.resolveToken(request)).thenReturn("jwtToken");
+        when(jwtTokenProvider.getLoginFromToken("jwtToken")).thenReturn("newUser");
+        when(userRepository.existsByLogin("newUser")).thenReturn(false);
+        when(userRepository.findIdByLogin("newUser")).thenReturn(Optional.of(2L));
+
+        userService.processUserFromJwt(request);
+
+        verify(userRepository).save(argThat(user -> "newUser".equals(user.getLogin())));
+        verify(userRepository, never()).insertIfAbsent(anyString());
+        assertEquals(2L, userService.getId("newUser"));
+    }
+
+    @Test
+    public void testProcessUserFromJwtWithoutUniqueIndexKeepsExistingUser() {
+        ReflectionTestUtils.setField(userService, "loginUnique", false);
+        when(jwtTokenProvider.resolveToken(request)).thenReturn("jwtToken");
+        when(jwtTokenProvider.getLoginFromToken("jwtToken")).thenReturn("existingUser");
+        when(userRepository.existsByLogin("existingUser")).thenReturn(true);
+        when(userRepository.findIdByLogin("existingUser")).thenReturn(Optional.of(1L));
+
+        userService.processUserFromJwt(request);
+
+        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).insertIfAbsent(anyString());
+    }
+
+    @Test
+    public void testCheckLoginIndexEnablesUpsert() {
+        ReflectionTestUtils.setField(userService, "loginUnique", false);
+        when(userRepository.countUniqueLoginIndexes()).thenReturn(1L);
+
+        userService.checkLoginIndex();
+
+        assertEquals(true, ReflectionTestUtils.getField(userService, "loginUnique"));
+    }
+
+    @Test
+    public void testCheckLoginIndexWithoutIndexKeepsFallback() {
+        when(userRepository.countUniqueLoginIndexes()).thenReturn(0L);
+
+        userService.checkLoginIndex();
+
+        assertEquals(false, ReflectionTestUtils.getField(userService, "loginUnique"));
+    }
+
+    @Test
+    public void testCheckLoginIndexFailureKeepsFallback() {
+        when(userRepository.countUniqueLoginIndexes()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        userService.checkLoginIndex();
+
+        assertEquals(false, ReflectionTestUtils.getField(userService, "loginUnique"));
+    }
+
+    @Test
+    public void testProcessUserFromJwtProvisionsUserOnce() {
+        String userLogin = "existingUser";
+        when(request.getAttribute(JwtPrincipal.REQUEST_ATTRIBUTE))
+                .thenReturn(new JwtPrincipal(userLogin, "ROLE_USER", Instant.now().plusSeconds(60)));
+        when(userRepository.findIdByLogin(userLogin)).thenReturn(Optional.of(1L));
+
+        userService.processUserFromJwt(request);
+        userService.processUserFromJwt(request);
+        Long userId = userService.getId(userLogin);
+
+        assertEquals(1L, userId);
+        verify(userRepository, times(1)).insertIfAbsent(userLogin);
+        verify(userRepository, times(1)).findIdByLogin(userLogin);
+    }
+
+    @Test
+    public void testProcessUserFromJwtUsesPrincipalOfFilter() {
+        String userLogin = "existingUser";
+        when(request.getAttribute(JwtPrincipal.REQUEST_ATTRIBUTE))
+                .thenReturn(new JwtPrincipal(userLogin, "ROLE_USER", Instant.now().plusSeconds(60)));
+        when(userRepository.findIdByLogin(userLogin)).thenReturn(Optional.of(1L));
+
+        String resultLogin = userService.processUserFromJwt(request);
+
+        assertEquals(userLogin, resultLogin);
+        verifyNoInteractions(jwtTokenProvider);
     }
 
     @Test
@@ -76,44 +170,87 @@ public class UserServiceTest {
     public void testGetIdSuccess() {
         String userLogin = "existingUser";
         Long expectedUserId = 1L;
-        User user = new User();
-        user.setId(expectedUserId);
 
-        when(userRepository.findByLogin(userLogin)).thenReturn(Optional.of(user));
+        when(userRepository.findIdByLogin(userLogin)).thenReturn(Optional.of(expectedUserId));
 
         Long userId = userService.getId(userLogin);
 
         assertEquals(expectedUserId, userId);
     }
 
+    @Test
+    public void testGetIdIsCached() {
+        when(userRepository.findIdByLogin("existingUser")).thenReturn(Optional.of(1L));
+
+        assertEquals(1L, userService.getId("existingUser"));
+        assertEquals(1L, userService.getId("existingUser"));
+
+        verify(userRepository, times(1)).findIdByLogin("existingUser");
+    }
+
+    @Test
+    public void testGetIdEvictsLeastRecentlyUsedLogin() {
+        when(userRepository.findIdByLogin("first")).thenReturn(Optional.of(1L));
+        when(userRepository.findIdByLogin("second")).thenReturn(Optional.of(2L));
+        when(userRepository.findIdByLogin("third")).thenReturn(Optional.of(3L));
+
+        userService.getId("first");
+        userService.getId("second");
+        userService.getId("first");
+        userService.getId("third");
+        userService.getId("first");
+        userService.getId("second");
+
+        verify(userRepository, times(1)).findIdByLogin("first");
+        verify(userRepository, times(2)).findIdByLogin("second");
+    }
+
     @Test
     public void testGetIdUserNotFound() {
         String nonExistentLogin = "nonExistentUser";
 
-        when(userRepository.findByLogin(nonExistentLogin)).thenReturn(Optional.empty());
+        when(userRepository.findIdByLogin(nonExistentLogin)).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> userService.getId(nonExistentLogin));
+        assertThrows(UserNotFoundException.class, () -> userService.getId(nonExistentLogin));
+        verify(userRepository, times(2)).findIdByLogin(nonExistentLogin);
     }
 
     @Test
     public void testGetUserByLoginSuccess() {
         String userLogin = "existingUser";
-        User expectedUser = new User();
-        expectedUser.setLogin(userLogin);
 
-        when(userRepository.findByLogin(userLogin)).thenReturn(Optional.of(expectedUser));
+        when(userRepository.findIdByLogin(userLogin)).thenReturn(Optional.of(1L));
 
         User resultUser = userService.getUserByLogin(userLogin);
 
         assertNotNull(resultUser);
-        assertEquals(expectedUser.getLogin(), resultUser.getLogin());
+        assertEquals(1L, resultUser.getId());
+        assertEquals(userLogin, resultUser.getLogin());
+        verify(userRepository, never()).findByLogin(userLogin);
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).getReferenceById(anyLong());
+    }
+
+    @Test
+    public void testGetUserByLoginWithCachedIdRunsNoQuery() {
+        String userLogin = "existingUser";
+        when(userRepository.findIdByLogin(userLogin)).thenReturn(Optional.of(1L));
+        userService.getId(userLogin);
+
+        User resultUser = userService.getUserByLogin(userLogin);
+
+        assertEquals(1L, resultUser.getId());
+        assertEquals(userLogin, resultUser.getLogin());
+        verify(userRepository, times(1)).findIdByLogin(userLogin);
+        verify(userRepository, never()).findById(anyLong());
     }
 
     @Test
     public void testGetUserByLoginUserNotFound() {
         String nonExistentLogin = "nonExistentUser";
 
-        when(userRepository.findByLogin(nonExistentLogin)).thenReturn(Optional.empty());
+        when(userRepository.findIdByLogin(nonExistentLogin)).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> userService.getUserByLogin(nonExistentLogin));
     }
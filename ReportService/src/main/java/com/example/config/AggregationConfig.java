@@ -0,0 +1,33 @@
+package com.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * This class configures the ForkJoinPool on which BalanceService and DiagramService aggregate large payloads
+ * in parallel. A dedicated pool is used instead of the common pool, so report requests neither compete with
+ * nor are blocked by other users of the common pool (parallel streams, CompletableFuture defaults).
+ */
+@Configuration
+public class AggregationConfig {
+
+    /**
+     * This method creates the aggregation pool.
+     *
+     * @param parallelism The number of worker threads; 0 or less uses the number of available processors.
+     * @return The ForkJoinPool used for parallel aggregation, shut down with the application context.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool aggregationPool(@Value("${report.parallel.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("report-aggregation-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
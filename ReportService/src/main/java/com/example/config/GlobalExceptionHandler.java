@@ -1,5 +1,7 @@
 package com.example.config;
 
+import com.example.exception.InvalidPayloadException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -34,6 +36,31 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Bad request: Unable to parse JSON. " + ex);
     }
 
+    /**
+     * This method is an exception handler for JsonProcessingException, which is thrown when a request body
+     * that is read as a stream (instead of being bound by a message converter) turns out to be malformed.
+     * It responds in the same way as the handler of HttpMessageNotReadableException.
+     *
+     * @param ex The JsonProcessingException instance caught by this handler.
+     * @return A ResponseEntity with the BAD_REQUEST status and a descriptive error message.
+     */
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<String> handleJsonProcessingException(JsonProcessingException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Bad request: Unable to parse JSON. " + ex);
+    }
+
+    /**
+     * This method is an exception handler for InvalidPayloadException, which is thrown when a request body in
+     * the columnar binary format cannot be decoded. It responds with a BAD_REQUEST (400) status.
+     *
+     * @param ex The InvalidPayloadException instance caught by this handler.
+     * @return A ResponseEntity with the BAD_REQUEST status and a descriptive error message.
+     */
+    @ExceptionHandler(InvalidPayloadException.class)
+    public ResponseEntity<String> handleInvalidPayloadException(InvalidPayloadException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Bad request: Unable to decode payload. " + ex);
+    }
+
     /**
      * This method serves as a catch-all exception handler for any type of Exception that is not
      * specifically handled by other @ExceptionHandler methods in the application. It provides a
@@ -0,0 +1,133 @@
+package com.example.dto;
+
+import com.example.exception.InvalidPayloadException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * This class holds financial transactions in a columnar layout, decoded from the binary wire format that
+ * ExpenseIncomeAccountingService sends instead of a JSON array of MovementMoneyDTO objects. Every column is a
+ * primitive array, so decoding and aggregating a payload allocates no object per transaction.
+ * <p>
+ * Wire format (big-endian), content type "application/vnd.movement-money.columns":
+ * - int magic "MMC1", int number of rows, int scale of the amounts.
+ * - One int per row: the date as days since 1970-01-01.
+ * - One long per row: the amount as a fixed-point number with the given scale (cents for scale 2).
+ * - A bitmap with one bit per row, least significant bit first: 1 for INCOME, 0 for EXPENSE.
+ */
+public final class MovementColumns {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.movement-money.columns";
+
+    private static final int MAGIC = 0x4D4D4331;
+    private static final int HEADER_SIZE = 12;
+    private static final int MAX_SCALE = 18;
+
+    private final int size;
+    private final int scale;
+    private final int[] epochDays;
+    private final long[] amounts;
+    private final byte[] incomeBitmap;
+
+    private MovementColumns(int size, int scale, int[] epochDays, long[] amounts, byte[] incomeBitmap) {
+        this.size = size;
+        this.scale = scale;
+        this.epochDays = epochDays;
+        this.amounts = amounts;
+        this.incomeBitmap = incomeBitmap;
+    }
+
+    /**
+     * This method decodes a complete payload in the columnar wire format. The columns are copied from the
+     * payload with bulk transfers.
+     *
+     * @param inputStream The request body.
+     * @return The decoded columns.
+     * @throws IOException             If the request body cannot be read.
+     * @throws InvalidPayloadException If the payload is not in the columnar wire format.
+     */
+    public static MovementColumns read(InputStream inputStream) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(inputStream.readAllBytes());
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new InvalidPayloadException("Not a movement columns payload");
+        }
+        int size = buffer.getInt();
+        int scale = buffer.getInt();
+        if (size < 0 || scale < 0 || scale > MAX_SCALE) {
+            throw new InvalidPayloadException("Invalid movement columns header");
+        }
+        long expectedLength = (long) size * (Integer.BYTES + Long.BYTES) + (size + 7L) / 8;
+        if (buffer.remaining() != expectedLength) {
+            throw new InvalidPayloadException("Movement columns payload has " + buffer.remaining()
+                    + " bytes of data, expected " + expectedLength);
+        }
+
+        int[] epochDays = new int[size];
+        buffer.asIntBuffer().get(epochDays);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        long[] amounts = new long[size];
+        buffer.asLongBuffer().get(amounts);
+        buffer.position(buffer.position() + size * Long.BYTES);
+        byte[] incomeBitmap = new byte[(size + 7) / 8];
+        buffer.get(incomeBitmap);
+
+        return new MovementColumns(size, scale, epochDays, amounts, incomeBitmap);
+    }
+
+    /**
+     * @return The number of transactions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of decimal places of the amounts.
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * @param index The position of the transaction.
+     * @return The date of the transaction as days since 1970-01-01.
+     */
+    public int getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    /**
+     * @param index The position of the transaction.
+     * @return The unsigned amount of the transaction as a fixed-point number with the scale of the payload.
+     */
+    public long getAmount(int index) {
+        return amounts[index];
+    }
+
+    /**
+     * @param index The position of the transaction.
+     * @return true if the transaction is an INCOME, false if it is an EXPENSE.
+     */
+    public boolean isIncome(int index) {
+        return (incomeBitmap[index >>> 3] & (1 << (index & 7))) != 0;
+    }
+
+    /**
+     * @return The column of the amounts, one per transaction. The column itself is returned, not a copy, so
+     * that it can be aggregated without copying; it must not be modified.
+     */
+    public long[] getAmounts() {
+        return amounts;
+    }
+
+    /**
+     * @return The column of the types, one bit per transaction as in the wire format. The column itself is
+     * returned, not a copy; it must not be modified.
+     */
+    public byte[] getIncomeBitmap() {
+        return incomeBitmap;
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.example.exception;
+
+/**
+ * Custom exception class for handling request bodies in a binary format that cannot be decoded.
+ */
+public class InvalidPayloadException extends RuntimeException {
+    public InvalidPayloadException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.models;
+
+import java.time.LocalDate;
+
+/**
+ * This class describes the shape of a requested diagram: the granularity of its periods and the range of
+ * dates whose transactions are included. Both ends of the range are inclusive and optional.
+ */
+public final class DiagramQuery {
+
+    /**
+     * All transactions grouped by month, the shape of the diagram if nothing else is requested.
+     */
+    public static final DiagramQuery ALL_MONTHS =
+            new DiagramQuery(Granularity.MONTH, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private final Granularity granularity;
+    private final long fromEpochDay;
+    private final long toEpochDay;
+
+    private DiagramQuery(Granularity granularity, long fromEpochDay, long toEpochDay) {
+        this.granularity = granularity;
+        this.fromEpochDay = fromEpochDay;
+        this.toEpochDay = toEpochDay;
+    }
+
+    /**
+     * This method creates a query.
+     *
+     * @param from        The first date to be included, or null for no lower bound.
+     * @param to          The last date to be included, or null for no upper bound.
+     * @param granularity The granularity of the periods.
+     * @return The query.
+     * @throws IllegalArgumentException If from is after to.
+     */
+    public static DiagramQuery of(LocalDate from, LocalDate to, Granularity granularity) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("The start of the range " + from + " is after its end " + to);
+        }
+        return new DiagramQuery(granularity,
+                from != null ? from.toEpochDay() : Long.MIN_VALUE,
+                to != null ? to.toEpochDay() : Long.MAX_VALUE);
+    }
+
+    /**
+     * @return The granularity of the periods.
+     */
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * @param epochDay A date in days since 1970-01-01.
+     * @return true if the date is within the range of the query.
+     */
+    public boolean contains(long epochDay) {
+        return epochDay >= fromEpochDay && epochDay <= toEpochDay;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.models;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Enumeration representing the length of the periods into which the balance changes of a diagram are grouped.
+ * <p>
+ * Every period is identified by an integer index that is computed from a date given as days since 1970-01-01
+ * with integer arithmetic only (no calendar objects or string formatting), using the proleptic Gregorian
+ * calendar like LocalDate. Consecutive periods have consecutive indexes. Weeks start on Monday, like ISO-8601
+ * weeks.
+ */
+public enum Granularity {
+    DAY,
+    WEEK,
+    MONTH,
+    QUARTER,
+    YEAR;
+
+    /**
+     * The epoch day of Monday, 1969-12-29, the first day of week 0.
+     */
+    private static final long FIRST_MONDAY = -3;
+
+    /**
+     * This method parses a granularity, ignoring case.
+     *
+     * @param text The name of the granularity, e.g. "day" or "MONTH".
+     * @return The granularity.
+     * @throws IllegalArgumentException If the text is not the name of a granularity.
+     */
+    public static Granularity parse(String text) {
+        return valueOf(text.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * This method returns the index of the period that contains a date.
+     *
+     * @param epochDay The date in days since 1970-01-01.
+     * @return The period index.
+     */
+    public int periodOfEpochDay(long epochDay) {
+        return switch (this) {
+            case DAY -> Math.toIntExact(epochDay);
+            case WEEK -> Math.toIntExact(Math.floorDiv(epochDay - FIRST_MONDAY, 7));
+            case MONTH -> monthOfEpochDay(epochDay);
+            case QUARTER -> Math.floorDiv(monthOfEpochDay(epochDay), 3);
+            case YEAR -> Math.floorDiv(monthOfEpochDay(epochDay), 12);
+        };
+    }
+
+    /**
+     * This method returns the first day of a period.
+     *
+     * @param period The period index.
+     * @return The first day of the period.
+     */
+    public LocalDate startOfPeriod(int period) {
+        return switch (this) {
+            case DAY -> LocalDate.ofEpochDay(period);
+            case WEEK -> LocalDate.ofEpochDay(period * 7L + FIRST_MONDAY);
+            case MONTH -> LocalDate.of(Math.floorDiv(period, 12), Math.floorMod(period, 12) + 1, 1);
+            case QUARTER -> LocalDate.of(Math.floorDiv(period, 4), Math.floorMod(period, 4) * 3 + 1, 1);
+            case YEAR -> LocalDate.of(period, 1, 1);
+        };
+    }
+
+    /**
+     * This method returns the month of a date as year * 12 + month (January being 0).
+     *
+     * @param epochDay The date in days since 1970-01-01.
+     * @return The month index.
+     */
+    public static int monthOfEpochDay(long epochDay) {
+        long z = epochDay + 719_468L;
+        long era = Math.floorDiv(z, 146_097L);
+        long dayOfEra = z - era * 146_097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long month = shiftedMonth < 10 ? shiftedMonth + 2 : shiftedMonth - 10;
+        long year = yearOfEra + era * 400 + (month <= 1 ? 1 : 0);
+        return Math.toIntExact(year * 12 + month);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * This class defines how amounts of money are represented while they are aggregated: as long values of minor
+ * units (cents) with a fixed scale of 2. Adding such values is exact and creates no objects, unlike adding
+ * BigDecimal values, and does not drift, unlike adding doubles.
+ * <p>
+ * Conversions into minor units round half away from zero to the scale; a double is rounded by its decimal
+ * representation (that of Double.toString), as BigDecimal.valueOf does, so that every conversion path rounds
+ * an amount like 0.285 the same way. All arithmetic is overflow-checked and throws an ArithmeticException
+ * instead of silently wrapping around.
+ */
+public final class Money {
+
+    /**
+     * The number of decimal places of an amount.
+     */
+    public static final int SCALE = 2;
+    /**
+     * The number of minor units in one major unit (10 to the power of SCALE).
+     */
+    public static final long MINOR_UNITS = 100;
+
+    /**
+     * The largest magnitude of a double amount, in minor units, that can be converted without overflow.
+     */
+    private static final double MAX_MINOR_UNITS = 0x1p63;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private Money() {
+    }
+
+    /**
+     * This method converts an amount given as a double into minor units, with the same result as
+     * BigDecimal.valueOf(amount).setScale(SCALE, RoundingMode.HALF_UP).
+     * <p>
+     * Multiplying by MINOR_UNITS in double arithmetic is off by a few ulps of the product, so it decides the
+     * rounding only if the product is clearly away from a half; an amount like 0.285, whose product 28.499999...
+     * is not, is converted through its decimal representation instead. Amounts with at most SCALE decimal
+     * places never need that path, so the common case creates no object.
+     *
+     * @param amount The amount.
+     * @return The amount in minor units, rounded half away from zero.
+     * @throws ArithmeticException If the amount is not finite or out of the range of a long.
+     */
+    public static long toMinorUnits(double amount) {
+        double scaled = Math.abs(amount) * MINOR_UNITS;
+        if (!(scaled < MAX_MINOR_UNITS)) {
+            throw new ArithmeticException("Amount out of range: " + amount);
+        }
+        double floor = Math.floor(scaled);
+        if (Math.abs(scaled - floor - 0.5) <= 4 * Math.ulp(scaled)) {
+            return BigDecimal.valueOf(amount).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+        long minorUnits = (long) (scaled + 0.5);
+        return amount < 0 ? -minorUnits : minorUnits;
+    }
+
+    /**
+     * This method parses a decimal number, given as a section of a character array, into minor units without
+     * creating any object. Digits beyond the scale are rounded half away from zero. Numbers in exponential
+     * notation are converted through a double.
+     *
+     * @param chars  The characters containing the number.
+     * @param offset The position of the first character of the number.
+     * @param length The number of characters of the number.
+     * @return The amount in minor units.
+     * @throws NumberFormatException If the characters are not a decimal number.
+     * @throws ArithmeticException   If the amount is out of the range of a long.
+     */
+    public static long parseMinorUnits(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+
+        long minorUnits = 0;
+        int fractionDigits = -1;
+        boolean roundUp = false;
+        boolean hasDigits = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                hasDigits = true;
+                if (fractionDigits < SCALE) {
+                    minorUnits = Math.addExact(Math.multiplyExact(minorUnits, 10), c - '0');
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else if (fractionDigits == SCALE) {
+                    roundUp = c >= '5';
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if ((c == 'e' || c == 'E') && hasDigits) {
+                return toMinorUnits(Double.parseDouble(new String(chars, offset, length)));
+            } else {
+                throw new NumberFormatException("Invalid amount: " + new String(chars, offset, length));
+            }
+        }
+        if (!hasDigits) {
+            throw new NumberFormatException("Invalid amount: " + new String(chars, offset, length));
+        }
+
+        for (int digits = Math.max(fractionDigits, 0); digits < SCALE; digits++) {
+            minorUnits = Math.multiplyExact(minorUnits, 10);
+        }
+        if (roundUp) {
+            minorUnits = Math.addExact(minorUnits, 1);
+        }
+        return negative ? -minorUnits : minorUnits;
+    }
+
+    /**
+     * This method returns the effect of a transaction on a balance: its amount for INCOME and the negated
+     * amount for any other type.
+     *
+     * @param minorUnits The amount of the transaction in minor units.
+     * @param type       The type of the transaction.
+     * @return The signed amount in minor units.
+     */
+    public static long signed(long minorUnits, TypeMovement type) {
+        return type == TypeMovement.INCOME ? minorUnits : Math.negateExact(minorUnits);
+    }
+
+    /**
+     * This method converts an amount in minor units back into a double, rounded to the nearest double.
+     *
+     * @param minorUnits The amount in minor units.
+     * @return The amount.
+     */
+    public static double toDouble(long minorUnits) {
+        return toDouble(minorUnits, SCALE);
+    }
+
+    /**
+     * This method converts a fixed-point amount with the given scale into a double, rounded to the nearest
+     * double.
+     *
+     * @param unscaled The amount as an unscaled long value.
+     * @param scale    The number of decimal places of the amount.
+     * @return The amount.
+     */
+    public static double toDouble(long unscaled, int scale) {
+        return BigDecimal.valueOf(unscaled, scale).doubleValue();
+    }
+
+    /**
+     * This method converts a fixed-point amount with the given scale into minor units. Digits beyond SCALE are
+     * rounded half away from zero.
+     *
+     * @param unscaled The amount as an unscaled long value.
+     * @param scale    The number of decimal places of the amount, between 0 and 18.
+     * @return The amount in minor units.
+     * @throws ArithmeticException If the amount in minor units is out of the range of a long.
+     */
+    public static long rescale(long unscaled, int scale) {
+        if (scale == SCALE) {
+            return unscaled;
+        }
+        if (scale < SCALE) {
+            return Math.multiplyExact(unscaled, POWERS_OF_TEN[SCALE - scale]);
+        }
+        long divisor = POWERS_OF_TEN[scale - SCALE];
+        long quotient = unscaled / divisor;
+        long remainder = Math.abs(unscaled % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += unscaled < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
@@ -1,11 +1,12 @@
 package com.example.restControllers;
 
-import com.example.dto.MovementMoneyDTO;
+import com.example.dto.MovementColumns;
 import com.example.services.BalanceService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * This controller handles API endpoints related to calculating and retrieving balance information based
@@ -25,24 +26,41 @@ public class BalanceRestController {
     }
 
     /**
-     * This endpoint handles POST requests to calculate the total balance based on a provided list of
+     * This endpoint handles POST requests to calculate the total balance based on a provided JSON array of
      * MovementMoneyDTO objects. Each DTO represents an individual financial transaction, and the
      * collective balance is computed from these transactions.
      * <p>
      * Steps:
-     * - Receives a list of MovementMoneyDTO objects in the request body.
-     * - Calls the BalanceService's calculateBalance method, passing the list of DTOs.
-     * - The BalanceService processes the list and returns the calculated balance.
+     * - Receives the request body as a stream, without binding it to a list of DTOs.
+     * - Calls the BalanceService's calculateBalanceFromJson method, which sums the transactions while the
+     * body is being read, so the memory used does not depend on the number of transactions.
      * <p>
      * The method returns a ResponseEntity with an OK status containing the calculated balance,
      * allowing clients to retrieve an up-to-date balance based on dynamic transaction data.
      *
-     * @param moneyDTOList The list of MovementMoneyDTO objects for balance calculation.
+     * @param inputStream The request body containing the JSON array of MovementMoneyDTO objects.
      * @return A ResponseEntity with the calculated balance.
+     * @throws IOException If the request body is not a valid JSON array of transactions.
      */
     @PostMapping
-    public ResponseEntity<?> getBalance(@RequestBody List<MovementMoneyDTO> moneyDTOList) {
-        double balance = balanceService.calculateBalance(moneyDTOList);
+    public ResponseEntity<?> getBalance(InputStream inputStream) throws IOException {
+        double balance = balanceService.calculateBalanceFromJson(inputStream);
+
+        return ResponseEntity.ok(balance);
+    }
+
+    /**
+     * This endpoint handles POST requests to calculate the total balance from transactions sent in the
+     * columnar binary format (application/vnd.movement-money.columns) instead of JSON. The columns are
+     * decoded into primitive arrays and summed as fixed-point numbers.
+     *
+     * @param inputStream The request body in the columnar format.
+     * @return A ResponseEntity with the calculated balance.
+     * @throws IOException If the request body cannot be read.
+     */
+    @PostMapping(consumes = MovementColumns.MEDIA_TYPE_VALUE)
+    public ResponseEntity<?> getBalanceFromColumns(InputStream inputStream) throws IOException {
+        double balance = balanceService.calculateBalanceFromColumns(MovementColumns.read(inputStream));
 
         return ResponseEntity.ok(balance);
     }
@@ -1,14 +1,20 @@
 package com.example.restControllers;
 
-import com.example.dto.MovementMoneyDTO;
+import com.example.dto.MovementColumns;
 import com.example.models.DiagramData;
+import com.example.models.DiagramQuery;
+import com.example.models.Granularity;
 import com.example.services.DiagramService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -27,24 +33,88 @@ public class DiagramRestController {
     }
 
     /**
-     * This endpoint processes a POST request that contains a list of MovementMoneyDTO objects. These objects
+     * This endpoint processes a POST request that contains a JSON array of MovementMoneyDTO objects. These objects
      * represent financial transactions. The method uses these transactions to generate data suitable for
      * diagrammatic representations, such as graphs or charts.
      * <p>
      * Process:
-     * - Receives a list of MovementMoneyDTO objects through the request body.
-     * - Invokes the DiagramService's getDataDiagram method with the provided list to generate diagram data.
+     * - Builds the DiagramQuery from the optional from and to dates (ISO format, both inclusive) and the
+     * granularity (day, week, month, quarter or year; month by default). An unknown granularity or a range whose
+     * start is after its end results in a BAD_REQUEST (400) response.
+     * - Receives the request body as a stream, without binding it to a list of DTOs.
+     * - Invokes the DiagramService's getDataDiagramFromJson method, which aggregates the transactions within the
+     * range per period while the body is being read.
      * - The service returns a list of DiagramData objects, each containing information like date and balance,
      * suitable for visualization.
      *
-     * @param moneyDTOList The list of MovementMoneyDTO objects used for generating diagram data.
+     * @param from        The first date to be included, or null for no lower bound.
+     * @param to          The last date to be included, or null for no upper bound.
+     * @param granularity The length of the periods into which the transactions are grouped.
+     * @param inputStream The request body containing the JSON array of MovementMoneyDTO objects.
      * @return A ResponseEntity containing a list of DiagramData objects for visualization.
+     * @throws IOException If the request body is not a valid JSON array of transactions.
      */
     @PostMapping
-    public ResponseEntity<List<DiagramData>> getDiagramData(@RequestBody List<MovementMoneyDTO> moneyDTOList) {
+    public ResponseEntity<List<DiagramData>> getDiagramData(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String granularity,
+            InputStream inputStream) throws IOException {
 
-        List<DiagramData> reportDiagram = diagramService.getDataDiagram(moneyDTOList);
+        DiagramQuery query = toQuery(from, to, granularity);
+        if (query == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<DiagramData> reportDiagram = diagramService.getDataDiagramFromJson(inputStream, query);
+
+        return ResponseEntity.ok(reportDiagram);
+    }
+
+    /**
+     * This endpoint processes a POST request that contains transactions in the columnar binary format
+     * (application/vnd.movement-money.columns) instead of JSON. The columns are decoded into primitive arrays
+     * and aggregated per period without creating an object per transaction. The range and granularity
+     * parameters are the same as for the JSON format.
+     *
+     * @param from        The first date to be included, or null for no lower bound.
+     * @param to          The last date to be included, or null for no upper bound.
+     * @param granularity The length of the periods into which the transactions are grouped.
+     * @param inputStream The request body in the columnar format.
+     * @return A ResponseEntity containing a list of DiagramData objects for visualization.
+     * @throws IOException If the request body cannot be read.
+     */
+    @PostMapping(consumes = MovementColumns.MEDIA_TYPE_VALUE)
+    public ResponseEntity<List<DiagramData>> getDiagramDataFromColumns(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String granularity,
+            InputStream inputStream) throws IOException {
+
+        DiagramQuery query = toQuery(from, to, granularity);
+        if (query == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<DiagramData> reportDiagram = diagramService.getDataDiagramFromColumns(MovementColumns.read(inputStream),
+                query);
 
         return ResponseEntity.ok(reportDiagram);
     }
+
+    /**
+     * This private method builds the DiagramQuery of a request.
+     *
+     * @param from        The first date to be included, or null for no lower bound.
+     * @param to          The last date to be included, or null for no upper bound.
+     * @param granularity The name of the granularity.
+     * @return The query, or null if the granularity is unknown or from is after to.
+     */
+    private static DiagramQuery toQuery(LocalDate from, LocalDate to, String granularity) {
+        try {
+            return DiagramQuery.of(from, to, Granularity.parse(granularity));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
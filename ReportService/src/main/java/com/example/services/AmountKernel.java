@@ -0,0 +1,85 @@
+package com.example.services;
+
+/**
+ * This interface defines the kernels that sum signed amounts held in primitive arrays (see MovementAmounts).
+ * An amount is added for INCOME and subtracted otherwise, the type being given as a bitmap with one bit per
+ * amount, least significant bit first, set for INCOME. This is the layout of the columnar wire format (see
+ * MovementColumns), so the columns of a payload are summed without being copied.
+ * <p>
+ * Two implementations exist: ScalarAmountKernel, which is always available and checks every addition for
+ * overflow, and VectorAmountKernel, which sums several amounts per instruction with the JDK Vector API and is
+ * only used when the jdk.incubator.vector module has been added to the JVM (--add-modules jdk.incubator.vector).
+ */
+interface AmountKernel {
+
+    /**
+     * The kernel that is used for amounts whose sum cannot overflow: the vector kernel if the incubator module
+     * is present, the scalar kernel otherwise.
+     */
+    AmountKernel FASTEST = load();
+
+    /**
+     * This method sums the signed amounts of a range.
+     *
+     * @param amounts      The unsigned amounts.
+     * @param incomeBitmap The type bitmap, a set bit for INCOME.
+     * @param from         The position of the first amount (inclusive).
+     * @param to           The position of the last amount (exclusive).
+     * @return The sum of the signed amounts.
+     */
+    long sum(long[] amounts, byte[] incomeBitmap, int from, int to);
+
+    /**
+     * This method sums the signed amounts of a range per period. Consecutive amounts of the same period, which
+     * are the common case as transactions are usually ordered by date, are summed with one call of sum.
+     *
+     * @param periods      The period index (see Granularity) of every amount.
+     * @param amounts      The unsigned amounts in minor units.
+     * @param incomeBitmap The type bitmap, a set bit for INCOME.
+     * @param from         The position of the first amount (inclusive).
+     * @param to           The position of the last amount (exclusive).
+     * @param balances     The balances per period receiving the sums.
+     */
+    default void sumByPeriod(int[] periods, long[] amounts, byte[] incomeBitmap, int from, int to,
+                             PeriodBalances balances) {
+        int runStart = from;
+        while (runStart < to) {
+            int period = periods[runStart];
+            int runEnd = runStart + 1;
+            while (runEnd < to && periods[runEnd] == period) {
+                runEnd++;
+            }
+            balances.add(period, sum(amounts, incomeBitmap, runStart, runEnd));
+            runStart = runEnd;
+        }
+    }
+
+    /**
+     * This method reads the type of an amount from a type bitmap.
+     *
+     * @param incomeBitmap The type bitmap.
+     * @param index        The position of the amount.
+     * @return true if the amount is an INCOME.
+     */
+    static boolean isIncome(byte[] incomeBitmap, int index) {
+        return (incomeBitmap[index >>> 3] & (1 << (index & 7))) != 0;
+    }
+
+    /**
+     * This private method selects the fastest kernel of the running JVM. The vector kernel is loaded by name,
+     * so its class, which links against the incubator module, is never resolved when the module is absent.
+     *
+     * @return The vector kernel, or the scalar kernel if the incubator module is absent or unusable.
+     */
+    private static AmountKernel load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (AmountKernel) Class.forName("com.example.services.VectorAmountKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return ScalarAmountKernel.INSTANCE;
+            }
+        }
+        return ScalarAmountKernel.INSTANCE;
+    }
+}
@@ -1,31 +1,51 @@
 package com.example.services;
 
+import com.example.dto.MovementColumns;
 import com.example.dto.MovementMoneyDTO;
-import com.example.models.TypeMovement;
+import com.example.models.Money;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This service provides functionality to calculate the total balance based on a list of financial transactions,
  * represented by MovementMoneyDTO objects. The calculation considers both incomes and expenses to determine
- * the net balance.
+ * the net balance. Amounts are summed as long values of minor units (see Money).
+ * <p>
+ * Columnar payloads with at least report.parallel.threshold transactions, which is the format that
+ * ExpenseIncomeAccountingService sends for large reports, are split into parts that are summed in parallel on
+ * the aggregation pool (see AggregationConfig).
  */
 @Service
 public class BalanceService {
 
+    /**
+     * ForkJoinPool is used for summing large payloads in parallel.
+     */
+    private final ForkJoinPool aggregationPool;
+
+    @Value("${report.parallel.threshold}")
+    private int parallelThreshold;
+
+    public BalanceService(ForkJoinPool aggregationPool) {
+        this.aggregationPool = aggregationPool;
+    }
+
     /**
      * This method computes the net balance by processing a list of MovementMoneyDTO objects, each representing
      * a financial transaction. It takes into account both incomes and expenses to calculate the overall balance.
      * <p>
      * Process:
      * - Checks if the provided list is null, returning 0.0 in such cases to handle null inputs safely.
-     * - Iterates over the list, filtering out null entries.
-     * - For each transaction, it converts the amount to a BigDecimal. It then adjusts the sign based on the
-     * transaction type (positive for INCOME, negative for EXPENSE).
-     * - Summarizes these values to obtain the total balance.
+     * - Converts the list, skipping null entries, into primitive arrays of amounts in minor units (see Money)
+     * and a type mask (see MovementAmounts).
+     * - Sums the amounts, adding INCOME and subtracting EXPENSE, with an AmountKernel. The vector kernel is used
+     * when the jdk.incubator.vector module is present and the sum cannot overflow, the overflow-checking scalar
+     * kernel otherwise.
      *
      * @param moneyDTOList The list of MovementMoneyDTO objects for balance calculation.
      * @return The calculated total balance as a double value.
@@ -34,12 +54,60 @@ public class BalanceService {
         if (moneyDTOList == null) {
             return 0.0;
         }
-        BigDecimal balance = moneyDTOList.stream()
-                .filter(Objects::nonNull)
-                .map(dto -> BigDecimal.valueOf(dto.getAmount())
-                        .multiply(dto.getType() == TypeMovement.INCOME ? BigDecimal.ONE : BigDecimal.valueOf(-1)))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Money.toDouble(MovementAmounts.of(moneyDTOList).sum());
+    }
 
-        return balance.doubleValue();
+    /**
+     * This method computes the net balance from a JSON array of MovementMoneyDTO objects while the array is
+     * being read. Only the running sum is kept, so the memory used does not depend on the number of
+     * transactions.
+     * <p>
+     * Process:
+     * - Reads the transactions one by one with a MovementMoneyJsonReader, skipping null entries. The amounts
+     * are parsed directly into minor units.
+     * - Adds every amount to the running sum, adjusting its sign based on the transaction type
+     * (positive for INCOME, negative for EXPENSE).
+     *
+     * @param inputStream The JSON array of MovementMoneyDTO objects for balance calculation.
+     * @return The calculated total balance as a double value.
+     * @throws IOException If the input is not a valid JSON array of transactions.
+     */
+    public double calculateBalanceFromJson(InputStream inputStream) throws IOException {
+        long balance = 0;
+        try (MovementMoneyJsonReader reader = new MovementMoneyJsonReader(inputStream)) {
+            while (reader.next()) {
+                balance = Math.addExact(balance, Money.signed(reader.getAmountMinorUnits(), reader.getType()));
+            }
+        }
+        return Money.toDouble(balance);
+    }
+
+    /**
+     * This method computes the net balance from transactions in the columnar wire format. The amounts are
+     * fixed-point numbers and the types a bitmap, so the columns are summed exactly as long values by an
+     * AmountKernel without being copied and without creating any object per transaction. The vector kernel is
+     * used when the jdk.incubator.vector module is present and the sum cannot overflow. Payloads with at least
+     * report.parallel.threshold transactions are summed in parallel.
+     *
+     * @param columns The decoded transactions.
+     * @return The calculated total balance as a double value.
+     * @throws ArithmeticException If the sum overflows the range of a long.
+     */
+    public double calculateBalanceFromColumns(MovementColumns columns) {
+        MovementAmounts amounts = MovementAmounts.of(columns);
+        long balance = isParallel(columns.size())
+                ? RangeAggregationTask.invoke(aggregationPool, columns.size(), amounts::sum, Math::addExact)
+                : amounts.sum();
+        return Money.toDouble(balance, columns.getScale());
+    }
+
+    /**
+     * This private method decides whether a payload is large enough to be summed in parallel.
+     *
+     * @param size The number of transactions.
+     * @return true if the payload is summed on the aggregation pool.
+     */
+    private boolean isParallel(int size) {
+        return size >= parallelThreshold && size > RangeAggregationTask.MIN_LEAF_SIZE;
     }
 }
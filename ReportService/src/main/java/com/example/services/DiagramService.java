@@ -1,109 +1,246 @@
 package com.example.services;
 
+import com.example.dto.MovementColumns;
 import com.example.dto.MovementMoneyDTO;
 import com.example.models.DiagramData;
-import com.example.models.TypeMovement;
+import com.example.models.DiagramQuery;
+import com.example.models.Granularity;
+import com.example.models.Money;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This service processes a list of MovementMoneyDTO objects and aggregates their data to produce
  * information suitable for visualization in diagrams, particularly focusing on the balance changes over time.
+ * <p>
+ * All input formats are aggregated by PeriodBalances, which derives an integer period index (see Granularity)
+ * from each date and sums the amounts in minor units into a dense array of periods, so no object is created per
+ * transaction and the resulting series needs no sorting. A DiagramQuery selects the granularity of the periods
+ * (monthly by default) and an optional range of dates; transactions outside the range are skipped.
+ * <p>
+ * Columnar payloads with at least report.parallel.threshold transactions, which is the format that
+ * ExpenseIncomeAccountingService sends for large reports, are split into parts whose balances are aggregated in
+ * parallel on the aggregation pool (see AggregationConfig) and then merged.
  */
 @Service
 public class DiagramService {
 
+    /**
+     * ForkJoinPool is used for aggregating large payloads in parallel.
+     */
+    private final ForkJoinPool aggregationPool;
+
+    @Value("${report.parallel.threshold}")
+    private int parallelThreshold;
+
+    public DiagramService(ForkJoinPool aggregationPool) {
+        this.aggregationPool = aggregationPool;
+    }
+
     /**
      * This method processes a list of MovementMoneyDTO objects to create a chronological series of DiagramData.
      * Each DiagramData object represents the balance for a specific month and year, allowing for the visualization
      * of financial trends over time.
+     *
+     * @param moneyDTOList The list of MovementMoneyDTO objects used for generating diagram data.
+     * @return A sorted list of DiagramData objects for each month and year.
+     */
+    public List<DiagramData> getDataDiagram(List<MovementMoneyDTO> moneyDTOList) {
+        return getDataDiagram(moneyDTOList, DiagramQuery.ALL_MONTHS);
+    }
+
+    /**
+     * This method processes a list of MovementMoneyDTO objects to create a chronological series of DiagramData
+     * for the range and granularity of a query. Each DiagramData object represents the balance for one period.
      * <p>
      * Process:
      * - Checks if the provided list is null, returning an empty list to handle null inputs safely.
-     * - Aggregates the transactions by month and year, calculating the net balance for each period.
-     * - Maps each aggregated entry to a DiagramData object, setting the corresponding date and balance.
-     * - Sorts the resulting list chronologically by date.
+     * - Converts the list, skipping null entries and transactions outside the range of the query, into primitive
+     * arrays of amounts in minor units (see Money), a type mask and the period of every transaction in the system
+     * default time zone (see MovementAmounts).
+     * - Sums the signed amounts per period with an AmountKernel.
+     * - Returns the periods in chronological order, each as a DiagramData object dated on the first day of the
+     * period.
      *
      * @param moneyDTOList The list of MovementMoneyDTO objects used for generating diagram data.
-     * @return A sorted list of DiagramData objects for each month and year.
+     * @param query        The range and granularity of the diagram.
+     * @return A sorted list of DiagramData objects for each period that has transactions.
      */
-    public List<DiagramData> getDataDiagram(List<MovementMoneyDTO> moneyDTOList) {
+    public List<DiagramData> getDataDiagram(List<MovementMoneyDTO> moneyDTOList, DiagramQuery query) {
         if (moneyDTOList == null) {
             return Collections.emptyList();
         }
 
-        Map<String, BigDecimal> balancePerMonth = moneyDTOList.stream()
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(
-                        dto -> getMonthYearKey(dto.getDate()),
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                dto -> BigDecimal.valueOf(dto.getAmount())
-                                        .multiply(dto.getType() == TypeMovement.INCOME ?
-                                                BigDecimal.ONE : BigDecimal.valueOf(-1)),
-                                BigDecimal::add)));
-
-        return balancePerMonth.entrySet().stream()
-                .map(this::createDiagramData)
-                .sorted(Comparator.comparing(DiagramData::getDate))
-                .collect(Collectors.toList());
+        return MovementAmounts.of(moneyDTOList, TimeZone.getDefault(), query).sumByPeriod().toDiagramData();
     }
 
     /**
-     * This private helper method transforms a single entry from a map (where each entry represents a month-year
-     * key and a corresponding balance) into a DiagramData object. The DiagramData object is used for visualizing
-     * financial data in diagrams or charts.
+     * This method creates the same chronological series of DiagramData as getDataDiagram, but from a JSON array
+     * of MovementMoneyDTO objects while the array is being read.
+     *
+     * @param inputStream The JSON array of MovementMoneyDTO objects used for generating diagram data.
+     * @return A sorted list of DiagramData objects for each month and year.
+     * @throws IOException If the input is not a valid JSON array of transactions or a transaction has no date.
+     */
+    public List<DiagramData> getDataDiagramFromJson(InputStream inputStream) throws IOException {
+        return getDataDiagramFromJson(inputStream, DiagramQuery.ALL_MONTHS);
+    }
+
+    /**
+     * This method creates the same chronological series of DiagramData as getDataDiagram with a query, but from
+     * a JSON array of MovementMoneyDTO objects while the array is being read. Only one running balance per period
+     * is kept, so the memory used depends on the number of periods and not on the number of transactions.
      * <p>
      * Process:
-     * - Creates a new DiagramData object.
-     * - Parses the month-year key to a Date object and sets it as the date of the DiagramData.
-     * - Sets the balance (extracted from the map entry's value) in the DiagramData object.
+     * - Reads the transactions one by one with a MovementMoneyJsonReader, skipping null entries.
+     * - Skips transactions whose date is outside the range of the query.
+     * - Adds the signed amount of each remaining transaction to the balance of its period.
+     * - Returns the periods in chronological order, each as a DiagramData object dated on the first day of the
+     * period.
+     *
+     * @param inputStream The JSON array of MovementMoneyDTO objects used for generating diagram data.
+     * @param query       The range and granularity of the diagram.
+     * @return A sorted list of DiagramData objects for each period that has transactions.
+     * @throws IOException If the input is not a valid JSON array of transactions or a transaction has no date.
+     */
+    public List<DiagramData> getDataDiagramFromJson(InputStream inputStream, DiagramQuery query) throws IOException {
+        TimeZone zone = TimeZone.getDefault();
+        Granularity granularity = query.getGranularity();
+        PeriodBalances periodBalances = new PeriodBalances(granularity);
+
+        try (MovementMoneyJsonReader reader = new MovementMoneyJsonReader(inputStream)) {
+            while (reader.next()) {
+                if (!reader.hasDate()) {
+                    throw new IllegalArgumentException("Movement without date");
+                }
+                long epochDay = PeriodBalances.epochDayOf(reader.getDate(), zone);
+                if (query.contains(epochDay)) {
+                    periodBalances.add(granularity.periodOfEpochDay(epochDay),
+                            Money.signed(reader.getAmountMinorUnits(), reader.getType()));
+                }
+            }
+        }
+        return periodBalances.toDiagramData();
+    }
+
+    /**
+     * This method creates the same chronological series of DiagramData as getDataDiagram from transactions in
+     * the columnar wire format.
      *
-     * @param entry A map entry where the key is a month-year string and the value is the balance for that period.
-     * @return A DiagramData object representing the financial data for the given period.
+     * @param columns The decoded transactions.
+     * @return A sorted list of DiagramData objects for each month and year that has transactions.
+     * @throws ArithmeticException If the balance of a month overflows the range of a long.
      */
-    private DiagramData createDiagramData(Map.Entry<String, BigDecimal> entry) {
-        DiagramData data = new DiagramData();
-        data.setDate(parseDate(entry.getKey()));
-        data.setBalance(entry.getValue().doubleValue());
-        return data;
+    public List<DiagramData> getDataDiagramFromColumns(MovementColumns columns) {
+        return getDataDiagramFromColumns(columns, DiagramQuery.ALL_MONTHS);
     }
 
     /**
-     * This private helper method takes a Date object and converts it into a string formatted as "yyyy-MM".
-     * The formatted string represents the year and month of the given date, serving as a key for grouping
-     * financial data in monthly intervals.
+     * This method creates the same chronological series of DiagramData as getDataDiagram with a query from
+     * transactions in the columnar wire format. The dates already are epoch days and the amounts fixed-point
+     * values, so the aggregation is a loop over primitive arrays: consecutive transactions of the same period,
+     * which are the common case as the transactions are sent ordered by date, are summed with one call of an
+     * AmountKernel over the columns. Payloads with at least report.parallel.threshold transactions are aggregated
+     * in parallel.
      *
-     * @param date The Date object to be formatted into a month-year key.
-     * @return A string representing the year and month of the given date, formatted as "yyyy-MM".
+     * @param columns The decoded transactions.
+     * @param query   The range and granularity of the diagram.
+     * @return A sorted list of DiagramData objects for each period that has transactions.
+     * @throws ArithmeticException If the balance of a period overflows the range of a long.
      */
-    private String getMonthYearKey(Date date) {
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM");
-        return formatter.format(date);
+    public List<DiagramData> getDataDiagramFromColumns(MovementColumns columns, DiagramQuery query) {
+        MovementAmounts amounts = MovementAmounts.of(columns);
+        PeriodBalances periodBalances = isParallel(columns.size())
+                ? RangeAggregationTask.invoke(aggregationPool, columns.size(),
+                        (from, to) -> aggregate(columns, amounts, from, to, query), DiagramService::merge)
+                : aggregate(columns, amounts, 0, columns.size(), query);
+        return periodBalances.toDiagramData();
     }
 
     /**
-     * This private method takes a string representing a year and month (formatted as "yyyy-MM") and converts
-     * it into a Date object. It uses SimpleDateFormat for parsing the string based on the specified format.
-     * <p>
-     * If the string is not in the correct format, the method throws an IllegalArgumentException, indicating
-     * that the provided string does not conform to the expected date format.
+     * This private method decides whether a payload is large enough to be aggregated in parallel.
+     *
+     * @param size The number of transactions.
+     * @return true if the payload is aggregated on the aggregation pool.
+     */
+    private boolean isParallel(int size) {
+        return size >= parallelThreshold && size > RangeAggregationTask.MIN_LEAF_SIZE;
+    }
+
+    /**
+     * This private method aggregates a range of transactions in the columnar wire format into balances per period,
+     * skipping transactions outside the range of the query. Every run of consecutive transactions of the same
+     * period is summed at once and then converted into minor units, which gives the same result as converting
+     * every amount if the payload has at most Money.SCALE decimal places. Amounts with more decimal places are
+     * rounded one by one.
      *
-     * @param monthYear A string representing the year and month, formatted as "yyyy-MM".
-     * @return A Date object corresponding to the given month-year string.
-     * @throws IllegalArgumentException if the string cannot be parsed into a valid Date object.
+     * @param columns The decoded transactions.
+     * @param amounts The amounts and types of the transactions (see MovementAmounts).
+     * @param from    The position of the first transaction (inclusive).
+     * @param to      The position of the last transaction (exclusive).
+     * @param query   The range and granularity of the diagram.
+     * @return The balances per period.
      */
-    private Date parseDate(String monthYear) {
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM");
-        try {
-            return formatter.parse(monthYear);
-        } catch (ParseException e) {
-            throw new IllegalArgumentException("Invalid date format: " + monthYear, e);
+    private static PeriodBalances aggregate(MovementColumns columns, MovementAmounts amounts, int from, int to,
+                                            DiagramQuery query) {
+        Granularity granularity = query.getGranularity();
+        PeriodBalances periodBalances = new PeriodBalances(granularity);
+        int scale = columns.getScale();
+        int runStart = from;
+        while (runStart < to) {
+            long epochDay = columns.getEpochDay(runStart);
+            if (!query.contains(epochDay)) {
+                runStart++;
+                continue;
+            }
+            int period = granularity.periodOfEpochDay(epochDay);
+            int runEnd = runStart + 1;
+            while (runEnd < to && query.contains(columns.getEpochDay(runEnd))
+                    && granularity.periodOfEpochDay(columns.getEpochDay(runEnd)) == period) {
+                runEnd++;
+            }
+            periodBalances.add(period, scale <= Money.SCALE
+                    ? Money.rescale(amounts.sum(runStart, runEnd), scale)
+                    : sumRescaled(columns, runStart, runEnd));
+            runStart = runEnd;
         }
+        return periodBalances;
+    }
+
+    /**
+     * This private method converts the amounts of a range of transactions in the columnar wire format into minor
+     * units one by one and sums them.
+     *
+     * @param columns The decoded transactions.
+     * @param from    The position of the first transaction (inclusive).
+     * @param to      The position of the last transaction (exclusive).
+     * @return The balance of the range in minor units.
+     */
+    private static long sumRescaled(MovementColumns columns, int from, int to) {
+        long balance = 0;
+        for (int i = from; i < to; i++) {
+            long amount = Money.rescale(columns.getAmount(i), columns.getScale());
+            balance = columns.isIncome(i) ? Math.addExact(balance, amount) : Math.subtractExact(balance, amount);
+        }
+        return balance;
+    }
+
+    /**
+     * This private method merges the balances of two adjacent parts of a payload.
+     *
+     * @param left  The balances of the earlier part, which receive the balances of the later part.
+     * @param right The balances of the later part.
+     * @return The merged balances.
+     */
+    private static PeriodBalances merge(PeriodBalances left, PeriodBalances right) {
+        left.addAll(right);
+        return left;
     }
 }
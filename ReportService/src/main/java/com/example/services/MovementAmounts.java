@@ -0,0 +1,169 @@
+package com.example.services;
+
+import com.example.dto.MovementColumns;
+import com.example.dto.MovementMoneyDTO;
+import com.example.models.DiagramQuery;
+import com.example.models.Granularity;
+import com.example.models.Money;
+import com.example.models.TypeMovement;
+
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * This class holds the amounts of financial transactions that are needed for aggregation in primitive arrays:
+ * the amounts, a type bitmap (a set bit for INCOME, see AmountKernel) and, for diagrams built from a list, the
+ * period index of every date (see Granularity). The sums are computed by an AmountKernel over the arrays.
+ * <p>
+ * A list of MovementMoneyDTO objects is converted once into amounts in minor units (see Money); null entries
+ * and, for diagrams, transactions outside the requested range are dropped. A payload in the columnar wire
+ * format already has this layout, so its columns are used as they are and its amounts keep the scale of the
+ * payload.
+ * <p>
+ * The largest absolute amount is tracked during the conversion. If the absolute amounts cannot sum to more
+ * than Long.MAX_VALUE, no partial sum can overflow and the fastest kernel is used; otherwise the scalar
+ * kernel, which checks every addition, is used.
+ */
+final class MovementAmounts {
+
+    private final long[] amounts;
+    private final byte[] incomeBitmap;
+    private final int[] periods;
+    private final Granularity granularity;
+    private final int size;
+    private final long maxAbsAmount;
+
+    private MovementAmounts(long[] amounts, byte[] incomeBitmap, int[] periods, Granularity granularity, int size,
+                            long maxAbsAmount) {
+        this.amounts = amounts;
+        this.incomeBitmap = incomeBitmap;
+        this.periods = periods;
+        this.granularity = granularity;
+        this.size = size;
+        this.maxAbsAmount = maxAbsAmount;
+    }
+
+    /**
+     * This method converts a list of transactions for a balance calculation.
+     *
+     * @param moneyDTOList The transactions.
+     * @return The amounts and types of the non-null transactions.
+     * @throws ArithmeticException If an amount is out of the range of minor units.
+     */
+    static MovementAmounts of(List<MovementMoneyDTO> moneyDTOList) {
+        return of(moneyDTOList, null, null);
+    }
+
+    /**
+     * This method converts a list of transactions for a diagram, including the period of every transaction if
+     * a time zone is given. Transactions whose date is outside the range of the query are dropped.
+     *
+     * @param moneyDTOList The transactions.
+     * @param zone         The time zone in which the dates are determined, or null if no periods are needed.
+     * @param query        The range and granularity of the diagram, or null if no periods are needed.
+     * @return The amounts, types and periods of the non-null transactions within the range.
+     * @throws ArithmeticException If an amount is out of the range of minor units.
+     */
+    static MovementAmounts of(List<MovementMoneyDTO> moneyDTOList, TimeZone zone, DiagramQuery query) {
+        int capacity = moneyDTOList.size();
+        long[] amounts = new long[capacity];
+        byte[] incomeBitmap = new byte[(capacity + 7) / 8];
+        int[] periods = zone != null ? new int[capacity] : null;
+        int size = 0;
+        long maxAbsAmount = 0;
+        for (MovementMoneyDTO dto : moneyDTOList) {
+            if (dto == null) {
+                continue;
+            }
+            long epochDay = 0;
+            if (periods != null) {
+                epochDay = PeriodBalances.epochDayOf(dto.getDate().getTime(), zone);
+                if (!query.contains(epochDay)) {
+                    continue;
+                }
+            }
+            long amount = Money.toMinorUnits(dto.getAmount());
+            boolean isIncome = dto.getType() == TypeMovement.INCOME;
+            if (amount < 0) {
+                amount = -amount;
+                isIncome = !isIncome;
+            }
+            amounts[size] = amount;
+            if (isIncome) {
+                incomeBitmap[size >>> 3] |= (byte) (1 << (size & 7));
+            }
+            if (periods != null) {
+                periods[size] = query.getGranularity().periodOfEpochDay(epochDay);
+            }
+            maxAbsAmount = Math.max(maxAbsAmount, amount);
+            size++;
+        }
+        return new MovementAmounts(amounts, incomeBitmap, periods, periods != null ? query.getGranularity() : null,
+                size, maxAbsAmount);
+    }
+
+    /**
+     * This method wraps the columns of a payload in the columnar wire format without copying them. The amounts
+     * keep the scale of the payload.
+     *
+     * @param columns The decoded transactions.
+     * @return The amounts and types of the transactions.
+     */
+    static MovementAmounts of(MovementColumns columns) {
+        long[] amounts = columns.getAmounts();
+        int size = columns.size();
+        long maxAbsAmount = 0;
+        for (int i = 0; i < size; i++) {
+            // the absolute value of Long.MIN_VALUE is not a long, so it only allows the scalar kernel
+            maxAbsAmount = Math.max(maxAbsAmount, amounts[i] == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(amounts[i]));
+        }
+        return new MovementAmounts(amounts, columns.getIncomeBitmap(), null, null, size, maxAbsAmount);
+    }
+
+    /**
+     * This method sums the signed amounts of all transactions.
+     *
+     * @return The balance in minor units, or in the scale of the payload for columns.
+     * @throws ArithmeticException If the balance overflows the range of a long.
+     */
+    long sum() {
+        return sum(0, size);
+    }
+
+    /**
+     * This method sums the signed amounts of a range of transactions.
+     *
+     * @param from The position of the first transaction (inclusive).
+     * @param to   The position of the last transaction (exclusive).
+     * @return The balance of the range in minor units, or in the scale of the payload for columns.
+     * @throws ArithmeticException If the balance overflows the range of a long.
+     */
+    long sum(int from, int to) {
+        return kernel().sum(amounts, incomeBitmap, from, to);
+    }
+
+    /**
+     * This method sums the signed amounts of all transactions per period. The instance must have been created
+     * with a time zone and a query.
+     *
+     * @return The balances per period.
+     * @throws ArithmeticException If the balance of a period overflows the range of a long.
+     */
+    PeriodBalances sumByPeriod() {
+        PeriodBalances periodBalances = new PeriodBalances(granularity);
+        kernel().sumByPeriod(periods, amounts, incomeBitmap, 0, size, periodBalances);
+        return periodBalances;
+    }
+
+    /**
+     * This private method selects the kernel for the amounts: the fastest one if no partial sum of any range can
+     * overflow, the overflow-checking scalar one otherwise.
+     *
+     * @return The kernel.
+     */
+    private AmountKernel kernel() {
+        return size == 0 || maxAbsAmount <= Long.MAX_VALUE / size
+                ? AmountKernel.FASTEST
+                : ScalarAmountKernel.INSTANCE;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.services;
+
+import com.example.models.Money;
+import com.example.models.TypeMovement;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+
+/**
+ * This class reads a JSON array of MovementMoneyDTO objects token by token, exposing only the fields needed
+ * for aggregation (amount, type and date) of the current element. No object is created per element, so the
+ * aggregation services can consume a request body of any size while it is being read.
+ * <p>
+ * Usage: call next() until it returns false and read the fields of the current element in between.
+ * Null elements are skipped, all other fields of an element (login, description, nested objects) are
+ * ignored. Dates are accepted both as epoch milliseconds and as ISO-8601 strings, like Jackson's default
+ * deserialization of java.util.Date.
+ */
+public final class MovementMoneyJsonReader implements Closeable {
+
+    /**
+     * JsonFactory used to create the parsers; it is thread-safe and shared by all readers.
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private StdDateFormat dateFormat;
+    private boolean started;
+    private long amountMinorUnits;
+    private boolean hasAmount;
+    private TypeMovement type;
+    private long date;
+    private boolean hasDate;
+
+    public MovementMoneyJsonReader(InputStream inputStream) throws IOException {
+        this.parser = JSON_FACTORY.createParser(inputStream);
+    }
+
+    /**
+     * This method advances to the next element of the array and reads its fields.
+     *
+     * @return true if an element has been read, false if the end of the array has been reached.
+     * @throws IOException If the input is not a JSON array of objects or an element has no amount.
+     */
+    public boolean next() throws IOException {
+        if (!started) {
+            started = true;
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of movements");
+            }
+        }
+
+        JsonToken token = parser.nextToken();
+        while (token == JsonToken.VALUE_NULL) {
+            token = parser.nextToken();
+        }
+        if (token == JsonToken.END_ARRAY) {
+            return false;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a movement object but found " + token);
+        }
+
+        hasAmount = false;
+        type = null;
+        hasDate = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "amount" -> {
+                    amountMinorUnits = readAmountMinorUnits(value);
+                    hasAmount = true;
+                }
+                case "type" -> type = readType();
+                case "date" -> {
+                    date = readDate(value);
+                    hasDate = true;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (!hasAmount) {
+            throw new JsonParseException(parser, "Movement without amount");
+        }
+        return true;
+    }
+
+    /**
+     * @return The amount of the current element in minor units (see Money).
+     */
+    public long getAmountMinorUnits() {
+        return amountMinorUnits;
+    }
+
+    /**
+     * @return The type of the current element, or null if it has none.
+     */
+    public TypeMovement getType() {
+        return type;
+    }
+
+    /**
+     * @return true if the current element has a date.
+     */
+    public boolean hasDate() {
+        return hasDate;
+    }
+
+    /**
+     * @return The date of the current element in epoch milliseconds; only meaningful if hasDate() is true.
+     */
+    public long getDate() {
+        return date;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * This private helper method reads the amount of an element, given as a number or as a numeric string,
+     * directly from the characters of the token into minor units, so no intermediate double or BigDecimal
+     * is created.
+     *
+     * @param value The token of the amount.
+     * @return The amount in minor units.
+     * @throws IOException If the value is not a number or out of range.
+     */
+    private long readAmountMinorUnits(JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT && value != JsonToken.VALUE_NUMBER_FLOAT
+                && value != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, "Invalid amount: " + value);
+        }
+        try {
+            return Money.parseMinorUnits(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new JsonParseException(parser, "Invalid amount: " + parser.getText());
+        }
+    }
+
+    /**
+     * This private helper method reads the type of an element.
+     *
+     * @return The type of the movement.
+     * @throws IOException If the value is not the name of a TypeMovement constant.
+     */
+    private TypeMovement readType() throws IOException {
+        String text = parser.getText();
+        try {
+            return TypeMovement.valueOf(text);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(parser, "Invalid type: " + text);
+        }
+    }
+
+    /**
+     * This private helper method reads the date of an element, given as epoch milliseconds or as a string.
+     *
+     * @param value The token of the date.
+     * @return The date in epoch milliseconds.
+     * @throws IOException If the value is neither a number nor a parsable date.
+     */
+    private long readDate(JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (dateFormat == null) {
+            dateFormat = new StdDateFormat();
+        }
+        try {
+            return dateFormat.parse(parser.getText()).getTime();
+        } catch (ParseException e) {
+            throw new JsonParseException(parser, "Invalid date: " + parser.getText());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.services;
+
+import com.example.models.DiagramData;
+import com.example.models.Granularity;
+import com.example.models.Money;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * This class accumulates balances per period for DiagramService. A period (a day, week, month, quarter or year)
+ * is identified by its index (see Granularity), which is derived from a date with integer arithmetic only. The
+ * balances are kept in minor units in a dense array with one slot per period between the earliest and the
+ * latest period seen so far, so adding a transaction creates no object and the periods come out in
+ * chronological order without a sort pass.
+ * <p>
+ * An instance is used by a single thread. A parallel aggregation creates one instance per part of the payload
+ * and merges them with addAll.
+ */
+public final class PeriodBalances {
+
+    /**
+     * The largest number of periods between the earliest and the latest transaction (over a thousand years of
+     * days, ten thousand years of months).
+     */
+    private static final int MAX_PERIODS = 400_000;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final Granularity granularity;
+    private long[] balances = new long[0];
+    private boolean[] present = new boolean[0];
+    /**
+     * The period index of the first slot of the arrays
+     */
+    private int firstPeriod;
+    private boolean empty = true;
+
+    /**
+     * @param granularity The granularity of the periods, used to date the resulting DiagramData objects.
+     */
+    public PeriodBalances(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    /**
+     * This method adds an amount to the balance of a period.
+     *
+     * @param period     The period index.
+     * @param minorUnits The signed amount in minor units.
+     * @throws ArithmeticException      If the balance of the period overflows the range of a long.
+     * @throws IllegalArgumentException If the periods seen are more than MAX_PERIODS apart.
+     */
+    public void add(int period, long minorUnits) {
+        int slot = period - firstPeriod;
+        if (empty || slot < 0 || slot >= balances.length) {
+            slot = ensureSlot(period);
+        }
+        balances[slot] = Math.addExact(balances[slot], minorUnits);
+        present[slot] = true;
+    }
+
+    /**
+     * This method adds all balances of another instance with the same granularity to this one.
+     *
+     * @param other The balances to be added.
+     */
+    public void addAll(PeriodBalances other) {
+        for (int slot = 0; slot < other.balances.length; slot++) {
+            if (other.present[slot]) {
+                add(other.firstPeriod + slot, other.balances[slot]);
+            }
+        }
+    }
+
+    /**
+     * This method creates the chronological series of DiagramData for all periods that have received an amount.
+     * Each DiagramData object is dated on the first day of its period in the system default time zone.
+     *
+     * @return A sorted list of DiagramData objects.
+     */
+    public List<DiagramData> toDiagramData() {
+        List<DiagramData> result = new ArrayList<>();
+        ZoneId zone = ZoneId.systemDefault();
+        for (int slot = 0; slot < balances.length; slot++) {
+            if (present[slot]) {
+                DiagramData data = new DiagramData();
+                data.setDate(Date.from(granularity.startOfPeriod(firstPeriod + slot).atStartOfDay(zone).toInstant()));
+                data.setBalance(Money.toDouble(balances[slot]));
+                result.add(data);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method returns the date of a point in time in the given time zone.
+     *
+     * @param epochMilli The point in time in milliseconds since 1970-01-01T00:00Z.
+     * @param zone       The time zone in which the date is determined.
+     * @return The date in days since 1970-01-01.
+     */
+    public static long epochDayOf(long epochMilli, TimeZone zone) {
+        return Math.floorDiv(epochMilli + zone.getOffset(epochMilli), MILLIS_PER_DAY);
+    }
+
+    /**
+     * This private method grows the arrays so that they contain a slot for the given period. The capacity is
+     * at least doubled on every growth, so adding transactions in any order takes amortized constant time.
+     *
+     * @param period The period index that needs a slot.
+     * @return The slot of the period.
+     */
+    private int ensureSlot(int period) {
+        if (empty) {
+            empty = false;
+            firstPeriod = period;
+            balances = new long[INITIAL_CAPACITY];
+            present = new boolean[INITIAL_CAPACITY];
+            return 0;
+        }
+
+        long lastPeriod = Math.max((long) firstPeriod + balances.length - 1, period);
+        long span = lastPeriod - Math.min(firstPeriod, period) + 1;
+        if (span > MAX_PERIODS) {
+            throw new IllegalArgumentException("The transactions span more than " + MAX_PERIODS + " periods");
+        }
+        int capacity = (int) Math.min(MAX_PERIODS, Math.max(span, 2L * balances.length));
+        // growing downwards leaves the free slots before the earliest period, growing upwards after the latest
+        int newFirstPeriod = period < firstPeriod ? (int) (lastPeriod - capacity + 1) : firstPeriod;
+
+        long[] newBalances = new long[capacity];
+        boolean[] newPresent = new boolean[capacity];
+        System.arraycopy(balances, 0, newBalances, firstPeriod - newFirstPeriod, balances.length);
+        System.arraycopy(present, 0, newPresent, firstPeriod - newFirstPeriod, present.length);
+        balances = newBalances;
+        present = newPresent;
+        firstPeriod = newFirstPeriod;
+        return period - firstPeriod;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.services;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * This class aggregates the index range of a large input on a ForkJoinPool. The range is split in halves until
+ * a part is no larger than the leaf size; every part is aggregated sequentially and the partial results are
+ * merged pairwise, always the left part with the right part. The merge order therefore only depends on the
+ * size of the input, so the result is the same on every run.
+ *
+ * @param <T> The type of the partial results.
+ */
+final class RangeAggregationTask<T> extends RecursiveTask<T> {
+
+    /**
+     * The smallest number of elements aggregated by one task; smaller parts are not worth the scheduling.
+     */
+    static final int MIN_LEAF_SIZE = 4_096;
+    /**
+     * The number of parts per worker thread, so that workers finishing early can steal remaining parts.
+     */
+    private static final int PARTS_PER_THREAD = 4;
+
+    /**
+     * Sequential aggregation of the elements from (inclusive) to (exclusive).
+     */
+    @FunctionalInterface
+    interface Leaf<T> {
+        T aggregate(int from, int to);
+    }
+
+    private final Leaf<T> leaf;
+    private final BinaryOperator<T> merge;
+    private final int from;
+    private final int to;
+    private final int leafSize;
+
+    private RangeAggregationTask(Leaf<T> leaf, BinaryOperator<T> merge, int from, int to, int leafSize) {
+        this.leaf = leaf;
+        this.merge = merge;
+        this.from = from;
+        this.to = to;
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * This method aggregates the elements from 0 to size on the given pool and waits for the result.
+     *
+     * @param pool  The pool that executes the tasks.
+     * @param size  The number of elements.
+     * @param leaf  The sequential aggregation of a part.
+     * @param merge The merge of the results of two adjacent parts, the left one being the first argument.
+     * @return The aggregated result.
+     */
+    static <T> T invoke(ForkJoinPool pool, int size, Leaf<T> leaf, BinaryOperator<T> merge) {
+        int leafSize = Math.max(MIN_LEAF_SIZE, size / (pool.getParallelism() * PARTS_PER_THREAD));
+        return pool.invoke(new RangeAggregationTask<>(leaf, merge, 0, size, leafSize));
+    }
+
+    @Override
+    protected T compute() {
+        if (to - from <= leafSize) {
+            return leaf.aggregate(from, to);
+        }
+        int middle = (from + to) >>> 1;
+        RangeAggregationTask<T> right = new RangeAggregationTask<>(leaf, merge, middle, to, leafSize);
+        right.fork();
+        T left = new RangeAggregationTask<>(leaf, merge, from, middle, leafSize).compute();
+        return merge.apply(left, right.join());
+    }
+}
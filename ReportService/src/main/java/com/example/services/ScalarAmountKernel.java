@@ -0,0 +1,27 @@
+package com.example.services;
+
+/**
+ * This class sums signed amounts one by one. Every addition is checked for overflow, so it is also used for
+ * amounts whose sum might not fit into a long.
+ */
+final class ScalarAmountKernel implements AmountKernel {
+
+    static final ScalarAmountKernel INSTANCE = new ScalarAmountKernel();
+
+    private ScalarAmountKernel() {
+    }
+
+    /**
+     * @throws ArithmeticException If the sum overflows the range of a long.
+     */
+    @Override
+    public long sum(long[] amounts, byte[] incomeBitmap, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum = AmountKernel.isIncome(incomeBitmap, i)
+                    ? Math.addExact(sum, amounts[i])
+                    : Math.subtractExact(sum, amounts[i]);
+        }
+        return sum;
+    }
+}
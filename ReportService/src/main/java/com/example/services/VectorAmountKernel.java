@@ -0,0 +1,55 @@
+package com.example.services;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class sums signed amounts with the JDK Vector API: every step loads as many amounts as the preferred
+ * vector shape of the CPU holds, negates the lanes whose type bit is not set and adds them to per-lane
+ * accumulators. The additions are not checked for overflow, so the kernel must only be given amounts whose
+ * absolute values sum to at most Long.MAX_VALUE (see MovementAmounts).
+ * <p>
+ * This class links against the jdk.incubator.vector module and must only be loaded through AmountKernel.
+ */
+final class VectorAmountKernel implements AmountKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final long LANE_BITS = (1L << SPECIES.length()) - 1;
+
+    @Override
+    public long sum(long[] amounts, byte[] incomeBitmap, int from, int to) {
+        LongVector accumulator = LongVector.zero(SPECIES);
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            LongVector vector = LongVector.fromArray(SPECIES, amounts, i);
+            VectorMask<Long> expense = VectorMask.fromLong(SPECIES, laneBits(incomeBitmap, i)).not();
+            accumulator = accumulator.add(vector.lanewise(VectorOperators.NEG, expense));
+        }
+        long sum = accumulator.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += AmountKernel.isIncome(incomeBitmap, i) ? amounts[i] : -amounts[i];
+        }
+        return sum;
+    }
+
+    /**
+     * This private method reads the type bits of one vector of amounts from a type bitmap. The bits may start
+     * anywhere within a byte, as the parts of a parallel aggregation start at any position.
+     *
+     * @param incomeBitmap The type bitmap.
+     * @param index        The position of the first amount of the vector.
+     * @return The type bits of the amounts, the bit of the first amount being the least significant one.
+     */
+    private static long laneBits(byte[] incomeBitmap, int index) {
+        int first = index >>> 3;
+        int last = (index + SPECIES.length() - 1) >>> 3;
+        long bits = 0;
+        for (int b = last; b >= first; b--) {
+            bits = bits << 8 | (incomeBitmap[b] & 0xFF);
+        }
+        return bits >>> (index & 7) & LANE_BITS;
+    }
+}
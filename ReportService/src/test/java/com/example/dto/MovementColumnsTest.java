@@ -0,0 +1,76 @@
+package com.example.dto;
+
+import com.example.exception.InvalidPayloadException;
+import com.example.models.TypeMovement;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovementColumnsTest {
+
+    /**
+     * Encodes transactions in the columnar wire format, the way ExpenseIncomeAccountingService does.
+     */
+    public static byte[] encode(LocalDate[] dates, long[] amounts, TypeMovement[] types) {
+        return encode(dates, amounts, types, 2);
+    }
+
+    public static byte[] encode(LocalDate[] dates, long[] amounts, TypeMovement[] types, int scale) {
+        int size = dates.length;
+        ByteBuffer buffer = ByteBuffer.allocate(12 + size * 12 + (size + 7) / 8);
+        buffer.putInt(0x4D4D4331).putInt(size).putInt(scale);
+        for (LocalDate date : dates) {
+            buffer.putInt((int) date.toEpochDay());
+        }
+        for (long amount : amounts) {
+            buffer.putLong(amount);
+        }
+        byte[] bitmap = new byte[(size + 7) / 8];
+        for (int i = 0; i < size; i++) {
+            if (types[i] == TypeMovement.INCOME) {
+                bitmap[i / 8] |= (byte) (1 << (i % 8));
+            }
+        }
+        buffer.put(bitmap);
+        return buffer.array();
+    }
+
+    @Test
+    public void readDecodesAllColumns() throws IOException {
+        LocalDate[] dates = {LocalDate.of(2023, 1, 15), LocalDate.of(1969, 12, 31), LocalDate.of(2024, 2, 29),
+                LocalDate.of(2000, 3, 1), LocalDate.of(1900, 1, 1), LocalDate.of(2023, 12, 31),
+                LocalDate.of(2023, 6, 1), LocalDate.of(2023, 7, 1), LocalDate.of(2100, 2, 28)};
+        long[] amounts = {100, 200, 300, 400, 500, 600, 700, 800, 900};
+        TypeMovement[] types = new TypeMovement[dates.length];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = i % 3 == 0 ? TypeMovement.INCOME : TypeMovement.EXPENSE;
+        }
+
+        MovementColumns columns = MovementColumns.read(new ByteArrayInputStream(encode(dates, amounts, types)));
+
+        assertEquals(dates.length, columns.size());
+        assertEquals(2, columns.getScale());
+        for (int i = 0; i < dates.length; i++) {
+            assertEquals(dates[i].toEpochDay(), columns.getEpochDay(i));
+            assertEquals(amounts[i], columns.getAmount(i));
+            assertEquals(types[i] == TypeMovement.INCOME, columns.isIncome(i));
+        }
+    }
+
+    @Test
+    public void readRejectsInvalidPayload() {
+        byte[] truncated = encode(new LocalDate[]{LocalDate.of(2023, 1, 1)}, new long[]{1},
+                new TypeMovement[]{TypeMovement.INCOME});
+        byte[] content = new byte[truncated.length - 1];
+        System.arraycopy(truncated, 0, content, 0, content.length);
+
+        assertThrows(InvalidPayloadException.class,
+                () -> MovementColumns.read(new ByteArrayInputStream("[]".getBytes())));
+        assertThrows(InvalidPayloadException.class, () -> MovementColumns.read(new ByteArrayInputStream(content)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GranularityTest {
+
+    private static int monthIndex(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    @Test
+    public void monthOfEpochDayMatchesLocalDate() {
+        for (long epochDay = LocalDate.of(1600, 1, 1).toEpochDay();
+             epochDay <= LocalDate.of(2400, 12, 31).toEpochDay(); epochDay += 7) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            assertEquals(monthIndex(date), Granularity.monthOfEpochDay(epochDay), date.toString());
+        }
+        assertEquals(monthIndex(LocalDate.of(2024, 2, 29)),
+                Granularity.monthOfEpochDay(LocalDate.of(2024, 2, 29).toEpochDay()));
+    }
+
+    @Test
+    public void periodsMatchLocalDate() {
+        for (long epochDay = LocalDate.of(1900, 1, 1).toEpochDay();
+             epochDay <= LocalDate.of(2100, 12, 31).toEpochDay(); epochDay += 3) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            for (Granularity granularity : Granularity.values()) {
+                LocalDate start = granularity.startOfPeriod(granularity.periodOfEpochDay(epochDay));
+                LocalDate expected = switch (granularity) {
+                    case DAY -> date;
+                    case WEEK -> date.with(DayOfWeek.MONDAY);
+                    case MONTH -> date.withDayOfMonth(1);
+                    case QUARTER -> date.with(IsoFields.DAY_OF_QUARTER, 1);
+                    case YEAR -> date.withDayOfYear(1);
+                };
+                assertEquals(expected, start, granularity + " " + date);
+            }
+        }
+    }
+
+    @Test
+    public void consecutivePeriodsHaveConsecutiveIndexes() {
+        assertEquals(Granularity.WEEK.periodOfEpochDay(LocalDate.of(2023, 12, 31).toEpochDay()) + 1,
+                Granularity.WEEK.periodOfEpochDay(LocalDate.of(2024, 1, 1).toEpochDay()));
+        assertEquals(Granularity.QUARTER.periodOfEpochDay(LocalDate.of(2023, 12, 31).toEpochDay()) + 1,
+                Granularity.QUARTER.periodOfEpochDay(LocalDate.of(2024, 1, 1).toEpochDay()));
+        assertEquals(Granularity.YEAR.periodOfEpochDay(LocalDate.of(1969, 12, 31).toEpochDay()) + 1,
+                Granularity.YEAR.periodOfEpochDay(0));
+    }
+
+    @Test
+    public void parseIgnoresCase() {
+        assertEquals(Granularity.WEEK, Granularity.parse("week"));
+        assertEquals(Granularity.QUARTER, Granularity.parse(" Quarter "));
+        assertThrows(IllegalArgumentException.class, () -> Granularity.parse("fortnight"));
+    }
+
+    @Test
+    public void diagramQueryRejectsInvertedRange() {
+        LocalDate day = LocalDate.of(2023, 5, 1);
+
+        assertTrue(DiagramQuery.of(day, day, Granularity.DAY).contains(day.toEpochDay()));
+        assertFalse(DiagramQuery.of(day, null, Granularity.DAY).contains(day.toEpochDay() - 1));
+        assertTrue(DiagramQuery.of(null, null, Granularity.DAY).contains(Long.MIN_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> DiagramQuery.of(day.plusDays(1), day, Granularity.DAY));
+    }
+}
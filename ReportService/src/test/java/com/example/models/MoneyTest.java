@@ -0,0 +1,83 @@
+package com.example.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    private static long parse(String text) {
+        return Money.parseMinorUnits(text.toCharArray(), 0, text.length());
+    }
+
+    @Test
+    public void toMinorUnits() {
+        assertEquals(29, Money.toMinorUnits(0.29));
+        assertEquals(25555, Money.toMinorUnits(255.55));
+        assertEquals(-5555, Money.toMinorUnits(-55.55));
+        assertEquals(13, Money.toMinorUnits(0.125));
+        assertEquals(-13, Money.toMinorUnits(-0.125));
+        assertEquals(0, Money.toMinorUnits(0.0));
+    }
+
+    @Test
+    public void toMinorUnitsRoundsDecimalRepresentation() {
+        assertEquals(29, Money.toMinorUnits(0.285));
+        assertEquals(-29, Money.toMinorUnits(-0.285));
+        assertEquals(101, Money.toMinorUnits(1.005));
+        assertEquals(268, Money.toMinorUnits(2.675));
+        assertEquals(28, Money.toMinorUnits(0.2849));
+        for (int cents = 0; cents < 100_000; cents++) {
+            double amount = (cents + 0.5) / 100;
+            assertEquals(parse(Double.toString(amount)), Money.toMinorUnits(amount));
+        }
+    }
+
+    @Test
+    public void toMinorUnitsOutOfRange() {
+        assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(1e17));
+        assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(Double.NaN));
+        assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void parseMinorUnits() {
+        assertEquals(10000, parse("100"));
+        assertEquals(10000, parse("100.0"));
+        assertEquals(25555, parse("255.55"));
+        assertEquals(-5550, parse("-55.5"));
+        assertEquals(50, parse(".5"));
+        assertEquals(13, parse("0.125"));
+        assertEquals(12, parse("0.1249"));
+        assertEquals(150000, parse("1.5e3"));
+        assertEquals(7, Money.parseMinorUnits("xx0.07yy".toCharArray(), 2, 4));
+    }
+
+    @Test
+    public void parseMinorUnitsInvalid() {
+        assertThrows(NumberFormatException.class, () -> parse(""));
+        assertThrows(NumberFormatException.class, () -> parse("-"));
+        assertThrows(NumberFormatException.class, () -> parse("1.2.3"));
+        assertThrows(NumberFormatException.class, () -> parse("abc"));
+        assertThrows(ArithmeticException.class, () -> parse("92233720368547758.08"));
+    }
+
+    @Test
+    public void sumIsExact() {
+        long sum = Money.toMinorUnits(0.1) + Money.toMinorUnits(0.2);
+
+        assertEquals(0.3, Money.toDouble(sum));
+        assertEquals(-0.3, Money.toDouble(Money.signed(sum, TypeMovement.EXPENSE)));
+        assertEquals(1.5, Money.toDouble(15, 1));
+    }
+
+    @Test
+    public void rescale() {
+        assertEquals(12345, Money.rescale(12345, 2));
+        assertEquals(12300, Money.rescale(123, 0));
+        assertEquals(1235, Money.rescale(12345, 3));
+        assertEquals(-1235, Money.rescale(-12345, 3));
+        assertEquals(1234, Money.rescale(123449, 4));
+        assertThrows(ArithmeticException.class, () -> Money.rescale(Long.MAX_VALUE, 0));
+    }
+}
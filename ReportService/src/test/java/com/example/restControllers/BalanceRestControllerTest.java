@@ -5,9 +5,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.mockito.Mockito.*;
 import static org.hamcrest.Matchers.*;
 
+import com.example.dto.MovementColumns;
+import com.example.dto.MovementColumnsTest;
 import com.example.dto.MovementMoneyDTO;
+import com.example.models.TypeMovement;
 import com.example.services.BalanceService;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -18,9 +22,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(BalanceRestController.class)
@@ -47,7 +54,7 @@ public class BalanceRestControllerTest {
         List<MovementMoneyDTO> moneyDTOList = Arrays.asList(dto1, dto1);
         double expectedBalance = 100.0;
 
-        when(balanceService.calculateBalance(anyList())).thenReturn(expectedBalance);
+        when(balanceService.calculateBalanceFromJson(Mockito.any(InputStream.class))).thenReturn(expectedBalance);
 
         mockMvc.perform(post("/api/v1/balance")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -61,7 +68,7 @@ public class BalanceRestControllerTest {
 
         List<MovementMoneyDTO> emptyList = Collections.emptyList();
 
-        when(balanceService.calculateBalance(emptyList)).thenReturn(0.0);
+        when(balanceService.calculateBalanceFromJson(Mockito.any(InputStream.class))).thenReturn(0.0);
 
         mockMvc.perform(post("/api/v1/balance")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -75,6 +82,10 @@ public class BalanceRestControllerTest {
 
         String invalidContent = "invalid data";
 
+        when(balanceService.calculateBalanceFromJson(Mockito.any(InputStream.class))).thenAnswer(
+                invocation -> new BalanceService(ForkJoinPool.commonPool())
+                        .calculateBalanceFromJson(invocation.getArgument(0)));
+
         mockMvc.perform(post("/api/v1/balance")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(invalidContent))
@@ -87,7 +98,7 @@ public class BalanceRestControllerTest {
         MovementMoneyDTO dto = new MovementMoneyDTO();
         List<MovementMoneyDTO> moneyDTOList = List.of(dto);
 
-        when(balanceService.calculateBalance(anyList())).thenThrow(new RuntimeException());
+        when(balanceService.calculateBalanceFromJson(Mockito.any(InputStream.class))).thenThrow(new RuntimeException());
 
         mockMvc.perform(post("/api/v1/balance")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -95,4 +106,26 @@ public class BalanceRestControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    public void testGetBalanceFromColumns() throws Exception {
+        byte[] content = MovementColumnsTest.encode(new LocalDate[]{LocalDate.of(2023, 1, 1)}, new long[]{10000},
+                new TypeMovement[]{TypeMovement.INCOME});
+
+        when(balanceService.calculateBalanceFromColumns(Mockito.any(MovementColumns.class))).thenReturn(100.0);
+
+        mockMvc.perform(post("/api/v1/balance")
+                        .contentType(MovementColumns.MEDIA_TYPE_VALUE)
+                        .content(content))
+                .andExpect(status().isOk())
+                .andExpect(content().string("100.0"));
+        verify(balanceService, never()).calculateBalanceFromJson(Mockito.any(InputStream.class));
+    }
+
+    @Test
+    public void testGetBalanceFromInvalidColumns() throws Exception {
+        mockMvc.perform(post("/api/v1/balance")
+                        .contentType(MovementColumns.MEDIA_TYPE_VALUE)
+                        .content(new byte[]{1, 2, 3}))
+                .andExpect(status().isBadRequest());
+    }
 }
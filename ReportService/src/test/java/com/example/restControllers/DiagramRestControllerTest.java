@@ -1,11 +1,17 @@
 package com.example.restControllers;
 
+import com.example.dto.MovementColumns;
+import com.example.dto.MovementColumnsTest;
 import com.example.dto.MovementMoneyDTO;
 import com.example.models.DiagramData;
+import com.example.models.DiagramQuery;
+import com.example.models.Granularity;
+import com.example.models.TypeMovement;
 import com.example.services.DiagramService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -13,12 +19,20 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
-import static org.mockito.ArgumentMatchers.anyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -46,7 +60,8 @@ public class DiagramRestControllerTest {
         List<DiagramData> diagramDataList = new ArrayList<>();
         List<DiagramData> expectedDataList = new ArrayList<>();
 
-        when(diagramService.getDataDiagram(anyList())).thenReturn(expectedDataList);
+        when(diagramService.getDataDiagramFromJson(any(InputStream.class), any(DiagramQuery.class)))
+                .thenReturn(expectedDataList);
 
         mockMvc.perform(post("/api/v1/diagram")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -60,7 +75,8 @@ public class DiagramRestControllerTest {
 
         List<MovementMoneyDTO> emptyList = Collections.emptyList();
 
-        when(diagramService.getDataDiagram(emptyList)).thenReturn(Collections.emptyList());
+        when(diagramService.getDataDiagramFromJson(any(InputStream.class), any(DiagramQuery.class)))
+                .thenReturn(Collections.emptyList());
 
         mockMvc.perform(post("/api/v1/diagram")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -74,6 +90,10 @@ public class DiagramRestControllerTest {
 
         String invalidContent = "invalid data";
 
+        when(diagramService.getDataDiagramFromJson(any(InputStream.class), any(DiagramQuery.class))).thenAnswer(
+                invocation -> new DiagramService(ForkJoinPool.commonPool())
+                        .getDataDiagramFromJson(invocation.getArgument(0), invocation.getArgument(1)));
+
         mockMvc.perform(post("/api/v1/diagram")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(invalidContent))
@@ -86,11 +106,75 @@ public class DiagramRestControllerTest {
         MovementMoneyDTO dto = new MovementMoneyDTO();
         List<MovementMoneyDTO> moneyDTOList = List.of(dto);
 
-        when(diagramService.getDataDiagram(anyList())).thenThrow(new RuntimeException());
+        when(diagramService.getDataDiagramFromJson(any(InputStream.class), any(DiagramQuery.class)))
+                .thenThrow(new RuntimeException());
 
         mockMvc.perform(post("/api/v1/diagram")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(moneyDTOList)))
                 .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    public void testGetReportDiagramFromColumns() throws Exception {
+        byte[] content = MovementColumnsTest.encode(new LocalDate[]{LocalDate.of(2023, 1, 1)}, new long[]{10000},
+                new TypeMovement[]{TypeMovement.INCOME});
+        DiagramData diagramData = new DiagramData();
+        diagramData.setBalance(100.0);
+        List<DiagramData> expectedDataList = List.of(diagramData);
+
+        when(diagramService.getDataDiagramFromColumns(any(MovementColumns.class), any(DiagramQuery.class)))
+                .thenReturn(expectedDataList);
+
+        mockMvc.perform(post("/api/v1/diagram")
+                        .contentType(MovementColumns.MEDIA_TYPE_VALUE)
+                        .content(content))
+                .andExpect(status().isOk())
+                .andExpect(content().json(asJsonString(expectedDataList)));
+        verify(diagramService, never()).getDataDiagramFromJson(any(InputStream.class), any(DiagramQuery.class));
+    }
+
+    @Test
+    public void testGetReportDiagramWithRangeAndGranularity() throws Exception {
+
+        when(diagramService.getDataDiagramFromJson(any(InputStream.class), any(DiagramQuery.class)))
+                .thenReturn(Collections.emptyList());
+
+        mockMvc.perform(post("/api/v1/diagram")
+                        .param("from", "2023-01-01")
+                        .param("to", "2023-03-31")
+                        .param("granularity", "week")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<DiagramQuery> query = ArgumentCaptor.forClass(DiagramQuery.class);
+        verify(diagramService).getDataDiagramFromJson(any(InputStream.class), query.capture());
+        assertEquals(Granularity.WEEK, query.getValue().getGranularity());
+        assertTrue(query.getValue().contains(LocalDate.of(2023, 1, 1).toEpochDay()));
+        assertTrue(query.getValue().contains(LocalDate.of(2023, 3, 31).toEpochDay()));
+        assertFalse(query.getValue().contains(LocalDate.of(2023, 4, 1).toEpochDay()));
+    }
+
+    @Test
+    public void testGetReportDiagramWithInvalidGranularity() throws Exception {
+
+        mockMvc.perform(post("/api/v1/diagram")
+                        .param("granularity", "fortnight")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+        verify(diagramService, never()).getDataDiagramFromJson(any(InputStream.class), any(DiagramQuery.class));
+    }
+
+    @Test
+    public void testGetReportDiagramWithInvertedRange() throws Exception {
+
+        mockMvc.perform(post("/api/v1/diagram")
+                        .param("from", "2023-02-01")
+                        .param("to", "2023-01-01")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
 }
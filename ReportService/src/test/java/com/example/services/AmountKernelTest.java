@@ -0,0 +1,78 @@
+package com.example.services;
+
+import com.example.models.Granularity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AmountKernelTest {
+
+    private static final int SIZE = 10_000;
+
+    private final long[] amounts = new long[SIZE];
+    private final boolean[] income = new boolean[SIZE];
+    private final byte[] incomeBitmap = new byte[(SIZE + 7) / 8];
+    private final int[] months = new int[SIZE];
+
+    public AmountKernelTest() {
+        Random random = new Random(11);
+        int month = 24_000;
+        for (int i = 0; i < SIZE; i++) {
+            amounts[i] = random.nextInt(1_000_000);
+            income[i] = random.nextBoolean();
+            if (income[i]) {
+                incomeBitmap[i / 8] |= (byte) (1 << (i % 8));
+            }
+            if (random.nextInt(50) == 0) {
+                month += 1 + random.nextInt(3);
+            }
+            months[i] = random.nextInt(20) == 0 ? month - 5 : month;
+        }
+    }
+
+    @Test
+    public void vectorKernelIsUsedWhenModuleIsPresent() {
+        boolean modulePresent = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        assertEquals(modulePresent, AmountKernel.FASTEST instanceof VectorAmountKernel);
+    }
+
+    @Test
+    public void sumMatchesScalarKernel() {
+        for (int[] range : List.of(new int[]{0, SIZE}, new int[]{0, 0}, new int[]{3, 4}, new int[]{1, 14},
+                new int[]{7, SIZE - 5}, new int[]{4_099, 8_190})) {
+            long expected = 0;
+            for (int i = range[0]; i < range[1]; i++) {
+                expected += income[i] ? amounts[i] : -amounts[i];
+            }
+            assertEquals(expected, ScalarAmountKernel.INSTANCE.sum(amounts, incomeBitmap, range[0], range[1]));
+            assertEquals(expected, AmountKernel.FASTEST.sum(amounts, incomeBitmap, range[0], range[1]));
+        }
+    }
+
+    @Test
+    public void sumByPeriodMatchesScalarKernel() {
+        PeriodBalances expected = new PeriodBalances(Granularity.MONTH);
+        for (int i = 0; i < SIZE; i++) {
+            expected.add(months[i], income[i] ? amounts[i] : -amounts[i]);
+        }
+        PeriodBalances scalar = new PeriodBalances(Granularity.MONTH);
+        ScalarAmountKernel.INSTANCE.sumByPeriod(months, amounts, incomeBitmap, 0, SIZE, scalar);
+        PeriodBalances fastest = new PeriodBalances(Granularity.MONTH);
+        AmountKernel.FASTEST.sumByPeriod(months, amounts, incomeBitmap, 0, SIZE, fastest);
+
+        assertEquals(expected.toDiagramData(), scalar.toDiagramData());
+        assertEquals(expected.toDiagramData(), fastest.toDiagramData());
+    }
+
+    @Test
+    public void scalarKernelDetectsOverflow() {
+        long[] large = {Long.MAX_VALUE, 1};
+        byte[] types = {0b11};
+
+        assertThrows(ArithmeticException.class, () -> ScalarAmountKernel.INSTANCE.sum(large, types, 0, 2));
+    }
+}
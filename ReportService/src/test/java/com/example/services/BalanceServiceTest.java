@@ -1,17 +1,38 @@
 package com.example.services;
 
+import com.example.dto.MovementColumns;
+import com.example.dto.MovementColumnsTest;
 import com.example.dto.MovementMoneyDTO;
 import com.example.models.TypeMovement;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class BalanceServiceTest {
-    private final BalanceService balanceService = new BalanceService();
+    private static final ForkJoinPool aggregationPool = new ForkJoinPool(4);
+    private final BalanceService balanceService = new BalanceService(aggregationPool);
+
+    @AfterAll
+    public static void shutdownPool() {
+        aggregationPool.shutdown();
+    }
 
     @Test
     public void calculateBalanceNull() {
@@ -74,4 +95,147 @@ public class BalanceServiceTest {
 
         assertEquals(200.0, balanceService.calculateBalance(moneyDTOList));
     }
+
+    private static InputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void calculateBalanceFromJsonEmpty() throws IOException {
+        assertEquals(0.0, balanceService.calculateBalanceFromJson(json("[]")));
+    }
+
+    @Test
+    public void calculateBalanceFromJsonMixedTypes() throws IOException {
+        String content = """
+                [
+                  {"login": "user123", "description": "salary", "amount": 255.55, "date": 1672531200000,
+                   "type": "INCOME", "user": {"id": 1, "login": "user123"}},
+                  null,
+                  {"amount": "55.55", "type": "EXPENSE", "date": "2023-01-05"},
+                  {"amount": 10, "type": null}
+                ]
+                """;
+
+        assertEquals(190.0, balanceService.calculateBalanceFromJson(json(content)));
+    }
+
+    @Test
+    public void calculateBalanceFromJsonInvalid() {
+        assertThrows(IOException.class, () -> balanceService.calculateBalanceFromJson(json("invalid data")));
+        assertThrows(IOException.class, () -> balanceService.calculateBalanceFromJson(json("{\"amount\": 1}")));
+        assertThrows(IOException.class,
+                () -> balanceService.calculateBalanceFromJson(json("[{\"type\": \"INCOME\"}]")));
+        assertThrows(IOException.class,
+                () -> balanceService.calculateBalanceFromJson(json("[{\"amount\": 1, \"type\": \"GIFT\"}]")));
+    }
+
+    @Test
+    public void calculateBalanceFromColumns() throws IOException {
+        byte[] content = MovementColumnsTest.encode(
+                new LocalDate[]{LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 2), LocalDate.of(2023, 2, 1)},
+                new long[]{25555, 5555, 10},
+                new TypeMovement[]{TypeMovement.INCOME, TypeMovement.EXPENSE, TypeMovement.EXPENSE});
+
+        MovementColumns columns = MovementColumns.read(new ByteArrayInputStream(content));
+
+        assertEquals(199.9, balanceService.calculateBalanceFromColumns(columns));
+    }
+
+    @Test
+    public void calculateBalanceIsExact() throws IOException {
+        List<MovementMoneyDTO> moneyDTOList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            MovementMoneyDTO income = new MovementMoneyDTO();
+            income.setAmount(0.1);
+            income.setType(TypeMovement.INCOME);
+            moneyDTOList.add(income);
+        }
+        String content = "[" + String.join(",", Collections.nCopies(10, "{\"amount\": 0.1, \"type\": \"INCOME\"}"))
+                + "]";
+
+        assertEquals(1.0, balanceService.calculateBalance(moneyDTOList));
+        assertEquals(1.0, balanceService.calculateBalanceFromJson(json(content)));
+    }
+
+    @Test
+    public void calculateBalanceOverflow() {
+        String content = "[{\"amount\": 50000000000000000, \"type\": \"INCOME\"},"
+                + " {\"amount\": 50000000000000000, \"type\": \"INCOME\"}]";
+
+        assertThrows(IOException.class,
+                () -> balanceService.calculateBalanceFromJson(json("[{\"amount\": 1e300, \"type\": \"INCOME\"}]")));
+        assertThrows(ArithmeticException.class, () -> balanceService.calculateBalanceFromJson(json(content)));
+    }
+
+    @Test
+    public void calculateBalanceParallelMatchesSequential() throws IOException {
+        int size = 100_000;
+        LocalDate[] dates = new LocalDate[size];
+        long[] amounts = new long[size];
+        TypeMovement[] types = new TypeMovement[size];
+        long expected = 0;
+        for (int i = 0; i < size; i++) {
+            dates[i] = LocalDate.of(2023, 1, 1);
+            amounts[i] = i % 1000 + 1;
+            types[i] = i % 3 == 0 ? TypeMovement.INCOME : TypeMovement.EXPENSE;
+            expected += types[i] == TypeMovement.INCOME ? amounts[i] : -amounts[i];
+        }
+        MovementColumns columns =
+                MovementColumns.read(new ByteArrayInputStream(MovementColumnsTest.encode(dates, amounts, types)));
+
+        ReflectionTestUtils.setField(balanceService, "parallelThreshold", Integer.MAX_VALUE);
+        double sequential = balanceService.calculateBalanceFromColumns(columns);
+        ReflectionTestUtils.setField(balanceService, "parallelThreshold", 1);
+
+        assertEquals(expected / 100.0, sequential);
+        assertEquals(sequential, balanceService.calculateBalanceFromColumns(columns));
+    }
+
+    @Test
+    public void calculateBalanceParallelOverflow() throws IOException {
+        int size = 20_000;
+        LocalDate[] dates = new LocalDate[size];
+        long[] amounts = new long[size];
+        TypeMovement[] types = new TypeMovement[size];
+        for (int i = 0; i < size; i++) {
+            dates[i] = LocalDate.of(2023, 1, 1);
+            amounts[i] = 100_000_000_000_000_000L;
+            types[i] = TypeMovement.INCOME;
+        }
+        MovementColumns columns =
+                MovementColumns.read(new ByteArrayInputStream(MovementColumnsTest.encode(dates, amounts, types)));
+        ReflectionTestUtils.setField(balanceService, "parallelThreshold", 1);
+
+        assertThrows(ArithmeticException.class, () -> balanceService.calculateBalanceFromColumns(columns));
+    }
+
+    @Test
+    public void calculateBalanceFromColumnsOverflow() throws IOException {
+        LocalDate date = LocalDate.of(2023, 1, 1);
+        byte[] content = MovementColumnsTest.encode(new LocalDate[]{date, date, date},
+                new long[]{Long.MAX_VALUE / 2, Long.MAX_VALUE / 2, 2},
+                new TypeMovement[]{TypeMovement.INCOME, TypeMovement.INCOME, TypeMovement.INCOME});
+
+        MovementColumns columns = MovementColumns.read(new ByteArrayInputStream(content));
+
+        assertThrows(ArithmeticException.class, () -> balanceService.calculateBalanceFromColumns(columns));
+    }
+
+    @Test
+    public void calculateBalanceMatchesReference() {
+        Random random = new Random(3);
+        List<MovementMoneyDTO> moneyDTOList = new ArrayList<>();
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < 10_001; i++) {
+            MovementMoneyDTO dto = new MovementMoneyDTO();
+            dto.setAmount(random.nextInt(10_000_000) / 100.0);
+            dto.setType(random.nextBoolean() ? TypeMovement.INCOME : TypeMovement.EXPENSE);
+            moneyDTOList.add(dto);
+            BigDecimal amount = BigDecimal.valueOf(dto.getAmount()).setScale(2, RoundingMode.HALF_UP);
+            expected = dto.getType() == TypeMovement.INCOME ? expected.add(amount) : expected.subtract(amount);
+        }
+
+        assertEquals(expected.doubleValue(), balanceService.calculateBalance(moneyDTOList));
+    }
 }
@@ -1,18 +1,38 @@
 package com.example.services;
 
+import com.example.dto.MovementColumns;
+import com.example.dto.MovementColumnsTest;
 import com.example.dto.MovementMoneyDTO;
 import com.example.models.DiagramData;
+import com.example.models.DiagramQuery;
+import com.example.models.Granularity;
 import com.example.models.TypeMovement;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.text.ParseException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class DiagramServiceTest {
-    private final DiagramService diagramService = new DiagramService();
+    private static final ForkJoinPool aggregationPool = new ForkJoinPool(4);
+    private final DiagramService diagramService = new DiagramService(aggregationPool);
+
+    @AfterAll
+    public static void shutdownPool() {
+        aggregationPool.shutdown();
+    }
 
     @Test
     public void getDataDiagramListIsNull() {
@@ -224,4 +244,218 @@ public class DiagramServiceTest {
         assertTrue(uniqueMonths.size() <= 12);
         assertEquals(result.size(), uniqueMonths.size());
     }
+
+    @Test
+    public void getDataDiagramFromJsonMatchesList() throws Exception {
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+        List<MovementMoneyDTO> moneyDTOList = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            MovementMoneyDTO dto = new MovementMoneyDTO();
+            dto.setDate(formatter.parse(String.format("%d-%02d-%02d",
+                    2021 + random.nextInt(3), 1 + random.nextInt(12), 1 + random.nextInt(28))));
+            dto.setAmount(random.nextInt(100000) / 100.0);
+            dto.setType(random.nextBoolean() ? TypeMovement.INCOME : TypeMovement.EXPENSE);
+            moneyDTOList.add(dto);
+        }
+        byte[] content = new ObjectMapper().writeValueAsBytes(moneyDTOList);
+
+        List<DiagramData> result = diagramService.getDataDiagramFromJson(new ByteArrayInputStream(content));
+
+        assertEquals(diagramService.getDataDiagram(moneyDTOList), result);
+    }
+
+    @Test
+    public void getDataDiagramFromJsonWithoutDate() {
+        byte[] content = "[{\"amount\": 1, \"type\": \"INCOME\"}]".getBytes();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> diagramService.getDataDiagramFromJson(new ByteArrayInputStream(content)));
+    }
+
+    @Test
+    public void getDataDiagramFromJsonInvalid() {
+        byte[] content = "[{\"amount\": 1, \"date\": ".getBytes();
+
+        assertThrows(IOException.class,
+                () -> diagramService.getDataDiagramFromJson(new ByteArrayInputStream(content)));
+    }
+
+    @Test
+    public void getDataDiagramFromColumnsMatchesList() throws Exception {
+        int size = 500;
+        LocalDate[] dates = new LocalDate[size];
+        long[] amounts = new long[size];
+        TypeMovement[] types = new TypeMovement[size];
+        List<MovementMoneyDTO> moneyDTOList = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < size; i++) {
+            dates[i] = LocalDate.of(2020 + random.nextInt(4), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            amounts[i] = random.nextInt(100000);
+            types[i] = random.nextBoolean() ? TypeMovement.INCOME : TypeMovement.EXPENSE;
+
+            MovementMoneyDTO dto = new MovementMoneyDTO();
+            dto.setDate(Date.from(dates[i].atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            dto.setAmount(amounts[i] / 100.0);
+            dto.setType(types[i]);
+            moneyDTOList.add(dto);
+        }
+        MovementColumns columns =
+                MovementColumns.read(new ByteArrayInputStream(MovementColumnsTest.encode(dates, amounts, types)));
+
+        assertEquals(diagramService.getDataDiagram(moneyDTOList), diagramService.getDataDiagramFromColumns(columns));
+    }
+
+    @Test
+    public void getDataDiagramParallelMatchesSequential() throws IOException {
+        int size = 100_000;
+        List<MovementMoneyDTO> moneyDTOList = new ArrayList<>();
+        LocalDate[] dates = new LocalDate[size];
+        long[] amounts = new long[size];
+        TypeMovement[] types = new TypeMovement[size];
+        for (int i = 0; i < size; i++) {
+            dates[i] = LocalDate.of(2015, 1, 1).plusDays((i * 7919L) % 3000);
+            amounts[i] = i % 1000 + 1;
+            types[i] = i % 3 == 0 ? TypeMovement.INCOME : TypeMovement.EXPENSE;
+            MovementMoneyDTO dto = new MovementMoneyDTO();
+            dto.setDate(Date.from(dates[i].atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            dto.setAmount(amounts[i] / 100.0);
+            dto.setType(types[i]);
+            moneyDTOList.add(dto);
+        }
+        MovementColumns columns =
+                MovementColumns.read(new ByteArrayInputStream(MovementColumnsTest.encode(dates, amounts, types)));
+
+        ReflectionTestUtils.setField(diagramService, "parallelThreshold", Integer.MAX_VALUE);
+        List<DiagramData> sequential = diagramService.getDataDiagramFromColumns(columns);
+        ReflectionTestUtils.setField(diagramService, "parallelThreshold", 1);
+
+        assertEquals(diagramService.getDataDiagram(moneyDTOList), sequential);
+        assertEquals(sequential, diagramService.getDataDiagramFromColumns(columns));
+    }
+
+    @Test
+    public void getDataDiagramWithRangeAndQuarters() throws ParseException {
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+        List<MovementMoneyDTO> moneyDTOList = new ArrayList<>();
+        for (String[] row : new String[][]{{"2022-12-31", "1000"}, {"2023-01-01", "10"}, {"2023-03-31", "20"},
+                {"2023-04-01", "30"}, {"2023-09-30", "-5"}, {"2023-10-01", "40"}, {"2023-12-31", "500"}}) {
+            MovementMoneyDTO dto = new MovementMoneyDTO();
+            dto.setDate(formatter.parse(row[0]));
+            dto.setAmount(Double.parseDouble(row[1]));
+            dto.setType(TypeMovement.INCOME);
+            moneyDTOList.add(dto);
+        }
+        DiagramQuery query = DiagramQuery.of(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 10, 1), Granularity.QUARTER);
+
+        List<DiagramData> result = diagramService.getDataDiagram(moneyDTOList, query);
+
+        assertEquals(4, result.size());
+        assertEquals(formatter.parse("2023-01-01"), result.get(0).getDate());
+        assertEquals(30.0, result.get(0).getBalance());
+        assertEquals(formatter.parse("2023-04-01"), result.get(1).getDate());
+        assertEquals(30.0, result.get(1).getBalance());
+        assertEquals(formatter.parse("2023-07-01"), result.get(2).getDate());
+        assertEquals(-5.0, result.get(2).getBalance());
+        assertEquals(formatter.parse("2023-10-01"), result.get(3).getDate());
+        assertEquals(40.0, result.get(3).getBalance());
+    }
+
+    @Test
+    public void getDataDiagramWithQueryMatchesForAllFormats() throws Exception {
+        int size = 2_000;
+        LocalDate[] dates = new LocalDate[size];
+        long[] amounts = new long[size];
+        TypeMovement[] types = new TypeMovement[size];
+        List<MovementMoneyDTO> moneyDTOList = new ArrayList<>();
+        Random random = new Random(15);
+        for (int i = 0; i < size; i++) {
+            dates[i] = LocalDate.of(2019, 1, 1).plusDays(random.nextInt(2_000));
+            amounts[i] = random.nextInt(100000);
+            types[i] = random.nextBoolean() ? TypeMovement.INCOME : TypeMovement.EXPENSE;
+
+            MovementMoneyDTO dto = new MovementMoneyDTO();
+            dto.setDate(Date.from(dates[i].atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            dto.setAmount(amounts[i] / 100.0);
+            dto.setType(types[i]);
+            moneyDTOList.add(dto);
+        }
+        byte[] json = new ObjectMapper().writeValueAsBytes(moneyDTOList);
+        byte[] columns = MovementColumnsTest.encode(dates, amounts, types);
+
+        for (Granularity granularity : Granularity.values()) {
+            DiagramQuery query = DiagramQuery.of(LocalDate.of(2020, 2, 29), LocalDate.of(2022, 7, 3), granularity);
+            List<DiagramData> expected = expectedDiagram(dates, amounts, types, query, granularity);
+
+            assertEquals(expected, diagramService.getDataDiagram(moneyDTOList, query), granularity.name());
+            assertEquals(expected, diagramService.getDataDiagramFromJson(new ByteArrayInputStream(json), query));
+            assertEquals(expected, diagramService.getDataDiagramFromColumns(
+                    MovementColumns.read(new ByteArrayInputStream(columns)), query));
+        }
+    }
+
+    @Test
+    public void getDataDiagramFromOrderedColumnsMatchesReference() throws IOException {
+        int size = 20_000;
+        LocalDate[] dates = new LocalDate[size];
+        long[] amounts = new long[size];
+        TypeMovement[] types = new TypeMovement[size];
+        Random random = new Random(21);
+        for (int i = 0; i < size; i++) {
+            dates[i] = LocalDate.of(2019, 1, 1).plusDays(i / 10);
+            amounts[i] = random.nextInt(100000);
+            types[i] = random.nextBoolean() ? TypeMovement.INCOME : TypeMovement.EXPENSE;
+        }
+        MovementColumns columns =
+                MovementColumns.read(new ByteArrayInputStream(MovementColumnsTest.encode(dates, amounts, types)));
+
+        for (Granularity granularity : Granularity.values()) {
+            DiagramQuery query = DiagramQuery.of(LocalDate.of(2019, 3, 17), LocalDate.of(2023, 2, 1), granularity);
+            List<DiagramData> expected = expectedDiagram(dates, amounts, types, query, granularity);
+
+            ReflectionTestUtils.setField(diagramService, "parallelThreshold", Integer.MAX_VALUE);
+            assertEquals(expected, diagramService.getDataDiagramFromColumns(columns, query), granularity.name());
+            ReflectionTestUtils.setField(diagramService, "parallelThreshold", 1);
+            assertEquals(expected, diagramService.getDataDiagramFromColumns(columns, query), granularity.name());
+        }
+    }
+
+    @Test
+    public void getDataDiagramFromColumnsRoundsEveryAmountOfFinerScale() throws IOException {
+        LocalDate[] dates = {LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 2), LocalDate.of(2023, 1, 3)};
+        long[] amounts = {1005, 1005, 2004};
+        TypeMovement[] types = {TypeMovement.INCOME, TypeMovement.INCOME, TypeMovement.EXPENSE};
+        MovementColumns columns =
+                MovementColumns.read(new ByteArrayInputStream(MovementColumnsTest.encode(dates, amounts, types, 3)));
+
+        List<DiagramData> result = diagramService.getDataDiagramFromColumns(columns);
+
+        assertEquals(1, result.size());
+        assertEquals(0.02, result.get(0).getBalance());
+    }
+
+    private static List<DiagramData> expectedDiagram(LocalDate[] dates, long[] amounts, TypeMovement[] types,
+                                                     DiagramQuery query, Granularity granularity) {
+        TreeMap<LocalDate, Long> balances = new TreeMap<>();
+        for (int i = 0; i < dates.length; i++) {
+            if (query.contains(dates[i].toEpochDay())) {
+                LocalDate start = switch (granularity) {
+                    case DAY -> dates[i];
+                    case WEEK -> dates[i].with(DayOfWeek.MONDAY);
+                    case MONTH -> dates[i].withDayOfMonth(1);
+                    case QUARTER -> dates[i].withDayOfMonth(1).withMonth((dates[i].getMonthValue() - 1) / 3 * 3 + 1);
+                    case YEAR -> dates[i].withDayOfYear(1);
+                };
+                balances.merge(start, types[i] == TypeMovement.INCOME ? amounts[i] : -amounts[i], Long::sum);
+            }
+        }
+        List<DiagramData> expected = new ArrayList<>();
+        balances.forEach((start, balance) -> {
+            DiagramData data = new DiagramData();
+            data.setDate(Date.from(start.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            data.setBalance(balance / 100.0);
+            expected.add(data);
+        });
+        return expected;
+    }
 }
@@ -0,0 +1,112 @@
+package com.example.services;
+
+import com.example.models.DiagramData;
+import com.example.models.Granularity;
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PeriodBalancesTest {
+
+    private static int monthIndex(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    @Test
+    public void epochDayOfUsesTimeZone() {
+        TimeZone zone = TimeZone.getTimeZone("Europe/Kyiv");
+        long epochMilli = LocalDate.of(2023, 2, 1).atStartOfDay(ZoneId.of("Europe/Kyiv")).toInstant().toEpochMilli();
+
+        assertEquals(LocalDate.of(2023, 2, 1).toEpochDay(), PeriodBalances.epochDayOf(epochMilli, zone));
+        assertEquals(LocalDate.of(2023, 1, 31).toEpochDay(), PeriodBalances.epochDayOf(epochMilli - 1, zone));
+        assertEquals(LocalDate.of(2023, 1, 31).toEpochDay(),
+                PeriodBalances.epochDayOf(epochMilli, TimeZone.getTimeZone("UTC")));
+        assertEquals(-1, PeriodBalances.epochDayOf(-1, TimeZone.getTimeZone("UTC")));
+    }
+
+    @Test
+    public void toDiagramDataIsSortedAndSkipsEmptyMonths() throws Exception {
+        PeriodBalances periodBalances = new PeriodBalances(Granularity.MONTH);
+        periodBalances.add(monthIndex(LocalDate.of(2023, 6, 1)), 1000);
+        periodBalances.add(monthIndex(LocalDate.of(2021, 1, 1)), -250);
+        periodBalances.add(monthIndex(LocalDate.of(2030, 12, 1)), 1);
+        periodBalances.add(monthIndex(LocalDate.of(2023, 6, 1)), 55);
+        periodBalances.add(monthIndex(LocalDate.of(2021, 3, 1)), 0);
+
+        List<DiagramData> result = periodBalances.toDiagramData();
+
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+        assertEquals(4, result.size());
+        assertEquals(formatter.parse("2021-01-01"), result.get(0).getDate());
+        assertEquals(-2.5, result.get(0).getBalance());
+        assertEquals(formatter.parse("2021-03-01"), result.get(1).getDate());
+        assertEquals(0.0, result.get(1).getBalance());
+        assertEquals(formatter.parse("2023-06-01"), result.get(2).getDate());
+        assertEquals(10.55, result.get(2).getBalance());
+        assertEquals(formatter.parse("2030-12-01"), result.get(3).getDate());
+        assertEquals(0.01, result.get(3).getBalance());
+    }
+
+    @Test
+    public void addAllMergesBalances() {
+        PeriodBalances first = new PeriodBalances(Granularity.MONTH);
+        first.add(100, 10);
+        first.add(105, 20);
+        PeriodBalances second = new PeriodBalances(Granularity.MONTH);
+        second.add(90, 5);
+        second.add(105, 7);
+
+        first.addAll(second);
+
+        List<DiagramData> result = first.toDiagramData();
+        assertEquals(3, result.size());
+        assertEquals(0.05, result.get(0).getBalance());
+        assertEquals(0.1, result.get(1).getBalance());
+        assertEquals(0.27, result.get(2).getBalance());
+    }
+
+    @Test
+    public void toDiagramDataDatesWeeksOnMonday() throws Exception {
+        PeriodBalances periodBalances = new PeriodBalances(Granularity.WEEK);
+        periodBalances.add(Granularity.WEEK.periodOfEpochDay(LocalDate.of(2024, 1, 3).toEpochDay()), 100);
+        periodBalances.add(Granularity.WEEK.periodOfEpochDay(LocalDate.of(2024, 1, 7).toEpochDay()), 100);
+        periodBalances.add(Granularity.WEEK.periodOfEpochDay(LocalDate.of(2024, 1, 8).toEpochDay()), 5);
+
+        List<DiagramData> result = periodBalances.toDiagramData();
+
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+        assertEquals(2, result.size());
+        assertEquals(formatter.parse("2024-01-01"), result.get(0).getDate());
+        assertEquals(2.0, result.get(0).getBalance());
+        assertEquals(formatter.parse("2024-01-08"), result.get(1).getDate());
+        assertEquals(0.05, result.get(1).getBalance());
+    }
+
+    @Test
+    public void emptyBalancesProduceNoData() {
+        assertTrue(new PeriodBalances(Granularity.MONTH).toDiagramData().isEmpty());
+    }
+
+    @Test
+    public void addRejectsTooLongSpan() {
+        PeriodBalances periodBalances = new PeriodBalances(Granularity.MONTH);
+        periodBalances.add(0, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> periodBalances.add(500_000, 1));
+        assertThrows(IllegalArgumentException.class, () -> periodBalances.add(-500_000, 1));
+    }
+
+    @Test
+    public void addOverflowThrows() {
+        PeriodBalances periodBalances = new PeriodBalances(Granularity.MONTH);
+        periodBalances.add(0, Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> periodBalances.add(0, 1));
+    }
+}